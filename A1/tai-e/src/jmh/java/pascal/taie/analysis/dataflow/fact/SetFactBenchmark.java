@@ -0,0 +1,102 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Microbenchmarks of the operations of {@link SetFact} which are
+ * frequently used by data-flow analyses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SetFactBenchmark {
+
+    @Param({"8", "64", "1024"})
+    private int size;
+
+    private SetFact<Integer> fact1;
+
+    /**
+     * Half of the elements of fact2 are also in fact1.
+     */
+    private SetFact<Integer> fact2;
+
+    @Setup
+    public void setUp() {
+        fact1 = new SetFact<>(IntStream.range(0, size).boxed().toList());
+        fact2 = new SetFact<>(IntStream.range(size / 2, size + size / 2)
+                .boxed().toList());
+    }
+
+    @Benchmark
+    public SetFact<Integer> copy() {
+        return fact1.copy();
+    }
+
+    @Benchmark
+    public SetFact<Integer> union() {
+        SetFact<Integer> result = fact1.copy();
+        result.union(fact2);
+        return result;
+    }
+
+    @Benchmark
+    public SetFact<Integer> intersect() {
+        SetFact<Integer> result = fact1.copy();
+        result.intersect(fact2);
+        return result;
+    }
+
+    @Benchmark
+    public SetFact<Integer> addAndRemove() {
+        SetFact<Integer> result = fact1.copy();
+        for (int i = 0; i < size; ++i) {
+            result.remove(i);
+            result.add(i + size);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public boolean equalsCopy() {
+        return fact1.equals(fact1.copy());
+    }
+}
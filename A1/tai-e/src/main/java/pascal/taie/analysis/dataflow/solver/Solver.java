@@ -25,6 +25,9 @@ package pascal.taie.analysis.dataflow.solver;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.ConfigException;
+
+import javax.annotation.Nullable;
 
 /**
  * Base class for data-flow analysis solver, which provides common
@@ -49,6 +52,22 @@ public abstract class Solver<Node, Fact> {
         return new IterativeSolver<>(analysis);
     }
 
+    /**
+     * Static factory method to create a new solver for given analysis
+     * with given iteration strategy, i.e., "iterative" (default)
+     * or "wto" (weak topological ordering).
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis, @Nullable String strategy) {
+        if (strategy == null || strategy.equals("iterative")) {
+            return makeSolver(analysis);
+        } else if (strategy.equals("wto")) {
+            return new WTOSolver<>(analysis);
+        } else {
+            throw new ConfigException("Unknown solver strategy: " + strategy);
+        }
+    }
+
     /**
      * Starts this solver on the given CFG.
      *
@@ -28,8 +28,16 @@ import pascal.taie.analysis.Tests;
 public class LiveVarTest {
 
     void testLV(String inputClass) {
+        testLV(inputClass, "");
+    }
+
+    /**
+     * Tests with additional options of livevar, e.g., ";solver:wto",
+     * which should not change the expected results.
+     */
+    void testLV(String inputClass, String opts) {
         Tests.test(inputClass, "src/test/resources/dataflow/livevar",
-                LiveVariableAnalysis.ID, "strongly:false");
+                LiveVariableAnalysis.ID, "strongly:false" + opts);
     }
 
     @Test
@@ -61,4 +69,34 @@ public class LiveVarTest {
     public void Reference() {
         testLV("Reference");
     }
+
+    @Test
+    public void testAssignWTO() {
+        testLV("Assign", ";solver:wto");
+    }
+
+    @Test
+    public void testBranchWTO() {
+        testLV("Branch", ";solver:wto");
+    }
+
+    @Test
+    public void testBranchLoopWTO() {
+        testLV("BranchLoop", ";solver:wto");
+    }
+
+    @Test
+    public void testArrayWTO() {
+        testLV("Array", ";solver:wto");
+    }
+
+    @Test
+    public void testFibonacciWTO() {
+        testLV("Fibonacci", ";solver:wto");
+    }
+
+    @Test
+    public void testReferenceWTO() {
+        testLV("Reference", ";solver:wto");
+    }
 }
@@ -7,10 +7,23 @@ repositories {
     mavenCentral()
 }
 
+// JMH benchmarks are in source set "jmh" (src/jmh/java); the helpers
+// shared by all assignments are in ../../jmh/java
+val jmh: SourceSet by sourceSets.creating {
+    java.srcDir("../../jmh/java")
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[jmh.implementationConfigurationName]
+    .extendsFrom(configurations.implementation.get())
+
 dependencies {
     implementation(files("lib/tai-e-assignment.jar"))
     implementation(files("../../lib/dependencies.jar"))
     testImplementation("junit:junit:4.13")
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 application {
@@ -19,12 +32,28 @@ application {
 
 tasks.compileJava { options.encoding = "UTF-8" }
 tasks.compileTestJava { options.encoding = "UTF-8" }
+tasks.named<JavaCompile>(jmh.compileJavaTaskName) { options.encoding = "UTF-8" }
 
 tasks.test {
     useJUnit()
     maxHeapSize = "4G"
 }
 
+// Runs the benchmarks and writes the results to build/reports/jmh/results.json.
+// Use -Pjmh.include=<regex> to select benchmarks, and -Pjmh.args="..." to
+// pass other JMH options, e.g., -Pjmh.args="-p program=<dir>/<Main>".
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks."
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    val results = layout.buildDirectory.file("reports/jmh/results.json").get().asFile
+    doFirst { results.parentFile.mkdirs() }
+    findProperty("jmh.include")?.let { args(it.toString()) }
+    findProperty("jmh.args")?.let { args(it.toString().split(" ").filter(String::isNotBlank)) }
+    args("-rf", "json", "-rff", results.absolutePath)
+}
+
 java {
     toolchain {
         languageVersion.set(JavaLanguageVersion.of(17))
@@ -0,0 +1,110 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmarks of the operations of {@link CPFact} which are
+ * frequently used by constant propagation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CPFactBenchmark {
+
+    @Param({"8", "64", "1024"})
+    private int size;
+
+    private ConstantPropagation analysis;
+
+    private Var[] vars;
+
+    private CPFact fact1;
+
+    /**
+     * Half of the variables of fact2 are mapped to values
+     * different from the ones in fact1.
+     */
+    private CPFact fact2;
+
+    @Setup
+    public void setUp() {
+        analysis = new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID, "edge-refine", false));
+        vars = new Var[size];
+        fact1 = new CPFact();
+        fact2 = new CPFact();
+        for (int i = 0; i < size; ++i) {
+            vars[i] = new Var(null, "v" + i, PrimitiveType.INT, i);
+            fact1.update(vars[i], Value.makeConstant(i));
+            fact2.update(vars[i], Value.makeConstant(i < size / 2 ? i : -i));
+        }
+    }
+
+    @Benchmark
+    public CPFact copy() {
+        return fact1.copy();
+    }
+
+    @Benchmark
+    public CPFact meetInto() {
+        CPFact result = fact1.copy();
+        analysis.meetInto(fact2, result);
+        return result;
+    }
+
+    @Benchmark
+    public int updateAndGet() {
+        CPFact result = new CPFact();
+        int sum = 0;
+        for (Var var : vars) {
+            result.update(var, Value.getNAC());
+            sum += result.get(var).isNAC() ? 1 : 0;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public boolean equalsCopy() {
+        return fact1.equals(fact1.copy());
+    }
+}
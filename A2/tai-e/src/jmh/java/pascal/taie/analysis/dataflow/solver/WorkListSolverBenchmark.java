@@ -0,0 +1,98 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pascal.taie.analysis.Benchmarks;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link WorkListSolver} by solving constant propagation
+ * on all methods of a program. The CFGs are built before measurement.
+ * <p>
+ * Larger programs can be specified by JMH option
+ * {@code -p program=<class-path>/<main-class>}, and the scaling curve
+ * can be measured on generated programs of different sizes, e.g.,
+ * {@code -p program=gen:straight-line:1000,gen:straight-line:10000}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4G")
+@State(Scope.Benchmark)
+public class WorkListSolverBenchmark {
+
+    @Param({
+            "src/test/resources/dataflow/constprop/Assign",
+            "src/test/resources/dataflow/constprop/BranchConstant",
+            "src/test/resources/dataflow/constprop/Interprocedural",
+            "gen:straight-line:100",
+            "gen:straight-line:1000",
+    })
+    private String program;
+
+    private ConstantPropagation analysis;
+
+    private List<CFG<Stmt>> cfgs;
+
+    @Setup
+    public void setUp() {
+        Benchmarks.buildWorld(program, CFGBuilder.ID);
+        analysis = new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID, "edge-refine", false));
+        cfgs = Benchmarks.getAppMethods()
+                .stream()
+                .map(m -> m.getIR().<CFG<Stmt>>getResult(CFGBuilder.ID))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Benchmark
+    public void solve(Blackhole bh) {
+        for (CFG<Stmt> cfg : cfgs) {
+            Solver<Stmt, CPFact> solver = new WorkListSolver<>(analysis);
+            bh.consume(solver.solve(cfg));
+        }
+    }
+}
@@ -37,6 +37,8 @@ public class DataflowResult<Node, Fact> implements NodeResult<Node, Fact> {
 
     private final Map<Node, Fact> outFacts = new LinkedHashMap<>();
 
+    private boolean partial;
+
     /**
      * @return the flowing-in fact of given node.
      */
@@ -66,4 +68,19 @@ public class DataflowResult<Node, Fact> implements NodeResult<Node, Fact> {
     public void setOutFact(Node node, Fact fact) {
         outFacts.put(node, fact);
     }
+
+    /**
+     * @return true if the solver is stopped (e.g., cancelled or timed out)
+     * before reaching the fixed point, so that the facts are incomplete.
+     */
+    public boolean isPartial() {
+        return partial;
+    }
+
+    /**
+     * Marks this result as partial.
+     */
+    public void setPartial() {
+        partial = true;
+    }
 }
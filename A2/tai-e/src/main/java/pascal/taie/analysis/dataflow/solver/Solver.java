@@ -25,6 +25,8 @@ package pascal.taie.analysis.dataflow.solver;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.Instrumentation;
+import pascal.taie.util.Progress;
 
 /**
  * Base class for data-flow analysis solver, which provides common
@@ -37,8 +39,20 @@ public abstract class Solver<Node, Fact> {
 
     protected final DataflowAnalysis<Node, Fact> analysis;
 
+    protected final Instrumentation instrumentation;
+
+    protected final Progress progress;
+
     protected Solver(DataflowAnalysis<Node, Fact> analysis) {
+        this(analysis, new Instrumentation(Solver.class.getSimpleName(), false),
+                new Progress(Solver.class.getSimpleName(), null, 0, null, 0));
+    }
+
+    protected Solver(DataflowAnalysis<Node, Fact> analysis,
+                     Instrumentation instrumentation, Progress progress) {
         this.analysis = analysis;
+        this.instrumentation = instrumentation;
+        this.progress = progress;
     }
 
     /**
@@ -49,15 +63,39 @@ public abstract class Solver<Node, Fact> {
         return new WorkListSolver<>(analysis);
     }
 
+    /**
+     * Static factory method to create a new solver for given analysis,
+     * which reports what it does to given instrumentation, and reports
+     * its progress to given progress.
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis,
+            Instrumentation instrumentation, Progress progress) {
+        return new WorkListSolver<>(analysis, instrumentation, progress);
+    }
+
     /**
      * Starts this solver on the given CFG.
      *
+     * If the solver is stopped (e.g., cancelled) before solving,
+     * the initialized result is returned as a partial result, so that
+     * the analysis on the remaining CFGs finishes quickly.
+     *
      * @param cfg control-flow graph where the analysis is performed on
      * @return the analysis result
      */
     public DataflowResult<Node, Fact> solve(CFG<Node> cfg) {
+        Instrumentation.Phase phase = instrumentation.startPhase("initialize");
         DataflowResult<Node, Fact> result = initialize(cfg);
+        phase.close();
+        if (progress.isStopped()) {
+            result.setPartial();
+            return result;
+        }
+        phase = instrumentation.startPhase("solve");
         doSolve(cfg, result);
+        phase.close();
+        instrumentation.finish(cfg.getMethod());
         return result;
     }
 
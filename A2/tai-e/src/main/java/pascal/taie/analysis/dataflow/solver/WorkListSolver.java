@@ -25,6 +25,8 @@ package pascal.taie.analysis.dataflow.solver;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.Instrumentation;
+import pascal.taie.util.Progress;
 
 import java.util.LinkedList;
 import java.util.Queue;
@@ -35,21 +37,33 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
         super(analysis);
     }
 
+    WorkListSolver(DataflowAnalysis<Node, Fact> analysis,
+                   Instrumentation instrumentation, Progress progress) {
+        super(analysis, instrumentation, progress);
+    }
+
     @Override
     protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me
         // worklist
         Queue<Node> workList = new LinkedList<>(cfg.getNodes());
+        progress.start(workList::size, null);
         while (!workList.isEmpty()){
             Node node = workList.poll();
+            instrumentation.onPoll();
             Fact inFact = result.getInFact(node);
             Fact outFact = result.getOutFact(node);
             for (Node pred:cfg.getPredsOf(node)) {
                 analysis.meetInto(result.getOutFact(pred), inFact);
             }
+            instrumentation.onTransfer(node);
             if(analysis.transferNode(node, inFact, outFact)){
                 workList.addAll(cfg.getSuccsOf(node));
             }
+            if (!progress.step()) {
+                result.setPartial();
+                break;
+            }
         }
     }
 
@@ -61,6 +61,38 @@ public final class Tests {
      * @param opts      options for the analysis
      */
     public static void test(String main, String classPath, String id, String... opts) {
+        String action = GENERATE_EXPECTED_RESULTS ? "dump" : "compare";
+        String file = getExpectedFile(classPath, main, id);
+        Set<String> mismatches = run(main, classPath, id,
+                String.format("action:%s;file:%s", action, file), opts);
+        if (action.equals("compare")) {
+            Assert.assertTrue("Mismatches of analysis \"" + id + "\":\n" +
+                            String.join("\n", mismatches),
+                    mismatches.isEmpty());
+        }
+    }
+
+    /**
+     * Starts an analysis for a specific test case, and compares its results
+     * with given file by content hashes, i.e., with option compare-mode:hash.
+     *
+     * @param file the file of the results to be compared
+     * @return the mismatches of the results.
+     */
+    public static Set<String> testHash(String main, String classPath, String id,
+                                       String file, String... opts) {
+        return run(main, classPath, id,
+                "action:compare;compare-mode:hash;file:" + file, opts);
+    }
+
+    /**
+     * Runs an analysis and processes its results with given options
+     * of {@link ResultProcessor}.
+     *
+     * @return the mismatches of the results.
+     */
+    private static Set<String> run(String main, String classPath, String id,
+                                   String processOpts, String... opts) {
         List<String> args = new ArrayList<>();
         args.add("-pp");
         Collections.addAll(args, "-cp", classPath);
@@ -81,18 +113,11 @@ public final class Tests {
             Collections.addAll(args, opts);
         }
         // set up result processor
-        String action = GENERATE_EXPECTED_RESULTS ? "dump" : "compare";
-        String file = getExpectedFile(classPath, main, id);
-        String processArg = String.format("%s=analyses:[%s];action:%s;file:%s",
-                ResultProcessor.ID, id, action, file);
+        String processArg = String.format("%s=analyses:[%s];%s",
+                ResultProcessor.ID, id, processOpts);
         Collections.addAll(args, "-a", processArg);
         Main.main(args.toArray(new String[0]));
-        if (action.equals("compare")) {
-            Set<String> mismatches = World.get().getResult(ResultProcessor.ID);
-            Assert.assertTrue("Mismatches of analysis \"" + id + "\":\n" +
-                            String.join("\n", mismatches),
-                    mismatches.isEmpty());
-        }
+        return World.get().getResult(ResultProcessor.ID);
     }
 
     public static void testPTA(String dir, String main, String... opts) {
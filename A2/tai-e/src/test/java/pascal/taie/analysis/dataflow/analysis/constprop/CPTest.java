@@ -22,8 +22,17 @@
 
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
+import org.junit.Assert;
 import org.junit.Test;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.Progress;
+
+import java.util.Set;
 
 public class CPTest {
 
@@ -66,4 +75,35 @@ public class CPTest {
     public void testInterprocedural() {
         testCP("Interprocedural");
     }
+
+    @Test
+    public void testHashCompare() {
+        String classPath = "src/test/resources/dataflow/constprop/";
+        Assert.assertTrue(Tests.testHash("Assign", classPath,
+                ConstantPropagation.ID, classPath + "Assign-constprop-expected.txt",
+                "edge-refine:false").isEmpty());
+        // the changed method differs in hash, and is then compared as text
+        Set<String> mismatches = Tests.testHash("Assign", classPath,
+                ConstantPropagation.ID, classPath + "Assign-constprop-changed.txt",
+                "edge-refine:false");
+        Assert.assertEquals(Set.of("<Assign: void assign()> [3@L7] x = 4;" +
+                " expected: {x=5}, given: {x=4}"), mismatches);
+    }
+
+    @Test
+    public void testCancelled() {
+        testCP("Assign");
+        IR ir = World.get().getMainMethod().getIR();
+        DataflowResult<Stmt, CPFact> result = new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID, "edge-refine", false))
+                .analyze(ir);
+        Assert.assertFalse(result.isPartial());
+        Progress.CancellationToken token = new Progress.CancellationToken();
+        token.cancel();
+        result = new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID, "edge-refine", false,
+                        "cancellation-token", token))
+                .analyze(ir);
+        Assert.assertTrue(result.isPartial());
+    }
 }
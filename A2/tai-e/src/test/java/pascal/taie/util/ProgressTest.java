@@ -0,0 +1,76 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProgressTest {
+
+    @Test
+    public void testNoLimit() {
+        Progress progress = new Progress("test", null, 0, null, 0);
+        for (int i = 0; i < 10_000; ++i) {
+            Assert.assertTrue(progress.step());
+        }
+        Assert.assertFalse(progress.isStopped());
+        Assert.assertNull(progress.getStopReason());
+    }
+
+    @Test
+    public void testCancel() {
+        Progress.CancellationToken token = new Progress.CancellationToken();
+        Progress progress = new Progress("test", null, 0, token, 0);
+        Assert.assertTrue(progress.step());
+        token.cancel();
+        Assert.assertTrue(progress.isStopped());
+        Assert.assertEquals("cancelled", progress.getStopReason());
+        Assert.assertFalse(progress.step());
+    }
+
+    @Test
+    public void testTimeout() throws InterruptedException {
+        Progress progress = new Progress("test", null, 0, null, 1);
+        Assert.assertFalse(progress.isStopped());
+        Thread.sleep(1100);
+        Assert.assertTrue(progress.isStopped());
+        Assert.assertEquals("timeout", progress.getStopReason());
+    }
+
+    @Test
+    public void testReport() {
+        List<Progress.Report> reports = new ArrayList<>();
+        Progress progress = new Progress("test", reports::add, 10, null, 0);
+        progress.start(() -> 5, null);
+        for (int i = 0; i < 25; ++i) {
+            progress.step();
+        }
+        Assert.assertEquals(2, reports.size());
+        Assert.assertEquals(20, reports.get(1).processed());
+        Assert.assertEquals(5, reports.get(1).workListSize());
+        Assert.assertEquals(-1, reports.get(1).reachableMethods());
+    }
+}
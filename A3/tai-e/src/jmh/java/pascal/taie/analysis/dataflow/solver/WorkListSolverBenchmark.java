@@ -0,0 +1,189 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pascal.taie.analysis.Benchmarks;
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link WorkListSolver} by solving constant propagation
+ * (forward) or live variable analysis (backward) on all methods of
+ * a program. The CFGs are built before measurement.
+ * <p>
+ * The iteration strategy is specified by parameter {@code solver}
+ * (see {@link Solver#makeSolver(DataflowAnalysis, String)}), and the number
+ * of transfer calls per operation is reported as counter {@code transfers},
+ * e.g., on loop-heavy methods such as {@code Loops}, "wto" needs
+ * fewer transfers than "worklist".
+ * <p>
+ * Larger programs can be specified by JMH option
+ * {@code -p program=<class-path>/<main-class>}, and the scaling curve
+ * can be measured on generated programs of different sizes, e.g.,
+ * {@code -p program=gen:straight-line:1000,gen:straight-line:10000}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4G")
+@State(Scope.Benchmark)
+public class WorkListSolverBenchmark {
+
+    @Param({
+            "src/test/resources/dataflow/deadcode/Loops",
+            "src/test/resources/dataflow/deadcode/ControlFlowUnreachable",
+            "gen:straight-line:100",
+            "gen:straight-line:1000",
+    })
+    private String program;
+
+    @Param({ConstantPropagation.ID, LiveVariableAnalysis.ID})
+    private String analysis;
+
+    @Param({"worklist", "wto"})
+    private String solver;
+
+    private CountingAnalysis<Stmt, ?> counting;
+
+    private List<CFG<Stmt>> cfgs;
+
+    @Setup
+    public void setUp() {
+        Benchmarks.buildWorld(program, CFGBuilder.ID);
+        counting = analysis.equals(ConstantPropagation.ID)
+                ? new CountingAnalysis<>(new ConstantPropagation(new AnalysisConfig(
+                        ConstantPropagation.ID, "edge-refine", false)))
+                : new CountingAnalysis<>(new LiveVariableAnalysis(new AnalysisConfig(
+                        LiveVariableAnalysis.ID, "strongly", false)));
+        cfgs = Benchmarks.getAppMethods()
+                .stream()
+                .map(m -> m.getIR().<CFG<Stmt>>getResult(CFGBuilder.ID))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Benchmark
+    public void solve(Counters counters, Blackhole bh) {
+        counting.transfers = 0;
+        solve(counting, bh);
+        counters.transfers += counting.transfers;
+    }
+
+    private <Fact> void solve(CountingAnalysis<Stmt, Fact> analysis, Blackhole bh) {
+        for (CFG<Stmt> cfg : cfgs) {
+            Solver<Stmt, Fact> s = Solver.makeSolver(analysis, solver);
+            bh.consume(s.solve(cfg));
+        }
+    }
+
+    /**
+     * Counters reported by JMH in addition to the time.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counters {
+
+        public long transfers;
+    }
+
+    /**
+     * Delegates to an analysis and counts the transfer calls.
+     */
+    private static class CountingAnalysis<Node, Fact>
+            implements DataflowAnalysis<Node, Fact> {
+
+        private final DataflowAnalysis<Node, Fact> analysis;
+
+        private long transfers;
+
+        private CountingAnalysis(DataflowAnalysis<Node, Fact> analysis) {
+            this.analysis = analysis;
+        }
+
+        @Override
+        public boolean isForward() {
+            return analysis.isForward();
+        }
+
+        @Override
+        public Fact newBoundaryFact(CFG<Node> cfg) {
+            return analysis.newBoundaryFact(cfg);
+        }
+
+        @Override
+        public Fact newInitialFact() {
+            return analysis.newInitialFact();
+        }
+
+        @Override
+        public void meetInto(Fact fact, Fact target) {
+            analysis.meetInto(fact, target);
+        }
+
+        @Override
+        public boolean transferNode(Node node, Fact in, Fact out) {
+            ++transfers;
+            return analysis.transferNode(node, in, out);
+        }
+
+        @Override
+        public boolean transferNode(CFG<Node> cfg, Node node, Fact in, Fact out) {
+            ++transfers;
+            return analysis.transferNode(cfg, node, in, out);
+        }
+
+        @Override
+        public boolean needTransferEdge(Edge<Node> edge) {
+            return analysis.needTransferEdge(edge);
+        }
+
+        @Override
+        public Fact transferEdge(Edge<Node> edge, Fact nodeFact) {
+            return analysis.transferEdge(edge, nodeFact);
+        }
+    }
+}
@@ -30,21 +30,27 @@ import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
+import pascal.taie.util.Progress;
 
 public abstract class AbstractDataflowAnalysis<Node, Fact>
         extends MethodAnalysis
         implements DataflowAnalysis<Node, Fact> {
 
-    private final Solver<Node, Fact> solver;
-
     protected AbstractDataflowAnalysis(AnalysisConfig config) {
         super(config);
-        solver = Solver.makeSolver(this);
     }
 
+    /**
+     * Methods may be analyzed in parallel, thus each of them is solved
+     * by a new solver with its own progress. The timeout applies to
+     * each method.
+     */
     @Override
     public DataflowResult<Node, Fact> analyze(IR ir) {
         CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
+        Solver<Node, Fact> solver = Solver.makeSolver(this,
+                getOptions().getString("solver"),
+                Progress.make(getId(), getOptions()));
         return solver.solve(cfg);
     }
 
@@ -64,6 +64,16 @@ public interface DataflowAnalysis<Node, Fact> {
      */
     boolean transferNode(Node node, Fact in, Fact out);
 
+    /**
+     * Node Transfer function that additionally receives the CFG being
+     * solved, so that the analysis can look up per-method results
+     * such as {@link pascal.taie.ir.DefUse}. The solvers call this method,
+     * which by default just calls {@link #transferNode(Object, Object, Object)}.
+     */
+    default boolean transferNode(CFG<Node> cfg, Node node, Fact in, Fact out) {
+        return transferNode(node, in, out);
+    }
+
     /**
      * @return true if this analysis needs to perform transfer for given edge, otherwise false.
      */
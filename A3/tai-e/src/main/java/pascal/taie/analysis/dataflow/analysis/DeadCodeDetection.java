@@ -25,6 +25,7 @@ package pascal.taie.analysis.dataflow.analysis;
 import pascal.taie.analysis.MethodAnalysis;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.SCCPResult;
 import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.dataflow.fact.SetFact;
@@ -32,6 +33,7 @@ import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.DefUse;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
 import pascal.taie.ir.stmt.*;
@@ -57,9 +59,22 @@ public class DeadCodeDetection extends MethodAnalysis {
         // obtain result of live variable analysis
         DataflowResult<Stmt, SetFact<Var>> liveVars =
                 ir.getResult(LiveVariableAnalysis.ID);
+        DefUse defUse = DefUse.of(ir);
         // keep statements (dead code) sorted in the resulting set
         Set<Stmt> deadCode = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
         // TODO - finish me
+        if (constants instanceof SCCPResult sccp) {
+            // sparse constant propagation has found the unreachable code
+            for (Stmt stmt : cfg) {
+                if (cfg.isEntry(stmt) || cfg.isExit(stmt)) {
+                    continue;
+                }
+                if (!sccp.isExecutable(stmt) || isDeadAssignment(stmt, defUse, liveVars)) {
+                    deadCode.add(stmt);
+                }
+            }
+            return deadCode;
+        }
 
         Set<Stmt> liveCode = new HashSet<>();
         Queue<Stmt> liveStmts = new LinkedList<>();
@@ -77,10 +92,7 @@ public class DeadCodeDetection extends MethodAnalysis {
                 liveCode.add(stmt);
             }
             if (stmt instanceof AssignStmt<?, ?>) {
-                LValue lValue = ((AssignStmt<?, ?>) stmt).getLValue();
-                RValue rValue = ((AssignStmt<?, ?>) stmt).getRValue();
-                SetFact<Var> varSetFact = liveVars.getOutFact(stmt);
-                if (lValue instanceof Var && !varSetFact.contains((Var) lValue) && hasNoSideEffect(rValue)) {
+                if (isDeadAssignment(stmt, defUse, liveVars)) {
                     deadCode.add(stmt);
                 }
             } else if (stmt instanceof If) {
@@ -145,6 +157,18 @@ public class DeadCodeDetection extends MethodAnalysis {
         return deadCode;
     }
 
+    /**
+     * @return true if given statement assigns a variable that is not live
+     * after the statement, and the assignment has no side effect.
+     */
+    private static boolean isDeadAssignment(Stmt stmt, DefUse defUse,
+            DataflowResult<Stmt, SetFact<Var>> liveVars) {
+        Var def = defUse.getDef(stmt);
+        return def != null && stmt instanceof AssignStmt<?, ?> assign
+                && !liveVars.getOutFact(stmt).contains(def)
+                && hasNoSideEffect(assign.getRValue());
+    }
+
     /**
      * @return true if given RValue has no side effect, otherwise false.
      */
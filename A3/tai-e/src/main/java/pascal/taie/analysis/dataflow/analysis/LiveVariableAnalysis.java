@@ -25,9 +25,13 @@ package pascal.taie.analysis.dataflow.analysis;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.DefUse;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Stmt;
 
+import javax.annotation.Nullable;
+import java.util.List;
+
 /**
  * Implementation of classic live variable analysis.
  */
@@ -66,37 +70,35 @@ public class LiveVariableAnalysis extends
     // if in(out) changed, return true, else false
     @Override
     public boolean transferNode(Stmt stmt, SetFact<Var> in, SetFact<Var> out) {
-        // record previous in
+        Var def = stmt.getDef().orElse(null) instanceof Var var ? var : null;
+        List<Var> uses = stmt.getUses()
+                .stream()
+                .filter(Var.class::isInstance)
+                .map(Var.class::cast)
+                .toList();
+        return transfer(def, uses, in, out);
+    }
+
+    /**
+     * Same as {@link #transferNode(Stmt, SetFact, SetFact)}, but looks up
+     * the def/uses of the statement in the cached {@link DefUse} index.
+     */
+    @Override
+    public boolean transferNode(CFG<Stmt> cfg, Stmt stmt,
+                                SetFact<Var> in, SetFact<Var> out) {
+        DefUse defUse = DefUse.of(cfg.getIR());
+        return transfer(defUse.getDef(stmt), defUse.getUses(stmt), in, out);
+    }
+
+    private static boolean transfer(@Nullable Var def, List<Var> uses,
+                                    SetFact<Var> in, SetFact<Var> out) {
+        // IN[B] = use_B U (OUT[B] - def_B)
         SetFact<Var> origin = in.copy();
-        // OUT[B]. but already exist item in "in" would not be removed, so use union is also ok
         in.set(out);
-        // -def_B
-//        if(stmt.getDef().isPresent()){
-//            LValue def = stmt.getDef().orElse(null);
-//            if(def instanceof Var){
-//                in.remove((Var) def);
-//            }
-//        }
-        // more elegant version from rmb
-        stmt.getDef().ifPresent(def -> {
-            if(def instanceof Var){
-                in.remove((Var) def);
-            }
-        });
-        // +use_B
-//        if(stmt.getUses().size() > 0){
-//            List<RValue> uses = stmt.getUses();
-//            for (RValue use: uses) {
-//                if (use instanceof Var) {
-//                    in.add((Var) use);
-//                }
-//            }
-//        }
-        stmt.getUses().forEach(use ->{
-            if (use instanceof Var) {
-                in.add((Var) use);
-            }
-        });
+        if (def != null) {
+            in.remove(def);
+        }
+        uses.forEach(in::add);
         return !origin.equals(in);
     }
 }
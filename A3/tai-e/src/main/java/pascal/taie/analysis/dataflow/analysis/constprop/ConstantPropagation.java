@@ -23,8 +23,12 @@
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.ssa.SSA;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.DefUse;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
 import pascal.taie.ir.stmt.DefinitionStmt;
@@ -33,8 +37,7 @@ import pascal.taie.language.type.PrimitiveType;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.AnalysisException;
 
-import java.util.List;
-import java.util.Optional;
+import javax.annotation.Nullable;
 
 import static pascal.taie.ir.exp.ArithmeticExp.Op.*;
 
@@ -43,8 +46,25 @@ public class ConstantPropagation extends
 
     public static final String ID = "constprop";
 
+    /**
+     * Whether to run {@link SparseConstantPropagation} on SSA form
+     * instead of the data-flow solver.
+     */
+    private final boolean sparse;
+
     public ConstantPropagation(AnalysisConfig config) {
         super(config);
+        sparse = "sparse".equals(getOptions().getString("algorithm"));
+    }
+
+    @Override
+    public DataflowResult<Stmt, CPFact> analyze(IR ir) {
+        if (sparse) {
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            SSA ssa = SSA.build(cfg, ConstantPropagation::canHoldInt);
+            return new SparseConstantPropagation(this, ssa).solve();
+        }
+        return super.analyze(ir);
     }
 
     @Override
@@ -108,47 +128,48 @@ public class ConstantPropagation extends
 
     @Override
     public boolean transferNode(Stmt stmt, CPFact in, CPFact out) {
-        // TODO - finish me
+        Var lValue = stmt.getDef().orElse(null) instanceof Var var ? var : null;
+        return transfer(stmt, lValue, in, out);
+    }
+
+    /**
+     * Same as {@link #transferNode(Stmt, CPFact, CPFact)}, but looks up
+     * the variable defined by the statement in the cached {@link DefUse} index.
+     */
+    @Override
+    public boolean transferNode(CFG<Stmt> cfg, Stmt stmt, CPFact in, CPFact out) {
+        return transfer(stmt, DefUse.of(cfg.getIR()).getDef(stmt), in, out);
+    }
+
+    private static boolean transfer(Stmt stmt, @Nullable Var lValue,
+                                    CPFact in, CPFact out) {
+        // x = e kills the old value of x, and generates the value of e
         CPFact origin = out.copy();
-        // copy from rmb, extremely elegant
         in.forEach(out::update);
-        // should be a defStmt first
-        if (stmt instanceof DefinitionStmt<?, ?>) {
-            // invokeStmt is DefStmt, and it doesn't have LValue
-            Optional<LValue> def = stmt.getDef();
-            if (def.isPresent()) {
-                LValue lValue = def.get();
-                if (lValue instanceof Var && canHoldInt((Var) lValue)) {
-                    // if there is `z=x+y`,rvalue will be [x,y,binaryexp]? seems exp will be the last rvalue
-                    // `y=x+1` will be changed to `tmp=1;y=x+tmp`
-                    List<RValue> rValueList = stmt.getUses();
-                    // should consider the order of rValue
-                    for (RValue rValue : rValueList) {
-                        if (rValue instanceof BinaryExp) {
-                            // check operand is number
-                            Var left = ((BinaryExp) rValue).getOperand1();
-                            Var right = ((BinaryExp) rValue).getOperand2();
-                            if (canHoldInt(left) && canHoldInt(right)) {
-                                // no need to meet value here.
-                                out.update((Var) lValue, evaluate(rValue, in));
-                            }
-                            // maybe put a break here would better
-                            break;
-                        } else if (rValue instanceof Var && canHoldInt((Var) rValue)) {
-                            out.update((Var) lValue, in.get((Var) rValue));
-                        } else if (rValue instanceof IntLiteral) {
-                            out.update((Var) lValue, Value.makeConstant(((IntLiteral) rValue).getValue()));
-                        } else {
-                            // handle other condition? like x=o.f/x=arr[index]?
-                            out.update((Var) lValue, Value.getNAC());
-                        }
-                    }
-                }
-            }
+        if (lValue != null && canHoldInt(lValue)
+                && stmt instanceof DefinitionStmt<?, ?> defStmt) {
+            out.update(lValue, evaluateRValue(defStmt.getRValue(), in));
         }
         return !origin.equals(out);
     }
 
+    /**
+     * @return the value assigned by a definition statement whose
+     * right-hand side is given {@link RValue}.
+     */
+    private static Value evaluateRValue(RValue rValue, CPFact in) {
+        if (rValue instanceof IntLiteral literal) {
+            return Value.makeConstant(literal.getValue());
+        } else if (rValue instanceof Var var) {
+            return in.get(var);
+        } else if (rValue instanceof BinaryExp binary
+                && canHoldInt(binary.getOperand1())
+                && canHoldInt(binary.getOperand2())) {
+            return evaluate(binary, in);
+        }
+        return Value.getNAC();
+    }
+
     /**
      * @return true if the given variable can hold integer value, otherwise false.
      */
@@ -0,0 +1,174 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.ssa.Dominators;
+import pascal.taie.analysis.dataflow.ssa.SSA;
+import pascal.taie.analysis.dataflow.ssa.SSA.Def;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Result of {@link SparseConstantPropagation}, which contains the values
+ * of the SSA definitions, and the executable CFG nodes and edges.
+ * <p>
+ * The per-statement {@link CPFact}s are built from the values of the
+ * SSA definitions only when they are first queried, so that the clients
+ * that only need the values of some variables, or the executable nodes
+ * (e.g., dead code detection), do not pay for dense facts.
+ * The facts of non-executable nodes are empty, i.e., all UNDEF.
+ */
+public class SCCPResult extends DataflowResult<Stmt, CPFact> {
+
+    private final SSA ssa;
+
+    private final Value[] values;
+
+    private final boolean[] executableNodes;
+
+    private final Set<Edge<Stmt>> executableEdges;
+
+    private boolean factsBuilt = false;
+
+    SCCPResult(SSA ssa, Value[] values, boolean[] executableNodes,
+               Set<Edge<Stmt>> executableEdges) {
+        this.ssa = ssa;
+        this.values = values;
+        this.executableNodes = executableNodes;
+        this.executableEdges = executableEdges;
+    }
+
+    public SSA getSSA() {
+        return ssa;
+    }
+
+    /**
+     * @return the value of given SSA definition.
+     */
+    public Value getValue(Def def) {
+        return values[def.getId()];
+    }
+
+    /**
+     * @return the value of given variable used at given statement.
+     */
+    public Value getUseValue(Stmt stmt, Var var) {
+        Def def = ssa.getUseDef(stmt, var);
+        return def != null ? values[def.getId()] : Value.getNAC();
+    }
+
+    /**
+     * @return true if given CFG node may be executed, otherwise false.
+     */
+    public boolean isExecutable(Stmt node) {
+        int i = ssa.getDominators().getIndex(node);
+        return i != -1 && executableNodes[i];
+    }
+
+    /**
+     * @return true if given CFG edge may be executed, otherwise false.
+     */
+    public boolean isExecutable(Edge<Stmt> edge) {
+        return executableEdges.contains(edge);
+    }
+
+    @Override
+    public CPFact getInFact(Stmt node) {
+        buildFacts();
+        return super.getInFact(node);
+    }
+
+    @Override
+    public CPFact getOutFact(Stmt node) {
+        buildFacts();
+        return super.getOutFact(node);
+    }
+
+    /**
+     * Builds the facts of all nodes by traversing the dominator tree
+     * with the values of the current definitions.
+     */
+    private void buildFacts() {
+        if (factsBuilt) {
+            return;
+        }
+        factsBuilt = true;
+        for (Stmt node : ssa.getCFG()) {
+            setInFact(node, new CPFact());
+            setOutFact(node, new CPFact());
+        }
+        Dominators<Stmt> dom = ssa.getDominators();
+        CPFact fact = new CPFact();
+        for (Var param : ssa.getCFG().getIR().getParams()) {
+            if (ssa.isTracked(param)) {
+                fact.update(param, getValue(ssa.getEntryDef(param)));
+            }
+        }
+        // undo log, i.e., the variables and their replaced values
+        List<Var> logVars = new ArrayList<>();
+        List<Value> logValues = new ArrayList<>();
+        int[] marks = new int[dom.size()];
+        // non-negative i for entering node i, and ~i for leaving node i
+        int[] stack = new int[dom.size() * 2];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int i = stack[--top];
+            if (i < 0) {
+                for (int j = logVars.size() - 1; j >= marks[~i]; --j) {
+                    fact.update(logVars.remove(j), logValues.remove(j));
+                }
+                continue;
+            }
+            marks[i] = logVars.size();
+            Stmt node = dom.getNode(i);
+            for (Def phi : ssa.getPhis(node)) {
+                logVars.add(phi.getVar());
+                logValues.add(fact.get(phi.getVar()));
+                fact.update(phi.getVar(), getValue(phi));
+            }
+            if (executableNodes[i]) {
+                setInFact(node, fact.copy());
+            }
+            Def def = ssa.getDef(node);
+            if (def != null) {
+                logVars.add(def.getVar());
+                logValues.add(fact.get(def.getVar()));
+                fact.update(def.getVar(), getValue(def));
+            }
+            if (executableNodes[i]) {
+                setOutFact(node, fact.copy());
+            }
+            stack[top++] = ~i;
+            for (int child : dom.getChildren(i)) {
+                stack[top++] = child;
+            }
+        }
+    }
+}
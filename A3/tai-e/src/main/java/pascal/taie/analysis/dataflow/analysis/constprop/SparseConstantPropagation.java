@@ -0,0 +1,231 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.ssa.SSA;
+import pascal.taie.analysis.dataflow.ssa.SSA.Def;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.SwitchStmt;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Sparse conditional constant propagation (Wegman and Zadeck) on
+ * {@link SSA} form. The values are propagated along def-use edges, and
+ * only over the CFG edges that have been found executable, so the cost
+ * is proportional to the def-use edges instead of nodes times variables,
+ * and the unreachable branches are found in the same pass.
+ */
+class SparseConstantPropagation {
+
+    private final ConstantPropagation cp;
+
+    private final SSA ssa;
+
+    private final CFG<Stmt> cfg;
+
+    /**
+     * Values of the definitions, indexed by {@link Def#getId()}.
+     */
+    private final Value[] values;
+
+    private final boolean[] executableNodes;
+
+    private final Set<Edge<Stmt>> executableEdges = new HashSet<>();
+
+    private final Queue<Edge<Stmt>> flowWorkList = new ArrayDeque<>();
+
+    private final Queue<Def> ssaWorkList = new ArrayDeque<>();
+
+    SparseConstantPropagation(ConstantPropagation cp, SSA ssa) {
+        this.cp = cp;
+        this.ssa = ssa;
+        this.cfg = ssa.getCFG();
+        values = new Value[ssa.getDefs().size()];
+        for (Def def : ssa.getDefs()) {
+            values[def.getId()] = Value.getUndef();
+        }
+        for (Var param : cfg.getIR().getParams()) {
+            if (ssa.isTracked(param)) {
+                values[ssa.getEntryDef(param).getId()] = Value.getNAC();
+            }
+        }
+        executableNodes = new boolean[ssa.getDominators().size()];
+    }
+
+    SCCPResult solve() {
+        markExecutable(cfg.getEntry());
+        while (!flowWorkList.isEmpty() || !ssaWorkList.isEmpty()) {
+            Edge<Stmt> edge;
+            while ((edge = flowWorkList.poll()) != null) {
+                Stmt target = edge.getTarget();
+                if (!isExecutable(target)) {
+                    markExecutable(target);
+                } else {
+                    // only the phi nodes are affected by the new edge
+                    ssa.getPhis(target).forEach(this::visitPhi);
+                }
+            }
+            Def def;
+            while ((def = ssaWorkList.poll()) != null) {
+                for (Def phi : def.getPhiUsers()) {
+                    if (isExecutable(phi.getNode())) {
+                        visitPhi(phi);
+                    }
+                }
+                for (Stmt stmt : def.getStmtUsers()) {
+                    if (isExecutable(stmt)) {
+                        visitStmt(stmt);
+                    }
+                }
+            }
+        }
+        return new SCCPResult(ssa, values, executableNodes, executableEdges);
+    }
+
+    private boolean isExecutable(Stmt node) {
+        return executableNodes[ssa.getDominators().getIndex(node)];
+    }
+
+    private void markExecutable(Stmt node) {
+        executableNodes[ssa.getDominators().getIndex(node)] = true;
+        ssa.getPhis(node).forEach(this::visitPhi);
+        visitStmt(node);
+    }
+
+    private void markExecutable(Edge<Stmt> edge) {
+        if (executableEdges.add(edge)) {
+            flowWorkList.add(edge);
+        }
+    }
+
+    private void setValue(Def def, Value value) {
+        Value old = values[def.getId()];
+        // meet with the old value, so that the values only go down
+        Value newValue = cp.meetValue(old, value);
+        if (!newValue.equals(old)) {
+            values[def.getId()] = newValue;
+            ssaWorkList.add(def);
+        }
+    }
+
+    private Value getValue(Stmt stmt, Var var) {
+        Def def = ssa.getUseDef(stmt, var);
+        return def != null ? values[def.getId()] : Value.getNAC();
+    }
+
+    private void visitPhi(Def phi) {
+        Value value = Value.getUndef();
+        int i = 0;
+        for (Edge<Stmt> edge : ssa.getInEdges(phi.getNode())) {
+            if (executableEdges.contains(edge)) {
+                value = cp.meetValue(value,
+                        values[phi.getOperand(i).getId()]);
+            }
+            ++i;
+        }
+        setValue(phi, value);
+    }
+
+    private void visitStmt(Stmt stmt) {
+        Def def = ssa.getDef(stmt);
+        if (def != null) {
+            setValue(def, evaluate(stmt));
+        }
+        if (stmt instanceof If ifStmt) {
+            Value cond = evaluate(stmt, ifStmt.getCondition());
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                boolean executable = switch (edge.getKind()) {
+                    case IF_TRUE -> cond.isNAC() ||
+                            (cond.isConstant() && cond.getConstant() != 0);
+                    case IF_FALSE -> cond.isNAC() ||
+                            (cond.isConstant() && cond.getConstant() == 0);
+                    default -> true;
+                };
+                if (executable) {
+                    markExecutable(edge);
+                }
+            }
+        } else if (stmt instanceof SwitchStmt switchStmt) {
+            Value value = getValue(stmt, switchStmt.getVar());
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                boolean executable = switch (edge.getKind()) {
+                    case SWITCH_CASE -> value.isNAC() ||
+                            (value.isConstant() &&
+                                    value.getConstant() == edge.getCaseValue());
+                    case SWITCH_DEFAULT -> value.isNAC() ||
+                            (value.isConstant() && !switchStmt.getCaseValues()
+                                    .contains(value.getConstant()));
+                    default -> true;
+                };
+                if (executable) {
+                    markExecutable(edge);
+                }
+            }
+        } else {
+            cfg.getOutEdgesOf(stmt).forEach(this::markExecutable);
+        }
+    }
+
+    /**
+     * @return the value of the variable defined by given statement.
+     */
+    private Value evaluate(Stmt stmt) {
+        if (stmt instanceof DefinitionStmt<?, ?> defStmt) {
+            return evaluate(stmt, defStmt.getRValue());
+        }
+        return Value.getNAC();
+    }
+
+    /**
+     * @return the value of given expression at given statement.
+     */
+    private Value evaluate(Stmt stmt, RValue exp) {
+        if (exp instanceof IntLiteral literal) {
+            return Value.makeConstant(literal.getValue());
+        } else if (exp instanceof Var var) {
+            return getValue(stmt, var);
+        } else if (exp instanceof BinaryExp binary) {
+            Var v1 = binary.getOperand1();
+            Var v2 = binary.getOperand2();
+            if (ssa.isTracked(v1) && ssa.isTracked(v2)) {
+                CPFact operands = new CPFact();
+                operands.update(v1, getValue(stmt, v1));
+                operands.update(v2, getValue(stmt, v2));
+                return ConstantPropagation.evaluate(binary, operands);
+            }
+        }
+        return Value.getNAC();
+    }
+}
@@ -25,6 +25,10 @@ package pascal.taie.analysis.dataflow.solver;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.ConfigException;
+import pascal.taie.util.Progress;
+
+import javax.annotation.Nullable;
 
 /**
  * Base class for data-flow analysis solver, which provides common
@@ -37,8 +41,15 @@ public abstract class Solver<Node, Fact> {
 
     protected final DataflowAnalysis<Node, Fact> analysis;
 
+    protected final Progress progress;
+
     protected Solver(DataflowAnalysis<Node, Fact> analysis) {
+        this(analysis, new Progress(Solver.class.getSimpleName(), null, 0, null, 0));
+    }
+
+    protected Solver(DataflowAnalysis<Node, Fact> analysis, Progress progress) {
         this.analysis = analysis;
+        this.progress = progress;
     }
 
     /**
@@ -49,14 +60,50 @@ public abstract class Solver<Node, Fact> {
         return new WorkListSolver<>(analysis);
     }
 
+    /**
+     * Static factory method to create a new solver for given analysis
+     * with given iteration strategy, i.e., "worklist" (default)
+     * or "wto" (weak topological ordering).
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis, @Nullable String strategy) {
+        return makeSolver(analysis, strategy,
+                new Progress(Solver.class.getSimpleName(), null, 0, null, 0));
+    }
+
+    /**
+     * Static factory method to create a new solver for given analysis
+     * with given iteration strategy, which reports its progress to
+     * given progress.
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis, @Nullable String strategy,
+            Progress progress) {
+        if (strategy == null || strategy.equals("worklist")) {
+            return new WorkListSolver<>(analysis, progress);
+        } else if (strategy.equals("wto")) {
+            return new WTOSolver<>(analysis, progress);
+        } else {
+            throw new ConfigException("Unknown solver strategy: " + strategy);
+        }
+    }
+
     /**
      * Starts this solver on the given CFG.
      *
+     * If the solver is stopped (e.g., cancelled) before solving,
+     * the initialized result is returned as a partial result, so that
+     * the analysis on the remaining CFGs finishes quickly.
+     *
      * @param cfg control-flow graph where the analysis is performed on
      * @return the analysis result
      */
     public DataflowResult<Node, Fact> solve(CFG<Node> cfg) {
         DataflowResult<Node, Fact> result = initialize(cfg);
+        if (progress.isStopped()) {
+            result.setPartial();
+            return result;
+        }
         doSolve(cfg, result);
         return result;
     }
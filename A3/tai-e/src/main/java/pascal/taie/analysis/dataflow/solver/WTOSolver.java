@@ -0,0 +1,119 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.Progress;
+
+import java.util.List;
+
+/**
+ * Solver that visits the nodes in a weak topological ordering
+ * (Bourdoncle's recursive iteration strategy).
+ * Nested loops are stabilized innermost-first, and the stabilization
+ * of each loop is checked only at its head, so that acyclic code is
+ * transferred only once and loop bodies are not re-analyzed unless
+ * the fact of the loop head changes.
+ */
+class WTOSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    WTOSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+    }
+
+    WTOSolver(DataflowAnalysis<Node, Fact> analysis, Progress progress) {
+        super(analysis, progress);
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        WeakTopologicalOrder<Node> wto = new WeakTopologicalOrder<>(
+                cfg.getNodes(), List.of(cfg.getEntry()), cfg::getSuccsOf);
+        progress.start(null, null);
+        if (!solve(wto.getElements(), cfg, result, true)) {
+            result.setPartial();
+        }
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        WeakTopologicalOrder<Node> wto = new WeakTopologicalOrder<>(
+                cfg.getNodes(), List.of(cfg.getExit()), cfg::getPredsOf);
+        progress.start(null, null);
+        if (!solve(wto.getElements(), cfg, result, false)) {
+            result.setPartial();
+        }
+    }
+
+    /**
+     * Solves given elements of the ordering.
+     *
+     * @return false if the solver is stopped by its progress.
+     */
+    private boolean solve(List<WeakTopologicalOrder.Element<Node>> elements,
+                          CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                          boolean forward) {
+        for (WeakTopologicalOrder.Element<Node> element : elements) {
+            if (element.isComponent()) {
+                // iterate the component until its head is stable
+                Node head = element.getNode();
+                update(head, cfg, result, forward);
+                do {
+                    if (!solve(element.getBody(), cfg, result, forward)) {
+                        return false;
+                    }
+                } while (update(head, cfg, result, forward));
+            } else {
+                update(element.getNode(), cfg, result, forward);
+            }
+            if (!progress.step()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Meets the facts of the predecessors (successors) of given node,
+     * and then transfers the node in forward (backward) analysis.
+     *
+     * @return true if the out (in) fact of the node changed.
+     */
+    private boolean update(Node node, CFG<Node> cfg,
+                           DataflowResult<Node, Fact> result, boolean forward) {
+        Fact inFact = result.getInFact(node);
+        Fact outFact = result.getOutFact(node);
+        if (forward) {
+            for (Node pred : cfg.getPredsOf(node)) {
+                analysis.meetInto(result.getOutFact(pred), inFact);
+            }
+        } else {
+            for (Node succ : cfg.getSuccsOf(node)) {
+                analysis.meetInto(result.getInFact(succ), outFact);
+            }
+        }
+        return analysis.transferNode(cfg, node, inFact, outFact);
+    }
+}
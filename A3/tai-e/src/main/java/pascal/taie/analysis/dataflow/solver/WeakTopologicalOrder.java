@@ -0,0 +1,197 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Weak topological ordering (WTO) of a directed graph, as defined in
+ * F. Bourdoncle, "Efficient chaotic iteration strategies with widenings".
+ * <p>
+ * A WTO is a hierarchical ordering of the nodes, where each component
+ * corresponds to a (nested) loop and its head is the entry of the loop.
+ * It is built by decomposing the graph into strongly connected components
+ * in topological order, and recursively decomposing each non-trivial
+ * component without its head, so the recursion depth is bounded by the
+ * loop nesting depth.
+ *
+ * @param <Node> type of graph nodes
+ */
+final class WeakTopologicalOrder<Node> {
+
+    /**
+     * Element of a WTO, i.e., a single node, or a component
+     * consisting of a head node and the elements in its body.
+     */
+    static final class Element<Node> {
+
+        private final Node node;
+
+        private final List<Element<Node>> body;
+
+        private Element(Node node, List<Element<Node>> body) {
+            this.node = node;
+            this.body = body;
+        }
+
+        /**
+         * @return the node of this element, or the head of this component.
+         */
+        Node getNode() {
+            return node;
+        }
+
+        boolean isComponent() {
+            return body != null;
+        }
+
+        /**
+         * @return the elements in the body of this component.
+         */
+        List<Element<Node>> getBody() {
+            return body;
+        }
+    }
+
+    private final Function<Node, ? extends Collection<Node>> succs;
+
+    private final List<Element<Node>> elements;
+
+    /**
+     * @param nodes all nodes of the graph
+     * @param roots nodes from which the ordering starts, e.g., the entry node
+     * @param succs successors of each node
+     */
+    WeakTopologicalOrder(Collection<Node> nodes, List<Node> roots,
+                         Function<Node, ? extends Collection<Node>> succs) {
+        this.succs = succs;
+        List<Node> starts = new ArrayList<>(roots);
+        // nodes unreachable from the roots are ordered after them
+        starts.addAll(nodes);
+        this.elements = decompose(starts, new HashSet<>(nodes));
+    }
+
+    /**
+     * @return the top-level elements of this WTO.
+     */
+    List<Element<Node>> getElements() {
+        return elements;
+    }
+
+    /**
+     * Decomposes the sub-graph induced by {@code scope} into elements
+     * by Tarjan's algorithm (iteratively, to avoid deep recursion
+     * on large methods).
+     */
+    private List<Element<Node>> decompose(List<Node> starts, Set<Node> scope) {
+        Map<Node, Integer> indexes = new HashMap<>();
+        Map<Node, Integer> lows = new HashMap<>();
+        Deque<Node> sccStack = new ArrayDeque<>();
+        Set<Node> onStack = new HashSet<>();
+        Deque<Node> callStack = new ArrayDeque<>();
+        Deque<Iterator<Node>> iterators = new ArrayDeque<>();
+        List<Element<Node>> result = new ArrayList<>();
+        for (Node start : starts) {
+            if (!scope.contains(start) || indexes.containsKey(start)) {
+                continue;
+            }
+            visit(start, indexes, lows, sccStack, onStack, callStack, iterators);
+            while (!callStack.isEmpty()) {
+                Node node = callStack.peek();
+                Iterator<Node> it = iterators.peek();
+                if (it.hasNext()) {
+                    Node succ = it.next();
+                    if (!scope.contains(succ)) {
+                        continue;
+                    }
+                    if (!indexes.containsKey(succ)) {
+                        visit(succ, indexes, lows, sccStack, onStack,
+                                callStack, iterators);
+                    } else if (onStack.contains(succ)) {
+                        lows.put(node, Math.min(lows.get(node), indexes.get(succ)));
+                    }
+                    continue;
+                }
+                callStack.pop();
+                iterators.pop();
+                if (!callStack.isEmpty()) {
+                    Node caller = callStack.peek();
+                    lows.put(caller, Math.min(lows.get(caller), lows.get(node)));
+                }
+                if (lows.get(node).equals(indexes.get(node))) {
+                    result.add(makeElement(node, sccStack, onStack));
+                }
+            }
+        }
+        // Tarjan's algorithm finds SCCs in reverse topological order
+        Collections.reverse(result);
+        return result;
+    }
+
+    private void visit(Node node, Map<Node, Integer> indexes,
+                       Map<Node, Integer> lows, Deque<Node> sccStack,
+                       Set<Node> onStack, Deque<Node> callStack,
+                       Deque<Iterator<Node>> iterators) {
+        int index = indexes.size();
+        indexes.put(node, index);
+        lows.put(node, index);
+        sccStack.push(node);
+        onStack.add(node);
+        callStack.push(node);
+        iterators.push(succs.apply(node).iterator());
+    }
+
+    /**
+     * Pops the SCC whose root is {@code head}, and makes its element.
+     * The root is the first visited node of the SCC, which is an entry
+     * of the SCC and thus serves as the head of the component.
+     */
+    private Element<Node> makeElement(Node head, Deque<Node> sccStack,
+                                      Set<Node> onStack) {
+        Set<Node> body = new HashSet<>();
+        Node node;
+        while ((node = sccStack.pop()) != head) {
+            onStack.remove(node);
+            body.add(node);
+        }
+        onStack.remove(head);
+        Collection<Node> headSuccs = succs.apply(head);
+        if (body.isEmpty() && !headSuccs.contains(head)) {
+            return new Element<>(head, null);
+        }
+        // all nodes of the body are reachable from the successors of
+        // the head without passing the head
+        return new Element<>(head, decompose(new ArrayList<>(headSuccs), body));
+    }
+}
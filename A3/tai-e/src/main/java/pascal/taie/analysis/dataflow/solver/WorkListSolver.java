@@ -25,6 +25,7 @@ package pascal.taie.analysis.dataflow.solver;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.Progress;
 
 import java.util.LinkedList;
 import java.util.Queue;
@@ -35,10 +36,15 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
         super(analysis);
     }
 
+    WorkListSolver(DataflowAnalysis<Node, Fact> analysis, Progress progress) {
+        super(analysis, progress);
+    }
+
     @Override
     protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me
         Queue<Node> workList = new LinkedList<>(cfg.getNodes());
+        progress.start(workList::size, null);
         while (!workList.isEmpty()){
             Node node = workList.poll();
             Fact inFact = result.getInFact(node);
@@ -46,9 +52,13 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
             for (Node pred:cfg.getPredsOf(node)) {
                 analysis.meetInto(result.getOutFact(pred), inFact);
             }
-            if(analysis.transferNode(node, inFact, outFact)){
+            if(analysis.transferNode(cfg, node, inFact, outFact)){
                 workList.addAll(cfg.getSuccsOf(node));
             }
+            if (!progress.step()) {
+                result.setPartial();
+                break;
+            }
         }
     }
 
@@ -56,6 +66,7 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
     protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me
         Queue<Node> workList = new LinkedList<>(cfg.getNodes());
+        progress.start(workList::size, null);
         while (!workList.isEmpty()){
             Node node = workList.poll();
             Fact inFact = result.getInFact(node);
@@ -63,9 +74,13 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
             for (Node succ:cfg.getSuccsOf(node)) {
                 analysis.meetInto(result.getInFact(succ), outFact);
             }
-            if(analysis.transferNode(node, inFact, outFact)){
+            if(analysis.transferNode(cfg, node, inFact, outFact)){
                 workList.addAll(cfg.getPredsOf(node));
             }
+            if (!progress.step()) {
+                result.setPartial();
+                break;
+            }
         }
     }
 }
@@ -0,0 +1,260 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ssa;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Dominator tree and dominance frontiers of a CFG, computed by the
+ * algorithm of Cooper, Harvey and Kennedy ("A Simple, Fast Dominance
+ * Algorithm"). Only the nodes reachable from the entry are considered.
+ * <p>
+ * The nodes are numbered in reverse post-order, thus the entry is
+ * numbered 0, and a node is numbered after its immediate dominator.
+ *
+ * @param <N> type of CFG nodes
+ */
+public final class Dominators<N> {
+
+    private final List<N> nodes;
+
+    private final Map<N, Integer> indexes;
+
+    /**
+     * Reachable predecessors of each node.
+     */
+    private final int[][] preds;
+
+    private final int[] idoms;
+
+    private final int[][] children;
+
+    private final int[][] frontiers;
+
+    public Dominators(CFG<N> cfg) {
+        nodes = reversePostOrder(cfg);
+        indexes = new HashMap<>(nodes.size() * 2);
+        for (int i = 0; i < nodes.size(); ++i) {
+            indexes.put(nodes.get(i), i);
+        }
+        preds = new int[nodes.size()][];
+        for (int i = 0; i < nodes.size(); ++i) {
+            preds[i] = cfg.getPredsOf(nodes.get(i))
+                    .stream()
+                    .map(indexes::get)
+                    .filter(Objects::nonNull)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+        idoms = computeIdoms();
+        children = computeChildren();
+        frontiers = computeFrontiers();
+    }
+
+    private static <N> List<N> reversePostOrder(CFG<N> cfg) {
+        List<N> postOrder = new ArrayList<>(cfg.getNumberOfNodes());
+        Map<N, Boolean> visited = new HashMap<>();
+        Deque<N> stack = new ArrayDeque<>();
+        Deque<Iterator<N>> iterators = new ArrayDeque<>();
+        N entry = cfg.getEntry();
+        visited.put(entry, true);
+        stack.push(entry);
+        iterators.push(cfg.getSuccsOf(entry).iterator());
+        while (!stack.isEmpty()) {
+            Iterator<N> it = iterators.peek();
+            if (it.hasNext()) {
+                N succ = it.next();
+                if (visited.putIfAbsent(succ, true) == null) {
+                    stack.push(succ);
+                    iterators.push(cfg.getSuccsOf(succ).iterator());
+                }
+            } else {
+                postOrder.add(stack.pop());
+                iterators.pop();
+            }
+        }
+        Collections.reverse(postOrder);
+        return postOrder;
+    }
+
+    private int[] computeIdoms() {
+        int[] idoms = new int[nodes.size()];
+        Arrays.fill(idoms, -1);
+        idoms[0] = 0;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int b = 1; b < idoms.length; ++b) {
+                int newIdom = -1;
+                for (int p : preds[b]) {
+                    if (idoms[p] != -1) {
+                        newIdom = newIdom == -1 ? p : intersect(idoms, p, newIdom);
+                    }
+                }
+                if (idoms[b] != newIdom) {
+                    idoms[b] = newIdom;
+                    changed = true;
+                }
+            }
+        }
+        return idoms;
+    }
+
+    private static int intersect(int[] idoms, int b1, int b2) {
+        while (b1 != b2) {
+            while (b1 > b2) {
+                b1 = idoms[b1];
+            }
+            while (b2 > b1) {
+                b2 = idoms[b2];
+            }
+        }
+        return b1;
+    }
+
+    private int[][] computeChildren() {
+        int[] counts = new int[nodes.size()];
+        for (int i = 1; i < idoms.length; ++i) {
+            ++counts[idoms[i]];
+        }
+        int[][] children = new int[nodes.size()][];
+        for (int i = 0; i < children.length; ++i) {
+            children[i] = new int[counts[i]];
+        }
+        for (int i = 1; i < idoms.length; ++i) {
+            int idom = idoms[i];
+            children[idom][--counts[idom]] = i;
+        }
+        return children;
+    }
+
+    private int[][] computeFrontiers() {
+        List<List<Integer>> frontiers = new ArrayList<>(nodes.size());
+        for (int i = 0; i < nodes.size(); ++i) {
+            frontiers.add(new ArrayList<>(0));
+        }
+        // the last join node added to the frontier of each node,
+        // to avoid duplicate additions
+        int[] lastAdded = new int[nodes.size()];
+        Arrays.fill(lastAdded, -1);
+        for (int b = 0; b < nodes.size(); ++b) {
+            if (preds[b].length >= 2) {
+                for (int p : preds[b]) {
+                    for (int runner = p; runner != idoms[b]; runner = idoms[runner]) {
+                        if (lastAdded[runner] != b) {
+                            lastAdded[runner] = b;
+                            frontiers.get(runner).add(b);
+                        }
+                    }
+                }
+            }
+        }
+        return frontiers.stream()
+                .map(df -> df.stream().mapToInt(Integer::intValue).toArray())
+                .toArray(int[][]::new);
+    }
+
+    /**
+     * @return the number of nodes reachable from the entry.
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * @return the i-th reachable node in reverse post-order.
+     */
+    public N getNode(int i) {
+        return nodes.get(i);
+    }
+
+    /**
+     * @return the reachable nodes in reverse post-order.
+     */
+    public List<N> getNodes() {
+        return Collections.unmodifiableList(nodes);
+    }
+
+    /**
+     * @return the reverse post-order number of given node,
+     * or -1 if the node is unreachable from the entry.
+     */
+    public int getIndex(N node) {
+        return indexes.getOrDefault(node, -1);
+    }
+
+    /**
+     * @return the immediate dominator of the i-th node, or -1 for the entry.
+     */
+    public int getIdom(int i) {
+        return i == 0 ? -1 : idoms[i];
+    }
+
+    /**
+     * @return the children of the i-th node in the dominator tree.
+     */
+    public int[] getChildren(int i) {
+        return children[i];
+    }
+
+    /**
+     * @return the dominance frontier of the i-th node.
+     */
+    public int[] getFrontier(int i) {
+        return frontiers[i];
+    }
+
+    /**
+     * @return the reachable predecessors of the i-th node.
+     */
+    public int[] getPreds(int i) {
+        return preds[i];
+    }
+
+    /**
+     * @return true if node {@code d} dominates node {@code n},
+     * otherwise false.
+     */
+    public boolean dominates(N d, N n) {
+        int di = getIndex(d);
+        int ni = getIndex(n);
+        if (di == -1 || ni == -1) {
+            return false;
+        }
+        while (ni > di) {
+            ni = idoms[ni];
+        }
+        return ni == di;
+    }
+}
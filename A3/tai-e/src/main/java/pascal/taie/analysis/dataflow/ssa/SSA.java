@@ -0,0 +1,452 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ssa;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.DefUse;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Static single assignment (SSA) form of a method, built on top of its
+ * {@link CFG} without changing the IR. Each definition of a tracked variable
+ * (by a statement, by a phi node, or at the entry of the method) is
+ * represented by a {@link Def}, and each use of a tracked variable is
+ * linked with the only definition that reaches it, so that analyses can
+ * propagate facts along def-use edges instead of along all CFG nodes.
+ * <p>
+ * The phi nodes are placed at the iterated dominance frontiers of the
+ * definitions (Cytron et al.). A phi node at a CFG node merges the values
+ * flowing into the node, and has an operand for each incoming edge
+ * from a reachable node, see {@link #getInEdges(Stmt)}.
+ * The nodes unreachable from the entry are not in SSA form.
+ */
+public class SSA {
+
+    public enum Kind {
+        /**
+         * Definition at method entry, i.e., parameter or uninitialized value.
+         */
+        ENTRY,
+        /**
+         * Definition by a statement.
+         */
+        STMT,
+        /**
+         * Definition by a phi node.
+         */
+        PHI,
+    }
+
+    /**
+     * A definition of a variable, i.e., an SSA variable.
+     */
+    public static final class Def {
+
+        private final int id;
+
+        private final Kind kind;
+
+        private final Var var;
+
+        private final Stmt node;
+
+        /**
+         * Operands of a phi node, aligned with the incoming edges of its node.
+         */
+        private final Def[] operands;
+
+        private final List<Stmt> stmtUsers = new ArrayList<>(2);
+
+        private final List<Def> phiUsers = new ArrayList<>(0);
+
+        private Def(int id, Kind kind, Var var, Stmt node, int nOperands) {
+            this.id = id;
+            this.kind = kind;
+            this.var = var;
+            this.node = node;
+            this.operands = kind == Kind.PHI ? new Def[nOperands] : null;
+        }
+
+        /**
+         * @return the unique index of this definition in its SSA,
+         * which can be used to index arrays.
+         */
+        public int getId() {
+            return id;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public Var getVar() {
+            return var;
+        }
+
+        /**
+         * @return the defining statement, the node where the phi node
+         * is placed, or the entry node.
+         */
+        public Stmt getNode() {
+            return node;
+        }
+
+        /**
+         * @return the i-th operand of this phi node.
+         */
+        public Def getOperand(int i) {
+            return operands[i];
+        }
+
+        /**
+         * @return the statements that use this definition.
+         */
+        public List<Stmt> getStmtUsers() {
+            return Collections.unmodifiableList(stmtUsers);
+        }
+
+        /**
+         * @return the phi nodes that use this definition.
+         */
+        public List<Def> getPhiUsers() {
+            return Collections.unmodifiableList(phiUsers);
+        }
+
+        @Override
+        public String toString() {
+            return var + "#" + id + (kind == Kind.PHI
+                    ? " = phi" + Arrays.toString(operands) : "");
+        }
+    }
+
+    private static final Def[] NO_DEFS = new Def[0];
+
+    private static final Var[] NO_VARS = new Var[0];
+
+    private final CFG<Stmt> cfg;
+
+    private final Dominators<Stmt> dom;
+
+    private final Predicate<Var> isTracked;
+
+    private final DefUse defUse;
+
+    private final List<Def> defs = new ArrayList<>();
+
+    /**
+     * Entry definitions, indexed by variable index.
+     */
+    private final Def[] entryDefs;
+
+    // The following arrays are indexed by node index in dom.
+
+    private final Def[] stmtDefs;
+
+    private final Def[][] phis;
+
+    private final Var[][] useVars;
+
+    private final Def[][] useDefs;
+
+    private final List<List<Edge<Stmt>>> inEdges;
+
+    private SSA(CFG<Stmt> cfg, Predicate<Var> isTracked) {
+        this.cfg = cfg;
+        this.dom = new Dominators<>(cfg);
+        this.isTracked = isTracked;
+        IR ir = cfg.getIR();
+        this.defUse = DefUse.of(ir);
+        int n = dom.size();
+        entryDefs = new Def[ir.getVars().size()];
+        for (Var var : ir.getVars()) {
+            if (isTracked.test(var)) {
+                entryDefs[var.getIndex()] = newDef(Kind.ENTRY, var, cfg.getEntry(), 0);
+            }
+        }
+        stmtDefs = new Def[n];
+        phis = new Def[n][];
+        useVars = new Var[n][];
+        useDefs = new Def[n][];
+        inEdges = new ArrayList<>(n);
+        for (int i = 0; i < n; ++i) {
+            Stmt node = dom.getNode(i);
+            inEdges.add(cfg.getInEdgesOf(node)
+                    .stream()
+                    .filter(e -> dom.getIndex(e.getSource()) != -1)
+                    .toList());
+            getTrackedDef(node).ifPresent(var ->
+                    stmtDefs[dom.getIndex(node)] = newDef(Kind.STMT, var, node, 0));
+        }
+        placePhis();
+        rename();
+    }
+
+    /**
+     * Builds the SSA form of given CFG for the variables
+     * that satisfy {@code isTracked}.
+     */
+    public static SSA build(CFG<Stmt> cfg, Predicate<Var> isTracked) {
+        return new SSA(cfg, isTracked);
+    }
+
+    private Def newDef(Kind kind, Var var, Stmt node, int nOperands) {
+        Def def = new Def(defs.size(), kind, var, node, nOperands);
+        defs.add(def);
+        return def;
+    }
+
+    private Optional<Var> getTrackedDef(Stmt stmt) {
+        Var def = defUse.getDef(stmt);
+        return def != null && isTracked.test(def) ?
+                Optional.of(def) : Optional.empty();
+    }
+
+    /**
+     * Places phi nodes at the iterated dominance frontiers of the
+     * definitions of each variable.
+     */
+    private void placePhis() {
+        int n = dom.size();
+        List<List<Integer>> defSites = new ArrayList<>(entryDefs.length);
+        for (int i = 0; i < entryDefs.length; ++i) {
+            defSites.add(null);
+        }
+        for (int i = 0; i < n; ++i) {
+            if (stmtDefs[i] != null) {
+                int v = stmtDefs[i].getVar().getIndex();
+                if (defSites.get(v) == null) {
+                    defSites.set(v, new ArrayList<>(2));
+                }
+                defSites.get(v).add(i);
+            }
+        }
+        List<List<Def>> nodePhis = new ArrayList<>(n);
+        for (int i = 0; i < n; ++i) {
+            nodePhis.add(null);
+        }
+        // marks of the nodes that have got a phi node, or have been
+        // added to the work-list, for the current variable (v + 1)
+        int[] hasPhi = new int[n];
+        int[] added = new int[n];
+        int[] workList = new int[n];
+        for (int v = 0; v < entryDefs.length; ++v) {
+            List<Integer> sites = defSites.get(v);
+            if (sites == null) {
+                continue;
+            }
+            int stamp = v + 1;
+            int size = 0;
+            for (int site : sites) {
+                added[site] = stamp;
+                workList[size++] = site;
+            }
+            while (size > 0) {
+                int x = workList[--size];
+                for (int y : dom.getFrontier(x)) {
+                    if (hasPhi[y] != stamp) {
+                        hasPhi[y] = stamp;
+                        if (nodePhis.get(y) == null) {
+                            nodePhis.set(y, new ArrayList<>(2));
+                        }
+                        nodePhis.get(y).add(newDef(Kind.PHI,
+                                entryDefs[v].getVar(), dom.getNode(y),
+                                inEdges.get(y).size()));
+                        if (added[y] != stamp) {
+                            added[y] = stamp;
+                            workList[size++] = y;
+                        }
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < n; ++i) {
+            List<Def> ps = nodePhis.get(i);
+            phis[i] = ps == null ? NO_DEFS : ps.toArray(NO_DEFS);
+        }
+    }
+
+    /**
+     * Links each use with its reaching definition, by traversing the
+     * dominator tree with the current definition of each variable.
+     */
+    private void rename() {
+        Def[] current = entryDefs.clone();
+        // undo log, i.e., the current definitions that have been replaced
+        List<Def> log = new ArrayList<>();
+        int[] marks = new int[dom.size()];
+        // non-negative i for entering node i, and ~i for leaving node i
+        int[] stack = new int[dom.size() * 2];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int i = stack[--top];
+            if (i < 0) {
+                // leaving node ~i, restores the current definitions
+                for (int j = log.size() - 1; j >= marks[~i]; --j) {
+                    Def previous = log.remove(j);
+                    current[previous.getVar().getIndex()] = previous;
+                }
+                continue;
+            }
+            marks[i] = log.size();
+            for (Def phi : phis[i]) {
+                log.add(current[phi.getVar().getIndex()]);
+                current[phi.getVar().getIndex()] = phi;
+            }
+            Stmt node = dom.getNode(i);
+            linkUses(i, node, current);
+            if (stmtDefs[i] != null) {
+                Def def = stmtDefs[i];
+                log.add(current[def.getVar().getIndex()]);
+                current[def.getVar().getIndex()] = def;
+            }
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(node)) {
+                int s = dom.getIndex(edge.getTarget());
+                if (s != -1 && phis[s].length > 0) {
+                    int k = inEdges.get(s).indexOf(edge);
+                    for (Def phi : phis[s]) {
+                        Def operand = current[phi.getVar().getIndex()];
+                        phi.operands[k] = operand;
+                        operand.phiUsers.add(phi);
+                    }
+                }
+            }
+            stack[top++] = ~i;
+            for (int child : dom.getChildren(i)) {
+                stack[top++] = child;
+            }
+        }
+    }
+
+    private void linkUses(int i, Stmt node, Def[] current) {
+        List<Var> vars = new ArrayList<>(2);
+        for (Var var : defUse.getUses(node)) {
+            if (isTracked.test(var)) {
+                vars.add(var);
+            }
+        }
+        if (vars.isEmpty()) {
+            useVars[i] = NO_VARS;
+            useDefs[i] = NO_DEFS;
+            return;
+        }
+        useVars[i] = vars.toArray(NO_VARS);
+        useDefs[i] = new Def[useVars[i].length];
+        for (int j = 0; j < useVars[i].length; ++j) {
+            Def def = current[useVars[i][j].getIndex()];
+            useDefs[i][j] = def;
+            def.stmtUsers.add(node);
+        }
+    }
+
+    public CFG<Stmt> getCFG() {
+        return cfg;
+    }
+
+    public Dominators<Stmt> getDominators() {
+        return dom;
+    }
+
+    /**
+     * @return true if given variable is in SSA form, otherwise false.
+     */
+    public boolean isTracked(Var var) {
+        return isTracked.test(var);
+    }
+
+    /**
+     * @return all definitions, in the order of their ids.
+     */
+    public List<Def> getDefs() {
+        return Collections.unmodifiableList(defs);
+    }
+
+    /**
+     * @return the definition of given tracked variable at method entry.
+     */
+    public Def getEntryDef(Var var) {
+        return entryDefs[var.getIndex()];
+    }
+
+    /**
+     * @return the definition of a tracked variable by given statement,
+     * or null if the statement does not define a tracked variable.
+     */
+    public Def getDef(Stmt stmt) {
+        int i = dom.getIndex(stmt);
+        return i == -1 ? null : stmtDefs[i];
+    }
+
+    /**
+     * @return the phi nodes placed at given node.
+     */
+    public List<Def> getPhis(Stmt node) {
+        int i = dom.getIndex(node);
+        return i == -1 ? List.of() : Arrays.asList(phis[i]);
+    }
+
+    /**
+     * @return the incoming edges of given node from reachable nodes,
+     * which are aligned with the operands of the phi nodes at given node.
+     */
+    public List<Edge<Stmt>> getInEdges(Stmt node) {
+        int i = dom.getIndex(node);
+        return i == -1 ? List.of() : inEdges.get(i);
+    }
+
+    /**
+     * @return the tracked variables used by given statement.
+     */
+    public List<Var> getUseVars(Stmt stmt) {
+        int i = dom.getIndex(stmt);
+        return i == -1 ? List.of() : Arrays.asList(useVars[i]);
+    }
+
+    /**
+     * @return the definition that reaches the use of given variable
+     * at given statement, or null if the statement does not use
+     * the variable, or is unreachable.
+     */
+    public Def getUseDef(Stmt stmt, Var var) {
+        int i = dom.getIndex(stmt);
+        if (i != -1) {
+            Var[] vars = useVars[i];
+            for (int j = 0; j < vars.length; ++j) {
+                if (vars[j] == var) {
+                    return useDefs[i][j];
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.ir;
+
+import pascal.taie.ir.exp.LValue;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Def-use and use-def index of the variables in an {@link IR}.
+ * The index is built once per IR and cached as a result of the IR,
+ * so that analyses can look up the variables defined/used by a statement
+ * and the statements defining/using a variable without re-walking
+ * the expressions on every iteration.
+ * <p>
+ * Statements are indexed by {@link Stmt#getIndex()} and variables
+ * by {@link Var#getIndex()}, both of which are dense in an IR.
+ * Statements that do not belong to the IR, e.g., the entry/exit nodes
+ * of a CFG, neither define nor use any variables.
+ */
+public final class DefUse {
+
+    public static final String ID = "def-use";
+
+    private final IR ir;
+
+    /**
+     * Variable defined by each statement, or null.
+     */
+    private final Var[] defs;
+
+    /**
+     * Distinct variables used by each statement.
+     */
+    private final List<List<Var>> uses;
+
+    /**
+     * Statements defining each variable.
+     */
+    private final List<List<Stmt>> defStmts;
+
+    /**
+     * Statements using each variable.
+     */
+    private final List<List<Stmt>> useStmts;
+
+    private DefUse(IR ir) {
+        this.ir = ir;
+        List<Stmt> stmts = ir.getStmts();
+        int nVars = ir.getVars().size();
+        defs = new Var[stmts.size()];
+        uses = new ArrayList<>(stmts.size());
+        List<List<Stmt>> defStmts = newLists(nVars);
+        List<List<Stmt>> useStmts = newLists(nVars);
+        List<Var> vars = new ArrayList<>(4);
+        for (Stmt stmt : stmts) {
+            LValue def = stmt.getDef().orElse(null);
+            if (def instanceof Var var) {
+                defs[stmt.getIndex()] = var;
+                defStmts.get(var.getIndex()).add(stmt);
+            }
+            vars.clear();
+            for (RValue use : stmt.getUses()) {
+                if (use instanceof Var var && !vars.contains(var)) {
+                    vars.add(var);
+                    useStmts.get(var.getIndex()).add(stmt);
+                }
+            }
+            uses.add(List.copyOf(vars));
+        }
+        this.defStmts = freeze(defStmts);
+        this.useStmts = freeze(useStmts);
+    }
+
+    /**
+     * @return the def-use index of given IR, which is built on first request.
+     */
+    public static DefUse of(IR ir) {
+        return ir.getResult(ID, () -> new DefUse(ir));
+    }
+
+    public IR getIR() {
+        return ir;
+    }
+
+    /**
+     * @return the variable defined by given statement, or null if
+     * the statement does not define a variable.
+     */
+    @Nullable
+    public Var getDef(Stmt stmt) {
+        return contains(stmt) ? defs[stmt.getIndex()] : null;
+    }
+
+    /**
+     * @return the distinct variables used by given statement.
+     */
+    public List<Var> getUses(Stmt stmt) {
+        return contains(stmt) ? uses.get(stmt.getIndex()) : List.of();
+    }
+
+    /**
+     * @return the statements that define given variable.
+     */
+    public List<Stmt> getDefStmts(Var var) {
+        return defStmts.get(var.getIndex());
+    }
+
+    /**
+     * @return the statements that use given variable.
+     */
+    public List<Stmt> getUseStmts(Var var) {
+        return useStmts.get(var.getIndex());
+    }
+
+    private boolean contains(Stmt stmt) {
+        int i = stmt.getIndex();
+        return i >= 0 && i < defs.length && ir.getStmt(i) == stmt;
+    }
+
+    private static <T> List<List<T>> newLists(int n) {
+        List<List<T>> lists = new ArrayList<>(n);
+        for (int i = 0; i < n; ++i) {
+            lists.add(new ArrayList<>(2));
+        }
+        return lists;
+    }
+
+    private static <T> List<List<T>> freeze(List<List<T>> lists) {
+        lists.replaceAll(List::copyOf);
+        return lists;
+    }
+}
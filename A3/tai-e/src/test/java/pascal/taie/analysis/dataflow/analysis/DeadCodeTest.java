@@ -28,10 +28,22 @@ import pascal.taie.analysis.Tests;
 public class DeadCodeTest {
 
     void testDCD(String inputClass) {
+        testDCD(inputClass, "");
+    }
+
+    void testDCD(String inputClass, String cpOpts) {
+        testDCD(inputClass, "", cpOpts);
+    }
+
+    /**
+     * Tests with additional options of livevar and constprop, e.g.,
+     * ";algorithm:sparse", which should not change the expected results.
+     */
+    void testDCD(String inputClass, String lvOpts, String cpOpts) {
         Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
                 DeadCodeDetection.ID,
-                "-a", "livevar=strongly:false",
-                "-a", "constprop=edge-refine:false");
+                "-a", "livevar=strongly:false" + lvOpts,
+                "-a", "constprop=edge-refine:false" + cpOpts);
     }
 
     @Test
@@ -58,4 +70,54 @@ public class DeadCodeTest {
     public void testLoops() {
         testDCD("Loops");
     }
+
+    @Test
+    public void testControlFlowUnreachableSparse() {
+        testDCD("ControlFlowUnreachable", ";algorithm:sparse");
+    }
+
+    @Test
+    public void testUnreachableIfBranchSparse() {
+        testDCD("UnreachableIfBranch", ";algorithm:sparse");
+    }
+
+    @Test
+    public void testUnreachableSwitchBranchSparse() {
+        testDCD("UnreachableSwitchBranch", ";algorithm:sparse");
+    }
+
+    @Test
+    public void testDeadAssignmentSparse() {
+        testDCD("DeadAssignment", ";algorithm:sparse");
+    }
+
+    @Test
+    public void testLoopsSparse() {
+        testDCD("Loops", ";algorithm:sparse");
+    }
+
+    @Test
+    public void testControlFlowUnreachableWTO() {
+        testDCD("ControlFlowUnreachable", ";solver:wto", ";solver:wto");
+    }
+
+    @Test
+    public void testUnreachableIfBranchWTO() {
+        testDCD("UnreachableIfBranch", ";solver:wto", ";solver:wto");
+    }
+
+    @Test
+    public void testUnreachableSwitchBranchWTO() {
+        testDCD("UnreachableSwitchBranch", ";solver:wto", ";solver:wto");
+    }
+
+    @Test
+    public void testDeadAssignmentWTO() {
+        testDCD("DeadAssignment", ";solver:wto", ";solver:wto");
+    }
+
+    @Test
+    public void testLoopsWTO() {
+        testDCD("Loops", ";solver:wto", ";solver:wto");
+    }
 }
@@ -0,0 +1,95 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.analysis.Benchmarks;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link InterSolver} by solving inter-procedural constant
+ * propagation on a program. The call graph and ICFG are built
+ * before measurement.
+ * <p>
+ * Larger programs can be specified by JMH option
+ * {@code -p program=<class-path>/<main-class>}, and the scaling curve
+ * can be measured on generated programs of different sizes, e.g.,
+ * {@code -p program=gen:call-chain:1000,gen:call-chain:10000}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4G")
+@State(Scope.Benchmark)
+public class InterSolverBenchmark {
+
+    @Param({
+            "src/test/resources/dataflow/constprop/inter/Example",
+            "src/test/resources/dataflow/constprop/inter/Fibonacci",
+            "src/test/resources/dataflow/constprop/inter/Reference",
+            "gen:call-chain:100",
+            "gen:call-chain:1000",
+    })
+    private String program;
+
+    /**
+     * Work-list of the solver, i.e., "fifo" or "scc".
+     * The numbers of node transfers can be compared by
+     * {@code -p instrument=true}.
+     */
+    @Param({"fifo", "scc"})
+    private String worklist;
+
+    @Param("false")
+    private boolean instrument;
+
+    private AnalysisConfig config;
+
+    @Setup
+    public void setUp() {
+        Benchmarks.buildWorld(program,
+                CallGraphBuilder.ID + "=algorithm:cha", ICFGBuilder.ID);
+        config = new AnalysisConfig(InterConstantPropagation.ID,
+                "worklist", worklist, "instrument", instrument);
+    }
+
+    @Benchmark
+    public Object solve() {
+        return new InterConstantPropagation(config).analyze();
+    }
+}
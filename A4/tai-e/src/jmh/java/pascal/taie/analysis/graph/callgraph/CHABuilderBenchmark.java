@@ -0,0 +1,90 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.analysis.AnalysisScope;
+import pascal.taie.analysis.Benchmarks;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link CHABuilder} by building the call graph of a program
+ * from its entry method. The IR of the reachable methods is built
+ * before measurement.
+ * <p>
+ * Larger programs can be specified by JMH option
+ * {@code -p program=<class-path>/<main-class>}, and the scaling curve
+ * can be measured on generated programs of different sizes, e.g.,
+ * {@code -p program=gen:dispatch:1000,gen:dispatch:10000}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4G")
+@State(Scope.Benchmark)
+public class CHABuilderBenchmark {
+
+    @Param({
+            "src/test/resources/cha/Interface",
+            "src/test/resources/cha/VirtualCall",
+            "src/test/resources/dataflow/constprop/inter/Reference",
+            "gen:dispatch:100",
+            "gen:dispatch:1000",
+    })
+    private String program;
+
+    /**
+     * Analysis scope, see {@link AnalysisScope}.
+     */
+    @Param({"all", "app"})
+    private String scope;
+
+    private AnalysisScope analysisScope;
+
+    @Setup
+    public void setUp() {
+        Benchmarks.buildWorld(program, CallGraphBuilder.ID + "=algorithm:cha");
+        analysisScope = AnalysisScope.of(new AnalysisConfig(
+                CallGraphBuilder.ID, "scope", scope).getOptions());
+    }
+
+    @Benchmark
+    public CallGraph<Invoke, JMethod> build() {
+        return new CHABuilder(analysisScope).build();
+    }
+}
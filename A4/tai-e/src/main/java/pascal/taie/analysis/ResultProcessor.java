@@ -32,6 +32,7 @@ import pascal.taie.ir.IRPrinter;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.ContentHash;
 import pascal.taie.util.collection.CollectionUtils;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
@@ -45,6 +46,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -61,6 +63,11 @@ import static pascal.taie.util.collection.CollectionUtils.getOne;
  * This class is designed mainly for testing purpose. Currently, it supports
  * input/output analysis results from/to file, and compare analysis results
  * with input results. This analysis should be placed after the other analyses.
+ * <p>
+ * If option {@code compare-mode} is {@code hash}, the results of each method
+ * are first compared by a {@link ContentHash content hash} of their lines,
+ * and only the results whose hashes differ from the input are compared as
+ * text, so that the input is not loaded as a whole.
  */
 public class ResultProcessor extends ProgramAnalysis {
 
@@ -70,15 +77,25 @@ public class ResultProcessor extends ProgramAnalysis {
 
     private final String action;
 
+    private final boolean hashCompare;
+
     private PrintStream out;
 
     private MultiMap<Pair<String, String>, String> inputs;
 
+    private Map<Pair<String, String>, Long> inputHashes;
+
+    /**
+     * Comparisons of the results whose hashes differ from the input.
+     */
+    private Map<Pair<String, String>, Runnable> changed;
+
     private Set<String> mismatches;
 
     public ResultProcessor(AnalysisConfig config) {
         super(config);
         action = getOptions().getString("action");
+        hashCompare = "hash".equals(getOptions().getString("compare-mode"));
     }
 
     @Override
@@ -86,7 +103,13 @@ public class ResultProcessor extends ProgramAnalysis {
         // initialization
         switch (action) {
             case "dump" -> setOutput();
-            case "compare" -> readInputs();
+            case "compare" -> {
+                if (hashCompare) {
+                    readInputHashes();
+                } else {
+                    readInputs(null);
+                }
+            }
         }
         mismatches = new LinkedHashSet<>();
         // Classify given analysis IDs into two groups, one for inter-procedural
@@ -103,6 +126,9 @@ public class ResultProcessor extends ProgramAnalysis {
         if (groups.containsKey(false)) {
             processIntraResults(groups.get(false));
         }
+        if (changed != null && !changed.isEmpty()) {
+            compareChangedResults();
+        }
         if (getOptions().getBoolean("log-mismatches")) {
             mismatches.forEach(logger::info);
         }
@@ -122,7 +148,12 @@ public class ResultProcessor extends ProgramAnalysis {
         }
     }
 
-    private void readInputs() {
+    /**
+     * Reads the input results.
+     *
+     * @param keys if not null, only reads the results of these keys.
+     */
+    private void readInputs(Set<Pair<String, String>> keys) {
         String input = getOptions().getString("file");
         Path path = Path.of(input);
         try {
@@ -134,7 +165,8 @@ public class ResultProcessor extends ProgramAnalysis {
                 Pair<String, String> key = extractKey(line);
                 if (key != null) {
                     currentKey = key;
-                } else if (!line.isBlank()) {
+                } else if (!line.isBlank() &&
+                        (keys == null || keys.contains(currentKey))) {
                     inputs.put(currentKey, line);
                 }
             }
@@ -143,6 +175,32 @@ public class ResultProcessor extends ProgramAnalysis {
         }
     }
 
+    /**
+     * Reads the hash of the input results of each method and analysis,
+     * without keeping the lines.
+     */
+    private void readInputHashes() {
+        Path path = Path.of(getOptions().getString("file"));
+        inputHashes = Maps.newMap();
+        changed = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String line;
+            Pair<String, String> currentKey = null;
+            while ((line = reader.readLine()) != null) {
+                Pair<String, String> key = extractKey(line);
+                if (key != null) {
+                    currentKey = key;
+                    inputHashes.putIfAbsent(key, 0L);
+                } else if (!line.isBlank() && currentKey != null) {
+                    inputHashes.merge(currentKey,
+                            ContentHash.of(line), ContentHash::combine);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read input file", e);
+        }
+    }
+
     private static Pair<String, String> extractKey(String line) {
         if (line.startsWith("----------") && line.endsWith("----------")) {
             int ms = line.indexOf('<'); // method start
@@ -206,7 +264,13 @@ public class ResultProcessor extends ProgramAnalysis {
                 analyses.forEach(id -> {
                     switch (action) {
                         case "dump" -> dumpResult(method, id, resultGetter);
-                        case "compare" -> compareResult(method, id, resultGetter);
+                        case "compare" -> {
+                            if (hashCompare) {
+                                compareHash(method, id, resultGetter);
+                            } else {
+                                compareResult(method, id, resultGetter);
+                            }
+                        }
                     }
                 })
         );
@@ -215,18 +279,24 @@ public class ResultProcessor extends ProgramAnalysis {
     private void dumpResult(JMethod method, String id,
                             BiFunction<JMethod, String, ?> resultGetter) {
         out.printf("-------------------- %s (%s) --------------------%n", method, id);
-        Object result = resultGetter.apply(method, id);
-        if (result instanceof Set) {
-            ((Set<?>) result).forEach(e -> out.println(toString(e)));
+        toLines(method, resultGetter.apply(method, id)).forEach(out::println);
+        out.println();
+    }
+
+    /**
+     * @return the lines of given result, as they are dumped.
+     */
+    private static Stream<String> toLines(JMethod method, Object result) {
+        if (result instanceof Set<?> set) {
+            return set.stream().map(ResultProcessor::toString);
         } else if (result instanceof StmtResult<?> stmtResult) {
-            method.getIR()
+            return method.getIR()
                     .stmts()
                     .filter(stmtResult::isRelevant)
-                    .forEach(stmt -> out.println(toString(stmt, stmtResult)));
+                    .map(stmt -> toString(stmt, stmtResult));
         } else {
-            out.println(toString(result));
+            return Stream.of(toString(result));
         }
-        out.println();
     }
 
     /**
@@ -251,6 +321,34 @@ public class ResultProcessor extends ProgramAnalysis {
         return toString(stmt) + " " + toString(result.getResult(stmt));
     }
 
+    /**
+     * Compares the hash of given result with the input. If they differ,
+     * the result is compared as text by {@link #compareChangedResults()}.
+     */
+    private void compareHash(JMethod method, String id,
+                             BiFunction<JMethod, String, ?> resultGetter) {
+        Pair<String, String> key = new Pair<>(method.toString(), id);
+        long hash = toLines(method, resultGetter.apply(method, id))
+                .filter(line -> !line.isBlank())
+                .mapToLong(ContentHash::of)
+                .reduce(0, ContentHash::combine);
+        Long inputHash = inputHashes.get(key);
+        if (inputHash == null || inputHash != hash) {
+            changed.put(key, () -> compareResult(method, id, resultGetter));
+        }
+    }
+
+    /**
+     * Reads the input lines of the changed results, and compares them
+     * as text, so that the mismatches only involve changed methods.
+     */
+    private void compareChangedResults() {
+        logger.info("Results of {} method(s) differ in hash, comparing them as text",
+                changed.size());
+        readInputs(changed.keySet());
+        changed.values().forEach(Runnable::run);
+    }
+
     private void compareResult(JMethod method, String id,
                                BiFunction<JMethod, String, ?> resultGetter) {
         Set<String> inputResult = inputs.get(new Pair<>(method.toString(), id));
@@ -25,14 +25,22 @@ package pascal.taie.analysis.dataflow.inter;
 import pascal.taie.World;
 import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
 import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
 import pascal.taie.analysis.graph.icfg.ICFG;
 import pascal.taie.analysis.graph.icfg.ICFGBuilder;
 import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.LazyICFG;
 import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.Instrumentation;
+import pascal.taie.util.Progress;
 
 /**
  * Provides common functionalities for {@link InterDataflowAnalysis} implementations.
@@ -47,7 +55,7 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
 
     protected ICFG<Method, Node> icfg;
 
-    protected InterSolver<Method, Node, Fact> solver;
+    protected InterDataflowSolver<Node, Fact> solver;
 
     public AbstractInterDataflowAnalysis(AnalysisConfig config) {
         super(config);
@@ -119,11 +127,79 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
 
     @Override
     public Object analyze() {
-        icfg = World.get().getResult(ICFGBuilder.ID);
+        boolean lazy = "lazy".equals(getOptions().getString("icfg"));
+        icfg = lazy ? makeLazyICFG() : World.get().getResult(ICFGBuilder.ID);
         initialize();
-        solver = new InterSolver<>(this, icfg);
+        solver = makeSolver(lazy);
         DataflowResult<Node, Fact> result = solver.solve();
         finish();
         return result;
     }
+
+    private InterDataflowSolver<Node, Fact> makeSolver(boolean lazy) {
+        Instrumentation instrumentation = new Instrumentation(getId(),
+                getOptions().getBooleanOrDefault("instrument", false));
+        Progress progress = Progress.make(getId(), getOptions());
+        if (getOptions().getBooleanOrDefault("parallel", false)) {
+            if (lazy) {
+                throw new ConfigException("Lazy ICFG is not supported by the parallel solver");
+            }
+            return new ParallelInterSolver<>(this, icfg,
+                    getThreads(),
+                    instrumentation, progress);
+        } else {
+            return new InterSolver<>(this, icfg, lazy,
+                    isSCCScheduling() ? getCallGraph() : null,
+                    instrumentation, progress);
+        }
+    }
+
+    /**
+     * @return an ICFG which is built on demand, see {@link LazyICFG}.
+     */
+    @SuppressWarnings("unchecked")
+    private ICFG<Method, Node> makeLazyICFG() {
+        CallGraph<Invoke, JMethod> callGraph =
+                World.get().getResult(CallGraphBuilder.ID);
+        return (ICFG<Method, Node>) new LazyICFG(callGraph);
+    }
+
+    /**
+     * @return the call graph over the methods of the ICFG.
+     */
+    private CallGraph<?, Method> getCallGraph() {
+        return World.get().getResult(CallGraphBuilder.ID);
+    }
+
+    /**
+     * @return the number of threads of the parallel solver, according to
+     * option "threads", which defaults to the number of available processors.
+     */
+    private int getThreads() {
+        Object value = getOptions().get("threads");
+        if (value == null) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        int threads = value instanceof Number n ? n.intValue()
+                : Integer.parseInt(value.toString());
+        if (threads <= 0) {
+            throw new ConfigException("Invalid number of threads: " + threads);
+        }
+        return threads;
+    }
+
+    /**
+     * @return whether the solver schedules nodes by the SCCs of
+     * the call graph, according to option "worklist".
+     */
+    private boolean isSCCScheduling() {
+        String worklist = getOptions().getString("worklist");
+        if (worklist == null || worklist.equals("fifo")) {
+            return false;
+        } else if (worklist.equals("scc")) {
+            return true;
+        } else {
+            throw new ConfigException("Unknown work-list: " + worklist);
+        }
+    }
 }
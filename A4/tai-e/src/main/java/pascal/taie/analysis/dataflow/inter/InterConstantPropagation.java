@@ -117,7 +117,14 @@ public class InterConstantPropagation extends
         CPFact returnOut = out.copy();
         if(stmt instanceof Invoke){
             Var result = ((Invoke) stmt).getResult();
-            returnOut.remove(result);
+            if (result != null && icfg.getCalleesOf(stmt).isEmpty()
+                    && ConstantPropagation.canHoldInt(result)) {
+                // the callees are out of the analysis scope, and
+                // the result is unknown
+                returnOut.update(result, Value.getNAC());
+            } else {
+                returnOut.remove(result);
+            }
         }else {
             throw new AnalysisException("invalid CallToReturn edge");
         }
@@ -23,6 +23,7 @@
 package pascal.taie.analysis.graph.callgraph;
 
 import pascal.taie.World;
+import pascal.taie.analysis.AnalysisScope;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.ir.stmt.Stmt;
@@ -33,11 +34,21 @@ import java.util.*;
 
 /**
  * Implementation of the CHA algorithm.
+ * <p>
+ * The callees out of the analysis scope are not analyzed, and the edges
+ * to them are omitted, as the clients of the call graph (e.g., ICFG)
+ * expect the callees to be reachable methods with bodies.
  */
 class CHABuilder implements CGBuilder<Invoke, JMethod> {
 
+    private final AnalysisScope scope;
+
     private ClassHierarchy hierarchy;
 
+    CHABuilder(AnalysisScope scope) {
+        this.scope = scope;
+    }
+
     @Override
     public CallGraph<Invoke, JMethod> build() {
         hierarchy = World.get().getClassHierarchy();
@@ -58,8 +69,10 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
                 for(Stmt stmt: ir.getStmts()){
                     if(stmt instanceof Invoke){
                         for (JMethod jMethod: resolve((Invoke) stmt)){
-                            worklist.add(jMethod);
-                            callGraph.addEdge(new Edge<>(CallGraphs.getCallKind((Invoke) stmt), (Invoke) stmt, jMethod));
+                            if (scope.contains(jMethod)) {
+                                worklist.add(jMethod);
+                                callGraph.addEdge(new Edge<>(CallGraphs.getCallKind((Invoke) stmt), (Invoke) stmt, jMethod));
+                            }
                         }
                     }
                 }
@@ -0,0 +1,292 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * ICFG that is built on demand. The intra-procedural edges of a method,
+ * and the call/return edges between the method and its callees, are added
+ * only when the method is first reached, i.e., when the entry/exit of the
+ * method or the edges of its nodes are queried.
+ * <p>
+ * Hence, {@link #getNodes()} returns only the nodes of the methods that
+ * have been reached so far, and the in-edges of a method entry (exit)
+ * include only the call (return) edges from the reached callers.
+ */
+public class LazyICFG implements ICFG<JMethod, Stmt> {
+
+    private static final Logger logger = LogManager.getLogger(LazyICFG.class);
+
+    private final CallGraph<Invoke, JMethod> callGraph;
+
+    private final MultiMap<Stmt, ICFGEdge<Stmt>> inEdges = Maps.newMultiMap();
+
+    private final MultiMap<Stmt, ICFGEdge<Stmt>> outEdges = Maps.newMultiMap();
+
+    /**
+     * CFGs of the nodes in reached methods, and of the entry/exit nodes
+     * of their callees.
+     */
+    private final Map<Stmt, CFG<Stmt>> stmtToCFG = new HashMap<>();
+
+    private final Set<JMethod> reached = new HashSet<>();
+
+    private final Set<Stmt> nodes = new HashSet<>();
+
+    /**
+     * Nodes that have been reached since the last call of
+     * {@link #pollReachedNodes()}.
+     */
+    private final List<Stmt> reachedNodes = new ArrayList<>();
+
+    /**
+     * Containing methods of the statements in the call graph, which is
+     * built only if a statement of an unknown method is queried.
+     */
+    private Map<Stmt, JMethod> containers;
+
+    public LazyICFG(CallGraph<Invoke, JMethod> callGraph) {
+        this.callGraph = callGraph;
+    }
+
+    /**
+     * @return the number of methods that have been reached (built).
+     */
+    public int getNumberOfReachedMethods() {
+        return reached.size();
+    }
+
+    @Override
+    public Stream<JMethod> entryMethods() {
+        return callGraph.entryMethods();
+    }
+
+    @Override
+    public Set<ICFGEdge<Stmt>> getInEdgesOf(Stmt stmt) {
+        reach(stmt);
+        return inEdges.get(stmt);
+    }
+
+    @Override
+    public Set<ICFGEdge<Stmt>> getOutEdgesOf(Stmt stmt) {
+        reach(stmt);
+        return outEdges.get(stmt);
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOf(Stmt callSite) {
+        return callGraph.getCalleesOf((Invoke) callSite);
+    }
+
+    @Override
+    public Set<Stmt> getReturnSitesOf(Stmt callSite) {
+        reach(callSite);
+        return stmtToCFG.get(callSite).getSuccsOf(callSite);
+    }
+
+    @Override
+    public Stmt getEntryOf(JMethod method) {
+        return reach(method).getEntry();
+    }
+
+    @Override
+    public Stmt getExitOf(JMethod method) {
+        return reach(method).getExit();
+    }
+
+    @Override
+    public Set<Stmt> getCallersOf(JMethod method) {
+        return Collections.unmodifiableSet(callGraph.getCallersOf(method));
+    }
+
+    @Override
+    public JMethod getContainingMethodOf(Stmt stmt) {
+        CFG<Stmt> cfg = stmtToCFG.get(stmt);
+        if (cfg != null) {
+            return cfg.getMethod();
+        }
+        if (containers == null) {
+            containers = new HashMap<>();
+            callGraph.reachableMethods().forEach(m ->
+                    m.getIR().forEach(s -> containers.put(s, m)));
+        }
+        JMethod method = containers.get(stmt);
+        if (method == null) {
+            throw new AnalysisException(stmt + " is not in the ICFG");
+        }
+        return method;
+    }
+
+    @Override
+    public boolean isCallSite(Stmt stmt) {
+        return stmt instanceof Invoke;
+    }
+
+    @Override
+    public boolean hasNode(Stmt stmt) {
+        reach(stmt);
+        return nodes.contains(stmt);
+    }
+
+    @Override
+    public boolean hasEdge(Stmt source, Stmt target) {
+        return getOutEdgesOf(source)
+                .stream()
+                .anyMatch(edge -> edge.getTarget().equals(target));
+    }
+
+    @Override
+    public Set<Stmt> getPredsOf(Stmt stmt) {
+        return Sets.newHybridSet(getInEdgesOf(stmt)
+                .stream()
+                .map(ICFGEdge::getSource)
+                .toList());
+    }
+
+    @Override
+    public Set<Stmt> getSuccsOf(Stmt stmt) {
+        return Sets.newHybridSet(getOutEdgesOf(stmt)
+                .stream()
+                .map(ICFGEdge::getTarget)
+                .toList());
+    }
+
+    /**
+     * @return the nodes of the methods that have been reached so far.
+     */
+    @Override
+    public Set<Stmt> getNodes() {
+        return Collections.unmodifiableSet(nodes);
+    }
+
+    /**
+     * @return the nodes that have been reached since the last call of
+     * this method, so that clients need not rescan {@link #getNodes()}.
+     */
+    public List<Stmt> pollReachedNodes() {
+        List<Stmt> result = List.copyOf(reachedNodes);
+        reachedNodes.clear();
+        return result;
+    }
+
+    private void reach(Stmt stmt) {
+        reach(getContainingMethodOf(stmt));
+    }
+
+    /**
+     * Builds the part of ICFG for given method if it has not been built.
+     *
+     * @return the CFG of the method.
+     */
+    private CFG<Stmt> reach(JMethod method) {
+        CFG<Stmt> cfg = getCFGOf(method);
+        if (!reached.add(method)) {
+            return cfg;
+        }
+        cfg.forEach(stmt -> {
+            stmtToCFG.put(stmt, cfg);
+            nodes.add(stmt);
+            reachedNodes.add(stmt);
+            cfg.getOutEdgesOf(stmt).forEach(edge -> {
+                ICFGEdge<Stmt> local = isCallSite(stmt) ?
+                        new CallToReturnEdge<>(edge) :
+                        new NormalEdge<>(edge);
+                outEdges.put(stmt, local);
+                inEdges.put(edge.getTarget(), local);
+            });
+            if (isCallSite(stmt)) {
+                getCalleesOf(stmt).forEach(callee -> addCallEdges(cfg, stmt, callee));
+            }
+        });
+        return cfg;
+    }
+
+    /**
+     * Adds the call edge and return edges between given call site and
+     * callee. The callee itself is built when it is reached later.
+     */
+    private void addCallEdges(CFG<Stmt> cfg, Stmt callSite, JMethod callee) {
+        CFG<Stmt> calleeCFG = getCFGOf(callee);
+        if (calleeCFG == null) {
+            logger.warn("CFG of {} is absent", callee);
+            return;
+        }
+        Stmt entry = calleeCFG.getEntry();
+        Stmt exit = calleeCFG.getExit();
+        stmtToCFG.putIfAbsent(entry, calleeCFG);
+        stmtToCFG.putIfAbsent(exit, calleeCFG);
+        CallEdge<Stmt> call = new CallEdge<>(callSite, entry, callee);
+        outEdges.put(callSite, call);
+        inEdges.put(entry, call);
+        // collect return variables and exceptions from the real
+        // return and excepting statements of the callee
+        Set<Var> retVars = Sets.newHybridSet();
+        Set<ClassType> exceptions = Sets.newHybridSet();
+        calleeCFG.getInEdgesOf(exit).forEach(retEdge -> {
+            if (retEdge.getKind() == Edge.Kind.RETURN) {
+                Return ret = (Return) retEdge.getSource();
+                if (ret.getValue() != null) {
+                    retVars.add(ret.getValue());
+                }
+            }
+            if (retEdge.isExceptional()) {
+                exceptions.addAll(retEdge.getExceptions());
+            }
+        });
+        cfg.getSuccsOf(callSite).forEach(retSite -> {
+            ReturnEdge<Stmt> ret = new ReturnEdge<>(
+                    exit, retSite, callSite, retVars, exceptions);
+            outEdges.put(exit, ret);
+            inEdges.put(retSite, ret);
+        });
+    }
+
+    private static CFG<Stmt> getCFGOf(JMethod method) {
+        return method.getIR().getResult(CFGBuilder.ID);
+    }
+}
@@ -22,22 +22,65 @@
 
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
+import org.junit.Assert;
 import org.junit.Test;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
 import pascal.taie.analysis.dataflow.inter.InterConstantPropagation;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
+
+import java.util.Set;
 
 public class InterCPTest {
 
     private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/inter";
 
     void test(String inputClass) {
+        test(inputClass, "");
+    }
+
+    /**
+     * Tests with additional options of inter-constprop, e.g., ";icfg:lazy",
+     * which should not change the expected results.
+     */
+    void test(String inputClass, String opts) {
         Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
-                "edge-refine:false;alias-aware:false", "-a", "cg=algorithm:cha"
+                "edge-refine:false;alias-aware:false" + opts, "-a", "cg=algorithm:cha"
                 // , "-a", "icfg=dump:true" // <-- uncomment this code if you want
                                             // to output ICFGs for the test cases
         );
     }
 
+    /**
+     * Tests with lazy ICFG, which should not build the whole ICFG.
+     */
+    void testLazy(String inputClass) {
+        testLazy(inputClass, "");
+    }
+
+    void testLazy(String inputClass, String opts) {
+        test(inputClass, ";icfg:lazy" + opts);
+        Assert.assertNull(World.get().getResult(ICFGBuilder.ID));
+    }
+
+    @Test
+    public void testHashCompare() {
+        String opts = "edge-refine:false;alias-aware:false";
+        Assert.assertTrue(Tests.testHash("Example", CLASS_PATH,
+                InterConstantPropagation.ID,
+                CLASS_PATH + "/Example-inter-constprop-expected.txt",
+                opts, "-a", "cg=algorithm:cha").isEmpty());
+        // the changed method differs in hash, and is then compared as text
+        Set<String> mismatches = Tests.testHash("Example", CLASS_PATH,
+                InterConstantPropagation.ID,
+                CLASS_PATH + "/Example-inter-constprop-changed.txt",
+                opts, "-a", "cg=algorithm:cha");
+        Assert.assertEquals(Set.of("<Example: void main(java.lang.String[])>" +
+                " [7@L9] c = a * b; expected: {%intconst0=3, a=6, b=10, c=61," +
+                " temp$1=7, temp$3=10}, given: {%intconst0=3, a=6, b=10, c=60," +
+                " temp$1=7, temp$3=10}"), mismatches);
+    }
+
     @Test
     public void testExample() {
         test("Example");
@@ -57,4 +100,89 @@ public class InterCPTest {
     public void testMultiIntArgs() {
         test("MultiIntArgs");
     }
+
+    @Test
+    public void testExampleLazy() {
+        testLazy("Example");
+    }
+
+    @Test
+    public void testReferenceLazy() {
+        testLazy("Reference");
+    }
+
+    @Test
+    public void testFibonacciLazy() {
+        testLazy("Fibonacci");
+    }
+
+    @Test
+    public void testMultiIntArgsLazy() {
+        testLazy("MultiIntArgs");
+    }
+
+    @Test
+    public void testExampleParallel() {
+        test("Example", ";parallel:true");
+    }
+
+    @Test
+    public void testReferenceParallel() {
+        test("Reference", ";parallel:true");
+    }
+
+    @Test
+    public void testFibonacciParallel() {
+        test("Fibonacci", ";parallel:true");
+    }
+
+    @Test
+    public void testMultiIntArgsParallel() {
+        test("MultiIntArgs", ";parallel:true");
+    }
+
+    @Test
+    public void testMultiIntArgsParallelOneThread() {
+        test("MultiIntArgs", ";parallel:true;threads:1");
+    }
+
+    @Test
+    public void testExampleSCC() {
+        test("Example", ";worklist:scc");
+    }
+
+    @Test
+    public void testReferenceSCC() {
+        test("Reference", ";worklist:scc");
+    }
+
+    @Test
+    public void testFibonacciSCC() {
+        test("Fibonacci", ";worklist:scc");
+    }
+
+    @Test
+    public void testMultiIntArgsSCC() {
+        test("MultiIntArgs", ";worklist:scc");
+    }
+
+    @Test
+    public void testExampleLazySCC() {
+        testLazy("Example", ";worklist:scc");
+    }
+
+    @Test
+    public void testReferenceLazySCC() {
+        testLazy("Reference", ";worklist:scc");
+    }
+
+    @Test
+    public void testFibonacciLazySCC() {
+        testLazy("Fibonacci", ";worklist:scc");
+    }
+
+    @Test
+    public void testMultiIntArgsLazySCC() {
+        testLazy("MultiIntArgs", ";worklist:scc");
+    }
 }
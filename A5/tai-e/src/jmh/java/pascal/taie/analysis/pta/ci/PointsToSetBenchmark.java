@@ -0,0 +1,132 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.language.type.Type;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmarks of the operations of {@link PointsToSet} which are
+ * performed by the solver during propagation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PointsToSetBenchmark {
+
+    @Param({"8", "64", "1024"})
+    private int size;
+
+    private Obj[] objs;
+
+    private PointsToSet pts;
+
+    @Setup
+    public void setUp() {
+        objs = new Obj[size];
+        pts = new PointsToSet();
+        for (int i = 0; i < size; ++i) {
+            objs[i] = new MockObj(i);
+            pts.addObject(objs[i]);
+        }
+    }
+
+    @Benchmark
+    public PointsToSet addObjects() {
+        PointsToSet result = new PointsToSet();
+        for (Obj obj : objs) {
+            result.addObject(obj);
+        }
+        return result;
+    }
+
+    /**
+     * Computes the difference of {@link #pts} and a half-overlapped set,
+     * as the solver does when propagating points-to sets.
+     */
+    @Benchmark
+    public PointsToSet diff() {
+        PointsToSet result = new PointsToSet();
+        for (int i = size / 2; i < size + size / 2; ++i) {
+            Obj obj = objs[i % size];
+            if (i >= size || !pts.contains(obj)) {
+                result.addObject(obj);
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public int iterate() {
+        int sum = 0;
+        for (Obj obj : pts) {
+            sum += obj.hashCode();
+        }
+        return sum;
+    }
+
+    /**
+     * Abstract objects which are independent of the world.
+     */
+    record MockObj(int id) implements Obj {
+
+        @Override
+        public Type getType() {
+            return PrimitiveType.INT;
+        }
+
+        @Override
+        public Object getAllocation() {
+            return id;
+        }
+
+        @Override
+        public Optional<JMethod> getContainerMethod() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Type getContainerType() {
+            return PrimitiveType.INT;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmarks of {@link WorkList}, which adds entries for
+ * a number of pointers and then polls all of them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WorkListBenchmark {
+
+    @Param({"64", "1024", "16384"})
+    private int size;
+
+    private Pointer[] pointers;
+
+    private PointsToSet pts;
+
+    @Setup
+    public void setUp() {
+        pointers = new Pointer[size];
+        for (int i = 0; i < size; ++i) {
+            pointers[i] = new VarPtr(
+                    new Var(null, "v" + i, PrimitiveType.INT, i));
+        }
+        pts = new PointsToSet(new PointsToSetBenchmark.MockObj(0));
+    }
+
+    @Benchmark
+    public int addAndPoll() {
+        WorkList workList = new WorkList();
+        for (Pointer pointer : pointers) {
+            workList.addEntry(pointer, pts);
+        }
+        int count = 0;
+        while (!workList.isEmpty()) {
+            workList.pollEntry();
+            ++count;
+        }
+        return count;
+    }
+}
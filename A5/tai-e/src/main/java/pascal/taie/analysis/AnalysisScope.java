@@ -0,0 +1,119 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Scope of the methods to analyze, which is specified by option
+ * {@code scope}: "all" (default) for all methods, "app" for the methods
+ * of application classes, or package prefixes of the classes, given as
+ * a list or a comma-separated string, e.g., [ com.example, org.foo ].
+ * <p>
+ * The methods out of scope (usually library methods) are not analyzed.
+ * The analyses either ignore the calls to them, or model the calls at
+ * the library boundary if option {@code library-boundary} is true.
+ * The entry method is always analyzed.
+ */
+public class AnalysisScope {
+
+    private static final AnalysisScope ALL = new AnalysisScope(List.of(), false);
+
+    /**
+     * Package prefixes of the classes in scope.
+     */
+    private final List<String> prefixes;
+
+    /**
+     * Whether the scope consists of application classes.
+     */
+    private final boolean app;
+
+    private AnalysisScope(List<String> prefixes, boolean app) {
+        this.prefixes = prefixes;
+        this.app = app;
+    }
+
+    /**
+     * @return the scope specified by given options.
+     */
+    public static AnalysisScope of(AnalysisOptions options) {
+        Object value = options.get("scope");
+        if (value == null || value.equals("all")) {
+            return ALL;
+        } else if (value.equals("app")) {
+            return new AnalysisScope(List.of(), true);
+        }
+        List<String> prefixes = (value instanceof Collection<?> c
+                ? c.stream().map(Object::toString)
+                : Arrays.stream(value.toString().split(",")))
+                .map(String::strip)
+                .filter(prefix -> !prefix.isEmpty())
+                .toList();
+        return new AnalysisScope(prefixes, false);
+    }
+
+    /**
+     * @return true if this scope contains all methods.
+     */
+    public boolean isAll() {
+        return this == ALL;
+    }
+
+    /**
+     * @return true if given method is in this scope, otherwise false.
+     */
+    public boolean contains(JMethod method) {
+        return isAll() || contains(method.getDeclaringClass());
+    }
+
+    /**
+     * @return true if given class is in this scope, otherwise false.
+     */
+    public boolean contains(JClass jclass) {
+        if (isAll()) {
+            return true;
+        } else if (app) {
+            return jclass.isApplication();
+        }
+        String name = jclass.getName();
+        for (String prefix : prefixes) {
+            if (name.startsWith(prefix) && (name.length() == prefix.length()
+                    || name.charAt(prefix.length()) == '.')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return isAll() ? "all" : app ? "app" : prefixes.toString();
+    }
+}
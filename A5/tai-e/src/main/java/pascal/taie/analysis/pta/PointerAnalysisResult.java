@@ -63,4 +63,10 @@ public interface PointerAnalysisResult {
      * @return the resulting call graph (without contexts).
      */
     CallGraph<Invoke, JMethod> getCallGraph();
+
+    /**
+     * @return true if the analysis is stopped (e.g., cancelled or timed out)
+     * before reaching the fixed point, so that this result is incomplete.
+     */
+    boolean isPartial();
 }
@@ -22,11 +22,14 @@
 
 package pascal.taie.analysis.pta.ci;
 
+import pascal.taie.analysis.AnalysisScope;
 import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
 
 /**
  * Context-insensitive pointer analysis.
@@ -42,10 +45,36 @@ public class CIPTA extends ProgramAnalysis {
     @Override
     public PointerAnalysisResult analyze() {
         HeapModel heapModel = new AllocationSiteBasedModel(getOptions());
-        Solver solver = new Solver(heapModel);
+        String solverKind = getOptions().getString("solver");
+        AnalysisScope scope = AnalysisScope.of(getOptions());
+        if ("datalog".equals(solverKind)) {
+            if (!scope.isAll()) {
+                throw new ConfigException("Datalog solver does not support"
+                        + " analysis scope: " + scope);
+            }
+            DatalogSolver solver = new DatalogSolver(heapModel,
+                    getOptions().getBooleanOrDefault("datalog-parallel", false));
+            solver.solve();
+            CIPTAResult result = solver.getResult();
+            new ResultProcessor(getOptions()).process(result);
+            return result;
+        } else if (solverKind != null && !"worklist".equals(solverKind)) {
+            throw new ConfigException("Unknown solver: " + solverKind
+                    + ", expected worklist or datalog");
+        }
+        Solver solver = new Solver(getOptions(), heapModel);
         solver.solve();
         CIPTAResult result = solver.getResult();
         new ResultProcessor(getOptions()).process(result);
         return result;
     }
+
+    static int getIntOrDefault(AnalysisOptions options, String key, int defaultValue) {
+        Object value = options.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        return value instanceof Number n ? n.intValue()
+                : Integer.parseInt(value.toString());
+    }
 }
@@ -31,15 +31,10 @@ import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
-import pascal.taie.util.collection.Maps;
-import pascal.taie.util.collection.Pair;
-import pascal.taie.util.collection.Sets;
 import pascal.taie.util.collection.Views;
 
 import java.util.Collection;
-import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 class CIPTAResult implements PointerAnalysisResult {
 
@@ -47,19 +42,21 @@ class CIPTAResult implements PointerAnalysisResult {
 
     private final PointerFlowGraph pointerFlowGraph;
 
-    private final CallGraph<Invoke, JMethod> callGraph;
-
     /**
-     * Points-to sets of field expressions, e.g., v.f.
+     * Frozen points-to sets and reverse indexes for queries.
      */
-    private final Map<Pair<Var, JField>, Set<Obj>> fieldPointsTo = Maps.newMap();
+    private final PointsToIndex pointsToIndex;
+
+    private final CallGraph<Invoke, JMethod> callGraph;
 
-    private Set<Obj> objects;
+    private final boolean partial;
 
-    CIPTAResult(PointerFlowGraph pointerFlowGraph,
-                CallGraph<Invoke, JMethod> callGraph) {
+    CIPTAResult(PointerFlowGraph pointerFlowGraph, PointsToIndex pointsToIndex,
+                CallGraph<Invoke, JMethod> callGraph, boolean partial) {
         this.pointerFlowGraph = pointerFlowGraph;
+        this.pointsToIndex = pointsToIndex;
         this.callGraph = callGraph;
+        this.partial = partial;
     }
 
     @Override
@@ -72,14 +69,7 @@ class CIPTAResult implements PointerAnalysisResult {
 
     @Override
     public Collection<Obj> getObjects() {
-        if (objects == null) {
-            objects = pointerFlowGraph.getPointers()
-                    .stream()
-                    .map(Pointer::getPointsToSet)
-                    .flatMap(PointsToSet::objects)
-                    .collect(Collectors.toUnmodifiableSet());
-        }
-        return objects;
+        return pointsToIndex.getObjects();
     }
 
     @Override
@@ -94,15 +84,8 @@ class CIPTAResult implements PointerAnalysisResult {
         if (field.isStatic()) {
             logger.warn("{} is not instance field", field);
         }
-        return fieldPointsTo.computeIfAbsent(new Pair<>(base, field), p -> {
-            Set<Obj> pts = Sets.newHybridSet();
-            getPointsToSet(base).forEach(o -> {
-                InstanceField fieldPtr = pointerFlowGraph
-                        .getInstanceField(o, field);
-                pts.addAll(fieldPtr.getPointsToSet().getObjects());
-            });
-            return pts;
-        });
+        return pointsToIndex.getPointsToSet(
+                pointerFlowGraph.getVarPtr(base).getPointsToSet(), field);
     }
 
     @Override
@@ -120,6 +103,11 @@ class CIPTAResult implements PointerAnalysisResult {
         return callGraph;
     }
 
+    @Override
+    public boolean isPartial() {
+        return partial;
+    }
+
     PointerFlowGraph getPointerFlowGraph() {
         return pointerFlowGraph;
     }
@@ -0,0 +1,415 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.InvokeStatic;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.StmtVisitor;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.datalog.Atom;
+import pascal.taie.util.datalog.Datalog;
+import pascal.taie.util.datalog.Functor;
+import pascal.taie.util.datalog.Relation;
+import pascal.taie.util.datalog.Variable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Context-insensitive pointer analysis expressed as Datalog rules,
+ * which computes the same result as {@link Solver}.
+ * <p>
+ * The input relations are extracted from the IR of each method when
+ * the method becomes reachable, and then the rules are evaluated
+ * (from the previous fixpoint) until no new methods become reachable.
+ */
+class DatalogSolver {
+
+    private final HeapModel heapModel;
+
+    private final Datalog datalog;
+
+    // ---------- input relations, extracted from IR ----------
+    /**
+     * New(var, obj): var = new T().
+     */
+    private final Relation newRel;
+
+    /**
+     * Assign(to, from): to = from.
+     */
+    private final Relation assign;
+
+    /**
+     * Load(to, base, field): to = base.field.
+     */
+    private final Relation load;
+
+    /**
+     * Store(base, field, from): base.field = from.
+     */
+    private final Relation store;
+
+    /**
+     * StaticLoad(to, field): to = T.field.
+     */
+    private final Relation staticLoad;
+
+    /**
+     * StaticStore(field, from): T.field = from.
+     */
+    private final Relation staticStore;
+
+    /**
+     * ArrayLoad(to, base): to = base[*].
+     */
+    private final Relation arrayLoad;
+
+    /**
+     * ArrayStore(base, from): base[*] = from.
+     */
+    private final Relation arrayStore;
+
+    /**
+     * StaticCall(invoke, callee).
+     */
+    private final Relation staticCall;
+
+    /**
+     * InstanceCall(invoke, base).
+     */
+    private final Relation instanceCall;
+
+    /**
+     * Actual(invoke, index, arg).
+     */
+    private final Relation actual;
+
+    /**
+     * Formal(method, index, param).
+     */
+    private final Relation formal;
+
+    /**
+     * ActualReturn(invoke, result).
+     */
+    private final Relation actualReturn;
+
+    /**
+     * FormalReturn(method, ret).
+     */
+    private final Relation formalReturn;
+
+    /**
+     * ThisVar(method, this).
+     */
+    private final Relation thisVar;
+
+    // ---------- derived relations ----------
+    /**
+     * VarPointsTo(var, obj).
+     */
+    private final Relation varPointsTo;
+
+    /**
+     * FieldPointsTo(base, field, obj).
+     */
+    private final Relation fieldPointsTo;
+
+    /**
+     * StaticFieldPointsTo(field, obj).
+     */
+    private final Relation staticFieldPointsTo;
+
+    /**
+     * ArrayPointsTo(array, obj).
+     */
+    private final Relation arrayPointsTo;
+
+    /**
+     * InstanceCallTarget(invoke, recv, callee).
+     */
+    private final Relation instanceCallTarget;
+
+    /**
+     * CallEdge(invoke, callee).
+     */
+    private final Relation callEdge;
+
+    /**
+     * Reachable(method).
+     */
+    private final Relation reachable;
+
+    private final Set<JMethod> extracted = new HashSet<>();
+
+    DatalogSolver(HeapModel heapModel, boolean parallel) {
+        this.heapModel = heapModel;
+        datalog = new Datalog(parallel);
+        newRel = datalog.newRelation("New", 2);
+        assign = datalog.newRelation("Assign", 2);
+        load = datalog.newRelation("Load", 3);
+        store = datalog.newRelation("Store", 3);
+        staticLoad = datalog.newRelation("StaticLoad", 2);
+        staticStore = datalog.newRelation("StaticStore", 2);
+        arrayLoad = datalog.newRelation("ArrayLoad", 2);
+        arrayStore = datalog.newRelation("ArrayStore", 2);
+        staticCall = datalog.newRelation("StaticCall", 2);
+        instanceCall = datalog.newRelation("InstanceCall", 2);
+        actual = datalog.newRelation("Actual", 3);
+        formal = datalog.newRelation("Formal", 3);
+        actualReturn = datalog.newRelation("ActualReturn", 2);
+        formalReturn = datalog.newRelation("FormalReturn", 2);
+        thisVar = datalog.newRelation("ThisVar", 2);
+        varPointsTo = datalog.newRelation("VarPointsTo", 2);
+        fieldPointsTo = datalog.newRelation("FieldPointsTo", 3);
+        staticFieldPointsTo = datalog.newRelation("StaticFieldPointsTo", 2);
+        arrayPointsTo = datalog.newRelation("ArrayPointsTo", 2);
+        instanceCallTarget = datalog.newRelation("InstanceCallTarget", 3);
+        callEdge = datalog.newRelation("CallEdge", 2);
+        reachable = datalog.newRelation("Reachable", 1);
+        addRules();
+    }
+
+    private void addRules() {
+        Variable v = new Variable("v"), to = new Variable("to"),
+                from = new Variable("from"), base = new Variable("base"),
+                f = new Variable("f"), o = new Variable("o"),
+                b = new Variable("b"), i = new Variable("i"),
+                m = new Variable("m"), k = new Variable("k"),
+                a = new Variable("a"), p = new Variable("p");
+        // x = new T()
+        datalog.addRule(new Atom(varPointsTo, v, o),
+                new Atom(newRel, v, o));
+        // x = y
+        datalog.addRule(new Atom(varPointsTo, to, o),
+                new Atom(assign, to, from), new Atom(varPointsTo, from, o));
+        // x.f = y
+        datalog.addRule(new Atom(fieldPointsTo, b, f, o),
+                new Atom(store, base, f, from), new Atom(varPointsTo, base, b),
+                new Atom(varPointsTo, from, o));
+        // y = x.f
+        datalog.addRule(new Atom(varPointsTo, to, o),
+                new Atom(load, to, base, f), new Atom(varPointsTo, base, b),
+                new Atom(fieldPointsTo, b, f, o));
+        // T.f = y
+        datalog.addRule(new Atom(staticFieldPointsTo, f, o),
+                new Atom(staticStore, f, from), new Atom(varPointsTo, from, o));
+        // y = T.f
+        datalog.addRule(new Atom(varPointsTo, to, o),
+                new Atom(staticLoad, to, f), new Atom(staticFieldPointsTo, f, o));
+        // x[*] = y
+        datalog.addRule(new Atom(arrayPointsTo, b, o),
+                new Atom(arrayStore, base, from), new Atom(varPointsTo, base, b),
+                new Atom(varPointsTo, from, o));
+        // y = x[*]
+        datalog.addRule(new Atom(varPointsTo, to, o),
+                new Atom(arrayLoad, to, base), new Atom(varPointsTo, base, b),
+                new Atom(arrayPointsTo, b, o));
+        // calls
+        datalog.addRule(new Atom(callEdge, i, m),
+                new Atom(staticCall, i, m));
+        datalog.addRule(new Atom(instanceCallTarget, i, o, m),
+                new Atom(instanceCall, i, base), new Atom(varPointsTo, base, o),
+                new Functor(new Variable[]{ i, o }, new Variable[]{ m },
+                        this::dispatch));
+        datalog.addRule(new Atom(callEdge, i, m),
+                new Atom(instanceCallTarget, i, o, m));
+        datalog.addRule(new Atom(varPointsTo, v, o),
+                new Atom(instanceCallTarget, i, o, m), new Atom(thisVar, m, v));
+        datalog.addRule(new Atom(reachable, m),
+                new Atom(callEdge, i, m));
+        datalog.addRule(new Atom(varPointsTo, p, o),
+                new Atom(callEdge, i, m), new Atom(actual, i, k, a),
+                new Atom(formal, m, k, p), new Atom(varPointsTo, a, o));
+        datalog.addRule(new Atom(varPointsTo, to, o),
+                new Atom(callEdge, i, m), new Atom(actualReturn, i, to),
+                new Atom(formalReturn, m, v), new Atom(varPointsTo, v, o));
+    }
+
+    /**
+     * Resolves the callee of an instance call on a receiver object.
+     * The class hierarchy is not guaranteed to be thread-safe,
+     * thus the resolution is synchronized.
+     */
+    private synchronized void dispatch(Object[] inputs,
+                                       Consumer<Object[]> outputs) {
+        Invoke invoke = (Invoke) inputs[0];
+        Obj recv = (Obj) inputs[1];
+        JMethod callee = CallGraphs.resolveCallee(recv.getType(), invoke);
+        if (callee != null) {
+            outputs.accept(new Object[]{ callee });
+        }
+    }
+
+    void solve() {
+        reachable.add(World.get().getMainMethod());
+        do {
+            datalog.solve();
+        } while (extractNewMethods());
+    }
+
+    /**
+     * Extracts the input relations of the methods which become reachable.
+     *
+     * @return true if any new methods are extracted, otherwise false.
+     */
+    private boolean extractNewMethods() {
+        List<JMethod> methods = new ArrayList<>();
+        reachable.forEach(t -> {
+            if (extracted.add((JMethod) t[0])) {
+                methods.add((JMethod) t[0]);
+            }
+        });
+        methods.forEach(this::extract);
+        return !methods.isEmpty();
+    }
+
+    private void extract(JMethod method) {
+        IR ir = method.getIR();
+        for (int i = 0; i < ir.getParams().size(); ++i) {
+            formal.add(method, i, ir.getParam(i));
+        }
+        ir.getReturnVars().forEach(ret -> formalReturn.add(method, ret));
+        if (ir.getThis() != null) {
+            thisVar.add(method, ir.getThis());
+        }
+        ir.forEach(stmt -> stmt.accept(new StmtVisitor<Void>() {
+
+            @Override
+            public Void visit(New stmt) {
+                newRel.add(stmt.getLValue(), heapModel.getObj(stmt));
+                return null;
+            }
+
+            @Override
+            public Void visit(Copy stmt) {
+                assign.add(stmt.getLValue(), stmt.getRValue());
+                return null;
+            }
+
+            @Override
+            public Void visit(LoadField stmt) {
+                JField field = stmt.getFieldRef().resolve();
+                if (stmt.isStatic()) {
+                    staticLoad.add(stmt.getLValue(), field);
+                } else {
+                    Var base = ((InstanceFieldAccess) stmt.getFieldAccess()).getBase();
+                    load.add(stmt.getLValue(), base, field);
+                }
+                return null;
+            }
+
+            @Override
+            public Void visit(StoreField stmt) {
+                JField field = stmt.getFieldRef().resolve();
+                if (stmt.isStatic()) {
+                    staticStore.add(field, stmt.getRValue());
+                } else {
+                    Var base = ((InstanceFieldAccess) stmt.getFieldAccess()).getBase();
+                    store.add(base, field, stmt.getRValue());
+                }
+                return null;
+            }
+
+            @Override
+            public Void visit(LoadArray stmt) {
+                arrayLoad.add(stmt.getLValue(), stmt.getArrayAccess().getBase());
+                return null;
+            }
+
+            @Override
+            public Void visit(StoreArray stmt) {
+                arrayStore.add(stmt.getArrayAccess().getBase(), stmt.getRValue());
+                return null;
+            }
+
+            @Override
+            public Void visit(Invoke stmt) {
+                InvokeExp invokeExp = stmt.getInvokeExp();
+                if (invokeExp instanceof InvokeInstanceExp instanceExp) {
+                    instanceCall.add(stmt, instanceExp.getBase());
+                } else if (invokeExp instanceof InvokeStatic) {
+                    JMethod callee = CallGraphs.resolveCallee(null, stmt);
+                    if (callee != null) {
+                        staticCall.add(stmt, callee);
+                    }
+                }
+                for (int i = 0; i < invokeExp.getArgCount(); ++i) {
+                    actual.add(stmt, i, invokeExp.getArg(i));
+                }
+                if (stmt.getResult() != null) {
+                    actualReturn.add(stmt, stmt.getResult());
+                }
+                return null;
+            }
+        }));
+    }
+
+    /**
+     * Converts the derived relations to the result.
+     */
+    CIPTAResult getResult() {
+        PointerFlowGraph pfg = new PointerFlowGraph();
+        varPointsTo.forEach(t -> pfg.getVarPtr((Var) t[0])
+                .getPointsToSet().addObject((Obj) t[1]));
+        fieldPointsTo.forEach(t -> pfg.getInstanceField((Obj) t[0], (JField) t[1])
+                .getPointsToSet().addObject((Obj) t[2]));
+        staticFieldPointsTo.forEach(t -> pfg.getStaticField((JField) t[0])
+                .getPointsToSet().addObject((Obj) t[1]));
+        arrayPointsTo.forEach(t -> pfg.getArrayIndex((Obj) t[0])
+                .getPointsToSet().addObject((Obj) t[1]));
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        JMethod main = World.get().getMainMethod();
+        callGraph.addEntryMethod(main);
+        callGraph.addReachableMethod(main);
+        reachable.forEach(t -> callGraph.addReachableMethod((JMethod) t[0]));
+        callEdge.forEach(t -> {
+            Invoke invoke = (Invoke) t[0];
+            callGraph.addEdge(new Edge<>(Solver.getCallKind(invoke.getInvokeExp()),
+                    invoke, (JMethod) t[1]));
+        });
+        return new CIPTAResult(pfg, PointsToIndex.freeze(pfg), callGraph, false);
+    }
+}
@@ -25,6 +25,7 @@ package pascal.taie.analysis.pta.ci;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.language.classes.JField;
+import pascal.taie.language.type.Type;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
 import pascal.taie.util.collection.Sets;
@@ -121,6 +122,13 @@ class PointerFlowGraph {
         });
     }
 
+    /**
+     * Map from an edge (source -> target) to the types that filter
+     * the objects flowing along the edge, i.e., the types of the casts
+     * from source to target. An object flows if it matches any of them.
+     */
+    private final TwoKeyMap<Pointer, Pointer, Set<Type>> filters = Maps.newTwoKeyMap();
+
     /**
      * Adds an edge (source -> target) to this PFG.
      *
@@ -128,7 +136,39 @@ class PointerFlowGraph {
      * otherwise false.
      */
     boolean addEdge(Pointer source, Pointer target) {
-        return successors.put(source, target);
+        boolean added = successors.put(source, target);
+        // an edge without filter subsumes the filtered edge
+        boolean unfiltered = !filters.isEmpty()
+                && filters.remove(source, target) != null;
+        return added || unfiltered;
+    }
+
+    /**
+     * Adds an edge (source -> target) whose objects are filtered by
+     * given type to this PFG. If the edge already exists with filters,
+     * the type is added to them, and if it exists without filter,
+     * the edge is not changed.
+     *
+     * @return true if this PFG changed as a result of the call,
+     * otherwise false.
+     */
+    boolean addEdge(Pointer source, Pointer target, Type filter) {
+        if (successors.put(source, target)) {
+            Set<Type> types = Sets.newHybridSet();
+            types.add(filter);
+            filters.put(source, target, types);
+            return true;
+        }
+        Set<Type> types = getFilters(source, target);
+        return types != null && types.add(filter);
+    }
+
+    /**
+     * @return the filter types of edge (source -> target),
+     * or null if the edge has no filter.
+     */
+    Set<Type> getFilters(Pointer source, Pointer target) {
+        return filters.isEmpty() ? null : filters.get(source, target);
     }
 
     /**
@@ -137,4 +177,12 @@ class PointerFlowGraph {
     Set<Pointer> getSuccsOf(Pointer pointer) {
         return successors.get(pointer);
     }
+
+    /**
+     * Removes all edges of this PFG, which are useless after the analysis.
+     */
+    void clearEdges() {
+        successors.clear();
+        filters.clear();
+    }
 }
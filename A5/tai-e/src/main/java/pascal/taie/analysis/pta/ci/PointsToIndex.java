@@ -0,0 +1,212 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.language.classes.JField;
+import pascal.taie.util.collection.Maps;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Frozen, read-only form of the points-to sets of a finished analysis.
+ * <p>
+ * Each points-to set is converted to a sorted array of object ids,
+ * and the reverse index from fields to their base objects is built,
+ * so that the queries on the result need not scan or cache
+ * the points-to sets of pointers.
+ */
+class PointsToIndex {
+
+    /**
+     * Objects in the points-to sets, indexed by their ids.
+     */
+    private final List<Obj> objects = new ArrayList<>();
+
+    private final Map<Obj, Integer> objIds = Maps.newMap();
+
+    /**
+     * Map from instance field to the field pointers of its base objects,
+     * sorted by the ids of the base objects.
+     */
+    private final Map<JField, FieldBases> fieldBases = Maps.newMap();
+
+    private final ObjSet empty = new ObjSet(new int[0]);
+
+    private PointsToIndex() {
+    }
+
+    /**
+     * Freezes the points-to sets of all pointers in given PFG, and
+     * releases the edges of the PFG, which are not needed any more.
+     */
+    static PointsToIndex freeze(PointerFlowGraph pointerFlowGraph) {
+        PointsToIndex index = new PointsToIndex();
+        // the points-to sets shared by PointsToSetInterner stay shared
+        Map<Set<Obj>, ObjSet> frozen = new IdentityHashMap<>();
+        Map<JField, List<InstanceField>> fieldPtrs = Maps.newMap();
+        for (Pointer pointer : pointerFlowGraph.getPointers()) {
+            PointsToSet pts = pointer.getPointsToSet();
+            ObjSet set = frozen.computeIfAbsent(pts.getSet(), index::toObjSet);
+            pts.share(set);
+            if (pointer instanceof InstanceField field) {
+                fieldPtrs.computeIfAbsent(field.getField(), f -> new ArrayList<>())
+                        .add(field);
+            }
+        }
+        fieldPtrs.forEach((field, ptrs) -> {
+            ptrs.sort(Comparator.comparingInt(p -> index.objIds.get(p.getBase())));
+            int[] bases = ptrs.stream()
+                    .mapToInt(p -> index.objIds.get(p.getBase()))
+                    .toArray();
+            index.fieldBases.put(field, new FieldBases(
+                    bases, ptrs.toArray(new InstanceField[0])));
+        });
+        pointerFlowGraph.clearEdges();
+        return index;
+    }
+
+    private ObjSet toObjSet(Set<Obj> set) {
+        if (set.isEmpty()) {
+            return empty;
+        }
+        int[] ids = new int[set.size()];
+        int i = 0;
+        for (Obj obj : set) {
+            ids[i++] = objIds.computeIfAbsent(obj, o -> {
+                objects.add(o);
+                return objects.size() - 1;
+            });
+        }
+        Arrays.sort(ids);
+        return new ObjSet(ids);
+    }
+
+    /**
+     * @return all objects in the points-to sets.
+     */
+    Collection<Obj> getObjects() {
+        return Collections.unmodifiableList(objects);
+    }
+
+    /**
+     * @return the objects pointed to by field {@code field}
+     * of the objects in {@code basePts}.
+     */
+    Set<Obj> getPointsToSet(PointsToSet basePts, JField field) {
+        FieldBases fb = fieldBases.get(field);
+        if (fb == null || basePts.isEmpty()) {
+            return empty;
+        }
+        int[] bases = idsOf(basePts);
+        BitSet result = new BitSet();
+        // both arrays are sorted, thus merge them to find common bases
+        for (int i = 0, j = 0; i < bases.length && j < fb.bases.length; ) {
+            if (bases[i] < fb.bases[j]) {
+                ++i;
+            } else if (bases[i] > fb.bases[j]) {
+                ++j;
+            } else {
+                for (int id : idsOf(fb.pointers[j].getPointsToSet())) {
+                    result.set(id);
+                }
+                ++i;
+                ++j;
+            }
+        }
+        return result.isEmpty() ? empty : new ObjSet(result.stream().toArray());
+    }
+
+    private int[] idsOf(PointsToSet pts) {
+        if (pts.getSet() instanceof ObjSet set) {
+            return set.ids;
+        }
+        // pointers created after freezing, e.g., by queries of variables
+        // that are unknown to the analysis
+        return pts.objects()
+                .map(objIds::get)
+                .filter(id -> id != null)
+                .mapToInt(Integer::intValue)
+                .sorted()
+                .toArray();
+    }
+
+    private record FieldBases(int[] bases, InstanceField[] pointers) {
+    }
+
+    /**
+     * Read-only set of objects represented by sorted object ids.
+     */
+    private class ObjSet extends AbstractSet<Obj> {
+
+        private final int[] ids;
+
+        private ObjSet(int[] ids) {
+            this.ids = ids;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            Integer id = objIds.get(o);
+            return id != null && Arrays.binarySearch(ids, id) >= 0;
+        }
+
+        @Override
+        public Iterator<Obj> iterator() {
+            return new Iterator<>() {
+
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < ids.length;
+                }
+
+                @Override
+                public Obj next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return objects.get(ids[next++]);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return ids.length;
+        }
+    }
+}
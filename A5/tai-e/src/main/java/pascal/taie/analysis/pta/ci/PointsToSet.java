@@ -32,10 +32,19 @@ import java.util.stream.Stream;
 
 /**
  * Represents of points-to sets.
+ * <p>
+ * The underlying set may be shared by multiple points-to sets with
+ * identical contents (see {@link PointsToSetInterner}), in which case
+ * it is copied before the first modification.
  */
 class PointsToSet implements Iterable<Obj> {
 
-    private final Set<Obj> set = Sets.newHybridSet();
+    private Set<Obj> set = Sets.newHybridSet();
+
+    /**
+     * Whether {@link #set} is shared with other points-to sets.
+     */
+    private boolean shared;
 
     /**
      * Constructs an empty points-to set.
@@ -57,6 +66,13 @@ class PointsToSet implements Iterable<Obj> {
      * otherwise false.
      */
     boolean addObject(Obj obj) {
+        if (shared) {
+            if (set.contains(obj)) {
+                return false;
+            }
+            set = Sets.newHybridSet(set);
+            shared = false;
+        }
         return set.add(obj);
     }
 
@@ -95,6 +111,22 @@ class PointsToSet implements Iterable<Obj> {
         return Collections.unmodifiableSet(set);
     }
 
+    /**
+     * @return the underlying set, which must not be modified by the caller.
+     */
+    Set<Obj> getSet() {
+        return set;
+    }
+
+    /**
+     * Makes this points-to set use given set, which is shared with
+     * other points-to sets and thus must not be modified afterwards.
+     */
+    void share(Set<Obj> set) {
+        this.set = set;
+        this.shared = true;
+    }
+
     @Override
     public Iterator<Obj> iterator() {
         return set.iterator();
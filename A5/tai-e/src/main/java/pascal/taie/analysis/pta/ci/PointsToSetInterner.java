@@ -0,0 +1,71 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hash-conses points-to sets, i.e., makes the points-to sets with
+ * identical contents share one underlying set, which is copied
+ * when one of them is modified later.
+ * <p>
+ * Many pointers end up with identical points-to sets (e.g., parameters
+ * fed by a single argument), thus sharing them reduces the memory
+ * footprint of the analysis, especially after it finishes.
+ */
+class PointsToSetInterner {
+
+    private static final Logger logger = LogManager.getLogger(PointsToSetInterner.class);
+
+    /**
+     * Interns given points-to sets and reports the saved memory.
+     */
+    static void intern(Iterable<PointsToSet> pointsToSets) {
+        Map<Set<Obj>, PointsToSet> canonical = Maps.newMap();
+        int sets = 0, shared = 0;
+        long objects = 0, released = 0;
+        for (PointsToSet pts : pointsToSets) {
+            if (pts.isEmpty()) {
+                continue;
+            }
+            ++sets;
+            objects += pts.size();
+            PointsToSet first = canonical.putIfAbsent(pts.getSet(), pts);
+            if (first != null && first.getSet() != pts.getSet()) {
+                first.share(first.getSet());
+                pts.share(first.getSet());
+                ++shared;
+                released += pts.size();
+            }
+        }
+        logger.info("Shared {} of {} non-empty points-to sets,"
+                        + " released {} of {} object entries",
+                shared, sets, released, objects);
+    }
+}
@@ -25,24 +25,30 @@ package pascal.taie.analysis.pta.ci;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
+import pascal.taie.analysis.AnalysisScope;
 import pascal.taie.analysis.graph.callgraph.CallGraphs;
 import pascal.taie.analysis.graph.callgraph.CallKind;
 import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
 import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.LibraryModel;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.config.AnalysisOptions;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
 import pascal.taie.ir.stmt.*;
 import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ReferenceType;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Instrumentation;
+import pascal.taie.util.Progress;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
 
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 class Solver {
 
@@ -50,26 +56,86 @@ class Solver {
 
     private final HeapModel heapModel;
 
+    private final Instrumentation instrumentation;
+
+    private final Progress progress;
+
     private DefaultCallGraph callGraph;
 
+    /**
+     * Filters objects by the types of pointers, or null if disabled.
+     */
+    private final TypeFilter typeFilter;
+
+    /**
+     * Whether to share identical points-to sets when the analysis finishes,
+     * see {@link PointsToSetInterner}.
+     */
+    private final boolean ptsSharing;
+
+    /**
+     * Number of work-list entries between two passes of sharing
+     * points-to sets during the analysis, 0 to disable.
+     */
+    private final int ptsSharingInterval;
+
+    private final AnalysisScope scope;
+
+    /**
+     * Models the calls to the methods out of scope, or null if
+     * such calls are ignored.
+     */
+    private final LibraryModel libraryModel;
+
+    /**
+     * Maps each argument variable of {@link LibraryModel.Kind#STORE_ALL}
+     * calls to the contents of the receivers, which the contents of
+     * the objects pointed to by the variable flow to.
+     */
+    private final MultiMap<Var, Pointer> contentsCopies = Maps.newMultiMap();
+
     private PointerFlowGraph pointerFlowGraph;
 
+    private PointsToIndex pointsToIndex;
+
     private WorkList workList;
 
     private StmtProcessor stmtProcessor;
 
     private ClassHierarchy hierarchy;
 
-    Solver(HeapModel heapModel) {
+    Solver(AnalysisOptions options, HeapModel heapModel) {
         this.heapModel = heapModel;
+        this.typeFilter = options.getBooleanOrDefault("type-filter", false)
+                ? new TypeFilter(World.get().getTypeSystem()) : null;
+        this.ptsSharing = options.getBooleanOrDefault("pts-sharing", false);
+        this.ptsSharingInterval = CIPTA.getIntOrDefault(
+                options, "pts-sharing-interval", 0);
+        this.scope = AnalysisScope.of(options);
+        this.libraryModel = options.getBooleanOrDefault("library-boundary", false)
+                ? new LibraryModel() : null;
+        this.instrumentation = new Instrumentation(CIPTA.ID,
+                options.getBooleanOrDefault("instrument", false));
+        this.progress = Progress.make(CIPTA.ID, options);
     }
 
     /**
      * Runs pointer analysis algorithm.
      */
     void solve() {
+        Instrumentation.Phase phase = instrumentation.startPhase("initialize");
         initialize();
+        phase.close();
+        phase = instrumentation.startPhase("analyze");
         analyze();
+        phase.close();
+        if (ptsSharing) {
+            sharePointsToSets();
+        }
+        phase = instrumentation.startPhase("freeze");
+        freeze();
+        phase.close();
+        instrumentation.finish(World.get().getMainMethod());
     }
 
     /**
@@ -97,6 +163,7 @@ class Solver {
             // 突然发现ReachableStmts好像用不上...?
             for (Stmt stmt:stmts) {
                 // 访问者模式，会利用多态调用到stmtProcessor的不同类型的方法
+                instrumentation.onTransfer(stmt);
                 stmt.accept(stmtProcessor);
             }
 
@@ -137,6 +204,19 @@ class Solver {
             return null;
         }
 
+        @Override
+        public Void visit(Cast stmt) {
+            // x = (T) y, only handled with type filter, as the objects
+            // flowing to x must be filtered by T
+            Type castType = stmt.getRValue().getCastType();
+            if (typeFilter != null && castType instanceof ReferenceType) {
+                Pointer source = pointerFlowGraph.getVarPtr(stmt.getRValue().getValue());
+                Pointer target = pointerFlowGraph.getVarPtr(stmt.getLValue());
+                addPFGEdge(source, target, castType);
+            }
+            return null;
+        }
+
         @Override
         public Void visit(LoadField stmt) {
             // y = x.f
@@ -171,7 +251,10 @@ class Solver {
             if(getCallKind(invokeExp) == CallKind.STATIC) {
                 // null 用于解析静态方法和special方法
                 JMethod method = resolveCallee(null, stmt);
-                if (callGraph.addEdge(new Edge<>(CallKind.STATIC, stmt, method))) {
+                if (method == null || !scope.contains(method)) {
+                    processLibraryCall(stmt, null);
+                } else if (callGraph.addEdge(new Edge<>(CallKind.STATIC, stmt, method))) {
+                    instrumentation.onCallEdge();
                     addReachable(method);
                     for (int i = 0; i < invokeExp.getArgCount(); i++) {
                         Pointer source = pointerFlowGraph.getVarPtr(invokeExp.getArg(i));
@@ -195,13 +278,40 @@ class Solver {
      * Adds an edge "source -> target" to the PFG.
      */
     private void addPFGEdge(Pointer source, Pointer target) {
+        addPFGEdge(source, target, null);
+    }
+
+    /**
+     * Adds an edge "source -> target" whose objects are filtered by
+     * given type (null for no filter) to the PFG.
+     */
+    private void addPFGEdge(Pointer source, Pointer target, Type filter) {
         // TODO - finish me
-        if(pointerFlowGraph.addEdge(source, target)){
+        boolean changed = filter == null
+                ? pointerFlowGraph.addEdge(source, target)
+                : pointerFlowGraph.addEdge(source, target, filter);
+        if(changed){
+            instrumentation.onPFGEdge();
             // 应当保证算法中source是一个已经存在的节点，target是一个空的节点
             if(!source.getPointsToSet().isEmpty()){
-                workList.addEntry(target, source.getPointsToSet());
+                addEntry(source, target, source.getPointsToSet());
+            }
+        }
+    }
+
+    /**
+     * Adds the objects in pts that can flow along edge "source -> target"
+     * to the work list.
+     */
+    private void addEntry(Pointer source, Pointer target, PointsToSet pts) {
+        if (typeFilter != null) {
+            pts = typeFilter.filter(pts, target,
+                    pointerFlowGraph.getFilters(source, target));
+            if (pts.isEmpty()) {
+                return;
             }
         }
+        workList.addEntry(target, pts);
     }
 
     /**
@@ -214,8 +324,14 @@ class Solver {
             throw new AnalysisException("more than one entry method");
         }
         addReachable(entryList.get(0));
+        progress.start(workList::size, callGraph::getNumberOfMethods);
+        long steps = 0;
         while (!workList.isEmpty()) {
+            if (ptsSharingInterval > 0 && ++steps % ptsSharingInterval == 0) {
+                sharePointsToSets();
+            }
             WorkList.Entry entry = workList.pollEntry();
+            instrumentation.onPoll();
             Pointer pointer = entry.pointer();
             PointsToSet objs = entry.pointsToSet();
 
@@ -252,11 +368,22 @@ class Solver {
                         addPFGEdge(source, target);
                     });
                     processCall(((VarPtr) pointer).getVar(), obj);
+                    processContentsCopies(var, obj);
                 }
             }
+            if (!progress.step()) {
+                break;
+            }
         }
     }
 
+    private void sharePointsToSets() {
+        PointsToSetInterner.intern(() -> pointerFlowGraph.getPointers()
+                .stream()
+                .map(Pointer::getPointsToSet)
+                .iterator());
+    }
+
     /**
      * Propagates pointsToSet to pt(pointer) and its PFG successors,
      * returns the difference set of pointsToSet and pt(pointer).
@@ -285,7 +412,8 @@ class Solver {
         }
         // 把所有后继添加进worklist等待更新
         if(!diffObjs.isEmpty()){
-            pointerFlowGraph.getSuccsOf(pointer).forEach(succ -> workList.addEntry(succ, diffObjs));
+            instrumentation.onPropagate(diffObjs.size());
+            pointerFlowGraph.getSuccsOf(pointer).forEach(succ -> addEntry(pointer, succ, diffObjs));
         }
         return diffObjs;
     }
@@ -300,10 +428,15 @@ class Solver {
         // TODO - finish me
         var.getInvokes().forEach(invoke -> {
             JMethod method = resolveCallee(recv, invoke);
+            if (method == null || !scope.contains(method)) {
+                processLibraryCall(invoke, recv);
+                return;
+            }
             IR ir = method.getIR();
             InvokeExp invokeExp = invoke.getInvokeExp();
             workList.addEntry(pointerFlowGraph.getVarPtr(ir.getThis()), new PointsToSet(recv));
             if(callGraph.addEdge(new Edge<>(getCallKind(invokeExp), invoke, method))) {
+                instrumentation.onCallEdge();
                 addReachable(method);
                 for (int i = 0; i < invokeExp.getArgCount(); i++) {
                     Pointer source = pointerFlowGraph.getVarPtr(invokeExp.getArg(i));
@@ -321,6 +454,79 @@ class Solver {
         });
     }
 
+    /**
+     * Processes a call to a method out of scope (or an unresolved method).
+     * The callee is not analyzed and, as in CHA, no call edge is added to it,
+     * since the clients of the call graph expect the callees to be reachable
+     * methods. The call is modeled by {@link LibraryModel} if the library
+     * boundary is enabled.
+     *
+     * @param recv the receiver object, or null for static calls.
+     */
+    private void processLibraryCall(Invoke invoke, Obj recv) {
+        if (libraryModel == null) {
+            return;
+        }
+        Var result = invoke.getResult();
+        switch (libraryModel.getKind(invoke)) {
+            case STORE -> {
+                Pointer contents = pointerFlowGraph.getInstanceField(
+                        recv, libraryModel.getContentsField());
+                invoke.getInvokeExp().getArgs().forEach(arg -> {
+                    if (arg.getType() instanceof ReferenceType) {
+                        addPFGEdge(pointerFlowGraph.getVarPtr(arg), contents);
+                    }
+                });
+                if (result != null && result.getType() instanceof ReferenceType) {
+                    addPFGEdge(contents, pointerFlowGraph.getVarPtr(result));
+                }
+            }
+            case STORE_ALL -> {
+                Pointer contents = pointerFlowGraph.getInstanceField(
+                        recv, libraryModel.getContentsField());
+                invoke.getInvokeExp().getArgs().forEach(arg -> {
+                    if (arg.getType() instanceof ReferenceType
+                            && contentsCopies.put(arg, contents)) {
+                        pointerFlowGraph.getVarPtr(arg).getPointsToSet().forEach(
+                                obj -> processContentsCopy(obj, contents));
+                    }
+                });
+            }
+            case LOAD -> addPFGEdge(pointerFlowGraph.getInstanceField(
+                            recv, libraryModel.getContentsField()),
+                    pointerFlowGraph.getVarPtr(result));
+            case VIEW -> {
+                Obj view = libraryModel.getSummaryObj(invoke);
+                addPFGEdge(pointerFlowGraph.getInstanceField(
+                                recv, libraryModel.getContentsField()),
+                        pointerFlowGraph.getInstanceField(
+                                view, libraryModel.getContentsField()));
+                workList.addEntry(pointerFlowGraph.getVarPtr(result),
+                        new PointsToSet(view));
+            }
+            case RETURN_RECEIVER -> workList.addEntry(
+                    pointerFlowGraph.getVarPtr(result), new PointsToSet(recv));
+            case RETURN_SUMMARY -> workList.addEntry(
+                    pointerFlowGraph.getVarPtr(result),
+                    new PointsToSet(libraryModel.getSummaryObj(invoke)));
+            case NONE -> {
+            }
+        }
+    }
+
+    /**
+     * Copies the contents of a new object pointed to by given argument
+     * variable of {@link LibraryModel.Kind#STORE_ALL} calls.
+     */
+    private void processContentsCopies(Var var, Obj obj) {
+        contentsCopies.get(var).forEach(
+                contents -> processContentsCopy(obj, contents));
+    }
+
+    private void processContentsCopy(Obj obj, Pointer contents) {
+        addPFGEdge(pointerFlowGraph.getInstanceField(
+                obj, libraryModel.getContentsField()), contents);
+    }
 
     public static CallKind getCallKind(InvokeExp invokeExp) {
         if (invokeExp instanceof InvokeVirtual) {
@@ -350,7 +556,18 @@ class Solver {
         return CallGraphs.resolveCallee(type, callSite);
     }
 
+    /**
+     * Converts the points-to sets to the frozen form for queries,
+     * and releases the structures that are only used by the solver.
+     */
+    private void freeze() {
+        pointsToIndex = PointsToIndex.freeze(pointerFlowGraph);
+        workList = null;
+        stmtProcessor = null;
+    }
+
     CIPTAResult getResult() {
-        return new CIPTAResult(pointerFlowGraph, callGraph);
+        return new CIPTAResult(pointerFlowGraph, pointsToIndex, callGraph,
+                progress.isStopped());
     }
 }
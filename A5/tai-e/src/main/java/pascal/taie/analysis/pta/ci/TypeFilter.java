@@ -0,0 +1,103 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.TwoKeyMap;
+
+import java.util.Set;
+
+/**
+ * Filters the objects that flow along PFG edges by the declared type of
+ * the target pointer and, for the edges of casts, by the cast type,
+ * so that a pointer only points to the objects compatible with its type.
+ */
+class TypeFilter {
+
+    private final TypeSystem typeSystem;
+
+    /**
+     * Cache of subtype checks, from (object type, pointer type)
+     * to whether the object can be assigned to the pointer.
+     */
+    private final TwoKeyMap<Type, Type, Boolean> compatible = Maps.newTwoKeyMap();
+
+    TypeFilter(TypeSystem typeSystem) {
+        this.typeSystem = typeSystem;
+    }
+
+    /**
+     * @return the objects in {@code pts} that can flow to {@code target}
+     * along an edge with given filter types (null if the edge has no filter).
+     * If all objects can flow, {@code pts} itself is returned.
+     */
+    PointsToSet filter(PointsToSet pts, Pointer target, Set<Type> filters) {
+        Type type = getType(target);
+        if (pts.objects().allMatch(o -> isCompatible(o, type)
+                && isCompatible(o, filters))) {
+            return pts;
+        }
+        PointsToSet result = new PointsToSet();
+        pts.objects()
+                .filter(o -> isCompatible(o, type) && isCompatible(o, filters))
+                .forEach(result::addObject);
+        return result;
+    }
+
+    /**
+     * @return the declared type of given pointer, or null if the type is unknown.
+     */
+    private static Type getType(Pointer pointer) {
+        if (pointer instanceof VarPtr varPtr) {
+            return varPtr.getVar().getType();
+        } else if (pointer instanceof StaticField staticField) {
+            return staticField.getField().getType();
+        } else if (pointer instanceof InstanceField instanceField) {
+            return instanceField.getField().getType();
+        } else if (pointer instanceof ArrayIndex arrayIndex
+                && arrayIndex.getArray().getType() instanceof ArrayType arrayType) {
+            return arrayType.elementType();
+        }
+        return null;
+    }
+
+    private boolean isCompatible(Obj obj, Set<Type> filters) {
+        return filters == null
+                || filters.stream().anyMatch(f -> isCompatible(obj, f));
+    }
+
+    private boolean isCompatible(Obj obj, Type type) {
+        // only reference types are checked, as the objects of other types,
+        // e.g., mock objects, are not assigned by the program
+        if (!(type instanceof ReferenceType) || obj.getType() == null) {
+            return true;
+        }
+        return compatible.computeIfAbsent(obj.getType(), type,
+                (objType, t) -> typeSystem.isSubtype(t, objType));
+    }
+}
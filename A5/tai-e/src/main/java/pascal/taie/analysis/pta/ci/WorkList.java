@@ -47,6 +47,13 @@ class WorkList {
         return entries.poll();
     }
 
+    /**
+     * @return the number of pending entries in this work list.
+     */
+    int size() {
+        return entries.size();
+    }
+
     /**
      * @return true if the work list is empty, otherwise false.
      */
@@ -0,0 +1,61 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.datalog;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Atom of a Datalog rule, i.e., a relation applied to terms, where each
+ * term is either a {@link Variable} or a constant.
+ */
+public final class Atom implements Literal {
+
+    private final Relation relation;
+
+    private final Object[] terms;
+
+    public Atom(Relation relation, Object... terms) {
+        if (terms.length != relation.getArity()) {
+            throw new IllegalArgumentException("Arity of " + relation
+                    + " is " + relation.getArity() + ", given " + terms.length);
+        }
+        this.relation = relation;
+        this.terms = terms;
+    }
+
+    public Relation getRelation() {
+        return relation;
+    }
+
+    Object[] getTerms() {
+        return terms;
+    }
+
+    @Override
+    public String toString() {
+        return relation + Arrays.stream(terms)
+                .map(String::valueOf)
+                .collect(Collectors.joining(", ", "(", ")"));
+    }
+}
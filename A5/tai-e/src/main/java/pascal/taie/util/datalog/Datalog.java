@@ -0,0 +1,366 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.datalog;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Embedded Datalog engine, which evaluates the rules by the semi-naive
+ * algorithm: at each iteration, a rule is only evaluated for the tuples
+ * which are new at the previous iteration (the delta) of one of its
+ * body atoms, and joined with all tuples of the other atoms by the
+ * column indexes. The rule evaluations of an iteration are independent,
+ * thus they can be performed in parallel.
+ * <p>
+ * Facts can be added between two calls of {@link #solve()}, which
+ * continues from the previous fixpoint.
+ */
+public class Datalog {
+
+    private static final Logger logger = LogManager.getLogger(Datalog.class);
+
+    private final boolean parallel;
+
+    private final List<Relation> relations = new ArrayList<>();
+
+    /**
+     * Evaluation plans of the rules, one for each body atom
+     * whose delta drives the evaluation.
+     */
+    private final List<Plan> plans = new ArrayList<>();
+
+    private long iterations;
+
+    /**
+     * @param parallel whether to evaluate the rules in parallel.
+     */
+    public Datalog(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public Relation newRelation(String name, int arity) {
+        Relation relation = new Relation(name, arity);
+        relations.add(relation);
+        return relation;
+    }
+
+    /**
+     * Adds a rule {@code head :- body}. Each variable in the head and
+     * each input of the functors must be bound by the atoms in the body.
+     */
+    public void addRule(Atom head, Literal... body) {
+        for (int i = 0; i < body.length; ++i) {
+            if (body[i] instanceof Atom) {
+                plans.add(new Plan(head, body, i));
+            }
+        }
+    }
+
+    /**
+     * Evaluates the rules until no new tuples can be derived.
+     */
+    public void solve() {
+        while (promote()) {
+            ++iterations;
+            List<List<Pair>> results = (parallel ? plans.parallelStream() : plans.stream())
+                    .filter(p -> !p.deltaRelation().getDelta().isEmpty())
+                    .map(Plan::evaluate)
+                    .collect(Collectors.toList());
+            results.forEach(r -> r.forEach(p -> p.relation.add(p.tuple)));
+        }
+        logger.debug("Datalog reaches fixpoint after {} iterations: {}",
+                iterations, relations.stream()
+                        .map(r -> r + "=" + r.size())
+                        .collect(Collectors.joining(", ")));
+    }
+
+    /**
+     * @return the total number of iterations.
+     */
+    public long getIterations() {
+        return iterations;
+    }
+
+    private boolean promote() {
+        boolean changed = false;
+        for (Relation relation : relations) {
+            changed |= relation.promote();
+        }
+        return changed;
+    }
+
+    private record Pair(Relation relation, Object[] tuple) {
+    }
+
+    /**
+     * Evaluation plan of a rule, which starts from the delta of
+     * a body atom, followed by the other literals in the order
+     * in which the inputs of each functor are bound.
+     */
+    private static class Plan {
+
+        private final Relation headRelation;
+
+        /**
+         * For each term of the head, the slot of its variable,
+         * or -1 if it is a constant.
+         */
+        private final int[] headSlots;
+
+        private final Object[] headTerms;
+
+        private final Step[] steps;
+
+        private final int slotCount;
+
+        Plan(Atom head, Literal[] body, int deltaIndex) {
+            Map<Variable, Integer> slots = new HashMap<>();
+            List<Literal> order = new ArrayList<>();
+            order.add(body[deltaIndex]);
+            List<Literal> rest = new ArrayList<>(Arrays.asList(body));
+            rest.remove(deltaIndex);
+            List<Step> steps = new ArrayList<>();
+            while (true) {
+                Literal literal = order.get(order.size() - 1);
+                steps.add(literal instanceof Atom a
+                        ? new AtomStep(a, slots, steps.isEmpty())
+                        : new FunctorStep((Functor) literal, slots));
+                Literal next = rest.stream()
+                        .filter(l -> !(l instanceof Functor f) ||
+                                Stream.of(f.getInputs()).allMatch(slots::containsKey))
+                        .findFirst()
+                        .orElse(null);
+                if (next == null) {
+                    break;
+                }
+                rest.remove(next);
+                order.add(next);
+            }
+            if (!rest.isEmpty()) {
+                throw new IllegalArgumentException("Unbound inputs of " + rest);
+            }
+            this.headRelation = head.getRelation();
+            this.headTerms = head.getTerms();
+            this.headSlots = new int[headTerms.length];
+            for (int i = 0; i < headTerms.length; ++i) {
+                if (headTerms[i] instanceof Variable v) {
+                    Integer slot = slots.get(v);
+                    if (slot == null) {
+                        throw new IllegalArgumentException(
+                                "Unbound variable " + v + " in " + head);
+                    }
+                    headSlots[i] = slot;
+                } else {
+                    headSlots[i] = -1;
+                }
+            }
+            this.steps = steps.toArray(new Step[0]);
+            this.slotCount = slots.size();
+        }
+
+        Relation deltaRelation() {
+            return ((AtomStep) steps[0]).relation;
+        }
+
+        List<Pair> evaluate() {
+            List<Pair> results = new ArrayList<>();
+            evaluate(0, new Object[slotCount], results);
+            return results;
+        }
+
+        private void evaluate(int i, Object[] env, List<Pair> results) {
+            if (i == steps.length) {
+                Object[] tuple = new Object[headTerms.length];
+                for (int j = 0; j < tuple.length; ++j) {
+                    tuple[j] = headSlots[j] >= 0 ? env[headSlots[j]] : headTerms[j];
+                }
+                results.add(new Pair(headRelation, tuple));
+            } else if (steps[i] instanceof AtomStep step) {
+                for (Object[] tuple : step.candidates(env)) {
+                    if (step.match(tuple, env)) {
+                        evaluate(i + 1, env, results);
+                    }
+                }
+            } else {
+                FunctorStep step = (FunctorStep) steps[i];
+                Object[] inputs = new Object[step.inputSlots.length];
+                for (int j = 0; j < inputs.length; ++j) {
+                    inputs[j] = env[step.inputSlots[j]];
+                }
+                List<Object[]> outputs = new ArrayList<>();
+                step.functor.apply(inputs, outputs::add);
+                for (Object[] output : outputs) {
+                    if (step.match(output, env)) {
+                        evaluate(i + 1, env, results);
+                    }
+                }
+            }
+        }
+    }
+
+    private interface Step {
+    }
+
+    /**
+     * Kinds of terms in a step.
+     */
+    private static final int CONSTANT = 0, BOUND = 1, FREE = 2;
+
+    /**
+     * Matches a tuple of values against the terms, binding the variables
+     * which are first bound by this step.
+     */
+    private static boolean match(int[] kinds, int[] termSlots, Object[] constants,
+                                 Object[] values, Object[] env) {
+        for (int j = 0; j < kinds.length; ++j) {
+            switch (kinds[j]) {
+                case CONSTANT -> {
+                    if (!constants[j].equals(values[j])) {
+                        return false;
+                    }
+                }
+                case BOUND -> {
+                    if (!env[termSlots[j]].equals(values[j])) {
+                        return false;
+                    }
+                }
+                default -> env[termSlots[j]] = values[j];
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Classifies given terms, and allocates slots for the new variables.
+     */
+    private static int[] classify(Object[] terms, int[] termSlots,
+                                  Map<Variable, Integer> slots) {
+        int[] kinds = new int[terms.length];
+        for (int j = 0; j < terms.length; ++j) {
+            if (terms[j] instanceof Variable v) {
+                Integer slot = slots.get(v);
+                if (slot == null) {
+                    slot = slots.size();
+                    slots.put(v, slot);
+                    kinds[j] = FREE;
+                } else {
+                    kinds[j] = BOUND;
+                }
+                termSlots[j] = slot;
+            } else {
+                kinds[j] = CONSTANT;
+            }
+        }
+        return kinds;
+    }
+
+    private static class AtomStep implements Step {
+
+        private final Relation relation;
+
+        private final boolean delta;
+
+        private final Object[] terms;
+
+        private final int[] termSlots;
+
+        private final int[] kinds;
+
+        /**
+         * Column to look up by the index, or -1 to scan the relation.
+         */
+        private final int indexColumn;
+
+        AtomStep(Atom atom, Map<Variable, Integer> slots, boolean delta) {
+            this.relation = atom.getRelation();
+            this.delta = delta;
+            this.terms = atom.getTerms();
+            this.termSlots = new int[terms.length];
+            this.kinds = classify(terms, termSlots, slots);
+            int column = -1;
+            if (!delta) {
+                for (int j = 0; j < kinds.length; ++j) {
+                    if (kinds[j] != FREE) {
+                        column = j;
+                        break;
+                    }
+                }
+            }
+            this.indexColumn = column;
+            if (column >= 0) {
+                relation.addIndex(column);
+            }
+        }
+
+        List<Object[]> candidates(Object[] env) {
+            if (delta) {
+                return relation.getDelta();
+            } else if (indexColumn >= 0) {
+                Object key = kinds[indexColumn] == CONSTANT
+                        ? terms[indexColumn] : env[termSlots[indexColumn]];
+                return relation.lookup(indexColumn, key);
+            } else {
+                return relation.getAll();
+            }
+        }
+
+        boolean match(Object[] tuple, Object[] env) {
+            return Datalog.match(kinds, termSlots, terms, tuple, env);
+        }
+    }
+
+    private static class FunctorStep implements Step {
+
+        private final Functor functor;
+
+        private final int[] inputSlots;
+
+        private final int[] outputSlots;
+
+        private final int[] kinds;
+
+        FunctorStep(Functor functor, Map<Variable, Integer> slots) {
+            this.functor = functor;
+            this.inputSlots = Stream.of(functor.getInputs())
+                    .mapToInt(slots::get)
+                    .toArray();
+            Object[] outputs = functor.getOutputs();
+            this.outputSlots = new int[outputs.length];
+            this.kinds = classify(outputs, outputSlots, slots);
+        }
+
+        boolean match(Object[] output, Object[] env) {
+            return Datalog.match(kinds, outputSlots, null, output, env);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.datalog;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Computed predicate in the body of a Datalog rule, which is given
+ * the values of its input variables, and produces zero or more tuples
+ * of values for its output variables.
+ * <p>
+ * This is used for the computations that are not natural to express as
+ * relations, e.g., method dispatch. The function may be invoked by
+ * multiple threads if the rules are evaluated in parallel.
+ */
+public final class Functor implements Literal {
+
+    private final Variable[] inputs;
+
+    private final Variable[] outputs;
+
+    private final BiConsumer<Object[], Consumer<Object[]>> function;
+
+    /**
+     * @param function given the values of the inputs, passes each tuple
+     *                 of the outputs to the consumer.
+     */
+    public Functor(Variable[] inputs, Variable[] outputs,
+                   BiConsumer<Object[], Consumer<Object[]>> function) {
+        this.inputs = inputs;
+        this.outputs = outputs;
+        this.function = function;
+    }
+
+    Variable[] getInputs() {
+        return inputs;
+    }
+
+    Variable[] getOutputs() {
+        return outputs;
+    }
+
+    void apply(Object[] inputValues, Consumer<Object[]> outputs) {
+        function.accept(inputValues, outputs);
+    }
+
+    @Override
+    public String toString() {
+        return "functor" + Arrays.toString(inputs) + "->" + Arrays.toString(outputs);
+    }
+}
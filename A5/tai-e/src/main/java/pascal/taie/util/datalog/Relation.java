@@ -0,0 +1,181 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.datalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Relation of a Datalog program, i.e., a set of tuples of the same arity.
+ * <p>
+ * The tuples are added either by clients (as facts) or by the rules,
+ * and they become visible to the rules at the next iteration of
+ * {@link Datalog#solve()}. The relation maintains the indexes on the
+ * columns which are looked up by the rules.
+ */
+public final class Relation {
+
+    private final String name;
+
+    private final int arity;
+
+    private final Set<Tuple> tuples = new HashSet<>();
+
+    /**
+     * Tuples in the order of insertion, for iterations.
+     */
+    private final List<Object[]> list = new ArrayList<>();
+
+    /**
+     * Tuples which are new at the current iteration.
+     */
+    private List<Object[]> delta = List.of();
+
+    /**
+     * Tuples which are added but not visible yet.
+     */
+    private final List<Object[]> pending = new ArrayList<>();
+
+    /**
+     * Map from column to the index on the column.
+     */
+    private final Map<Integer, Map<Object, List<Object[]>>> indexes = new HashMap<>();
+
+    Relation(String name, int arity) {
+        this.name = name;
+        this.arity = arity;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getArity() {
+        return arity;
+    }
+
+    /**
+     * Adds a tuple to this relation.
+     */
+    public void add(Object... values) {
+        if (values.length != arity) {
+            throw new IllegalArgumentException("Arity of " + name
+                    + " is " + arity + ", given " + values.length);
+        }
+        pending.add(values);
+    }
+
+    /**
+     * @return true if this relation contains given tuple, otherwise false.
+     */
+    public boolean contains(Object... values) {
+        return tuples.contains(new Tuple(values));
+    }
+
+    /**
+     * @return the number of visible tuples of this relation.
+     */
+    public int size() {
+        return list.size();
+    }
+
+    /**
+     * Performs the action for each visible tuple of this relation.
+     * The action must not modify the given arrays.
+     */
+    public void forEach(Consumer<Object[]> action) {
+        list.forEach(action);
+    }
+
+    List<Object[]> getAll() {
+        return Collections.unmodifiableList(list);
+    }
+
+    List<Object[]> getDelta() {
+        return delta;
+    }
+
+    /**
+     * @return the tuples whose given column is the given value.
+     */
+    List<Object[]> lookup(int column, Object value) {
+        return indexes.get(column).getOrDefault(value, List.of());
+    }
+
+    void addIndex(int column) {
+        indexes.computeIfAbsent(column, c -> {
+            Map<Object, List<Object[]>> index = new HashMap<>();
+            list.forEach(t -> index.computeIfAbsent(t[c], v -> new ArrayList<>()).add(t));
+            return index;
+        });
+    }
+
+    /**
+     * Makes the pending tuples visible, and the new ones become the delta.
+     *
+     * @return true if there are new tuples, otherwise false.
+     */
+    boolean promote() {
+        if (pending.isEmpty()) {
+            delta = List.of();
+            return false;
+        }
+        List<Object[]> newTuples = new ArrayList<>();
+        for (Object[] t : pending) {
+            if (tuples.add(new Tuple(t))) {
+                newTuples.add(t);
+                list.add(t);
+                indexes.forEach((column, index) ->
+                        index.computeIfAbsent(t[column], v -> new ArrayList<>()).add(t));
+            }
+        }
+        pending.clear();
+        delta = newTuples;
+        return !newTuples.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    private record Tuple(Object[] values) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Tuple t && Arrays.equals(values, t.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+    }
+}
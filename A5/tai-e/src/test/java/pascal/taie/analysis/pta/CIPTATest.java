@@ -22,8 +22,25 @@
 
 package pascal.taie.analysis.pta;
 
+import org.junit.Assert;
 import org.junit.Test;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.ci.CIPTA;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.type.ClassType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 public class CIPTATest {
 
@@ -78,4 +95,171 @@ public class CIPTATest {
     public void testMergeParam() {
         Tests.testCIPTA(DIR, "MergeParam");
     }
+
+    @Test
+    public void testCast() {
+        // casts are only handled with type filter; x = (B) o; x = (C) o
+        // should let both the B and C objects flow to x
+        Tests.testCIPTA(DIR, "Cast", "type-filter:true");
+    }
+
+    @Test
+    public void testLibraryBoundary() {
+        // calls to the JDK are modeled by the library boundary and
+        // add no call edges, so java.lang.Object.<init> is not reached
+        Tests.testCIPTA(DIR, "LibraryBoundary", "scope:app", "library-boundary:true");
+    }
+
+    @Test
+    public void testExampleSharing() {
+        // sharing points-to sets should not affect the result
+        Tests.testCIPTA(DIR, "Example", "pts-sharing:true", "pts-sharing-interval:1");
+    }
+
+    @Test
+    public void testStoreLoadSharing() {
+        Tests.testCIPTA(DIR, "StoreLoad", "pts-sharing:true", "pts-sharing-interval:1");
+    }
+
+    @Test
+    public void testCallSharing() {
+        Tests.testCIPTA(DIR, "Call", "pts-sharing:true", "pts-sharing-interval:1");
+    }
+
+    @Test
+    public void testInstanceFieldSharing() {
+        Tests.testCIPTA(DIR, "InstanceField", "pts-sharing:true", "pts-sharing-interval:1");
+    }
+
+    @Test
+    public void testMergeParamSharing() {
+        Tests.testCIPTA(DIR, "MergeParam", "pts-sharing:true", "pts-sharing-interval:1");
+    }
+
+    @Test
+    public void testExampleDatalog() {
+        // the Datalog solver should give the same result as the work-list solver
+        Tests.testCIPTA(DIR, "Example", "solver:datalog");
+    }
+
+    @Test
+    public void testArrayDatalog() {
+        Tests.testCIPTA(DIR, "Array", "solver:datalog");
+    }
+
+    @Test
+    public void testAssignDatalog() {
+        Tests.testCIPTA(DIR, "Assign", "solver:datalog");
+    }
+
+    @Test
+    public void testAssign2Datalog() {
+        Tests.testCIPTA(DIR, "Assign2", "solver:datalog");
+    }
+
+    @Test
+    public void testStoreLoadDatalog() {
+        Tests.testCIPTA(DIR, "StoreLoad", "solver:datalog");
+    }
+
+    @Test
+    public void testCallDatalog() {
+        Tests.testCIPTA(DIR, "Call", "solver:datalog");
+    }
+
+    @Test
+    public void testInstanceFieldDatalog() {
+        Tests.testCIPTA(DIR, "InstanceField", "solver:datalog");
+    }
+
+    @Test
+    public void testStaticFieldDatalog() {
+        Tests.testCIPTA(DIR, "StaticField", "solver:datalog");
+    }
+
+    @Test
+    public void testStaticCallDatalog() {
+        Tests.testCIPTA(DIR, "StaticCall", "solver:datalog");
+    }
+
+    @Test
+    public void testMergeParamDatalog() {
+        Tests.testCIPTA(DIR, "MergeParam", "solver:datalog");
+    }
+
+    @Test
+    public void testExampleDatalogParallel() {
+        Tests.testCIPTA(DIR, "Example", "solver:datalog", "datalog-parallel:true");
+    }
+
+    @Test
+    public void testCallDatalogParallel() {
+        Tests.testCIPTA(DIR, "Call", "solver:datalog", "datalog-parallel:true");
+    }
+
+    @Test
+    public void testExampleFrozen() throws IOException {
+        testFrozen("Example");
+    }
+
+    @Test
+    public void testStoreLoadFrozen() throws IOException {
+        testFrozen("StoreLoad");
+    }
+
+    @Test
+    public void testInstanceFieldFrozen() throws IOException {
+        testFrozen("InstanceField");
+    }
+
+    /**
+     * Analyzes given test case, and checks that the queries on the frozen
+     * result agree with the expected points-to sets, including the
+     * points-to sets of v.f, which are merged from the frozen index.
+     */
+    private static void testFrozen(String main) throws IOException {
+        Tests.testCIPTA(DIR, main);
+        PointerAnalysisResult result = World.get().getResult(CIPTA.ID);
+        Map<String, String> expected = Files.lines(
+                        Path.of("src/test/resources/pta", DIR,
+                                main + "-cipta-expected.txt"))
+                .filter(line -> line.contains(" -> "))
+                .map(line -> line.split(" -> "))
+                .collect(Collectors.toMap(s -> s[0], s -> s[1]));
+        for (Var var : result.getVars()) {
+            String varStr = var.getMethod() + "/" + var.getName();
+            Set<Obj> pts = result.getPointsToSet(var);
+            Assert.assertEquals(varStr, toStrings(expected.get(varStr)), toStrings(pts));
+            if (!(var.getType() instanceof ClassType type)) {
+                continue;
+            }
+            for (JClass c = type.getJClass(); c != null; c = c.getSuperClass()) {
+                for (JField field : c.getDeclaredFields()) {
+                    if (field.isStatic()) {
+                        continue;
+                    }
+                    Set<String> fieldPts = new TreeSet<>();
+                    pts.forEach(obj -> fieldPts.addAll(
+                            toStrings(expected.get(obj + "." + field.getName()))));
+                    Assert.assertEquals(varStr + "." + field.getName(), fieldPts,
+                            toStrings(result.getPointsToSet(var, field)));
+                }
+            }
+        }
+    }
+
+    private static Set<String> toStrings(String pts) {
+        Set<String> result = new TreeSet<>();
+        if (pts != null && pts.length() > 2) {
+            result.addAll(Arrays.asList(
+                    pts.substring(1, pts.length() - 1).split(", ")));
+        }
+        return result;
+    }
+
+    private static Set<String> toStrings(Set<Obj> pts) {
+        return pts.stream()
+                .map(Obj::toString)
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
 }
@@ -0,0 +1,22 @@
+public class Cast {
+
+    public static void main(String[] args) {
+        Object o = new A();
+        o = new B();
+        o = new C();
+        A a = (A) o;
+        B b = (B) o;
+        C c = (C) o;
+        Object x = (B) o;
+        x = (C) o;
+    }
+}
+
+class A {
+}
+
+class B extends A {
+}
+
+class C {
+}
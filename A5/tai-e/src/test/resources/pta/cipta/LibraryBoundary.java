@@ -0,0 +1,21 @@
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+public class LibraryBoundary {
+
+    public static void main(String[] args) {
+        List l1 = new ArrayList();
+        l1.add(new A());
+        Object a = l1.get(0);
+        List l2 = new ArrayList();
+        l2.addAll(l1);
+        Iterator it = l2.iterator();
+        Object b = it.next();
+        StringBuilder sb = new StringBuilder();
+        StringBuilder sb2 = sb.append("x").append(b);
+    }
+}
+
+class A {
+}
@@ -0,0 +1,144 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.language.type.Type;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmarks of the operations of {@link PointsToSet} which are
+ * performed by the solver during propagation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PointsToSetBenchmark {
+
+    @Param({"8", "64", "1024"})
+    private int size;
+
+    private CSObj[] objs;
+
+    private PointsToSet pts1;
+
+    /**
+     * Half of the objects of pts2 are also in pts1.
+     */
+    private PointsToSet pts2;
+
+    @Setup
+    public void setUp() {
+        CSManager csManager = new MapBasedCSManager();
+        objs = new CSObj[size + size / 2];
+        for (int i = 0; i < objs.length; ++i) {
+            objs[i] = csManager.getCSObj(ListContext.make(), new MockObj(i));
+        }
+        pts1 = PointsToSetFactory.make();
+        pts2 = PointsToSetFactory.make();
+        for (int i = 0; i < size; ++i) {
+            pts1.addObject(objs[i]);
+            pts2.addObject(objs[i + size / 2]);
+        }
+    }
+
+    @Benchmark
+    public PointsToSet addObjects() {
+        PointsToSet result = PointsToSetFactory.make();
+        for (int i = 0; i < size; ++i) {
+            result.addObject(objs[i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public PointsToSet addAll() {
+        PointsToSet result = PointsToSetFactory.make();
+        result.addAll(pts1);
+        result.addAll(pts2);
+        return result;
+    }
+
+    /**
+     * Computes the difference of pts2 and pts1,
+     * as the solver does when propagating points-to sets.
+     */
+    @Benchmark
+    public PointsToSet diff() {
+        PointsToSet result = PointsToSetFactory.make();
+        for (CSObj obj : pts2) {
+            if (!pts1.contains(obj)) {
+                result.addObject(obj);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Abstract objects which are independent of the world.
+     */
+    private record MockObj(int id) implements Obj {
+
+        @Override
+        public Type getType() {
+            return PrimitiveType.INT;
+        }
+
+        @Override
+        public Object getAllocation() {
+            return id;
+        }
+
+        @Override
+        public Optional<JMethod> getContainerMethod() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Type getContainerType() {
+            return PrimitiveType.INT;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.BDDPointsToRelation;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Collection;
+
+/**
+ * {@link CSManager} whose pointers store their points-to sets in
+ * a {@link BDDPointsToRelation}, instead of one hash set per pointer.
+ * The elements themselves are managed by {@link MapBasedCSManager}.
+ */
+public class BDDCSManager implements CSManager {
+
+    private final CSManager delegate = new MapBasedCSManager();
+
+    private final BDDPointsToRelation relation = new BDDPointsToRelation();
+
+    public BDDPointsToRelation getRelation() {
+        return relation;
+    }
+
+    @Override
+    public CSVar getCSVar(Context context, Var var) {
+        return initializePointsToSet(delegate.getCSVar(context, var));
+    }
+
+    @Override
+    public CSObj getCSObj(Context heapContext, Obj obj) {
+        return delegate.getCSObj(heapContext, obj);
+    }
+
+    @Override
+    public CSCallSite getCSCallSite(Context context, Invoke callSite) {
+        return delegate.getCSCallSite(context, callSite);
+    }
+
+    @Override
+    public CSMethod getCSMethod(Context context, JMethod method) {
+        return delegate.getCSMethod(context, method);
+    }
+
+    @Override
+    public StaticField getStaticField(JField field) {
+        return initializePointsToSet(delegate.getStaticField(field));
+    }
+
+    @Override
+    public InstanceField getInstanceField(CSObj base, JField field) {
+        return initializePointsToSet(delegate.getInstanceField(base, field));
+    }
+
+    @Override
+    public ArrayIndex getArrayIndex(CSObj array) {
+        return initializePointsToSet(delegate.getArrayIndex(array));
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        return delegate.getVars();
+    }
+
+    @Override
+    public Collection<CSVar> getCSVarsOf(Var var) {
+        return delegate.getCSVarsOf(var);
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return delegate.getCSVars();
+    }
+
+    @Override
+    public Collection<CSObj> getObjects() {
+        return delegate.getObjects();
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        return delegate.getStaticFields();
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return delegate.getInstanceFields();
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return delegate.getArrayIndexes();
+    }
+
+    /**
+     * Replaces the points-to set of a newly created pointer
+     * by a view of the relation.
+     */
+    private <P extends Pointer> P initializePointsToSet(P pointer) {
+        if (!relation.isBacking(pointer.getPointsToSet())) {
+            pointer.setPointsToSet(relation.makePointsToSet(pointer));
+        }
+        return pointer;
+    }
+}
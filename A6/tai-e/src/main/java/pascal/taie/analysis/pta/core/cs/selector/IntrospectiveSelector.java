@@ -0,0 +1,183 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.selector;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Context selector which wraps another selector and watches the cost of
+ * the contexts it creates during solving. Once a method receives more
+ * than {@code maxMethodContexts} contexts, or an allocation site receives
+ * more than {@code maxHeapContexts} heap contexts, or a pointer related
+ * to them grows to {@code maxPointsToSize} objects, the method
+ * (or allocation site) is downgraded, i.e., all its subsequently selected
+ * contexts are the empty context.
+ * <p>
+ * A non-positive threshold means that the corresponding budget is unlimited.
+ */
+public class IntrospectiveSelector implements ContextSelector {
+
+    /**
+     * Default budgets, which are also the values in plan.yml.
+     */
+    public static final int DEFAULT_MAX_METHOD_CONTEXTS = 128;
+
+    public static final int DEFAULT_MAX_HEAP_CONTEXTS = 128;
+
+    public static final int DEFAULT_MAX_POINTS_TO_SIZE = 4096;
+
+    private final ContextSelector delegate;
+
+    private final int maxMethodContexts;
+
+    private final int maxHeapContexts;
+
+    private final int maxPointsToSize;
+
+    /**
+     * Non-empty contexts that have been selected for each method.
+     */
+    private final MultiMap<JMethod, Context> methodContexts = Maps.newMultiMap();
+
+    /**
+     * Non-empty heap contexts that have been selected for each object.
+     */
+    private final MultiMap<Obj, Context> heapContexts = Maps.newMultiMap();
+
+    private final Set<JMethod> downgradedMethods = Sets.newHybridOrderedSet();
+
+    private final Set<Obj> downgradedObjs = Sets.newHybridOrderedSet();
+
+    public IntrospectiveSelector(ContextSelector delegate, int maxMethodContexts,
+                                 int maxHeapContexts, int maxPointsToSize) {
+        this.delegate = delegate;
+        this.maxMethodContexts = maxMethodContexts;
+        this.maxHeapContexts = maxHeapContexts;
+        this.maxPointsToSize = maxPointsToSize;
+    }
+
+    @Override
+    public Context getEmptyContext() {
+        return delegate.getEmptyContext();
+    }
+
+    @Override
+    public Context selectContext(CSCallSite callSite, JMethod callee) {
+        if (downgradedMethods.contains(callee)) {
+            return getEmptyContext();
+        }
+        return checkMethodContext(callee,
+                delegate.selectContext(callSite, callee));
+    }
+
+    @Override
+    public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
+        if (downgradedMethods.contains(callee)) {
+            return getEmptyContext();
+        }
+        return checkMethodContext(callee,
+                delegate.selectContext(callSite, recv, callee));
+    }
+
+    @Override
+    public Context selectHeapContext(CSMethod method, Obj obj) {
+        if (downgradedObjs.contains(obj)) {
+            return getEmptyContext();
+        }
+        Context context = delegate.selectHeapContext(method, obj);
+        if (context.getLength() == 0 || heapContexts.contains(obj, context)) {
+            return context;
+        }
+        if (exceeds(heapContexts.get(obj).size(), maxHeapContexts)) {
+            downgradedObjs.add(obj);
+            return getEmptyContext();
+        }
+        heapContexts.put(obj, context);
+        return context;
+    }
+
+    /**
+     * Notifies this selector that the points-to set of given pointer
+     * has grown. If the size of the points-to set reaches the budget,
+     * the method declaring the pointer (for variables) or the allocation
+     * site of the base object (for instance fields and array indexes)
+     * is downgraded.
+     */
+    public void onPointsToGrowth(Pointer pointer) {
+        if (!exceeds(pointer.getPointsToSet().size(), maxPointsToSize)) {
+            return;
+        }
+        if (pointer instanceof CSVar csVar) {
+            downgradedMethods.add(csVar.getVar().getMethod());
+        } else if (pointer instanceof InstanceField iField) {
+            downgradedObjs.add(iField.getBase().getObject());
+        } else if (pointer instanceof ArrayIndex arrayIndex) {
+            downgradedObjs.add(arrayIndex.getArray().getObject());
+        }
+    }
+
+    /**
+     * @return the methods which have been downgraded to the empty context.
+     */
+    public Set<JMethod> getDowngradedMethods() {
+        return Collections.unmodifiableSet(downgradedMethods);
+    }
+
+    /**
+     * @return the objects which have been downgraded to the empty heap context.
+     */
+    public Set<Obj> getDowngradedObjs() {
+        return Collections.unmodifiableSet(downgradedObjs);
+    }
+
+    private Context checkMethodContext(JMethod callee, Context context) {
+        if (context.getLength() == 0 || methodContexts.contains(callee, context)) {
+            return context;
+        }
+        if (exceeds(methodContexts.get(callee).size(), maxMethodContexts)) {
+            downgradedMethods.add(callee);
+            return getEmptyContext();
+        }
+        methodContexts.put(callee, context);
+        return context;
+    }
+
+    private static boolean exceeds(int size, int limit) {
+        return limit > 0 && size >= limit;
+    }
+}
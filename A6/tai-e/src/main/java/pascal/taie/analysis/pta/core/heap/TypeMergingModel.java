@@ -0,0 +1,127 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.heap;
+
+import pascal.taie.World;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Heap model which merges all objects of selected types (and their
+ * subtypes) into one abstract object per type, and models the objects
+ * of other types by their allocation sites.
+ * <p>
+ * The merged types are specified by option {@code merge-types}, which is
+ * a list of class names. If the option is absent, {@link #DEFAULT_MERGE_TYPES}
+ * are merged. Boxed primitive types are merged additionally when option
+ * {@code merge-boxed-primitives} is true.
+ */
+public class TypeMergingModel extends AbstractHeapModel {
+
+    /**
+     * Types which are merged by default. These types are widely used but
+     * rarely contribute to the precision of clients.
+     */
+    public static final List<String> DEFAULT_MERGE_TYPES = List.of(
+            "java.lang.String",
+            "java.lang.StringBuilder",
+            "java.lang.StringBuffer",
+            "java.lang.Throwable"
+    );
+
+    private static final List<String> BOXED_TYPES = List.of(
+            "java.lang.Boolean",
+            "java.lang.Byte",
+            "java.lang.Character",
+            "java.lang.Short",
+            "java.lang.Integer",
+            "java.lang.Long",
+            "java.lang.Float",
+            "java.lang.Double"
+    );
+
+    private final TypeSystem typeSystem;
+
+    /**
+     * Types whose objects (including objects of their subtypes)
+     * are merged.
+     */
+    private final List<ClassType> mergedTypes = new ArrayList<>();
+
+    /**
+     * Caches whether the objects of each type are merged.
+     */
+    private final Map<Type, Boolean> isMerged = Maps.newMap();
+
+    public TypeMergingModel(AnalysisOptions options) {
+        super(options);
+        typeSystem = World.get().getTypeSystem();
+        getMergeTypes(options).forEach(this::addMergedType);
+        if (options.getBooleanOrDefault("merge-boxed-primitives", true)) {
+            BOXED_TYPES.forEach(this::addMergedType);
+        }
+    }
+
+    private static Collection<String> getMergeTypes(AnalysisOptions options) {
+        Object value = options.get("merge-types");
+        if (value == null) {
+            return DEFAULT_MERGE_TYPES;
+        } else if (value instanceof Collection<?> c) {
+            return c.stream().map(Object::toString).toList();
+        } else if (value instanceof String s) {
+            return List.of(s.split(","));
+        } else {
+            throw new ConfigException("Unexpected value of merge-types: " + value);
+        }
+    }
+
+    private void addMergedType(String className) {
+        ClassType type = typeSystem.getClassType(className.strip());
+        // skip the classes which are absent in the analyzed program
+        if (type != null && type.getJClass() != null) {
+            mergedTypes.add(type);
+        }
+    }
+
+    @Override
+    protected Obj doGetObj(New allocSite) {
+        Type type = allocSite.getRValue().getType();
+        return isMerged.computeIfAbsent(type, this::shouldMerge) ?
+                getMergedObj(allocSite) : getNewObj(allocSite);
+    }
+
+    private boolean shouldMerge(Type type) {
+        return mergedTypes.stream()
+                .anyMatch(t -> typeSystem.isSubtype(t, type));
+    }
+}
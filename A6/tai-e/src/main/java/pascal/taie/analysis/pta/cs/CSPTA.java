@@ -26,7 +26,10 @@ import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.cs.selector.CISelector;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
+import pascal.taie.analysis.pta.core.cs.selector.IntrospectiveSelector;
 import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.TypeMergingModel;
 import pascal.taie.analysis.pta.plugin.ResultProcessor;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.config.AnalysisOptions;
@@ -50,15 +53,47 @@ public class CSPTA extends ProgramAnalysis {
     @Override
     public PointerAnalysisResult analyze() {
         AnalysisOptions options = getOptions();
-        Solver solver = new Solver(options,
-                new AllocationSiteBasedModel(options),
-                getContextSelector(options.getString("cs")));
+        ContextSelector selector = getContextSelector(options.getString("cs"));
+        if (options.getBooleanOrDefault("introspective", false)) {
+            selector = new IntrospectiveSelector(selector,
+                    getIntOrDefault(options, "max-method-contexts",
+                            IntrospectiveSelector.DEFAULT_MAX_METHOD_CONTEXTS),
+                    getIntOrDefault(options, "max-heap-contexts",
+                            IntrospectiveSelector.DEFAULT_MAX_HEAP_CONTEXTS),
+                    getIntOrDefault(options, "max-pts-size",
+                            IntrospectiveSelector.DEFAULT_MAX_POINTS_TO_SIZE));
+        }
+        Solver solver = new Solver(options, getHeapModel(options), selector);
         solver.solve();
         PointerAnalysisResult result = solver.getResult();
         ResultProcessor.process(options, result);
         return result;
     }
 
+    /**
+     * @return the integer value of given option, or {@code defaultValue}
+     * if the option is not specified.
+     */
+    static int getIntOrDefault(AnalysisOptions options, String key, int defaultValue) {
+        Object value = options.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        return value instanceof Number n ? n.intValue()
+                : Integer.parseInt(value.toString());
+    }
+
+    private static HeapModel getHeapModel(AnalysisOptions options) {
+        String model = options.getString("heap-model");
+        if (model == null || model.equals("allocation-site")) {
+            return new AllocationSiteBasedModel(options);
+        } else if (model.equals("type-merging")) {
+            return new TypeMergingModel(options);
+        } else {
+            throw new ConfigException("Unexpected heap model: " + model);
+        }
+    }
+
     private static ContextSelector getContextSelector(String cs) {
         if (cs.equals("ci")) {
             return new CISelector();
@@ -0,0 +1,861 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallKind;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+/**
+ * Saves the state of {@link Solver} to a binary checkpoint file,
+ * and restores the state from the file.
+ * <p>
+ * The state consists of the reachable context-sensitive methods,
+ * the call edges, the points-to sets of all pointers, the pointer flow
+ * graph and the pending entries in the work list. Program elements are
+ * identified by stable ids, i.e., signatures of methods and fields,
+ * names of types and indexes of variables and statements in the IR,
+ * so that a checkpoint written by one run can be read by another run
+ * which analyzes the same program.
+ * <p>
+ * A checkpoint file consists of a header, the tables of the program
+ * elements and contexts, and the body which refers to the tables by
+ * indexes. All integers are written as variable-length quantities.
+ */
+class Checkpoint {
+
+    private static final int MAGIC = 0x54414543; // "TAEC"
+
+    private static final int VERSION = 1;
+
+    // tags of context elements
+    private static final int OBJ = 0;
+
+    private static final int INVOKE = 1;
+
+    private static final int TYPE = 2;
+
+    // tags of pointers
+    private static final int CS_VAR = 0;
+
+    private static final int STATIC_FIELD = 1;
+
+    private static final int INSTANCE_FIELD = 2;
+
+    private static final int ARRAY_INDEX = 3;
+
+    private Checkpoint() {
+    }
+
+    /**
+     * Writes the given solver state to the checkpoint file.
+     * The file is written to a temporary file first and then moved
+     * to the target, so that a crash during writing does not destroy
+     * the previous checkpoint.
+     * <p>
+     * The tables precede the body in the file, thus the body is encoded
+     * twice: the first pass only assigns the ids of the elements it
+     * refers to, and the second pass streams it to the file, so that
+     * the body is never held in memory.
+     */
+    static void write(Path file, CSManager csManager, CSCallGraph callGraph,
+                      PointerFlowGraph pfg, WorkList workList) {
+        Encoder encoder = new Encoder();
+        try (DataOutputStream out = new DataOutputStream(
+                OutputStream.nullOutputStream())) {
+            encoder.writeBody(out, csManager, callGraph, pfg, workList);
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to encode checkpoint", e);
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            encoder.writeTables(out);
+            encoder.writeBody(out, csManager, callGraph, pfg, workList);
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to write checkpoint to " + tmp, e);
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to move checkpoint to " + file, e);
+        }
+    }
+
+    /**
+     * Reads the checkpoint file and restores the solver state into
+     * the given (empty) data structures. The decoded elements are added
+     * to the data structures directly, without building a {@link Snapshot}.
+     */
+    static void read(Path file, HeapModel heapModel, CSManager csManager,
+                     CSCallGraph callGraph, PointerFlowGraph pfg,
+                     WorkList workList) {
+        read(file, heapModel, csManager, Set.of(),
+                new Restorer(csManager, callGraph, pfg, workList));
+    }
+
+    /**
+     * Reads the checkpoint file into a {@link Snapshot}. The elements
+     * which refer to given changed methods (or to methods and fields
+     * which no longer exist) cannot be resolved, and are represented
+     * by {@link Stale} placeholders in the snapshot.
+     */
+    static Snapshot read(Path file, HeapModel heapModel, CSManager csManager,
+                         Set<JMethod> changedMethods) {
+        Snapshot snapshot = new Snapshot();
+        read(file, heapModel, csManager, changedMethods, snapshot);
+        return snapshot;
+    }
+
+    private static void read(Path file, HeapModel heapModel, CSManager csManager,
+                             Set<JMethod> changedMethods, Sink sink) {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new AnalysisException(file + " is not a checkpoint file");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new AnalysisException("Unsupported checkpoint version: "
+                        + version);
+            }
+            Decoder decoder = new Decoder(heapModel, csManager, changedMethods);
+            decoder.readTables(in);
+            decoder.readBody(in, sink);
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to read checkpoint from " + file, e);
+        }
+    }
+
+    /**
+     * Assigns consecutive ids to the program elements and contexts
+     * referenced by the body, and writes them as tables.
+     */
+    private static class Encoder {
+
+        private final Indexer<JMethod> methods = new Indexer<>();
+
+        private final Indexer<JField> fields = new Indexer<>();
+
+        private final Indexer<Type> types = new Indexer<>();
+
+        private final Indexer<Invoke> invokes = new Indexer<>();
+
+        private final Indexer<New> allocSites = new Indexer<>();
+
+        private final Indexer<Context> contexts = new Indexer<>();
+
+        private void writeBody(DataOutputStream out, CSManager csManager,
+                               CSCallGraph callGraph, PointerFlowGraph pfg,
+                               WorkList workList) throws IOException {
+            // reachable methods
+            List<CSMethod> entries = callGraph.entryMethods().toList();
+            writeInt(out, entries.size());
+            for (CSMethod m : entries) {
+                writeCSMethod(out, m);
+            }
+            List<CSMethod> reachable = callGraph.reachableMethods().toList();
+            writeInt(out, reachable.size());
+            for (CSMethod m : reachable) {
+                writeCSMethod(out, m);
+            }
+            // call edges
+            List<Edge<CSCallSite, CSMethod>> edges = callGraph.edges().toList();
+            writeInt(out, edges.size());
+            for (Edge<CSCallSite, CSMethod> edge : edges) {
+                writeInt(out, edge.getKind().ordinal());
+                CSCallSite csCallSite = edge.getCallSite();
+                writeInt(out, contexts.getId(csCallSite.getContext()));
+                writeInt(out, invokes.getId(csCallSite.getCallSite()));
+                writeCSMethod(out, edge.getCallee());
+            }
+            // points-to sets
+            List<Pointer> pointers = Stream.<Collection<? extends Pointer>>of(
+                            csManager.getCSVars(),
+                            csManager.getStaticFields(),
+                            csManager.getInstanceFields(),
+                            csManager.getArrayIndexes())
+                    .<Pointer>flatMap(Collection::stream)
+                    .filter(p -> !p.getPointsToSet().isEmpty())
+                    .toList();
+            writeInt(out, pointers.size());
+            for (Pointer p : pointers) {
+                writePointer(out, p);
+                writePointsToSet(out, p.getPointsToSet());
+            }
+            // pointer flow graph
+            Set<Pointer> sources = pfg.getPointers();
+            writeInt(out, sources.size());
+            for (Pointer source : sources) {
+                writePointer(out, source);
+                Set<Pointer> succs = pfg.getSuccsOf(source);
+                writeInt(out, succs.size());
+                for (Pointer succ : succs) {
+                    writePointer(out, succ);
+                }
+            }
+            // pending work-list entries
+            Collection<WorkList.Entry> pending = workList.getEntries();
+            writeInt(out, pending.size());
+            for (WorkList.Entry entry : pending) {
+                writePointer(out, entry.pointer());
+                writePointsToSet(out, entry.pointsToSet());
+            }
+        }
+
+        private void writeCSMethod(DataOutputStream out, CSMethod csMethod)
+                throws IOException {
+            writeInt(out, contexts.getId(csMethod.getContext()));
+            writeInt(out, methods.getId(csMethod.getMethod()));
+        }
+
+        private void writeCSObj(DataOutputStream out, CSObj csObj)
+                throws IOException {
+            writeInt(out, contexts.getId(csObj.getContext()));
+            writeInt(out, allocSites.getId(getAllocSite(csObj.getObject())));
+        }
+
+        private void writePointsToSet(DataOutputStream out, PointsToSet pts)
+                throws IOException {
+            writeInt(out, pts.size());
+            for (CSObj csObj : pts) {
+                writeCSObj(out, csObj);
+            }
+        }
+
+        private void writePointer(DataOutputStream out, Pointer pointer)
+                throws IOException {
+            if (pointer instanceof CSVar csVar) {
+                out.writeByte(CS_VAR);
+                writeInt(out, contexts.getId(csVar.getContext()));
+                Var var = csVar.getVar();
+                writeInt(out, methods.getId(var.getMethod()));
+                writeInt(out, var.getIndex());
+            } else if (pointer instanceof StaticField sField) {
+                out.writeByte(STATIC_FIELD);
+                writeInt(out, fields.getId(sField.getField()));
+            } else if (pointer instanceof InstanceField iField) {
+                out.writeByte(INSTANCE_FIELD);
+                writeCSObj(out, iField.getBase());
+                writeInt(out, fields.getId(iField.getField()));
+            } else if (pointer instanceof ArrayIndex arrayIndex) {
+                out.writeByte(ARRAY_INDEX);
+                writeCSObj(out, arrayIndex.getArray());
+            } else {
+                throw new AnalysisException("Cannot checkpoint pointer: " + pointer);
+            }
+        }
+
+        private void writeTables(DataOutputStream out) throws IOException {
+            // contexts are interned before writing, as they may refer to
+            // elements which have not been seen by the body
+            List<Context> ctxs = contexts.elements();
+            for (Context ctx : ctxs) {
+                for (int i = 0; i < ctx.getLength(); ++i) {
+                    Object elem = ctx.getElementAt(i);
+                    if (elem instanceof Obj obj) {
+                        allocSites.getId(getAllocSite(obj));
+                    } else if (elem instanceof Invoke invoke) {
+                        invokes.getId(invoke);
+                    } else if (elem instanceof Type type) {
+                        types.getId(type);
+                    }
+                }
+            }
+            invokes.elements().forEach(i -> methods.getId(i.getContainer()));
+            allocSites.elements().forEach(n -> methods.getId(n.getContainer()));
+            writeStrings(out, methods.elements(), JMethod::getSignature);
+            writeStrings(out, fields.elements(), JField::getSignature);
+            writeStrings(out, types.elements(), Type::getName);
+            writeStmts(out, invokes.elements());
+            writeStmts(out, allocSites.elements());
+            writeInt(out, ctxs.size());
+            for (Context ctx : ctxs) {
+                writeInt(out, ctx.getLength());
+                for (int i = 0; i < ctx.getLength(); ++i) {
+                    Object elem = ctx.getElementAt(i);
+                    if (elem instanceof Obj obj) {
+                        out.writeByte(OBJ);
+                        writeInt(out, allocSites.getId(getAllocSite(obj)));
+                    } else if (elem instanceof Invoke invoke) {
+                        out.writeByte(INVOKE);
+                        writeInt(out, invokes.getId(invoke));
+                    } else if (elem instanceof Type type) {
+                        out.writeByte(TYPE);
+                        writeInt(out, types.getId(type));
+                    } else {
+                        throw new AnalysisException(
+                                "Cannot checkpoint context element: " + elem);
+                    }
+                }
+            }
+        }
+
+        private <T> void writeStrings(DataOutputStream out, List<T> elems,
+                                      Function<T, String> toString)
+                throws IOException {
+            writeInt(out, elems.size());
+            for (T elem : elems) {
+                out.writeUTF(toString.apply(elem));
+            }
+        }
+
+        private void writeStmts(DataOutputStream out,
+                                List<? extends Stmt> stmts)
+                throws IOException {
+            writeInt(out, stmts.size());
+            for (Stmt stmt : stmts) {
+                JMethod container = stmt instanceof Invoke invoke ?
+                        invoke.getContainer() : ((New) stmt).getContainer();
+                writeInt(out, methods.getId(container));
+                writeInt(out, stmt.getIndex());
+            }
+        }
+    }
+
+    /**
+     * Resolves the tables of a checkpoint to the program elements of
+     * current world, and decodes the body.
+     */
+    private static class Decoder {
+
+        private final HeapModel heapModel;
+
+        private final CSManager csManager;
+
+        private final Set<JMethod> changedMethods;
+
+        /**
+         * The resolved elements of the tables. An element is null if it
+         * cannot be resolved, i.e., it no longer exists or it belongs to
+         * a changed method.
+         */
+        private JMethod[] methods;
+
+        private JField[] fields;
+
+        private Type[] types;
+
+        private Invoke[] invokes;
+
+        private Obj[] objs;
+
+        private Context[] contexts;
+
+        private Decoder(HeapModel heapModel, CSManager csManager,
+                        Set<JMethod> changedMethods) {
+            this.heapModel = heapModel;
+            this.csManager = csManager;
+            this.changedMethods = changedMethods;
+        }
+
+        private void readTables(DataInputStream in) throws IOException {
+            ClassHierarchy hierarchy = World.get().getClassHierarchy();
+            methods = readStrings(in, JMethod[]::new, hierarchy::getMethod);
+            fields = readStrings(in, JField[]::new, hierarchy::getField);
+            types = readStrings(in, Type[]::new, name -> {
+                try {
+                    return World.get().getTypeSystem().getType(name);
+                } catch (RuntimeException e) {
+                    return null;
+                }
+            });
+            invokes = new Invoke[readInt(in)];
+            for (int i = 0; i < invokes.length; ++i) {
+                invokes[i] = (Invoke) readStmt(in);
+            }
+            objs = new Obj[readInt(in)];
+            for (int i = 0; i < objs.length; ++i) {
+                New allocSite = (New) readStmt(in);
+                objs[i] = allocSite != null ? heapModel.getObj(allocSite) : null;
+            }
+            contexts = new Context[readInt(in)];
+            for (int i = 0; i < contexts.length; ++i) {
+                Object[] elems = new Object[readInt(in)];
+                boolean resolved = true;
+                for (int j = 0; j < elems.length; ++j) {
+                    int tag = in.readByte();
+                    int id = readInt(in);
+                    elems[j] = switch (tag) {
+                        case OBJ -> objs[id];
+                        case INVOKE -> invokes[id];
+                        case TYPE -> types[id];
+                        default -> throw new AnalysisException(
+                                "Unexpected context element tag: " + tag);
+                    };
+                    resolved &= elems[j] != null;
+                }
+                contexts[i] = resolved ? ListContext.make(elems) : null;
+            }
+        }
+
+        private void readBody(DataInputStream in, Sink sink) throws IOException {
+            int nEntries = readInt(in);
+            for (int i = 0; i < nEntries; ++i) {
+                sink.addEntryMethod(readCSMethod(in));
+            }
+            int nReachable = readInt(in);
+            for (int i = 0; i < nReachable; ++i) {
+                sink.addReachableMethod(readCSMethod(in));
+            }
+            int nEdges = readInt(in);
+            CallKind[] kinds = CallKind.values();
+            for (int i = 0; i < nEdges; ++i) {
+                CallKind kind = kinds[readInt(in)];
+                int ctxId = readInt(in);
+                int invokeId = readInt(in);
+                Object csCallSite = contexts[ctxId] != null && invokes[invokeId] != null
+                        ? csManager.getCSCallSite(contexts[ctxId], invokes[invokeId])
+                        : new Stale(CS_CALL_SITE, null, key(ctxId, invokeId));
+                sink.addCallEdge(new CallEdge(kind, csCallSite, readCSMethod(in)));
+            }
+            int nPointers = readInt(in);
+            for (int i = 0; i < nPointers; ++i) {
+                Object pointer = readPointer(in);
+                sink.addPointsTo(pointer, readPointsToSet(in));
+            }
+            int nSources = readInt(in);
+            for (int i = 0; i < nSources; ++i) {
+                Object source = readPointer(in);
+                int nSuccs = readInt(in);
+                for (int j = 0; j < nSuccs; ++j) {
+                    sink.addPFGEdge(source, readPointer(in));
+                }
+            }
+            int nPending = readInt(in);
+            for (int i = 0; i < nPending; ++i) {
+                Object pointer = readPointer(in);
+                sink.addPending(pointer, readPointsToSet(in));
+            }
+        }
+
+        private Object readCSMethod(DataInputStream in) throws IOException {
+            int ctxId = readInt(in);
+            int methodId = readInt(in);
+            return contexts[ctxId] != null && methods[methodId] != null
+                    ? csManager.getCSMethod(contexts[ctxId], methods[methodId])
+                    : new Stale(CS_METHOD, null, key(ctxId, methodId));
+        }
+
+        private Object readCSObj(DataInputStream in) throws IOException {
+            int ctxId = readInt(in);
+            int objId = readInt(in);
+            return contexts[ctxId] != null && objs[objId] != null
+                    ? csManager.getCSObj(contexts[ctxId], objs[objId])
+                    : new Stale(CS_OBJ, null, key(ctxId, objId));
+        }
+
+        private Set<Object> readPointsToSet(DataInputStream in) throws IOException {
+            int size = readInt(in);
+            Set<Object> pts = Sets.newHybridOrderedSet();
+            for (int i = 0; i < size; ++i) {
+                pts.add(readCSObj(in));
+            }
+            return pts;
+        }
+
+        private Object readPointer(DataInputStream in) throws IOException {
+            int tag = in.readByte();
+            return switch (tag) {
+                case CS_VAR -> {
+                    int ctxId = readInt(in);
+                    int methodId = readInt(in);
+                    int index = readInt(in);
+                    JMethod method = methods[methodId];
+                    yield contexts[ctxId] != null && method != null
+                            && !changedMethods.contains(method)
+                            ? csManager.getCSVar(contexts[ctxId],
+                                    method.getIR().getVar(index))
+                            : new Stale(CS_VAR, key(ctxId, methodId), index);
+                }
+                case STATIC_FIELD -> {
+                    int fieldId = readInt(in);
+                    yield fields[fieldId] != null
+                            ? csManager.getStaticField(fields[fieldId])
+                            : new Stale(STATIC_FIELD, null, fieldId);
+                }
+                case INSTANCE_FIELD -> {
+                    Object base = readCSObj(in);
+                    int fieldId = readInt(in);
+                    yield base instanceof CSObj csObj && fields[fieldId] != null
+                            ? csManager.getInstanceField(csObj, fields[fieldId])
+                            : new Stale(INSTANCE_FIELD, base, fieldId);
+                }
+                case ARRAY_INDEX -> {
+                    Object array = readCSObj(in);
+                    yield array instanceof CSObj csObj
+                            ? csManager.getArrayIndex(csObj)
+                            : new Stale(ARRAY_INDEX, array, 0);
+                }
+                default -> throw new AnalysisException(
+                        "Unexpected pointer tag: " + tag);
+            };
+        }
+
+        /**
+         * @return the statement, or null if its container method
+         * cannot be resolved or has been changed.
+         */
+        private Stmt readStmt(DataInputStream in) throws IOException {
+            JMethod method = methods[readInt(in)];
+            int index = readInt(in);
+            return method != null && !changedMethods.contains(method)
+                    ? method.getIR().getStmt(index) : null;
+        }
+
+        private static long key(int id1, int id2) {
+            return ((long) id1 << 32) | id2;
+        }
+
+        private static <T> T[] readStrings(
+                DataInputStream in, IntFunction<T[]> newArray,
+                Function<String, T> resolver) throws IOException {
+            T[] result = newArray.apply(readInt(in));
+            for (int i = 0; i < result.length; ++i) {
+                result[i] = resolver.apply(in.readUTF());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Receives the elements of the solver state in the order they are
+     * decoded. Each element is either a context-sensitive element, or
+     * a {@link Stale} placeholder if it cannot be resolved in current world.
+     */
+    private interface Sink {
+
+        void addEntryMethod(Object csMethod);
+
+        void addReachableMethod(Object csMethod);
+
+        void addCallEdge(CallEdge edge);
+
+        void addPointsTo(Object pointer, Set<Object> objs);
+
+        void addPFGEdge(Object source, Object target);
+
+        void addPending(Object pointer, Set<Object> objs);
+    }
+
+    /**
+     * Solver state decoded from a checkpoint.
+     */
+    static class Snapshot implements Sink {
+
+        final List<Object> entries = new ArrayList<>();
+
+        final List<Object> reachable = new ArrayList<>();
+
+        final List<CallEdge> callEdges = new ArrayList<>();
+
+        /**
+         * Map from pointers to the objects they point to.
+         */
+        final Map<Object, Set<Object>> pointsTo = new LinkedHashMap<>();
+
+        final MultiMap<Object, Object> pfgEdges = Maps.newMultiMap();
+
+        final List<Pair<Object, Set<Object>>> pending = new ArrayList<>();
+
+        @Override
+        public void addEntryMethod(Object csMethod) {
+            entries.add(csMethod);
+        }
+
+        @Override
+        public void addReachableMethod(Object csMethod) {
+            reachable.add(csMethod);
+        }
+
+        @Override
+        public void addCallEdge(CallEdge edge) {
+            callEdges.add(edge);
+        }
+
+        @Override
+        public void addPointsTo(Object pointer, Set<Object> objs) {
+            pointsTo.put(pointer, objs);
+        }
+
+        @Override
+        public void addPFGEdge(Object source, Object target) {
+            pfgEdges.put(source, target);
+        }
+
+        @Override
+        public void addPending(Object pointer, Set<Object> objs) {
+            pending.add(new Pair<>(pointer, objs));
+        }
+
+        /**
+         * Restores this snapshot into the given (empty) data structures.
+         * The elements are re-created by {@code csManager}, which may
+         * differ from the manager used to decode this snapshot.
+         *
+         * @throws AnalysisException if this snapshot contains stale elements.
+         */
+        void restore(CSManager csManager, CSCallGraph callGraph,
+                     PointerFlowGraph pfg, WorkList workList) {
+            Restorer restorer = new Restorer(csManager, callGraph, pfg, workList);
+            entries.forEach(restorer::addEntryMethod);
+            reachable.forEach(restorer::addReachableMethod);
+            callEdges.forEach(restorer::addCallEdge);
+            pointsTo.forEach(restorer::addPointsTo);
+            pfgEdges.forEach(restorer::addPFGEdge);
+            pending.forEach(e -> restorer.addPending(e.first(), e.second()));
+        }
+    }
+
+    /**
+     * Adds the elements of the solver state to the given (empty) data
+     * structures as they are received. The elements are re-created by
+     * {@code csManager}, which may differ from the manager used to decode
+     * them. It throws {@link AnalysisException} on stale elements.
+     */
+    private record Restorer(CSManager csManager, CSCallGraph callGraph,
+                            PointerFlowGraph pfg, WorkList workList)
+            implements Sink {
+
+        @Override
+        public void addEntryMethod(Object csMethod) {
+            callGraph.addEntryMethod(
+                    copy(csManager, resolved(csMethod, CSMethod.class)));
+        }
+
+        @Override
+        public void addReachableMethod(Object csMethod) {
+            callGraph.addReachableMethod(
+                    copy(csManager, resolved(csMethod, CSMethod.class)));
+        }
+
+        @Override
+        public void addCallEdge(CallEdge edge) {
+            callGraph.addEdge(new Edge<>(edge.kind(),
+                    copy(csManager, resolved(edge.callSite(), CSCallSite.class)),
+                    copy(csManager, resolved(edge.callee(), CSMethod.class))));
+        }
+
+        @Override
+        public void addPointsTo(Object pointer, Set<Object> objs) {
+            copy(csManager, resolved(pointer, Pointer.class))
+                    .getPointsToSet()
+                    .addAll(toPointsToSet(objs));
+        }
+
+        @Override
+        public void addPFGEdge(Object source, Object target) {
+            pfg.addEdge(copy(csManager, resolved(source, Pointer.class)),
+                    copy(csManager, resolved(target, Pointer.class)));
+        }
+
+        @Override
+        public void addPending(Object pointer, Set<Object> objs) {
+            workList.addEntry(copy(csManager, resolved(pointer, Pointer.class)),
+                    toPointsToSet(objs));
+        }
+
+        private PointsToSet toPointsToSet(Set<Object> objs) {
+            PointsToSet pts = PointsToSetFactory.make();
+            objs.forEach(o -> pts.addObject(
+                    copy(csManager, resolved(o, CSObj.class))));
+            return pts;
+        }
+
+        private static <T> T resolved(Object elem, Class<T> c) {
+            if (elem instanceof Stale) {
+                throw new AnalysisException(
+                        "Checkpoint does not match current program: " + elem);
+            }
+            return c.cast(elem);
+        }
+    }
+
+    /**
+     * Call edge in a {@link Snapshot}.
+     */
+    record CallEdge(CallKind kind, Object callSite, Object callee) {
+    }
+
+    /**
+     * Placeholder of an element which cannot be resolved in current world.
+     * Placeholders are equal if they are decoded from the same element:
+     * {@code owner} is the base object of a field or array pointer
+     * (or the packed ids of the context and method of a variable),
+     * and {@code id} identifies the element within its owner.
+     */
+    record Stale(int kind, Object owner, long id) {
+    }
+
+    // kinds of stale elements, in addition to the tags of pointers
+    private static final int CS_OBJ = 4;
+
+    private static final int CS_METHOD = 5;
+
+    private static final int CS_CALL_SITE = 6;
+
+    /**
+     * Methods which re-create context-sensitive elements by given CSManager.
+     */
+    static CSMethod copy(CSManager csManager, CSMethod m) {
+        return csManager.getCSMethod(m.getContext(), m.getMethod());
+    }
+
+    static CSCallSite copy(CSManager csManager, CSCallSite cs) {
+        return csManager.getCSCallSite(cs.getContext(), cs.getCallSite());
+    }
+
+    static CSObj copy(CSManager csManager, CSObj o) {
+        return csManager.getCSObj(o.getContext(), o.getObject());
+    }
+
+    static Pointer copy(CSManager csManager, Pointer p) {
+        if (p instanceof CSVar csVar) {
+            return csManager.getCSVar(csVar.getContext(), csVar.getVar());
+        } else if (p instanceof StaticField sField) {
+            return csManager.getStaticField(sField.getField());
+        } else if (p instanceof InstanceField iField) {
+            return csManager.getInstanceField(
+                    copy(csManager, iField.getBase()), iField.getField());
+        } else if (p instanceof ArrayIndex arrayIndex) {
+            return csManager.getArrayIndex(copy(csManager, arrayIndex.getArray()));
+        } else {
+            throw new AnalysisException("Unexpected pointer: " + p);
+        }
+    }
+
+    /**
+     * @return the allocation site which can be used to reproduce
+     * given object via {@link HeapModel#getObj(New)}.
+     */
+    private static New getAllocSite(Obj obj) {
+        Object alloc = obj.getAllocation();
+        if (alloc instanceof New allocSite) {
+            return allocSite;
+        }
+        // merged objects are represented by the objects they merge
+        if (alloc instanceof Collection<?> represented) {
+            for (Object o : represented) {
+                if (o instanceof Obj r && r.getAllocation() instanceof New allocSite) {
+                    return allocSite;
+                }
+            }
+        }
+        throw new AnalysisException("Cannot checkpoint object: " + obj);
+    }
+
+    /**
+     * Assigns consecutive ids to elements in the order they are first seen.
+     */
+    private static class Indexer<T> {
+
+        private final Map<T, Integer> ids = Maps.newMap();
+
+        private final List<T> elements = new ArrayList<>();
+
+        private int getId(T elem) {
+            Integer id = ids.get(elem);
+            if (id == null) {
+                id = elements.size();
+                ids.put(elem, id);
+                elements.add(elem);
+            }
+            return id;
+        }
+
+        private List<T> elements() {
+            return elements;
+        }
+    }
+
+    private static void writeInt(DataOutputStream out, int value)
+            throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToIndex;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AbstractResultHolder;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Pointer analysis result whose points-to sets have been frozen by
+ * {@link PointsToIndex}, which answers the queries without contexts.
+ */
+class FrozenPointerAnalysisResult extends AbstractResultHolder
+        implements PointerAnalysisResult {
+
+    private static final Logger logger = LogManager.getLogger(FrozenPointerAnalysisResult.class);
+
+    private final CSManager csManager;
+
+    private final PointsToIndex pointsToIndex;
+
+    private final CallGraph<CSCallSite, CSMethod> csCallGraph;
+
+    /**
+     * Call graph without contexts, built on demand.
+     */
+    private CallGraph<Invoke, JMethod> callGraph;
+
+    FrozenPointerAnalysisResult(CSManager csManager, PointsToIndex pointsToIndex,
+                                CallGraph<CSCallSite, CSMethod> csCallGraph) {
+        this.csManager = csManager;
+        this.pointsToIndex = pointsToIndex;
+        this.csCallGraph = csCallGraph;
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return csManager.getCSVars();
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        return csManager.getVars();
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return csManager.getInstanceFields();
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return csManager.getArrayIndexes();
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        return csManager.getStaticFields();
+    }
+
+    @Override
+    public Collection<CSObj> getCSObjects() {
+        return csManager.getObjects();
+    }
+
+    @Override
+    public Collection<Obj> getObjects() {
+        return pointsToIndex.getObjects();
+    }
+
+    @Override
+    public Set<CSObj> getPointsToSet(CSVar csVar) {
+        return csVar.getPointsToSet().getObjects();
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var var) {
+        return pointsToIndex.getObjectsOf(csManager.getCSVarsOf(var));
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var base, JField field) {
+        if (field.isStatic()) {
+            logger.warn("{} is not instance field", field);
+        }
+        return pointsToIndex.getObjectsOf(csManager.getCSVarsOf(base), field);
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(JField field) {
+        if (!field.isStatic()) {
+            logger.warn("{} is not static field", field);
+        }
+        return pointsToIndex.getObjectsOf(
+                List.of(csManager.getStaticField(field)));
+    }
+
+    @Override
+    public CallGraph<CSCallSite, CSMethod> getCSCallGraph() {
+        return csCallGraph;
+    }
+
+    @Override
+    public CallGraph<Invoke, JMethod> getCallGraph() {
+        if (callGraph == null) {
+            DefaultCallGraph cg = new DefaultCallGraph();
+            csCallGraph.entryMethods()
+                    .map(CSMethod::getMethod)
+                    .forEach(cg::addEntryMethod);
+            csCallGraph.reachableMethods()
+                    .map(CSMethod::getMethod)
+                    .forEach(cg::addReachableMethod);
+            csCallGraph.edges().forEach(edge -> cg.addEdge(new Edge<>(
+                    edge.getKind(), edge.getCallSite().getCallSite(),
+                    edge.getCallee().getMethod())));
+            callGraph = cg;
+        }
+        return callGraph;
+    }
+}
@@ -0,0 +1,630 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Updates a previous solver state for a set of changed methods by the
+ * delete-and-rederive (DRed) strategy.
+ * <p>
+ * The <b>delete</b> phase over-approximates the part of the previous
+ * state which may depend on the old bodies of the changed methods:
+ * starting from the elements of the changed methods (which are
+ * {@link Checkpoint.Stale stale}), it transitively deletes the points-to
+ * facts which flow through deleted PFG edges, the PFG edges and call
+ * edges derived from deleted facts (field/array accesses and receiver
+ * objects), and the methods which become unreachable.
+ * <p>
+ * The <b>rederive</b> phase collects the seeds which re-derive the
+ * deleted elements that are still derivable from the surviving state:
+ * surviving PFG edges into the pointers which lost facts, variables whose
+ * field accesses and calls need to be re-processed, and statements which
+ * need to be re-processed in surviving methods. Together with the normal
+ * propagation of the new method bodies, the solver then reaches the same
+ * fixed point as a from-scratch run.
+ * <p>
+ * All elements handled by this class are created by a separate CSManager,
+ * so that the deletion does not leave junk elements in the new result.
+ * <p>
+ * Only this solver supports incremental updates. The context-insensitive
+ * analysis cipta (A5) has its own solver without checkpoints, thus
+ * an incremental context-insensitive analysis is cspta with cs:ci.
+ */
+class Incremental {
+
+    private final Checkpoint.Snapshot old;
+
+    private final CSManager csManager;
+
+    private final ContextSelector contextSelector;
+
+    private final Set<JMethod> changedMethods;
+
+    // indexes of the old state
+    private final MultiMap<Object, Object> preds = Maps.newMultiMap();
+
+    /**
+     * Map from objects to the pointers which point to them.
+     */
+    private final MultiMap<Object, Object> holders = Maps.newMultiMap();
+
+    /**
+     * Map from objects to the instance fields and array indexes based on them.
+     */
+    private final MultiMap<Object, Object> basedPointers = Maps.newMultiMap();
+
+    private final MultiMap<CSMethod, CSVar> varsOf = Maps.newMultiMap();
+
+    private final MultiMap<JMethod, CSObj> objsAllocatedIn = Maps.newMultiMap();
+
+    /**
+     * Call edges, indexed by (call site, callee).
+     */
+    private final Map<Pair<Object, Object>, Checkpoint.CallEdge> callEdges =
+            Maps.newMap();
+
+    private final MultiMap<Object, Checkpoint.CallEdge> callsFrom =
+            Maps.newMultiMap();
+
+    private final MultiMap<Object, Checkpoint.CallEdge> callsTo =
+            Maps.newMultiMap();
+
+    // deleted elements
+    private final Set<Object> deletedMethods = Sets.newHybridSet();
+
+    private final Set<Object> deletedPointers = Sets.newHybridSet();
+
+    private final Set<Object> deletedObjs = Sets.newHybridSet();
+
+    private final Set<Pair<Object, Object>> deletedEdges = Sets.newHybridSet();
+
+    private final Set<Checkpoint.CallEdge> deletedCalls = Sets.newHybridSet();
+
+    private final MultiMap<Object, Object> deletedFacts = Maps.newMultiMap();
+
+    /**
+     * Deleted facts whose consequences have not been deleted.
+     */
+    private final Deque<Pair<Object, Object>> factQueue = new ArrayDeque<>();
+
+    // seeds of rederivation
+    private final Set<Pair<Object, Object>> repropagations = Sets.newHybridSet();
+
+    private final Set<CSVar> revisitedVars = Sets.newHybridSet();
+
+    private final Set<Pair<CSMethod, Stmt>> reprocessedStmts = Sets.newHybridSet();
+
+    Incremental(Checkpoint.Snapshot old, CSManager csManager,
+                ContextSelector contextSelector, Set<JMethod> changedMethods) {
+        this.old = old;
+        this.csManager = csManager;
+        this.contextSelector = contextSelector;
+        this.changedMethods = changedMethods;
+        buildIndexes();
+    }
+
+    private void buildIndexes() {
+        old.pointsTo.forEach((p, pts) -> {
+            addPointer(p);
+            pts.forEach(o -> {
+                holders.put(o, p);
+                if (o instanceof CSObj csObj) {
+                    csObj.getObject().getContainerMethod().ifPresent(m ->
+                            objsAllocatedIn.put(m, csObj));
+                }
+            });
+        });
+        old.pfgEdges.forEach((source, target) -> {
+            addPointer(source);
+            addPointer(target);
+            preds.put(target, source);
+        });
+        old.callEdges.forEach(e -> {
+            callEdges.put(new Pair<>(e.callSite(), e.callee()), e);
+            callsFrom.put(getCaller(e.callSite()), e);
+            callsTo.put(e.callee(), e);
+        });
+    }
+
+    private void addPointer(Object p) {
+        if (p instanceof CSVar csVar) {
+            varsOf.put(csManager.getCSMethod(csVar.getContext(),
+                    csVar.getVar().getMethod()), csVar);
+        } else if (p instanceof InstanceField iField) {
+            basedPointers.put(iField.getBase(), p);
+        } else if (p instanceof ArrayIndex arrayIndex) {
+            basedPointers.put(arrayIndex.getArray(), p);
+        }
+    }
+
+    /**
+     * @return the context-sensitive method containing given call site,
+     * or the call site itself if it is stale.
+     */
+    private Object getCaller(Object callSite) {
+        if (callSite instanceof CSCallSite csCallSite) {
+            return csManager.getCSMethod(csCallSite.getContext(),
+                    csCallSite.getCallSite().getContainer());
+        }
+        return callSite;
+    }
+
+    /**
+     * Runs the delete phase and collects the seeds of the rederive phase.
+     */
+    void run() {
+        // stale elements refer to the old bodies of changed methods
+        old.pointsTo.keySet().forEach(p -> {
+            if (p instanceof Checkpoint.Stale) {
+                deletePointer(p);
+            }
+        });
+        old.pfgEdges.forEach((source, target) -> {
+            if (source instanceof Checkpoint.Stale) {
+                deletePointer(source);
+            }
+            if (target instanceof Checkpoint.Stale) {
+                deletePointer(target);
+            }
+        });
+        holders.keySet().forEach(o -> {
+            if (o instanceof Checkpoint.Stale) {
+                deleteObj(o);
+            }
+        });
+        old.reachable.forEach(m -> {
+            if (m instanceof Checkpoint.Stale || changedMethods.contains(
+                    ((CSMethod) m).getMethod())) {
+                deleteMethod(m);
+            }
+        });
+        old.callEdges.forEach(e -> {
+            if (e.callSite() instanceof Checkpoint.Stale
+                    || e.callee() instanceof Checkpoint.Stale) {
+                deleteCallEdge(e);
+            }
+        });
+        do {
+            processFactQueue();
+        } while (deleteUnreachableMethods());
+        collectSeeds();
+    }
+
+    // ---------- delete phase ----------
+
+    private void deleteMethod(Object method) {
+        if (!deletedMethods.add(method)) {
+            return;
+        }
+        if (method instanceof CSMethod csMethod) {
+            varsOf.get(csMethod).forEach(this::deletePointer);
+            JMethod m = csMethod.getMethod();
+            // heap contexts of objects are selected by their container methods
+            objsAllocatedIn.get(m).forEach(o -> {
+                if (contextSelector.selectHeapContext(csMethod, o.getObject())
+                        .equals(o.getContext())) {
+                    deleteObj(o);
+                }
+            });
+        }
+        callsFrom.get(method).forEach(this::deleteCallEdge);
+        // calls to deleted method are re-derived by their callers
+        callsTo.get(method).forEach(this::deleteCallEdge);
+    }
+
+    private void deletePointer(Object pointer) {
+        if (!deletedPointers.add(pointer)) {
+            return;
+        }
+        getPointsTo(pointer).forEach(o -> deleteFact(pointer, o));
+        old.pfgEdges.get(pointer).forEach(succ -> deleteEdge(pointer, succ));
+        preds.get(pointer).forEach(pred -> deleteEdge(pred, pointer));
+    }
+
+    private void deleteObj(Object obj) {
+        if (!deletedObjs.add(obj)) {
+            return;
+        }
+        holders.get(obj).forEach(p -> deleteFact(p, obj));
+        basedPointers.get(obj).forEach(this::deletePointer);
+    }
+
+    private void deleteEdge(Object source, Object target) {
+        if (!old.pfgEdges.contains(source, target)
+                || !deletedEdges.add(new Pair<>(source, target))) {
+            return;
+        }
+        Set<Object> targetPts = getPointsTo(target);
+        getPointsTo(source).forEach(o -> {
+            if (targetPts.contains(o)) {
+                deleteFact(target, o);
+            }
+        });
+    }
+
+    private void deleteFact(Object pointer, Object obj) {
+        if (getPointsTo(pointer).contains(obj)
+                && deletedFacts.put(pointer, obj)) {
+            factQueue.add(new Pair<>(pointer, obj));
+        }
+    }
+
+    private void deleteCallEdge(Checkpoint.CallEdge edge) {
+        if (!deletedCalls.add(edge)) {
+            return;
+        }
+        if (edge.callSite() instanceof CSCallSite csCallSite
+                && edge.callee() instanceof CSMethod csCallee) {
+            // parameter passing and return edges of the call
+            Context callerContext = csCallSite.getContext();
+            Context calleeContext = csCallee.getContext();
+            Invoke invoke = csCallSite.getCallSite();
+            InvokeExp invokeExp = invoke.getInvokeExp();
+            IR calleeIR = csCallee.getMethod().getIR();
+            if (!changedMethods.contains(csCallee.getMethod())) {
+                for (int i = 0; i < invokeExp.getArgCount(); ++i) {
+                    deleteEdge(csManager.getCSVar(callerContext, invokeExp.getArg(i)),
+                            csManager.getCSVar(calleeContext, calleeIR.getParam(i)));
+                }
+                Var result = invoke.getResult();
+                if (result != null) {
+                    CSVar target = csManager.getCSVar(callerContext, result);
+                    calleeIR.getReturnVars().forEach(ret -> deleteEdge(
+                            csManager.getCSVar(calleeContext, ret), target));
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes the consequences of deleted facts, until the queue is empty.
+     */
+    private void processFactQueue() {
+        while (!factQueue.isEmpty()) {
+            Pair<Object, Object> fact = factQueue.poll();
+            Object pointer = fact.first();
+            Object obj = fact.second();
+            old.pfgEdges.get(pointer).forEach(succ -> deleteFact(succ, obj));
+            if (pointer instanceof CSVar csVar && obj instanceof CSObj csObj
+                    && !changedMethods.contains(csVar.getVar().getMethod())) {
+                deleteDerivedFrom(csVar, csObj);
+            }
+        }
+    }
+
+    /**
+     * Deletes the PFG edges and call edges derived from the fact that
+     * {@code csVar} points to {@code csObj}.
+     */
+    private void deleteDerivedFrom(CSVar csVar, CSObj csObj) {
+        Context context = csVar.getContext();
+        Var var = csVar.getVar();
+        var.getStoreFields().forEach(store -> deleteEdge(
+                csManager.getCSVar(context, store.getRValue()),
+                csManager.getInstanceField(csObj, resolve(store))));
+        var.getLoadFields().forEach(load -> deleteEdge(
+                csManager.getInstanceField(csObj, resolve(load)),
+                csManager.getCSVar(context, load.getLValue())));
+        var.getStoreArrays().forEach(store -> deleteEdge(
+                csManager.getCSVar(context, store.getRValue()),
+                csManager.getArrayIndex(csObj)));
+        var.getLoadArrays().forEach(load -> deleteEdge(
+                csManager.getArrayIndex(csObj),
+                csManager.getCSVar(context, load.getLValue())));
+        var.getInvokes().forEach(invoke -> {
+            JMethod callee = CallGraphs.resolveCallee(
+                    csObj.getObject().getType(), invoke);
+            if (callee == null) {
+                return;
+            }
+            CSCallSite csCallSite = csManager.getCSCallSite(context, invoke);
+            Context calleeContext = contextSelector.selectContext(
+                    csCallSite, csObj, callee);
+            CSMethod csCallee = csManager.getCSMethod(calleeContext, callee);
+            Checkpoint.CallEdge edge = callEdges.get(
+                    new Pair<>(csCallSite, csCallee));
+            if (edge != null) {
+                deleteCallEdge(edge);
+            }
+            if (!changedMethods.contains(callee)) {
+                deleteFact(csManager.getCSVar(calleeContext,
+                        callee.getIR().getThis()), csObj);
+            }
+        });
+    }
+
+    /**
+     * Deletes the methods which are no longer reachable from the
+     * surviving entry methods via the surviving call edges.
+     *
+     * @return true if any method is deleted.
+     */
+    private boolean deleteUnreachableMethods() {
+        Set<Object> reached = Sets.newHybridSet();
+        Deque<Object> queue = new ArrayDeque<>();
+        old.entries.forEach(m -> {
+            if (!deletedMethods.contains(m) && reached.add(m)) {
+                queue.add(m);
+            }
+        });
+        while (!queue.isEmpty()) {
+            callsFrom.get(queue.poll()).forEach(e -> {
+                if (!deletedCalls.contains(e)
+                        && !deletedMethods.contains(e.callee())
+                        && reached.add(e.callee())) {
+                    queue.add(e.callee());
+                }
+            });
+        }
+        boolean changed = false;
+        for (Object m : old.reachable) {
+            if (!reached.contains(m) && !deletedMethods.contains(m)) {
+                deleteMethod(m);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    // ---------- rederive phase ----------
+
+    private void collectSeeds() {
+        // facts which are still derivable via surviving PFG edges
+        deletedFacts.forEachSet((pointer, objs) -> {
+            if (deletedPointers.contains(pointer)) {
+                return;
+            }
+            preds.get(pointer).forEach(pred -> {
+                if (!deletedPointers.contains(pred)
+                        && !deletedEdges.contains(new Pair<>(pred, pointer))) {
+                    repropagations.add(new Pair<>(pred, pointer));
+                }
+            });
+            if (pointer instanceof CSVar csVar) {
+                collectSourcesOf(csVar);
+            }
+        });
+        // PFG edges of field and array accesses in surviving methods
+        deletedEdges.forEach(edge -> {
+            if (!deletedPointers.contains(edge.first())
+                    && !deletedPointers.contains(edge.second())) {
+                if (edge.first() instanceof CSVar source) {
+                    collectAccessBases(source, true);
+                }
+                if (edge.second() instanceof CSVar target) {
+                    collectAccessBases(target, false);
+                }
+            }
+        });
+        // call edges from surviving methods
+        deletedCalls.forEach(e -> {
+            if (e.callSite() instanceof CSCallSite csCallSite
+                    && !deletedMethods.contains(getCaller(csCallSite))) {
+                collectCaller(csCallSite);
+            }
+        });
+    }
+
+    /**
+     * Collects the seeds which re-derive the facts of {@code csVar}
+     * that do not come from PFG edges, i.e., allocations and receiver
+     * objects of {@code this} variables.
+     */
+    private void collectSourcesOf(CSVar csVar) {
+        Var var = csVar.getVar();
+        JMethod method = var.getMethod();
+        CSMethod csMethod = csManager.getCSMethod(csVar.getContext(), method);
+        if (deletedMethods.contains(csMethod)) {
+            return;
+        }
+        IR ir = method.getIR();
+        if (var.equals(ir.getThis())) {
+            callsTo.get(csMethod).forEach(e -> {
+                if (!deletedCalls.contains(e)
+                        && e.callSite() instanceof CSCallSite csCallSite) {
+                    collectCaller(csCallSite);
+                }
+            });
+        }
+        ir.forEach(stmt -> {
+            if (stmt instanceof New newStmt && newStmt.getLValue().equals(var)) {
+                reprocessedStmts.add(new Pair<>(csMethod, newStmt));
+            }
+        });
+    }
+
+    /**
+     * Collects the base variables of the field and array accesses which
+     * may derive PFG edges from (or to, if {@code isSource} is false)
+     * given variable.
+     */
+    private void collectAccessBases(CSVar csVar, boolean isSource) {
+        Var var = csVar.getVar();
+        var.getMethod().getIR().forEach(stmt -> {
+            Var base = null;
+            if (isSource) {
+                if (stmt instanceof StoreField store && !store.isStatic()
+                        && store.getRValue().equals(var)) {
+                    base = ((InstanceFieldAccess)
+                            store.getFieldAccess()).getBase();
+                } else if (stmt instanceof StoreArray store
+                        && store.getRValue().equals(var)) {
+                    base = store.getArrayAccess().getBase();
+                }
+            } else {
+                if (stmt instanceof LoadField load && !load.isStatic()
+                        && load.getLValue().equals(var)) {
+                    base = ((InstanceFieldAccess)
+                            load.getFieldAccess()).getBase();
+                } else if (stmt instanceof LoadArray load
+                        && load.getLValue().equals(var)) {
+                    base = load.getArrayAccess().getBase();
+                }
+            }
+            if (base != null) {
+                revisitedVars.add(csManager.getCSVar(csVar.getContext(), base));
+            }
+        });
+    }
+
+    /**
+     * Collects the seed which re-derives the call edges of given call site.
+     */
+    private void collectCaller(CSCallSite csCallSite) {
+        Invoke invoke = csCallSite.getCallSite();
+        if (invoke.getInvokeExp() instanceof InvokeInstanceExp instanceExp) {
+            revisitedVars.add(csManager.getCSVar(
+                    csCallSite.getContext(), instanceExp.getBase()));
+        } else {
+            reprocessedStmts.add(new Pair<>(
+                    (CSMethod) getCaller(csCallSite), invoke));
+        }
+    }
+
+    private static JField resolve(StoreField store) {
+        return store.getFieldAccess().getFieldRef().resolve();
+    }
+
+    private static JField resolve(LoadField load) {
+        return load.getFieldAccess().getFieldRef().resolve();
+    }
+
+    private Set<Object> getPointsTo(Object pointer) {
+        return old.pointsTo.getOrDefault(pointer, Set.of());
+    }
+
+    // ---------- results ----------
+
+    /**
+     * @return the surviving part of the old state.
+     */
+    Checkpoint.Snapshot getSurvivors() {
+        Checkpoint.Snapshot survivors = new Checkpoint.Snapshot();
+        old.entries.forEach(m -> {
+            if (!deletedMethods.contains(m)) {
+                survivors.entries.add(m);
+            }
+        });
+        old.reachable.forEach(m -> {
+            if (!deletedMethods.contains(m)) {
+                survivors.reachable.add(m);
+            }
+        });
+        old.callEdges.forEach(e -> {
+            if (!deletedCalls.contains(e)) {
+                survivors.callEdges.add(e);
+            }
+        });
+        old.pointsTo.forEach((p, pts) -> {
+            if (!deletedPointers.contains(p)) {
+                Set<Object> deleted = deletedFacts.get(p);
+                Set<Object> surviving = Sets.newHybridOrderedSet();
+                pts.forEach(o -> {
+                    if (!deleted.contains(o)) {
+                        surviving.add(o);
+                    }
+                });
+                if (!surviving.isEmpty()) {
+                    survivors.pointsTo.put(p, surviving);
+                }
+            }
+        });
+        old.pfgEdges.forEach((source, target) -> {
+            if (!deletedEdges.contains(new Pair<>(source, target))) {
+                survivors.pfgEdges.put(source, target);
+            }
+        });
+        return survivors;
+    }
+
+    /**
+     * @return pairs of (source, target) such that the points-to set of
+     * source should be propagated to target again.
+     */
+    Set<Pair<Object, Object>> getRepropagations() {
+        return repropagations;
+    }
+
+    /**
+     * @return variables whose field accesses and calls should be
+     * processed again for all the objects they point to.
+     */
+    Set<CSVar> getRevisitedVars() {
+        return revisitedVars;
+    }
+
+    /**
+     * @return statements which should be processed again in
+     * the given (surviving) methods.
+     */
+    Set<Pair<CSMethod, Stmt>> getReprocessedStmts() {
+        return reprocessedStmts;
+    }
+
+    /**
+     * @return the number of points-to facts in the old state.
+     */
+    int getOldFactCount() {
+        return old.pointsTo.values().stream().mapToInt(Set::size).sum();
+    }
+
+    /**
+     * @return the number of deleted points-to facts.
+     */
+    int getDeletedFactCount() {
+        return deletedFacts.size();
+    }
+}
@@ -23,8 +23,11 @@
 package pascal.taie.analysis.pta.cs;
 
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.language.type.Type;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.TwoKeyMap;
 
 import java.util.Set;
 
@@ -38,6 +41,13 @@ class PointerFlowGraph {
      */
     private final MultiMap<Pointer, Pointer> successors = Maps.newMultiMap();
 
+    /**
+     * Map from an edge (source -> target) to the types that filter
+     * the objects flowing along the edge, i.e., the types of the casts
+     * from source to target. An object flows if it matches any of them.
+     */
+    private final TwoKeyMap<Pointer, Pointer, Set<Type>> filters = Maps.newTwoKeyMap();
+
     /**
      * Adds an edge (source -> target) to this PFG.
      *
@@ -45,7 +55,46 @@ class PointerFlowGraph {
      * otherwise false.
      */
     boolean addEdge(Pointer source, Pointer target) {
-        return successors.put(source, target);
+        boolean added = successors.put(source, target);
+        // an edge without filter subsumes the filtered edge
+        boolean unfiltered = !filters.isEmpty()
+                && filters.remove(source, target) != null;
+        return added || unfiltered;
+    }
+
+    /**
+     * Adds an edge (source -> target) whose objects are filtered by
+     * given type to this PFG. If the edge already exists with filters,
+     * the type is added to them, and if it exists without filter,
+     * the edge is not changed.
+     *
+     * @return true if this PFG changed as a result of the call,
+     * otherwise false.
+     */
+    boolean addEdge(Pointer source, Pointer target, Type filter) {
+        if (successors.put(source, target)) {
+            Set<Type> types = Sets.newHybridSet();
+            types.add(filter);
+            filters.put(source, target, types);
+            return true;
+        }
+        Set<Type> types = getFilters(source, target);
+        return types != null && types.add(filter);
+    }
+
+    /**
+     * @return the filter types of edge (source -> target),
+     * or null if the edge has no filter.
+     */
+    Set<Type> getFilters(Pointer source, Pointer target) {
+        return filters.isEmpty() ? null : filters.get(source, target);
+    }
+
+    /**
+     * @return the pointers which have successors in this PFG.
+     */
+    Set<Pointer> getPointers() {
+        return successors.keySet();
     }
 
     /**
@@ -25,15 +25,18 @@ package pascal.taie.analysis.pta.cs;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
+import pascal.taie.analysis.AnalysisScope;
 import pascal.taie.analysis.graph.callgraph.CallGraphs;
 import pascal.taie.analysis.graph.callgraph.CallKind;
 import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.PointerAnalysisResultImpl;
+import pascal.taie.analysis.pta.core.LibraryModel;
 import pascal.taie.analysis.pta.core.cs.CSCallGraph;
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
 import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.BDDCSManager;
 import pascal.taie.analysis.pta.core.cs.element.CSManager;
 import pascal.taie.analysis.pta.core.cs.element.CSMethod;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
@@ -43,24 +46,43 @@ import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.core.cs.element.StaticField;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
+import pascal.taie.analysis.pta.core.cs.selector.IntrospectiveSelector;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.BDDPointsToRelation;
+import pascal.taie.analysis.pta.pts.PointsToIndex;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.analysis.pta.pts.PointsToSetInterner;
 import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
 import pascal.taie.ir.exp.*;
+import pascal.taie.ir.stmt.Cast;
 import pascal.taie.ir.stmt.Copy;
 import pascal.taie.ir.stmt.Invoke;
-import pascal.taie.ir.stmt.LoadArray;
 import pascal.taie.ir.stmt.LoadField;
 import pascal.taie.ir.stmt.New;
 import pascal.taie.ir.stmt.StmtVisitor;
-import pascal.taie.ir.stmt.StoreArray;
 import pascal.taie.ir.stmt.StoreField;
-import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ReferenceType;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Instrumentation;
+import pascal.taie.util.Progress;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
 
 class Solver {
 
@@ -72,14 +94,73 @@ class Solver {
 
     private final ContextSelector contextSelector;
 
+    /**
+     * The introspective selector which watches points-to growth,
+     * or null if context sensitivity is not budget-aware.
+     */
+    private final IntrospectiveSelector introspector;
+
+    /**
+     * The file to which the solver state is checkpointed,
+     * or null if checkpointing is disabled.
+     */
+    private final Path checkpointFile;
+
+    /**
+     * Minimum interval (in milliseconds) between two checkpoints.
+     */
+    private final long checkpointInterval;
+
+    /**
+     * Whether to share identical points-to sets when the analysis finishes,
+     * see {@link PointsToSetInterner}.
+     */
+    private final boolean ptsSharing;
+
+    /**
+     * Number of work-list entries between two passes of sharing
+     * points-to sets during the analysis, 0 to disable.
+     */
+    private final int ptsSharingInterval;
+
+    /**
+     * Filters objects by the types of pointers, or null if disabled.
+     */
+    private final TypeFilter typeFilter;
+
+    private final AnalysisScope scope;
+
+    /**
+     * Models the calls to the methods out of scope, or null if
+     * such calls are ignored.
+     */
+    private final LibraryModel libraryModel;
+
+    /**
+     * Maps each argument variable of {@link LibraryModel.Kind#STORE_ALL}
+     * calls to the contents of the receivers, which the contents of
+     * the objects pointed to by the variable flow to.
+     */
+    private final MultiMap<CSVar, InstanceField> contentsCopies = Maps.newMultiMap();
+
+    private final Instrumentation instrumentation;
+
+    private final Progress progress;
+
     private CSManager csManager;
 
     private CSCallGraph callGraph;
 
     private PointerFlowGraph pointerFlowGraph;
 
+    private PointsToIndex pointsToIndex;
+
     private WorkList workList;
 
+    private Statistics statistics;
+
+    private long lastCheckpointTime;
+
     private PointerAnalysisResult result;
 
     Solver(AnalysisOptions options, HeapModel heapModel,
@@ -87,18 +168,82 @@ class Solver {
         this.options = options;
         this.heapModel = heapModel;
         this.contextSelector = contextSelector;
+        this.introspector = contextSelector instanceof IntrospectiveSelector s
+                ? s : null;
+        String file = options.getString("checkpoint-file");
+        this.checkpointFile = file != null ? Path.of(file) : null;
+        this.checkpointInterval = 1000L * CSPTA.getIntOrDefault(
+                options, "checkpoint-interval", 600);
+        this.typeFilter = options.getBooleanOrDefault("type-filter", false)
+                ? new TypeFilter(World.get().getTypeSystem()) : null;
+        this.scope = AnalysisScope.of(options);
+        if (checkpointFile != null && !scope.isAll()) {
+            throw new ConfigException("Checkpointing does not support"
+                    + " analysis scope: " + scope);
+        }
+        if (checkpointFile != null && typeFilter != null) {
+            // the checkpoint keeps PFG edges without their filters
+            throw new ConfigException("Checkpointing does not support type-filter");
+        }
+        this.libraryModel = options.getBooleanOrDefault("library-boundary", false)
+                ? new LibraryModel() : null;
+        this.ptsSharing = options.getBooleanOrDefault("pts-sharing", false);
+        this.ptsSharingInterval = CSPTA.getIntOrDefault(
+                options, "pts-sharing-interval", 0);
+        this.instrumentation = new Instrumentation(CSPTA.ID,
+                options.getBooleanOrDefault("instrument", false));
+        this.progress = Progress.make(CSPTA.ID, options);
     }
 
     void solve() {
+        Instrumentation.Phase phase = instrumentation.startPhase("initialize");
         initialize();
+        phase.close();
+        phase = instrumentation.startPhase("analyze");
         analyze();
+        phase.close();
+        if (ptsSharing) {
+            sharePointsToSets();
+        }
+        if (checkpointFile != null) {
+            // the final state can be used to resume or to
+            // incrementally re-analyze the program
+            checkpoint();
+        }
+        if (introspector != null) {
+            reportDowngrades();
+        }
+        if (csManager instanceof BDDCSManager bddManager) {
+            BDDPointsToRelation relation = bddManager.getRelation();
+            logger.info("{} points-to facts are stored in {} BDD nodes",
+                    relation.getFactCount(), relation.getNodeCount());
+        }
+        phase = instrumentation.startPhase("freeze");
+        freeze();
+        phase.close();
+        instrumentation.finish(World.get().getMainMethod());
     }
 
     private void initialize() {
-        csManager = new MapBasedCSManager();
+        csManager = makeCSManager();
         callGraph = new CSCallGraph(csManager);
         pointerFlowGraph = new PointerFlowGraph();
         workList = new WorkList();
+        statistics = new Statistics();
+        lastCheckpointTime = System.currentTimeMillis();
+        if (checkpointFile != null && Files.exists(checkpointFile)) {
+            if (options.getBooleanOrDefault("incremental", false)) {
+                // the entry is processed below, as main method may be changed
+                updateIncrementally();
+            } else if (options.getBooleanOrDefault("resume", false)) {
+                logger.info("Resuming pointer analysis from {} ...", checkpointFile);
+                Checkpoint.read(checkpointFile, heapModel, csManager,
+                        callGraph, pointerFlowGraph, workList);
+                statistics = Statistics.of(
+                        new PointerAnalysisResultImpl(csManager, callGraph));
+                return;
+            }
+        }
         // process program entry, i.e., main method
         Context defContext = contextSelector.getEmptyContext();
         JMethod main = World.get().getMainMethod();
@@ -107,13 +252,109 @@ class Solver {
         addReachable(csMethod);
     }
 
+    /**
+     * Creates the CS manager according to option {@code pts-backend},
+     * i.e., "hybrid" (one hybrid set per pointer, default) or "bdd"
+     * (a binary decision diagram for all points-to facts).
+     */
+    private CSManager makeCSManager() {
+        String backend = options.getString("pts-backend");
+        if (backend == null || backend.equals("hybrid")) {
+            return new MapBasedCSManager();
+        } else if (backend.equals("bdd")) {
+            return new BDDCSManager();
+        } else {
+            throw new ConfigException("Unknown pts-backend: " + backend);
+        }
+    }
+
+    /**
+     * Restores the state of previous run from the checkpoint, and updates
+     * it for the changed methods, so that the analysis only needs to
+     * propagate the changes. The methods are specified by option
+     * {@code changed-methods}, which is either a list of method signatures
+     * or the path of a file containing one signature per line.
+     *
+     * @see Incremental
+     */
+    private void updateIncrementally() {
+        if (introspector != null) {
+            throw new ConfigException("Incremental analysis does not support"
+                    + " introspective context selection");
+        }
+        Set<JMethod> changedMethods = getChangedMethods();
+        logger.info("Incrementally updating pointer analysis from {} for {} changed methods ...",
+                checkpointFile, changedMethods.size());
+        CSManager oldManager = new MapBasedCSManager();
+        Checkpoint.Snapshot old = Checkpoint.read(
+                checkpointFile, heapModel, oldManager, changedMethods);
+        if (!old.pending.isEmpty()) {
+            throw new AnalysisException("Incremental analysis requires"
+                    + " the checkpoint of a finished analysis");
+        }
+        Incremental incremental = new Incremental(
+                old, oldManager, contextSelector, changedMethods);
+        incremental.run();
+        logger.info("Deleted {} of {} points-to facts",
+                incremental.getDeletedFactCount(), incremental.getOldFactCount());
+        incremental.getSurvivors().restore(
+                csManager, callGraph, pointerFlowGraph, workList);
+        statistics = Statistics.of(
+                new PointerAnalysisResultImpl(csManager, callGraph));
+        // rederive the deleted facts which are still valid
+        incremental.getReprocessedStmts().forEach(p -> p.second().accept(
+                new StmtProcessor(Checkpoint.copy(csManager, p.first()))));
+        incremental.getRevisitedVars().forEach(v -> {
+            CSVar csVar = (CSVar) Checkpoint.copy(csManager, v);
+            csVar.getPointsToSet().forEach(obj -> processObj(csVar, obj));
+        });
+        incremental.getRepropagations().forEach(p -> {
+            Pointer source = Checkpoint.copy(csManager, (Pointer) p.first());
+            Pointer target = Checkpoint.copy(csManager, (Pointer) p.second());
+            workList.addEntry(target, source.getPointsToSet());
+        });
+    }
+
+    private Set<JMethod> getChangedMethods() {
+        Object value = options.get("changed-methods");
+        List<String> signatures;
+        if (value == null) {
+            signatures = List.of();
+        } else if (value instanceof Collection<?> c) {
+            signatures = c.stream().map(Object::toString).toList();
+        } else {
+            try {
+                signatures = Files.readAllLines(Path.of(value.toString()));
+            } catch (IOException e) {
+                throw new ConfigException("Failed to read changed methods from "
+                        + value, e);
+            }
+        }
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        Set<JMethod> methods = Sets.newHybridSet();
+        signatures.stream()
+                .map(String::strip)
+                .filter(sig -> !sig.isEmpty())
+                .map(hierarchy::getMethod)
+                // removed methods are absent in the hierarchy, and they
+                // are treated as changed methods by the checkpoint reader
+                .filter(Objects::nonNull)
+                .forEach(methods::add);
+        return methods;
+    }
+
     /**
      * Processes new reachable context-sensitive method.
      */
     private void addReachable(CSMethod csMethod) {
         // TODO - finish me
         if (callGraph.addReachableMethod(csMethod)) {
-            csMethod.getMethod().getIR().getStmts().forEach(stmt -> stmt.accept(new StmtProcessor(csMethod)));
+            statistics.onNewReachableMethod(csMethod);
+            StmtProcessor stmtProcessor = new StmtProcessor(csMethod);
+            csMethod.getMethod().getIR().getStmts().forEach(stmt -> {
+                instrumentation.onTransfer(stmt);
+                stmt.accept(stmtProcessor);
+            });
         }
     }
 
@@ -158,6 +399,19 @@ class Solver {
             return null;
         }
 
+        @Override
+        public Void visit(Cast stmt) {
+            // x = (T) y, only handled with type filter, as the objects
+            // flowing to x must be filtered by T
+            Type castType = stmt.getRValue().getCastType();
+            if (typeFilter != null && castType instanceof ReferenceType) {
+                CSVar target = csManager.getCSVar(context, stmt.getLValue());
+                CSVar source = csManager.getCSVar(context, stmt.getRValue().getValue());
+                addPFGEdge(source, target, castType);
+            }
+            return null;
+        }
+
         // 静态变量有一点全局的感觉，所以是不考虑context的
         @Override
         public Void visit(StoreField stmt) {
@@ -187,9 +441,16 @@ class Solver {
                 JMethod method = resolveCallee(null, stmt);
                 // this.context就是caller context
                 CSCallSite csCallSite = csManager.getCSCallSite(context, stmt);
+                if (method == null || !scope.contains(method)) {
+                    processLibraryCall(csCallSite, null);
+                    return null;
+                }
                 Context calleeContext = contextSelector.selectContext(csCallSite, method);
                 CSMethod csMethod = csManager.getCSMethod(calleeContext, method);
-                if (callGraph.addEdge(new Edge<>(CallKind.STATIC, csCallSite, csMethod))) {
+                Edge<CSCallSite, CSMethod> edge = new Edge<>(CallKind.STATIC, csCallSite, csMethod);
+                if (callGraph.addEdge(edge)) {
+                    instrumentation.onCallEdge();
+                    statistics.onNewCallEdge(edge);
                     addReachable(csMethod);
                     for (int i = 0; i < stmt.getInvokeExp().getArgCount(); i++) {
                         Var arg = stmt.getInvokeExp().getArg(i);
@@ -217,59 +478,122 @@ class Solver {
      * Adds an edge "source -> target" to the PFG.
      */
     private void addPFGEdge(Pointer source, Pointer target) {
+        addPFGEdge(source, target, null);
+    }
+
+    /**
+     * Adds an edge "source -> target" whose objects are filtered by
+     * given type (null for no filter) to the PFG.
+     */
+    private void addPFGEdge(Pointer source, Pointer target, Type filter) {
         // TODO - finish me
-        if (pointerFlowGraph.addEdge(source, target)) {
+        boolean changed = filter == null
+                ? pointerFlowGraph.addEdge(source, target)
+                : pointerFlowGraph.addEdge(source, target, filter);
+        if (changed) {
+            instrumentation.onPFGEdge();
             if (!source.getPointsToSet().isEmpty()) {
-                workList.addEntry(target, source.getPointsToSet());
+                addEntry(source, target, source.getPointsToSet());
             }
         }
     }
 
+    /**
+     * Adds the objects in pts that can flow along edge "source -> target"
+     * to the work list.
+     */
+    private void addEntry(Pointer source, Pointer target, PointsToSet pts) {
+        if (typeFilter != null) {
+            pts = typeFilter.filter(pts, target,
+                    pointerFlowGraph.getFilters(source, target));
+            if (pts.isEmpty()) {
+                return;
+            }
+        }
+        workList.addEntry(target, pts);
+    }
+
     /**
      * Processes work-list entries until the work-list is empty.
      */
     private void analyze() {
         // TODO - finish me
         // init的时候已经对entry进行了一次addReachable，所以这里直接开始处理
+        progress.start(workList::size, callGraph::getNumberOfMethods);
+        long steps = 0;
         while (!workList.isEmpty()) {
+            if (ptsSharingInterval > 0 && ++steps % ptsSharingInterval == 0) {
+                sharePointsToSets();
+            }
+            if (checkpointFile != null && System.currentTimeMillis()
+                    - lastCheckpointTime >= checkpointInterval) {
+                checkpoint();
+            }
             WorkList.Entry entry = workList.pollEntry();
+            instrumentation.onPoll();
             Pointer pointer = entry.pointer();
             PointsToSet pointsToSet = entry.pointsToSet();
             PointsToSet diffObjs = propagate(pointer, pointsToSet);
-            if (pointer instanceof CSVar) {
-                Context context = ((CSVar) pointer).getContext();
+            if (introspector != null && !diffObjs.isEmpty()) {
+                introspector.onPointsToGrowth(pointer);
+            }
+            if (pointer instanceof CSVar csVar) {
                 for (CSObj obj : diffObjs) {
-                    Var var = ((CSVar) pointer).getVar();
-                    // x.f = y
-                    var.getStoreFields().forEach(storeField -> {
-                        CSVar source = csManager.getCSVar(context, storeField.getRValue());
-                        InstanceField target = csManager.getInstanceField(obj, storeField.getFieldAccess().getFieldRef().resolve());
-                        addPFGEdge(source, target);
-                    });
-                    // y = x.f
-                    var.getLoadFields().forEach(loadField -> {
-                        CSVar target = csManager.getCSVar(context, loadField.getLValue());
-                        InstanceField source = csManager.getInstanceField(obj, loadField.getFieldAccess().getFieldRef().resolve());
-                        addPFGEdge(source, target);
-                    });
-                    // x[i] = y
-                    var.getStoreArrays().forEach(storeArray -> {
-                        ArrayIndex target = csManager.getArrayIndex(obj);
-                        CSVar source = csManager.getCSVar(context, storeArray.getRValue());
-                        addPFGEdge(source, target);
-                    });
-                    // y = x[i]
-                    var.getLoadArrays().forEach(loadArray -> {
-                        CSVar target = csManager.getCSVar(context, loadArray.getLValue());
-                        ArrayIndex source = csManager.getArrayIndex(obj);
-                        addPFGEdge(source, target);
-                    });
-                    processCall((CSVar) pointer, obj);
+                    processObj(csVar, obj);
                 }
             }
+            if (!progress.step()) {
+                // the pending entries are kept in the checkpoint (if any),
+                // so that the analysis can be resumed later
+                break;
+            }
         }
     }
 
+    /**
+     * Processes the field accesses, array accesses and instance calls
+     * on given variable for a new object pointed to by the variable.
+     */
+    private void processObj(CSVar csVar, CSObj obj) {
+        Context context = csVar.getContext();
+        Var var = csVar.getVar();
+        // x.f = y
+        var.getStoreFields().forEach(storeField -> {
+            CSVar source = csManager.getCSVar(context, storeField.getRValue());
+            InstanceField target = csManager.getInstanceField(obj, storeField.getFieldAccess().getFieldRef().resolve());
+            addPFGEdge(source, target);
+        });
+        // y = x.f
+        var.getLoadFields().forEach(loadField -> {
+            CSVar target = csManager.getCSVar(context, loadField.getLValue());
+            InstanceField source = csManager.getInstanceField(obj, loadField.getFieldAccess().getFieldRef().resolve());
+            addPFGEdge(source, target);
+        });
+        // x[i] = y
+        var.getStoreArrays().forEach(storeArray -> {
+            ArrayIndex target = csManager.getArrayIndex(obj);
+            CSVar source = csManager.getCSVar(context, storeArray.getRValue());
+            addPFGEdge(source, target);
+        });
+        // y = x[i]
+        var.getLoadArrays().forEach(loadArray -> {
+            CSVar target = csManager.getCSVar(context, loadArray.getLValue());
+            ArrayIndex source = csManager.getArrayIndex(obj);
+            addPFGEdge(source, target);
+        });
+        processCall(csVar, obj);
+        processContentsCopies(csVar, obj);
+    }
+
+    private void sharePointsToSets() {
+        PointsToSetInterner.intern(() -> Stream.<Collection<? extends Pointer>>of(
+                        csManager.getCSVars(), csManager.getStaticFields(),
+                        csManager.getInstanceFields(), csManager.getArrayIndexes())
+                .flatMap(Collection::stream)
+                .map(Pointer::getPointsToSet)
+                .iterator());
+    }
+
     /**
      * Propagates pointsToSet to pt(pointer) and its PFG successors,
      * returns the difference set of pointsToSet and pt(pointer).
@@ -279,12 +603,16 @@ class Solver {
         PointsToSet diffObjs = PointsToSetFactory.make();
         PointsToSet originObjs = pointer.getPointsToSet();
         pointsToSet.forEach(csObj -> {
-            if (originObjs.addObject(csObj)) {
-                diffObjs.addObject(csObj);
+            if (!originObjs.contains(csObj) && diffObjs.addObject(csObj)) {
+                statistics.onNewPointsTo(pointer, csObj);
             }
         });
         if (!diffObjs.isEmpty()) {
-            pointerFlowGraph.getSuccsOf(pointer).forEach(succ -> workList.addEntry(succ, diffObjs));
+            // adds the difference at once, so that the BDD backend
+            // updates its relation once per propagation
+            originObjs.addAll(diffObjs);
+            instrumentation.onPropagate(diffObjs.size());
+            pointerFlowGraph.getSuccsOf(pointer).forEach(succ -> addEntry(pointer, succ, diffObjs));
         }
         return diffObjs;
     }
@@ -305,13 +633,20 @@ class Solver {
             InvokeExp invokeExp = invoke.getInvokeExp();
             CSCallSite csCallSite = csManager.getCSCallSite(callerContext, invoke);
             JMethod method = resolveCallee(recvObj, invoke);
+            if (method == null || !scope.contains(method)) {
+                processLibraryCall(csCallSite, recvObj);
+                return;
+            }
             Context calleeContext = contextSelector.selectContext(csCallSite, recvObj, method);
             CSMethod csMethod = csManager.getCSMethod(calleeContext, method);
             // 添加m_this，差点忘了
             CSVar csThis = csManager.getCSVar(calleeContext, method.getIR().getThis());
             workList.addEntry(csThis, PointsToSetFactory.make(recvObj));
             // 我有时候会想set是会根据内部字段区分吗，还是地址?如果我new两个一样的对象复杂add进去会成功还是失败呢?
-            if (callGraph.addEdge(new Edge<>(getCallKind(invokeExp), csCallSite, csMethod))) {
+            Edge<CSCallSite, CSMethod> edge = new Edge<>(getCallKind(invokeExp), csCallSite, csMethod);
+            if (callGraph.addEdge(edge)) {
+                instrumentation.onCallEdge();
+                statistics.onNewCallEdge(edge);
                 // 抄的时候把这句抄漏了...
                 addReachable(csMethod);
                 for (int i = 0; i < invokeExp.getArgCount(); i++) {
@@ -334,6 +669,96 @@ class Solver {
         });
     }
 
+    /**
+     * Processes a call to a method out of scope (or an unresolved method).
+     * The callee is not analyzed and, as in CHA, no call edge is added to it,
+     * since the clients of the call graph expect the callees to be reachable
+     * methods. The call is modeled by {@link LibraryModel} if the library
+     * boundary is enabled.
+     *
+     * @param recvObj the receiver object, or null for static calls.
+     */
+    private void processLibraryCall(CSCallSite csCallSite, CSObj recvObj) {
+        Invoke invoke = csCallSite.getCallSite();
+        if (libraryModel == null) {
+            return;
+        }
+        Context context = csCallSite.getContext();
+        Var result = invoke.getResult();
+        switch (libraryModel.getKind(invoke)) {
+            case STORE -> {
+                InstanceField contents = csManager.getInstanceField(
+                        recvObj, libraryModel.getContentsField());
+                invoke.getInvokeExp().getArgs().forEach(arg -> {
+                    if (arg.getType() instanceof ReferenceType) {
+                        addPFGEdge(csManager.getCSVar(context, arg), contents);
+                    }
+                });
+                if (result != null && result.getType() instanceof ReferenceType) {
+                    addPFGEdge(contents, csManager.getCSVar(context, result));
+                }
+            }
+            case STORE_ALL -> {
+                InstanceField contents = csManager.getInstanceField(
+                        recvObj, libraryModel.getContentsField());
+                invoke.getInvokeExp().getArgs().forEach(arg -> {
+                    if (arg.getType() instanceof ReferenceType) {
+                        CSVar csArg = csManager.getCSVar(context, arg);
+                        if (contentsCopies.put(csArg, contents)) {
+                            csArg.getPointsToSet().forEach(
+                                    obj -> processContentsCopy(obj, contents));
+                        }
+                    }
+                });
+            }
+            case LOAD -> addPFGEdge(csManager.getInstanceField(
+                            recvObj, libraryModel.getContentsField()),
+                    csManager.getCSVar(context, result));
+            case VIEW -> {
+                CSObj view = getSummaryObj(context, invoke);
+                addPFGEdge(csManager.getInstanceField(
+                                recvObj, libraryModel.getContentsField()),
+                        csManager.getInstanceField(
+                                view, libraryModel.getContentsField()));
+                workList.addEntry(csManager.getCSVar(context, result),
+                        PointsToSetFactory.make(view));
+            }
+            case RETURN_RECEIVER -> workList.addEntry(
+                    csManager.getCSVar(context, result),
+                    PointsToSetFactory.make(recvObj));
+            case RETURN_SUMMARY -> workList.addEntry(
+                    csManager.getCSVar(context, result),
+                    PointsToSetFactory.make(getSummaryObj(context, invoke)));
+            case NONE -> {
+            }
+        }
+    }
+
+    /**
+     * Copies the contents of a new object pointed to by given argument
+     * variable of {@link LibraryModel.Kind#STORE_ALL} calls.
+     */
+    private void processContentsCopies(CSVar csVar, CSObj obj) {
+        contentsCopies.get(csVar).forEach(
+                contents -> processContentsCopy(obj, contents));
+    }
+
+    private void processContentsCopy(CSObj obj, InstanceField contents) {
+        addPFGEdge(csManager.getInstanceField(
+                obj, libraryModel.getContentsField()), contents);
+    }
+
+    /**
+     * @return the summary object of given library call, whose heap context
+     * is selected as the objects allocated in the caller.
+     */
+    private CSObj getSummaryObj(Context context, Invoke invoke) {
+        Obj obj = libraryModel.getSummaryObj(invoke);
+        CSMethod caller = csManager.getCSMethod(context, invoke.getContainer());
+        return csManager.getCSObj(
+                contextSelector.selectHeapContext(caller, obj), obj);
+    }
+
     public static CallKind getCallKind(InvokeExp invokeExp) {
         if (invokeExp instanceof InvokeVirtual) {
             return CallKind.VIRTUAL;
@@ -363,9 +788,57 @@ class Solver {
         return CallGraphs.resolveCallee(type, callSite);
     }
 
+    /**
+     * Saves current solver state to the checkpoint file. This method
+     * must be called between processing two work-list entries.
+     */
+    private void checkpoint() {
+        logger.info("Saving checkpoint to {} ...", checkpointFile);
+        Instrumentation.Phase phase = instrumentation.startPhase("checkpoint");
+        Checkpoint.write(checkpointFile, csManager, callGraph,
+                pointerFlowGraph, workList);
+        phase.close();
+        lastCheckpointTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Reports the methods and objects whose contexts were downgraded
+     * by the introspective selector.
+     */
+    private void reportDowngrades() {
+        logger.info("{} methods and {} objects are downgraded to empty context",
+                introspector.getDowngradedMethods().size(),
+                introspector.getDowngradedObjs().size());
+        introspector.getDowngradedMethods().forEach(m ->
+                logger.info("Downgraded method: {}", m));
+        introspector.getDowngradedObjs().forEach(o ->
+                logger.info("Downgraded object: {}", o));
+    }
+
+    /**
+     * Converts the points-to sets to the frozen form for queries,
+     * and releases the structures that are only used by the solver.
+     */
+    private void freeze() {
+        // the BDD relation is already compact, thus it is kept as the
+        // frozen form, and enumerating it to index would cost more memory
+        if (!(csManager instanceof BDDCSManager)) {
+            pointsToIndex = PointsToIndex.freeze(csManager);
+        }
+        pointerFlowGraph = null;
+        workList = null;
+    }
+
     PointerAnalysisResult getResult() {
         if (result == null) {
-            result = new PointerAnalysisResultImpl(csManager, callGraph);
+            result = pointsToIndex != null
+                    ? new FrozenPointerAnalysisResult(csManager, pointsToIndex, callGraph)
+                    : new PointerAnalysisResultImpl(csManager, callGraph);
+            if (progress.isStopped()) {
+                result.storeResult(Progress.PARTIAL_RESULT, true);
+            }
+            statistics.setResult(result);
+            result.storeResult(Statistics.ID, statistics);
         }
         return result;
     }
@@ -0,0 +1,211 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+/**
+ * Statistics of pointer analysis result, which are maintained by the
+ * solver as facts are added, so that they can be read in O(1) time
+ * instead of traversing the whole result after the analysis.
+ * <p>
+ * The points-to sizes are counted when objects are newly added to the
+ * points-to set of each pointer, thus they are accurate no matter how
+ * the points-to sets are represented (e.g., shared between pointers).
+ * Only the counters are kept, and the numbers of variables and the
+ * context-insensitive counts are computed from the result (i.e., its
+ * frozen index) on first request.
+ */
+public final class Statistics {
+
+    /**
+     * Key of the statistics stored in pointer analysis result.
+     */
+    public static final String ID = "pta-statistics";
+
+    private int reachableCSMethods;
+
+    private int csCallEdges;
+
+    private long csVarPointsToSize;
+
+    private long staticFieldPointsToSize;
+
+    private long instanceFieldPointsToSize;
+
+    private long arrayPointsToSize;
+
+    /**
+     * Result for computing the context-insensitive counts.
+     */
+    private PointerAnalysisResult result;
+
+    private boolean resultCounted;
+
+    private int vars;
+
+    private int csVars;
+
+    private int reachableMethods;
+
+    private int callEdges;
+
+    private long varPointsToSize;
+
+    /**
+     * Computes the statistics of given result from scratch. This is used
+     * for the results which are not produced by the solver, e.g., restored
+     * from checkpoints.
+     */
+    public static Statistics of(PointerAnalysisResult result) {
+        Statistics statistics = new Statistics();
+        CallGraph<CSCallSite, CSMethod> callGraph = result.getCSCallGraph();
+        callGraph.reachableMethods().forEach(statistics::onNewReachableMethod);
+        callGraph.edges().forEach(statistics::onNewCallEdge);
+        result.getCSVars().forEach(statistics::addPointer);
+        result.getStaticFields().forEach(statistics::addPointer);
+        result.getInstanceFields().forEach(statistics::addPointer);
+        result.getArrayIndexes().forEach(statistics::addPointer);
+        statistics.setResult(result);
+        return statistics;
+    }
+
+    private void addPointer(Pointer pointer) {
+        pointer.getPointsToSet().forEach(obj -> onNewPointsTo(pointer, obj));
+    }
+
+    /**
+     * Sets the final result of the analysis, from which
+     * the context-insensitive counts are computed.
+     */
+    void setResult(PointerAnalysisResult result) {
+        this.result = result;
+        this.resultCounted = false;
+    }
+
+    void onNewReachableMethod(CSMethod csMethod) {
+        ++reachableCSMethods;
+    }
+
+    void onNewCallEdge(Edge<CSCallSite, CSMethod> edge) {
+        ++csCallEdges;
+    }
+
+    /**
+     * Counts an object which is newly added to the points-to set of pointer.
+     */
+    void onNewPointsTo(Pointer pointer, CSObj obj) {
+        if (pointer instanceof CSVar) {
+            ++csVarPointsToSize;
+        } else if (pointer instanceof InstanceField) {
+            ++instanceFieldPointsToSize;
+        } else if (pointer instanceof ArrayIndex) {
+            ++arrayPointsToSize;
+        } else if (pointer instanceof StaticField) {
+            ++staticFieldPointsToSize;
+        }
+    }
+
+    /**
+     * Computes the numbers of variables and the context-insensitive
+     * counts in one pass over the variables of the result.
+     */
+    private void countResult() {
+        if (resultCounted) {
+            return;
+        }
+        resultCounted = true;
+        for (Var var : result.getVars()) {
+            ++vars;
+            varPointsToSize += result.getPointsToSet(var).size();
+        }
+        for (CSVar ignored : result.getCSVars()) {
+            ++csVars;
+        }
+        CallGraph<Invoke, JMethod> callGraph = result.getCallGraph();
+        reachableMethods = callGraph.getNumberOfMethods();
+        callEdges = callGraph.getNumberOfEdges();
+    }
+
+    public int getVars() {
+        countResult();
+        return vars;
+    }
+
+    public int getCSVars() {
+        countResult();
+        return csVars;
+    }
+
+    public int getReachableMethods() {
+        countResult();
+        return reachableMethods;
+    }
+
+    public int getReachableCSMethods() {
+        return reachableCSMethods;
+    }
+
+    public int getCallEdges() {
+        countResult();
+        return callEdges;
+    }
+
+    public int getCSCallEdges() {
+        return csCallEdges;
+    }
+
+    public long getVarPointsToSize() {
+        countResult();
+        return varPointsToSize;
+    }
+
+    public long getCSVarPointsToSize() {
+        return csVarPointsToSize;
+    }
+
+    public long getStaticFieldPointsToSize() {
+        return staticFieldPointsToSize;
+    }
+
+    public long getInstanceFieldPointsToSize() {
+        return instanceFieldPointsToSize;
+    }
+
+    public long getArrayPointsToSize() {
+        return arrayPointsToSize;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.TwoKeyMap;
+
+import java.util.Set;
+
+/**
+ * Filters the objects that flow along PFG edges by the declared type of
+ * the target pointer and, for the edges of casts, by the cast type,
+ * so that a pointer only points to the objects compatible with its type.
+ */
+class TypeFilter {
+
+    private final TypeSystem typeSystem;
+
+    /**
+     * Cache of subtype checks, from (object type, pointer type)
+     * to whether the object can be assigned to the pointer.
+     */
+    private final TwoKeyMap<Type, Type, Boolean> compatible = Maps.newTwoKeyMap();
+
+    TypeFilter(TypeSystem typeSystem) {
+        this.typeSystem = typeSystem;
+    }
+
+    /**
+     * @return the objects in {@code pts} that can flow to {@code target}
+     * along an edge with given filter types (null if the edge has no filter).
+     * If all objects can flow, {@code pts} itself is returned.
+     */
+    PointsToSet filter(PointsToSet pts, Pointer target, Set<Type> filters) {
+        Type type = target.getType();
+        if (pts.objects().allMatch(o -> isCompatible(o, type)
+                && isCompatible(o, filters))) {
+            return pts;
+        }
+        PointsToSet result = PointsToSetFactory.make();
+        pts.objects()
+                .filter(o -> isCompatible(o, type) && isCompatible(o, filters))
+                .forEach(result::addObject);
+        return result;
+    }
+
+    private boolean isCompatible(CSObj csObj, Set<Type> filters) {
+        return filters == null
+                || filters.stream().anyMatch(f -> isCompatible(csObj, f));
+    }
+
+    private boolean isCompatible(CSObj csObj, Type type) {
+        // only reference types are checked, as the objects of other types,
+        // e.g., mock objects, are not assigned by the program
+        Type objType = csObj.getObject().getType();
+        if (!(type instanceof ReferenceType) || objType == null) {
+            return true;
+        }
+        return compatible.computeIfAbsent(objType, type,
+                (o, t) -> typeSystem.isSubtype(t, o));
+    }
+}
@@ -26,6 +26,8 @@ import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 
 import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Queue;
 
 /**
@@ -57,6 +59,20 @@ class WorkList {
         return entries.isEmpty();
     }
 
+    /**
+     * @return the number of pending entries in this work list.
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the pending entries in this work list.
+     */
+    Collection<Entry> getEntries() {
+        return Collections.unmodifiableCollection(entries);
+    }
+
     /**
      * Represents entries in the work list.
      * Each entry consists of a pointer and a points-to set.
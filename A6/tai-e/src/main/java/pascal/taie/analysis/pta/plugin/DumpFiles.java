@@ -0,0 +1,176 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin;
+
+import pascal.taie.util.AnalysisException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streaming input and output of dumped results.
+ * <p>
+ * Dumps are written through buffered file channels, and compressed by gzip
+ * if the file name ends with {@code .gz}. Compressed dumps are detected by
+ * their content when they are read, thus the compare action accepts both.
+ * The entries of a dump are formatted in parallel chunks, and written in
+ * their sorted order, so that the output is deterministic.
+ */
+final class DumpFiles {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Number of entries formatted by each parallel task.
+     */
+    private static final int CHUNK_SIZE = 4096;
+
+    /**
+     * Maximum number of chunks which are formatted but not written yet.
+     */
+    private static final int MAX_PENDING_CHUNKS =
+            2 * Runtime.getRuntime().availableProcessors();
+
+    private DumpFiles() {
+    }
+
+    /**
+     * Opens a writer to given output file, or to {@code System.out}
+     * if output is null. Closing the writer of {@code System.out}
+     * only flushes it.
+     */
+    static Writer newWriter(String output) {
+        if (output == null) {
+            return new FilterWriter(new BufferedWriter(new OutputStreamWriter(
+                    System.out, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            };
+        }
+        try {
+            OutputStream out = Channels.newOutputStream(FileChannel.open(
+                    Path.of(output), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+            if (output.endsWith(".gz")) {
+                out = new GZIPOutputStream(out, BUFFER_SIZE);
+            }
+            return new BufferedWriter(new OutputStreamWriter(
+                    out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to open output file " + output, e);
+        }
+    }
+
+    /**
+     * Opens a reader of given input file, which is decompressed
+     * if it is compressed by gzip.
+     */
+    static BufferedReader newReader(String input) {
+        try {
+            InputStream in = new BufferedInputStream(Channels.newInputStream(
+                    FileChannel.open(Path.of(input))), BUFFER_SIZE);
+            in.mark(2);
+            int magic = in.read() | (in.read() << 8);
+            in.reset();
+            if (magic == GZIPInputStream.GZIP_MAGIC) {
+                in = new GZIPInputStream(in, BUFFER_SIZE);
+            }
+            return new BufferedReader(new InputStreamReader(
+                    in, StandardCharsets.UTF_8), BUFFER_SIZE);
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to open input file " + input, e);
+        }
+    }
+
+    /**
+     * Writes a line for each of given elements in the order of their keys.
+     * The keys are computed once for each element, and the lines
+     * (i.e., {@code key + sep + value}) are formatted in parallel chunks.
+     */
+    static <T> void writeSorted(Writer out, List<T> elements,
+                                Function<T, String> key, String sep,
+                                Function<T, String> value) throws IOException {
+        @SuppressWarnings("unchecked")
+        Entry<T>[] entries = elements.parallelStream()
+                .map(e -> new Entry<>(key.apply(e), e))
+                .sorted(Comparator.comparing(Entry::key))
+                .toArray(Entry[]::new);
+        Queue<CompletableFuture<String>> pending = new ArrayDeque<>();
+        for (int start = 0; start < entries.length; start += CHUNK_SIZE) {
+            int from = start;
+            int to = Math.min(start + CHUNK_SIZE, entries.length);
+            pending.add(CompletableFuture.supplyAsync(() -> {
+                StringBuilder builder = new StringBuilder();
+                for (int i = from; i < to; ++i) {
+                    builder.append(entries[i].key())
+                            .append(sep)
+                            .append(value.apply(entries[i].element()))
+                            .append(System.lineSeparator());
+                }
+                return builder.toString();
+            }));
+            if (pending.size() >= MAX_PENDING_CHUNKS) {
+                out.write(join(pending.poll()));
+            }
+        }
+        while (!pending.isEmpty()) {
+            out.write(join(pending.poll()));
+        }
+    }
+
+    private static String join(CompletableFuture<String> chunk) {
+        try {
+            return chunk.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re
+                    ? re : new AnalysisException(e.getCause());
+        }
+    }
+
+    private record Entry<T>(String key, T element) {
+    }
+}
@@ -25,36 +25,36 @@ package pascal.taie.analysis.pta.plugin;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.cs.Statistics;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.util.AnalysisException;
+import pascal.taie.util.ContentHash;
 import pascal.taie.util.collection.Streams;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
+import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.PrintStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.Writer;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Predicate;
-import java.util.function.ToIntFunction;
-
-import static pascal.taie.util.collection.CollectionUtils.sum;
+import java.util.Set;
 
 /**
  * Dump points-to set to file or compare the analysis result with
  * the ones read from input file.
  * Currently, the compare functionality is mainly for testing purpose.
- * It is not efficient and not recommended applying on large program.
+ * The dump is written and read in a streaming fashion, see {@link DumpFiles}.
+ * If option {@code compare-mode} is {@code hash}, the points-to sets are
+ * first compared by their hashes, which is cheaper for large programs.
  */
 public class ResultProcessor {
 
@@ -79,125 +79,229 @@ public class ResultProcessor {
         String file = options.getString("file");
         switch (action) {
             case "dump" -> dumpPointsToSet(result, file);
-            case "compare" -> comparePointsToSet(result, file);
+            case "compare" -> {
+                if ("hash".equals(options.getString("compare-mode"))) {
+                    compareHashOfPointsToSet(result, file);
+                } else {
+                    comparePointsToSet(result, file);
+                }
+            }
         }
     }
 
     private static void printStatistics(PointerAnalysisResult result) {
-        int varInsens = result.getVars().size();
-        int varSens = result.getCSVars().size();
-        int vptSizeInsens = sum(result.getVars(), v -> result.getPointsToSet(v).size());
-        ToIntFunction<Pointer> getSize = p -> p.getPointsToSet().size();
-        int vptSizeSens = sum(result.getCSVars(), getSize);
-        int sfptSizeSens = sum(result.getStaticFields(), getSize);
-        int ifptSizeSens = sum(result.getInstanceFields(), getSize);
-        int aptSizeSens = sum(result.getArrayIndexes(), getSize);
-        int reachableInsens = result.getCallGraph().getNumberOfMethods();
-        int reachableSens = result.getCSCallGraph().getNumberOfMethods();
-        int callEdgeInsens = (int) result.getCallGraph().edges().count();
-        int callEdgeSens = (int) result.getCSCallGraph().edges().count();
+        Statistics statistics = result.getResult(Statistics.ID,
+                () -> Statistics.of(result));
         System.out.println("-------------- Pointer analysis statistics: --------------");
         System.out.printf("%-30s%s (insens) / %s (sens)%n", "#var pointers:",
-                format(varInsens), format(varSens));
+                format(statistics.getVars()), format(statistics.getCSVars()));
         System.out.printf("%-30s%s (insens) / %s (sens)%n", "#var points-to:",
-                format(vptSizeInsens), format(vptSizeSens));
+                format(statistics.getVarPointsToSize()),
+                format(statistics.getCSVarPointsToSize()));
         System.out.printf("%-30s%s (sens)%n", "#static field points-to:",
-                format(sfptSizeSens));
+                format(statistics.getStaticFieldPointsToSize()));
         System.out.printf("%-30s%s (sens)%n", "#instance field points-to:",
-                format(ifptSizeSens));
+                format(statistics.getInstanceFieldPointsToSize()));
         System.out.printf("%-30s%s (sens)%n", "#array points-to:",
-                format(aptSizeSens));
+                format(statistics.getArrayPointsToSize()));
         System.out.printf("%-30s%s (insens) / %s (sens)%n", "#reachable methods:",
-                format(reachableInsens), format(reachableSens));
+                format(statistics.getReachableMethods()),
+                format(statistics.getReachableCSMethods()));
         System.out.printf("%-30s%s (insens) / %s (sens)%n", "#call graph edges:",
-                format(callEdgeInsens), format(callEdgeSens));
+                format(statistics.getCallEdges()),
+                format(statistics.getCSCallEdges()));
         System.out.println("----------------------------------------");
     }
 
-    private static String format(int i) {
+    private static String format(long i) {
         return formatter.format(i);
     }
 
     private static void dumpPointsToSet(PointerAnalysisResult result, String output) {
-        PrintStream out;
         if (output != null) {  // if output file is given, then dump to the file
-            File outFile = new File(output);
-            try {
-                out = new PrintStream(new FileOutputStream(outFile));
-                logger.info("Dumping points-to set to {} ...", outFile);
-            } catch (FileNotFoundException e) {
-                throw new RuntimeException("Failed to open output file", e);
-            }
-        } else {  // otherwise, dump to System.out
-            out = System.out;
-        }
-        dumpPointers(out, result.getCSVars(), "variables");
-        dumpPointers(out, result.getStaticFields(), "static fields");
-        dumpPointers(out, result.getInstanceFields(), "instance fields");
-        dumpPointers(out, result.getArrayIndexes(), "array indexes");
-        if (out != System.out) {
-            out.close();
+            logger.info("Dumping points-to set to {} ...", output);
+        }  // otherwise, dump to System.out
+        try (Writer out = DumpFiles.newWriter(output)) {
+            dumpPointers(out, result.getCSVars(), "variables");
+            dumpPointers(out, result.getStaticFields(), "static fields");
+            dumpPointers(out, result.getInstanceFields(), "instance fields");
+            dumpPointers(out, result.getArrayIndexes(), "array indexes");
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to dump points-to set", e);
         }
     }
 
-    private static void dumpPointers(PrintStream out, Collection<? extends Pointer> pointers, String desc) {
-        out.println(HEADER + desc);
-        pointers.stream()
-                .sorted(Comparator.comparing(Pointer::toString))
-                .forEach(p -> out.println(p + SEP + toString(p.getPointsToSet())));
-        out.println();
+    private static void dumpPointers(Writer out, Collection<? extends Pointer> pointers,
+                                     String desc) throws IOException {
+        out.write(HEADER + desc + System.lineSeparator());
+        DumpFiles.writeSorted(out, new ArrayList<Pointer>(pointers),
+                Pointer::toString, SEP, p -> toString(p.getPointsToSet()));
+        out.write(System.lineSeparator());
     }
 
+    /**
+     * Compares the points-to sets with the dump in input file. The dump
+     * is read line by line, so that it is never loaded as a whole.
+     */
     private static void comparePointsToSet(PointerAnalysisResult result, String input) {
         logger.info("Comparing points-to set with {} ...", input);
-        var inputs = readPointsToSets(input);
         Map<String, Pointer> pointers = new LinkedHashMap<>();
         addPointers(pointers, result.getCSVars());
         addPointers(pointers, result.getStaticFields());
         addPointers(pointers, result.getInstanceFields());
         addPointers(pointers, result.getArrayIndexes());
         List<String> mismatches = new ArrayList<>();
-        pointers.forEach((pointerStr, pointer) -> {
-            String given = toString(pointer.getPointsToSet());
-            String expected = inputs.get(pointerStr);
-            if (!given.equals(expected)) {
-                mismatches.add(String.format("%s, expected: %s, given: %s",
-                        pointerStr, expected, given));
+        try (BufferedReader reader = DumpFiles.newReader(input)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int i = line.indexOf(SEP);
+                if (i < 0) {
+                    continue;
+                }
+                String pointerStr = line.substring(0, i);
+                String expected = line.substring(i + SEP.length());
+                Pointer pointer = pointers.remove(pointerStr);
+                String given = pointer != null
+                        ? toString(pointer.getPointsToSet()) : null;
+                if (!expected.equals(given)) {
+                    mismatches.add(String.format("%s, expected: %s, given: %s",
+                            pointerStr, expected, given));
+                }
             }
-        });
-        inputs.keySet()
-                .stream()
-                .filter(Predicate.not(pointers::containsKey))
-                .forEach(pointerStr -> {
-                    String expected = inputs.get(pointerStr);
-                    mismatches.add(String.format("%s, expected: %s, given: null",
-                            pointerStr, expected));
-                });
+        } catch (IOException e) {
+            throw new AnalysisException(
+                    "Failed to read points-to set from " + input, e);
+        }
+        // the remaining pointers are absent in the input
+        pointers.forEach((pointerStr, pointer) ->
+                mismatches.add(String.format("%s, expected: null, given: %s",
+                        pointerStr, toString(pointer.getPointsToSet()))));
         if (!mismatches.isEmpty()) {
             throw new AnalysisException("Mismatches of points-to set\n" +
                     String.join("\n", mismatches));
         }
     }
 
-    private static Map<String, String> readPointsToSets(String input) {
-        try {
-            Map<String, String> result = new LinkedHashMap<>();
-            Files.lines(Path.of(input))
-                    .filter(line -> line.contains(SEP))
-                    .map(line -> line.split(SEP))
-                    .forEach(s -> result.put(s[0], s[1]));
-            return result;
+    /**
+     * Compares the points-to sets with the dump in input file by their
+     * {@link ContentHash content hashes}. The hash of each given points-to
+     * set is combined from the cached hashes of its objects, so that the sets
+     * are neither sorted nor formatted, and only the points-to sets whose
+     * hashes differ from the input are compared as text. The mismatches
+     * are reported together with the methods of the changed variables.
+     */
+    private static void compareHashOfPointsToSet(
+            PointerAnalysisResult result, String input) {
+        logger.info("Comparing hashes of points-to set with {} ...", input);
+        Map<Long, Pointer> pointers = new HashMap<>();
+        for (Collection<? extends Pointer> ps : List.of(result.getCSVars(),
+                result.getStaticFields(), result.getInstanceFields(),
+                result.getArrayIndexes())) {
+            for (Pointer p : ps) {
+                if (pointers.put(ContentHash.of(p.toString()), p) != null) {
+                    logger.warn("Hash collision of pointers, compare as text");
+                    comparePointsToSet(result, input);
+                    return;
+                }
+            }
+        }
+        Map<CSObj, Long> objHashes = new HashMap<>();
+        List<String> mismatches = new ArrayList<>();
+        Set<String> methods = new LinkedHashSet<>();
+        try (BufferedReader reader = DumpFiles.newReader(input)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int i = line.indexOf(SEP);
+                if (i < 0) {
+                    continue;
+                }
+                Pointer pointer = pointers.remove(ContentHash.of(line, 0, i));
+                int start = i + SEP.length();
+                if (pointer == null) {
+                    mismatches.add(String.format("%s, expected: %s, given: null",
+                            line.substring(0, i), line.substring(start)));
+                } else if (hashOfElements(line, start) !=
+                        hashOf(pointer.getPointsToSet(), objHashes)) {
+                    String expected = line.substring(start);
+                    String given = toString(pointer.getPointsToSet());
+                    if (!expected.equals(given)) {
+                        mismatches.add(String.format("%s, expected: %s, given: %s",
+                                pointer, expected, given));
+                        addMethod(methods, pointer);
+                    }
+                }
+            }
         } catch (IOException e) {
             throw new AnalysisException(
                     "Failed to read points-to set from " + input, e);
         }
+        // the remaining pointers are absent in the input
+        pointers.values().forEach(pointer -> {
+            mismatches.add(String.format("%s, expected: null, given: %s",
+                    pointer, toString(pointer.getPointsToSet())));
+            addMethod(methods, pointer);
+        });
+        if (!mismatches.isEmpty()) {
+            throw new AnalysisException(String.format(
+                    "Mismatches of points-to set in %d pointer(s) of %d method(s)%n%s%n%s",
+                    mismatches.size(), methods.size(),
+                    String.join("\n", methods), String.join("\n", mismatches)));
+        }
+    }
+
+    /**
+     * @return the hash of given points-to set, which equals to
+     * {@link #hashOfElements} of its text.
+     */
+    private static long hashOf(PointsToSet pts, Map<CSObj, Long> objHashes) {
+        return pts.objects()
+                .mapToLong(o -> objHashes.computeIfAbsent(o,
+                        obj -> ContentHash.of(obj.toString())))
+                .reduce(0, ContentHash::combine);
+    }
+
+    /**
+     * @return the hash of the points-to set in text "[o1, o2, ...]" that
+     * starts at {@code start} of given line. The objects are separated by
+     * the ", " out of brackets, as contexts also contain ", ". If an object
+     * contains unbalanced brackets, e.g., a string constant, the result
+     * is just a false difference, which is then compared as text.
+     */
+    private static long hashOfElements(String line, int start) {
+        int end = line.length() - 1;
+        if (end <= start || line.charAt(start) != '[' || line.charAt(end) != ']') {
+            return ContentHash.of(line, start, end + 1);
+        }
+        long hash = 0;
+        int depth = 0;
+        int from = start + 1;
+        for (int i = from; i < end; ++i) {
+            switch (line.charAt(i)) {
+                case '[', '{', '(' -> ++depth;
+                case ']', '}', ')' -> --depth;
+                case ',' -> {
+                    if (depth == 0 && i + 1 < end && line.charAt(i + 1) == ' ') {
+                        hash = ContentHash.combine(hash, ContentHash.of(line, from, i));
+                        from = i + 2;
+                    }
+                }
+            }
+        }
+        if (from < end) {
+            hash = ContentHash.combine(hash, ContentHash.of(line, from, end));
+        }
+        return hash;
+    }
+
+    private static void addMethod(Set<String> methods, Pointer pointer) {
+        if (pointer instanceof CSVar csVar) {
+            methods.add(csVar.getVar().getMethod().toString());
+        }
     }
 
     private static void addPointers(Map<String, Pointer> map,
                                     Collection<? extends Pointer> pointers) {
-        pointers.stream()
-                .sorted(Comparator.comparing(Pointer::toString))
-                .forEach(p -> map.put(p.toString(), p));
+        pointers.forEach(p -> map.put(p.toString(), p));
     }
 
     private static String toString(PointsToSet pts) {
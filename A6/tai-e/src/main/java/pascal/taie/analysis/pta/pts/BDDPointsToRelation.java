@@ -0,0 +1,236 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.util.bdd.BDDFactory;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Stores the points-to relation, i.e., the set of
+ * (variable, context, object) triples, as a binary decision diagram.
+ * <p>
+ * The variables of the BDD form three domains, from the top: variable,
+ * context and object, each of which encodes a number from the most
+ * significant bit. A {@link CSVar} is decomposed into its variable and
+ * its context, while the other pointers, which have no contexts of
+ * their own, are numbered in the variable domain with context 0.
+ * Thus, the same variable under the contexts with identical points-to
+ * sets share the sub-BDD of the objects.
+ */
+public class BDDPointsToRelation {
+
+    private static final int BITS = Integer.SIZE - 1;
+
+    private static final int CONTEXT_VAR = BITS;
+
+    private static final int OBJECT_VAR = 2 * BITS;
+
+    private static final int VAR_NUM = 3 * BITS;
+
+    private final BDDFactory bdd = new BDDFactory(VAR_NUM, 1 << 16);
+
+    /**
+     * Root of the relation.
+     */
+    private int relation = BDDFactory.ZERO;
+
+    /**
+     * Number of the triples in the relation.
+     */
+    private long factCount = 0;
+
+    /**
+     * Numbers of the elements in variable domain, i.e., the variables
+     * of CS variables, and the other pointers.
+     */
+    private final Map<Object, Integer> varIds = Maps.newMap();
+
+    /**
+     * Numbers of the contexts, where 0 is reserved for the pointers
+     * that are not CS variables.
+     */
+    private final Map<Context, Integer> contextIds = Maps.newMap();
+
+    private final Map<CSObj, Integer> objIds = Maps.newMap();
+
+    private final List<CSObj> objs = new ArrayList<>();
+
+    /**
+     * @return a new points-to set for given pointer, which is backed by
+     * this relation.
+     */
+    public PointsToSet makePointsToSet(Pointer pointer) {
+        Object var = pointer;
+        int context = 0;
+        if (pointer instanceof CSVar csVar) {
+            var = csVar.getVar();
+            context = contextIds.computeIfAbsent(csVar.getContext(),
+                    c -> contextIds.size() + 1);
+        }
+        int varId = varIds.computeIfAbsent(var, v -> varIds.size());
+        return new BDDPointsToSet(this, varId, context);
+    }
+
+    /**
+     * @return whether given points-to set is backed by this relation.
+     */
+    public boolean isBacking(PointsToSet pts) {
+        return pts instanceof BDDPointsToSet s && s.getRelation() == this;
+    }
+
+    /**
+     * @return the number of live BDD nodes.
+     */
+    public int getNodeCount() {
+        return bdd.getNodeCount();
+    }
+
+    /**
+     * @return the number of (variable, context, object) triples
+     * in this relation.
+     */
+    public long getFactCount() {
+        return factCount;
+    }
+
+    /**
+     * Adds given objects to the points-to set of (var, context).
+     * The objects are first collected in a BDD of the object domain,
+     * which is then joined into the relation at once.
+     *
+     * @return true if this relation changed as a result of the call,
+     * otherwise false.
+     */
+    boolean addAll(int var, int context, Iterable<CSObj> objects) {
+        int pointer = restrict(var, context);
+        int newObjs = BDDFactory.ZERO;
+        for (CSObj obj : objects) {
+            int id = objIds.computeIfAbsent(obj, o -> {
+                objs.add(o);
+                return objs.size() - 1;
+            });
+            if (!contains(pointer, id)) {
+                bdd.addRef(newObjs);
+                int cube = bdd.cube(OBJECT_VAR, BITS, id);
+                int added = bdd.or(newObjs, cube);
+                bdd.delRef(newObjs);
+                if (added != newObjs) {
+                    ++factCount;
+                }
+                newObjs = added;
+            }
+        }
+        if (newObjs == BDDFactory.ZERO) {
+            return false;
+        }
+        bdd.addRef(newObjs);
+        int key = bdd.cube(0, OBJECT_VAR, ((long) var << BITS) | context);
+        int triples = bdd.and(key, newObjs);
+        bdd.delRef(newObjs);
+        int newRelation = bdd.addRef(bdd.or(relation, triples));
+        bdd.delRef(relation);
+        relation = newRelation;
+        return true;
+    }
+
+    boolean contains(int var, int context, CSObj obj) {
+        Integer id = objIds.get(obj);
+        return id != null && contains(restrict(var, context), id);
+    }
+
+    /**
+     * @return whether given sub-BDD of the object domain contains
+     * given object number.
+     */
+    private boolean contains(int node, int obj) {
+        // the variables skipped by the nodes can be either value
+        while (node > BDDFactory.ONE) {
+            boolean bit = ((obj >>> (VAR_NUM - 1 - bdd.var(node))) & 1) != 0;
+            node = bit ? bdd.high(node) : bdd.low(node);
+        }
+        return node == BDDFactory.ONE;
+    }
+
+    /**
+     * Visits the objects pointed to by (var, context) in the order of
+     * their numbers.
+     */
+    void forEachObject(int var, int context, Consumer<CSObj> action) {
+        forEachObjectId(restrict(var, context), OBJECT_VAR, 0,
+                id -> action.accept(objs.get(id)));
+    }
+
+    /**
+     * @return whether (var, context) points to no objects.
+     */
+    boolean isEmpty(int var, int context) {
+        return restrict(var, context) == BDDFactory.ZERO;
+    }
+
+    /**
+     * @return the sub-BDD of the objects pointed to by (var, context).
+     */
+    private int restrict(int var, int context) {
+        long key = ((long) var << BITS) | context;
+        int node = relation;
+        while (node > BDDFactory.ONE && bdd.var(node) < OBJECT_VAR) {
+            boolean bit = ((key >>> (OBJECT_VAR - 1 - bdd.var(node))) & 1) != 0;
+            node = bit ? bdd.high(node) : bdd.low(node);
+        }
+        return node;
+    }
+
+    /**
+     * Enumerates the object numbers of given sub-BDD, starting from
+     * given variable with given prefix of the number.
+     */
+    private void forEachObjectId(int node, int var, long prefix, IntConsumer action) {
+        if (node == BDDFactory.ZERO) {
+            return;
+        }
+        int remaining = VAR_NUM - var;
+        if (prefix << remaining >= objs.size()) {
+            return; // no objects are numbered in this range
+        }
+        if (var == VAR_NUM) {
+            action.accept((int) prefix);
+            return;
+        }
+        int low = node, high = node; // var is not constrained by default
+        if (node != BDDFactory.ONE && bdd.var(node) == var) {
+            low = bdd.low(node);
+            high = bdd.high(node);
+        }
+        forEachObjectId(low, var + 1, prefix << 1, action);
+        forEachObjectId(high, var + 1, (prefix << 1) | 1, action);
+    }
+}
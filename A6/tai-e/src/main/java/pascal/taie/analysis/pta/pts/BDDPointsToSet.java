@@ -0,0 +1,99 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Points-to set of a pointer, which is a view of {@link BDDPointsToRelation}.
+ * The objects are enumerated from the BDD on each query, thus
+ * {@link #getObjects()} returns a snapshot.
+ */
+class BDDPointsToSet implements PointsToSet {
+
+    private final BDDPointsToRelation relation;
+
+    private final int var;
+
+    private final int context;
+
+    BDDPointsToSet(BDDPointsToRelation relation, int var, int context) {
+        this.relation = relation;
+        this.var = var;
+        this.context = context;
+    }
+
+    BDDPointsToRelation getRelation() {
+        return relation;
+    }
+
+    @Override
+    public boolean addObject(CSObj obj) {
+        return relation.addAll(var, context, List.of(obj));
+    }
+
+    @Override
+    public boolean addAll(PointsToSet pts) {
+        return relation.addAll(var, context, pts);
+    }
+
+    @Override
+    public boolean contains(CSObj obj) {
+        return relation.contains(var, context, obj);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return relation.isEmpty(var, context);
+    }
+
+    @Override
+    public int size() {
+        int[] size = {0};
+        relation.forEachObject(var, context, o -> ++size[0]);
+        return size[0];
+    }
+
+    @Override
+    public Set<CSObj> getObjects() {
+        Set<CSObj> objects = Sets.newHybridSet();
+        relation.forEachObject(var, context, objects::add);
+        return Collections.unmodifiableSet(objects);
+    }
+
+    @Override
+    public Stream<CSObj> objects() {
+        return getObjects().stream();
+    }
+
+    @Override
+    public String toString() {
+        return getObjects().toString();
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Points-to set whose underlying set may be shared by multiple points-to
+ * sets with identical contents (see {@link PointsToSetInterner}).
+ * A shared set is copied before the first modification.
+ */
+class CopyOnWritePointsToSet implements PointsToSet {
+
+    private Set<CSObj> set;
+
+    /**
+     * Whether {@link #set} is shared with other points-to sets.
+     */
+    private boolean shared;
+
+    CopyOnWritePointsToSet(Set<CSObj> set) {
+        this.set = set;
+    }
+
+    @Override
+    public boolean addObject(CSObj obj) {
+        if (shared) {
+            if (set.contains(obj)) {
+                return false;
+            }
+            set = Sets.newHybridSet(set);
+            shared = false;
+        }
+        return set.add(obj);
+    }
+
+    @Override
+    public boolean addAll(PointsToSet pts) {
+        boolean changed = false;
+        for (CSObj obj : pts) {
+            changed |= addObject(obj);
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean contains(CSObj obj) {
+        return set.contains(obj);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return set.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return set.size();
+    }
+
+    @Override
+    public Set<CSObj> getObjects() {
+        return Collections.unmodifiableSet(set);
+    }
+
+    @Override
+    public Stream<CSObj> objects() {
+        return set.stream();
+    }
+
+    /**
+     * @return the underlying set, which must not be modified by the caller.
+     */
+    Set<CSObj> getSet() {
+        return set;
+    }
+
+    /**
+     * Makes this points-to set use given set, which is shared with
+     * other points-to sets and thus must not be modified afterwards.
+     */
+    void share(Set<CSObj> set) {
+        this.set = set;
+        this.shared = true;
+    }
+
+    @Override
+    public String toString() {
+        return set.toString();
+    }
+}
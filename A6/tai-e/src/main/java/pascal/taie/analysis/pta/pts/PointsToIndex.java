@@ -0,0 +1,312 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.language.classes.JField;
+import pascal.taie.util.collection.Maps;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Frozen, read-only form of the points-to sets of a finished analysis.
+ * <p>
+ * The points-to set of each pointer is replaced by a
+ * {@link FrozenPointsToSet}, i.e., a sorted array of object ids, and
+ * the reverse index from fields to their base objects is built, so that
+ * the queries on the result need not scan or cache the points-to sets
+ * of pointers. The reverse index from objects to pointers, which is
+ * as large as all points-to sets, is built on the first query. The queries without contexts are
+ * answered by mapping the ids of context-sensitive objects to the ids
+ * of their abstract objects.
+ */
+public class PointsToIndex {
+
+    /**
+     * Context-sensitive objects in the points-to sets, indexed by their ids.
+     */
+    private final List<CSObj> csObjs = new ArrayList<>();
+
+    private final Map<CSObj, Integer> csObjIds = Maps.newMap();
+
+    /**
+     * Abstract objects of {@link #csObjs}, indexed by their ids.
+     */
+    private final List<Obj> objs = new ArrayList<>();
+
+    private final Map<Obj, Integer> objIds = Maps.newMap();
+
+    /**
+     * Map from the id of a context-sensitive object to
+     * the id of its abstract object.
+     */
+    private int[] objIdOf = new int[16];
+
+    /**
+     * All pointers whose points-to sets have been frozen.
+     */
+    private final List<Collection<? extends Pointer>> pointers;
+
+    /**
+     * Pointers that point to each context-sensitive object,
+     * indexed by object ids, built on demand.
+     */
+    private List<List<Pointer>> pointersTo;
+
+    /**
+     * Map from instance field to the field pointers of its base objects,
+     * sorted by the ids of the base objects.
+     */
+    private final Map<JField, FieldBases> fieldBases = Maps.newMap();
+
+    private final FrozenPointsToSet empty = new FrozenPointsToSet(this, new int[0]);
+
+    private PointsToIndex(List<Collection<? extends Pointer>> pointers) {
+        this.pointers = pointers;
+    }
+
+    /**
+     * Freezes the points-to sets of all pointers managed by given CS manager.
+     * Afterwards, the points-to sets cannot be modified.
+     */
+    public static PointsToIndex freeze(CSManager csManager) {
+        List<Collection<? extends Pointer>> pointers = List.of(
+                csManager.getCSVars(), csManager.getStaticFields(),
+                csManager.getInstanceFields(), csManager.getArrayIndexes());
+        PointsToIndex index = new PointsToIndex(pointers);
+        // the points-to sets shared by PointsToSetInterner stay shared
+        Map<Object, FrozenPointsToSet> frozen = new IdentityHashMap<>();
+        Map<JField, List<InstanceField>> fieldPtrs = Maps.newMap();
+        pointers.forEach(ptrs -> ptrs.forEach(pointer -> {
+            PointsToSet pts = pointer.getPointsToSet();
+            Object key = pts instanceof CopyOnWritePointsToSet s ? s.getSet() : pts;
+            FrozenPointsToSet set = frozen.computeIfAbsent(key,
+                    k -> index.toFrozenSet(pts));
+            pointer.setPointsToSet(set);
+            if (pointer instanceof InstanceField field) {
+                fieldPtrs.computeIfAbsent(field.getField(), f -> new ArrayList<>())
+                        .add(field);
+            }
+        }));
+        fieldPtrs.forEach((field, ptrs) -> {
+            ptrs.sort(Comparator.comparingInt(p -> index.getId(p.getBase())));
+            int[] bases = ptrs.stream()
+                    .mapToInt(p -> index.getId(p.getBase()))
+                    .toArray();
+            index.fieldBases.put(field, new FieldBases(
+                    bases, ptrs.toArray(new InstanceField[0])));
+        });
+        index.objIdOf = Arrays.copyOf(index.objIdOf, index.csObjs.size());
+        return index;
+    }
+
+    private FrozenPointsToSet toFrozenSet(PointsToSet pts) {
+        if (pts.isEmpty()) {
+            return empty;
+        }
+        int[] ids = pts.objects().mapToInt(this::addCSObj).toArray();
+        Arrays.sort(ids);
+        return new FrozenPointsToSet(this, ids);
+    }
+
+    private int addCSObj(CSObj csObj) {
+        return csObjIds.computeIfAbsent(csObj, o -> {
+            int id = csObjs.size();
+            csObjs.add(o);
+            if (id == objIdOf.length) {
+                objIdOf = Arrays.copyOf(objIdOf, id * 2);
+            }
+            objIdOf[id] = objIds.computeIfAbsent(o.getObject(), obj -> {
+                objs.add(obj);
+                return objs.size() - 1;
+            });
+            return id;
+        });
+    }
+
+    /**
+     * @return id of given object, or -1 if it is not in any points-to set.
+     */
+    int getId(CSObj csObj) {
+        Integer id = csObjIds.get(csObj);
+        return id != null ? id : -1;
+    }
+
+    CSObj getCSObj(int id) {
+        return csObjs.get(id);
+    }
+
+    /**
+     * @return all abstract objects in the points-to sets.
+     */
+    public Collection<Obj> getObjects() {
+        return Collections.unmodifiableList(objs);
+    }
+
+    /**
+     * @return the pointers whose points-to sets contain given object.
+     */
+    public Collection<Pointer> getPointersTo(CSObj csObj) {
+        int id = getId(csObj);
+        if (id < 0) {
+            return List.of();
+        }
+        if (pointersTo == null) {
+            pointersTo = new ArrayList<>(csObjs.size());
+            for (int i = 0; i < csObjs.size(); ++i) {
+                pointersTo.add(new ArrayList<>(1));
+            }
+            pointers.forEach(ptrs -> ptrs.forEach(pointer -> {
+                for (int i : idsOf(pointer.getPointsToSet())) {
+                    pointersTo.get(i).add(pointer);
+                }
+            }));
+        }
+        return Collections.unmodifiableList(pointersTo.get(id));
+    }
+
+    /**
+     * @return the abstract objects (without contexts) pointed to
+     * by given pointers.
+     */
+    public Set<Obj> getObjectsOf(Collection<? extends Pointer> pointers) {
+        BitSet result = new BitSet();
+        pointers.forEach(p -> addObjIds(p.getPointsToSet(), result));
+        return toObjSet(result);
+    }
+
+    /**
+     * @return the abstract objects (without contexts) pointed to by
+     * field {@code field} of the objects pointed to by given variables.
+     */
+    public Set<Obj> getObjectsOf(Collection<CSVar> bases, JField field) {
+        FieldBases fb = fieldBases.get(field);
+        if (fb == null) {
+            return toObjSet(new BitSet());
+        }
+        BitSet result = new BitSet();
+        for (CSVar base : bases) {
+            int[] ids = idsOf(base.getPointsToSet());
+            // both arrays are sorted, thus merge them to find common bases
+            for (int i = 0, j = 0; i < ids.length && j < fb.bases.length; ) {
+                if (ids[i] < fb.bases[j]) {
+                    ++i;
+                } else if (ids[i] > fb.bases[j]) {
+                    ++j;
+                } else {
+                    addObjIds(fb.pointers[j].getPointsToSet(), result);
+                    ++i;
+                    ++j;
+                }
+            }
+        }
+        return toObjSet(result);
+    }
+
+    private void addObjIds(PointsToSet pts, BitSet objIdSet) {
+        for (int id : idsOf(pts)) {
+            objIdSet.set(objIdOf[id]);
+        }
+    }
+
+    private int[] idsOf(PointsToSet pts) {
+        if (pts instanceof FrozenPointsToSet set) {
+            return set.getIds();
+        }
+        // pointers created after freezing, e.g., by queries of
+        // elements that are unknown to the analysis
+        return pts.objects()
+                .mapToInt(this::getId)
+                .filter(id -> id >= 0)
+                .sorted()
+                .toArray();
+    }
+
+    private Set<Obj> toObjSet(BitSet objIdSet) {
+        return new ObjSet(objIdSet.stream().toArray());
+    }
+
+    private record FieldBases(int[] bases, InstanceField[] pointers) {
+    }
+
+    /**
+     * Read-only set of abstract objects represented by sorted object ids.
+     */
+    private class ObjSet extends AbstractSet<Obj> {
+
+        private final int[] ids;
+
+        private ObjSet(int[] ids) {
+            this.ids = ids;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            Integer id = objIds.get(o);
+            return id != null && Arrays.binarySearch(ids, id) >= 0;
+        }
+
+        @Override
+        public Iterator<Obj> iterator() {
+            return new Iterator<>() {
+
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < ids.length;
+                }
+
+                @Override
+                public Obj next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return objs.get(ids[next++]);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return ids.length;
+        }
+    }
+}
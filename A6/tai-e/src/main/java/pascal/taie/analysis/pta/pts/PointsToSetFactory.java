@@ -36,7 +36,7 @@ public class PointsToSetFactory {
     private static final Supplier<Set<CSObj>> setFactory = Sets::newHybridSet;
 
     public static PointsToSet make() {
-        return new DelegatePointsToSet(setFactory.get());
+        return new CopyOnWritePointsToSet(setFactory.get());
     }
 
     /**
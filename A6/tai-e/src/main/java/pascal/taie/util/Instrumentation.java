@@ -0,0 +1,282 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Records what a solver does during a run: work-list polls, propagated
+ * objects, PFG edge additions, call graph edge additions, transfer function
+ * invocations per node (e.g., {@code Stmt}) kind, and wall time per phase.
+ * <p>
+ * The phases and the summary of each run are committed as JDK Flight
+ * Recorder events ({@code pascal.taie.SolverPhase} and
+ * {@code pascal.taie.SolverSummary}), so that they can be recorded by
+ * {@code -XX:StartFlightRecording}. If the instrumentation is enabled
+ * explicitly, the summary is also logged at the end of each run.
+ * <p>
+ * The counters are maintained only when the instrumentation is enabled,
+ * or the summary event is enabled in a running recording, otherwise
+ * each callback just tests a final field.
+ */
+public final class Instrumentation {
+
+    private static final Logger logger = LogManager.getLogger(Instrumentation.class);
+
+    private static final Phase NO_PHASE = new Phase(null, null);
+
+    private final String solver;
+
+    /**
+     * Whether to log the summary at the end of each run.
+     */
+    private final boolean logging;
+
+    /**
+     * Whether to maintain the counters.
+     */
+    private final boolean counting;
+
+    private long polls;
+
+    private long propagatedObjects;
+
+    private long pfgEdges;
+
+    private long callEdges;
+
+    private final Map<Class<?>, long[]> transfers = new IdentityHashMap<>();
+
+    private final Map<String, Long> phaseTimes = new LinkedHashMap<>();
+
+    /**
+     * @param solver  name of the solver being instrumented
+     * @param enabled whether the instrumentation is enabled explicitly
+     */
+    public Instrumentation(String solver, boolean enabled) {
+        this.solver = solver;
+        this.logging = enabled;
+        this.counting = enabled || new SummaryEvent().isEnabled();
+    }
+
+    /**
+     * @return whether the counters are maintained.
+     */
+    public boolean isEnabled() {
+        return counting;
+    }
+
+    /**
+     * Records that an entry is polled from the work-list.
+     */
+    public void onPoll() {
+        if (counting) {
+            ++polls;
+        }
+    }
+
+    /**
+     * Records that given number of objects are newly propagated
+     * to a pointer.
+     */
+    public void onPropagate(int objects) {
+        if (counting) {
+            propagatedObjects += objects;
+        }
+    }
+
+    /**
+     * Records that a new edge is added to the pointer flow graph.
+     */
+    public void onPFGEdge() {
+        if (counting) {
+            ++pfgEdges;
+        }
+    }
+
+    /**
+     * Records that a new edge is added to the call graph.
+     */
+    public void onCallEdge() {
+        if (counting) {
+            ++callEdges;
+        }
+    }
+
+    /**
+     * Records that the transfer function is invoked on given node.
+     * The invocations are counted per class of the nodes.
+     */
+    public void onTransfer(Object node) {
+        if (counting) {
+            ++transfers.computeIfAbsent(node.getClass(), c -> new long[1])[0];
+        }
+    }
+
+    /**
+     * Starts a phase of the solver. The returned phase should be closed
+     * when the phase finishes.
+     */
+    public Phase startPhase(String name) {
+        return counting ? new Phase(this, name) : NO_PHASE;
+    }
+
+    /**
+     * Finishes a run of the solver on given target (e.g., a method or
+     * a program), and resets the counters for the next run.
+     */
+    public void finish(Object target) {
+        if (!counting) {
+            return;
+        }
+        String transferSummary = transfers.entrySet()
+                .stream()
+                .sorted(Comparator.comparing(e -> e.getKey().getSimpleName()))
+                .map(e -> e.getKey().getSimpleName() + "=" + e.getValue()[0])
+                .collect(Collectors.joining(", "));
+        String phaseSummary = phaseTimes.entrySet()
+                .stream()
+                .map(e -> String.format("%s=%.3fs", e.getKey(), e.getValue() / 1e9))
+                .collect(Collectors.joining(", "));
+        SummaryEvent event = new SummaryEvent();
+        if (event.shouldCommit()) {
+            event.solver = solver;
+            event.target = String.valueOf(target);
+            event.polls = polls;
+            event.propagatedObjects = propagatedObjects;
+            event.pfgEdges = pfgEdges;
+            event.callEdges = callEdges;
+            event.transfers = transferSummary;
+            event.commit();
+        }
+        if (logging) {
+            logger.info("[{}] {}: #polls: {}, #propagated objects: {}, "
+                            + "#PFG edges: {}, #call edges: {}",
+                    solver, target, polls, propagatedObjects, pfgEdges, callEdges);
+            logger.info("[{}] transfers: {}", solver, transferSummary);
+            logger.info("[{}] phases: {}", solver, phaseSummary);
+        }
+        polls = propagatedObjects = pfgEdges = callEdges = 0;
+        transfers.clear();
+        phaseTimes.clear();
+    }
+
+    /**
+     * A phase of the solver, which records its wall time when closed.
+     */
+    public static final class Phase implements AutoCloseable {
+
+        private final Instrumentation instrumentation;
+
+        private final String name;
+
+        private final PhaseEvent event;
+
+        private final long start;
+
+        private Phase(Instrumentation instrumentation, String name) {
+            this.instrumentation = instrumentation;
+            this.name = name;
+            if (instrumentation != null) {
+                event = new PhaseEvent();
+                event.begin();
+                start = System.nanoTime();
+            } else {
+                event = null;
+                start = 0;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (instrumentation == null) {
+                return;
+            }
+            instrumentation.phaseTimes.merge(name,
+                    System.nanoTime() - start, Long::sum);
+            event.end();
+            if (event.shouldCommit()) {
+                event.solver = instrumentation.solver;
+                event.phase = name;
+                event.commit();
+            }
+        }
+    }
+
+    @Name("pascal.taie.SolverPhase")
+    @Label("Solver Phase")
+    @Category("Tai-e")
+    @Description("A phase of a solver")
+    @StackTrace(false)
+    static class PhaseEvent extends Event {
+
+        @Label("Solver")
+        String solver;
+
+        @Label("Phase")
+        String phase;
+    }
+
+    @Name("pascal.taie.SolverSummary")
+    @Label("Solver Summary")
+    @Category("Tai-e")
+    @Description("Counters of a run of a solver")
+    @StackTrace(false)
+    static class SummaryEvent extends Event {
+
+        @Label("Solver")
+        String solver;
+
+        @Label("Target")
+        String target;
+
+        @Label("Work-List Polls")
+        long polls;
+
+        @Label("Propagated Objects")
+        long propagatedObjects;
+
+        @Label("PFG Edges")
+        long pfgEdges;
+
+        @Label("Call Edges")
+        long callEdges;
+
+        @Label("Transfers")
+        @Description("Transfer function invocations per node kind")
+        String transfers;
+    }
+}
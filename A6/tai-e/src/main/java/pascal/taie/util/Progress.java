@@ -0,0 +1,262 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+
+import java.util.function.IntSupplier;
+
+/**
+ * Reports the progress of a work-list solver, and decides whether
+ * the solver should stop before reaching the fixed point.
+ * <p>
+ * The solver calls {@link #start} before its loop, and {@link #step()}
+ * after processing each work-list entry. Every {@code progress-interval}
+ * entries, a {@link Report} is sent to the listener (or logged if no
+ * listener is given). The solver stops when the {@link CancellationToken}
+ * is cancelled or the {@code timeout} (in seconds) expires, and then it
+ * must flag its result as partial.
+ */
+public final class Progress {
+
+    private static final Logger logger = LogManager.getLogger(Progress.class);
+
+    /**
+     * Key of the flag stored in the result holders of partial results.
+     */
+    public static final String PARTIAL_RESULT = "partial-result";
+
+    /**
+     * The cancellation and the deadline are checked every this
+     * number of steps, so that checking them is cheap.
+     */
+    private static final int CHECK_INTERVAL = 1024;
+
+    private final String solver;
+
+    private final Listener listener;
+
+    private final long interval;
+
+    private final CancellationToken token;
+
+    /**
+     * Whether the solver has a time limit. It must be checked before
+     * {@link #deadline}, as {@link System#nanoTime()} may be negative.
+     */
+    private final boolean hasDeadline;
+
+    private final long deadline;
+
+    private final long startTime;
+
+    private IntSupplier workListSize;
+
+    private IntSupplier reachableMethods;
+
+    private long processed;
+
+    private long lastReportTime;
+
+    private long lastReportProcessed;
+
+    private String stopReason;
+
+    /**
+     * @param solver   name of the solver
+     * @param listener receives the reports, or null if the reports are logged
+     * @param interval number of steps between two reports,
+     *                 or 0 if the progress is not reported
+     * @param token    token to cancel the solver, or null
+     * @param timeout  time limit of the solver in seconds, or 0 if no limit
+     */
+    public Progress(String solver, Listener listener, long interval,
+                    CancellationToken token, long timeout) {
+        this.solver = solver;
+        this.listener = listener;
+        this.interval = interval;
+        this.token = token;
+        this.startTime = System.nanoTime();
+        this.lastReportTime = startTime;
+        this.hasDeadline = timeout > 0;
+        this.deadline = startTime + timeout * 1_000_000_000L;
+    }
+
+    /**
+     * Creates the progress of a solver according to given options:
+     * {@code progress-interval} (number of steps between two reports),
+     * {@code timeout} (in seconds), and optionally {@code progress-listener}
+     * and {@code cancellation-token}, which can only be given by clients
+     * that create the analysis configuration programmatically.
+     */
+    public static Progress make(String solver, AnalysisOptions options) {
+        return new Progress(solver,
+                get(options, "progress-listener", Listener.class),
+                getLong(options, "progress-interval"),
+                get(options, "cancellation-token", CancellationToken.class),
+                getLong(options, "timeout"));
+    }
+
+    private static <T> T get(AnalysisOptions options, String key, Class<T> type) {
+        Object value = options.get(key);
+        if (value == null || type.isInstance(value)) {
+            return type.cast(value);
+        }
+        throw new ConfigException("Option " + key + " should be " +
+                type.getName() + ", given: " + value);
+    }
+
+    private static long getLong(AnalysisOptions options, String key) {
+        Object value = options.get(key);
+        if (value == null) {
+            return 0;
+        }
+        return value instanceof Number n ? n.longValue()
+                : Long.parseLong(value.toString());
+    }
+
+    /**
+     * Starts (or continues) reporting the progress of the solver.
+     *
+     * @param workListSize     supplies the current size of the work-list
+     * @param reachableMethods supplies the current number of reachable
+     *                         methods, or null if it is not applicable
+     */
+    public void start(IntSupplier workListSize, IntSupplier reachableMethods) {
+        this.workListSize = workListSize;
+        this.reachableMethods = reachableMethods;
+    }
+
+    /**
+     * Records that a work-list entry has been processed.
+     *
+     * @return true if the solver can continue, or false if it should stop.
+     */
+    public boolean step() {
+        ++processed;
+        if (interval > 0 && processed % interval == 0) {
+            report();
+        }
+        if (processed % CHECK_INTERVAL == 0 && stopReason == null) {
+            check();
+        }
+        return stopReason == null;
+    }
+
+    /**
+     * @return true if the solver should not continue, i.e., it has been
+     * stopped before, or it is cancelled or timed out.
+     */
+    public boolean isStopped() {
+        if (stopReason == null) {
+            check();
+        }
+        return stopReason != null;
+    }
+
+    /**
+     * @return the reason why the solver stops, or null if it is not stopped.
+     */
+    public String getStopReason() {
+        return stopReason;
+    }
+
+    private void check() {
+        if (token != null && token.isCancelled()) {
+            stop("cancelled");
+        } else if (hasDeadline && System.nanoTime() - deadline > 0) {
+            stop("timeout");
+        }
+    }
+
+    private void stop(String reason) {
+        stopReason = reason;
+        logger.warn("[{}] stopped ({}) after processing {} work-list entries,"
+                + " the result is partial", solver, reason, processed);
+    }
+
+    private void report() {
+        long now = System.nanoTime();
+        double seconds = (now - lastReportTime) / 1e9;
+        Report report = new Report(solver, processed,
+                workListSize != null ? workListSize.getAsInt() : -1,
+                reachableMethods != null ? reachableMethods.getAsInt() : -1,
+                seconds > 0 ? (processed - lastReportProcessed) / seconds : 0,
+                (now - startTime) / 1_000_000);
+        lastReportTime = now;
+        lastReportProcessed = processed;
+        if (listener != null) {
+            listener.onProgress(report);
+        } else {
+            logger.info("[{}] processed: {}, work-list: {}, reachable methods: {},"
+                            + " {} entries/s, elapsed: {}ms",
+                    solver, report.processed(), report.workListSize(),
+                    report.reachableMethods(), (long) report.throughput(),
+                    report.elapsedMillis());
+        }
+    }
+
+    /**
+     * Receives the progress reports of solvers.
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        void onProgress(Report report);
+    }
+
+    /**
+     * A snapshot of the progress of a solver.
+     *
+     * @param solver           name of the solver
+     * @param processed        number of processed work-list entries
+     * @param workListSize     current size of the work-list
+     * @param reachableMethods current number of reachable methods,
+     *                         or -1 if it is not applicable
+     * @param throughput       processed entries per second since last report
+     * @param elapsedMillis    elapsed time since the solver is created
+     */
+    public record Report(String solver, long processed, int workListSize,
+                         int reachableMethods, double throughput,
+                         long elapsedMillis) {
+    }
+
+    /**
+     * Token to cancel solvers from other threads.
+     */
+    public static final class CancellationToken {
+
+        private volatile boolean cancelled;
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,408 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.bdd;
+
+import java.util.Arrays;
+
+/**
+ * A pure-Java implementation of reduced ordered binary decision
+ * diagrams (BDDs).
+ * <p>
+ * BDD nodes are represented by int handles, where {@link #ZERO} and
+ * {@link #ONE} are the terminals. Nodes are hash-consed in a unique table,
+ * thus two BDDs are equivalent iff their handles are equal. The results
+ * of binary operations are memoized in a direct-mapped cache.
+ * <p>
+ * Nodes which are not reachable from referenced nodes
+ * (see {@link #addRef(int)}) are reclaimed by a mark-and-sweep collection,
+ * which only happens at the beginning of top-level operations, so that
+ * the operands and the intermediate results of an operation are never
+ * reclaimed. Thus, clients should reference the nodes that they keep
+ * across operations.
+ */
+public final class BDDFactory {
+
+    public static final int ZERO = 0;
+
+    public static final int ONE = 1;
+
+    private static final int AND = 0;
+
+    private static final int OR = 1;
+
+    private static final int DIFF = 2;
+
+    /**
+     * Minimum number of nodes to trigger a collection.
+     */
+    private static final int MIN_GC_NODES = 1 << 16;
+
+    private static final int CACHE_SIZE = 1 << 18;
+
+    /**
+     * Number of variables, which is also the level of the terminals.
+     */
+    private final int varNum;
+
+    // ---------- node table ----------
+    private int[] vars;
+
+    private int[] lows;
+
+    private int[] highs;
+
+    private int[] refCounts;
+
+    /**
+     * Next node in the same bucket of unique table, or next free node.
+     */
+    private int[] nexts;
+
+    private int[] buckets;
+
+    /**
+     * Number of used slots in the node table.
+     */
+    private int size;
+
+    private int freeList = -1;
+
+    private int freeCount;
+
+    /**
+     * Number of live nodes after the last collection.
+     */
+    private int liveAfterGC;
+
+    // ---------- operation cache ----------
+    private final int[] cacheKeys = new int[CACHE_SIZE * 3];
+
+    private final int[] cacheResults = new int[CACHE_SIZE];
+
+    /**
+     * @param varNum       number of variables, where variable 0 is
+     *                     at the top of the BDDs.
+     * @param initialNodes initial capacity of the node table.
+     */
+    public BDDFactory(int varNum, int initialNodes) {
+        this.varNum = varNum;
+        int capacity = Math.max(Integer.highestOneBit(initialNodes - 1) << 1, 16);
+        vars = new int[capacity];
+        lows = new int[capacity];
+        highs = new int[capacity];
+        refCounts = new int[capacity];
+        nexts = new int[capacity];
+        buckets = new int[capacity];
+        Arrays.fill(buckets, -1);
+        Arrays.fill(cacheKeys, -1);
+        // terminals
+        vars[ZERO] = vars[ONE] = varNum;
+        size = 2;
+    }
+
+    public int getVarNum() {
+        return varNum;
+    }
+
+    /**
+     * @return the variable of given node, or {@link #getVarNum()}
+     * if the node is a terminal.
+     */
+    public int var(int node) {
+        return vars[node];
+    }
+
+    /**
+     * @return the node of the branch where the variable is false.
+     */
+    public int low(int node) {
+        return lows[node];
+    }
+
+    /**
+     * @return the node of the branch where the variable is true.
+     */
+    public int high(int node) {
+        return highs[node];
+    }
+
+    /**
+     * @return the number of live nodes (including unreclaimed garbage).
+     */
+    public int getNodeCount() {
+        return size - freeCount;
+    }
+
+    /**
+     * Adds an external reference to given node, so that the node
+     * is kept by the collections.
+     *
+     * @return the given node.
+     */
+    public int addRef(int node) {
+        ++refCounts[node];
+        return node;
+    }
+
+    /**
+     * Removes an external reference to given node.
+     */
+    public void delRef(int node) {
+        if (refCounts[node] > 0) {
+            --refCounts[node];
+        }
+    }
+
+    /**
+     * @return the BDD of given variable.
+     */
+    public int ithVar(int var) {
+        maybeGC(ZERO, ZERO);
+        return mk(var, ZERO, ONE);
+    }
+
+    /**
+     * @return the BDD of the negation of given variable.
+     */
+    public int nithVar(int var) {
+        maybeGC(ZERO, ZERO);
+        return mk(var, ONE, ZERO);
+    }
+
+    /**
+     * @return the conjunction of the variables in [firstVar, firstVar + n),
+     * each of which is positive iff the corresponding bit of value is 1.
+     * The first variable corresponds to the most significant bit.
+     */
+    public int cube(int firstVar, int n, long value) {
+        maybeGC(ZERO, ZERO);
+        int node = ONE;
+        for (int i = n - 1; i >= 0; --i, value >>>= 1) {
+            int var = firstVar + i;
+            node = (value & 1) != 0 ? mk(var, ZERO, node) : mk(var, node, ZERO);
+        }
+        return node;
+    }
+
+    public int and(int a, int b) {
+        maybeGC(a, b);
+        return apply(AND, a, b);
+    }
+
+    public int or(int a, int b) {
+        maybeGC(a, b);
+        return apply(OR, a, b);
+    }
+
+    /**
+     * @return a and not b.
+     */
+    public int diff(int a, int b) {
+        maybeGC(a, b);
+        return apply(DIFF, a, b);
+    }
+
+    private int apply(int op, int a, int b) {
+        switch (op) {
+            case AND -> {
+                if (a == ZERO || b == ZERO) {
+                    return ZERO;
+                }
+                if (a == ONE || a == b) {
+                    return b;
+                }
+                if (b == ONE) {
+                    return a;
+                }
+                if (a > b) { // commutative
+                    int t = a;
+                    a = b;
+                    b = t;
+                }
+            }
+            case OR -> {
+                if (a == ONE || b == ONE) {
+                    return ONE;
+                }
+                if (a == ZERO || a == b) {
+                    return b;
+                }
+                if (b == ZERO) {
+                    return a;
+                }
+                if (a > b) { // commutative
+                    int t = a;
+                    a = b;
+                    b = t;
+                }
+            }
+            default -> {
+                if (a == ZERO || b == ONE || a == b) {
+                    return ZERO;
+                }
+                if (b == ZERO) {
+                    return a;
+                }
+            }
+        }
+        int slot = cacheSlot(op, a, b);
+        if (cacheKeys[slot * 3] == op && cacheKeys[slot * 3 + 1] == a
+                && cacheKeys[slot * 3 + 2] == b) {
+            return cacheResults[slot];
+        }
+        int var = Math.min(vars[a], vars[b]);
+        int aLow = vars[a] == var ? lows[a] : a;
+        int aHigh = vars[a] == var ? highs[a] : a;
+        int bLow = vars[b] == var ? lows[b] : b;
+        int bHigh = vars[b] == var ? highs[b] : b;
+        int low = apply(op, aLow, bLow);
+        int high = apply(op, aHigh, bHigh);
+        int result = mk(var, low, high);
+        cacheKeys[slot * 3] = op;
+        cacheKeys[slot * 3 + 1] = a;
+        cacheKeys[slot * 3 + 2] = b;
+        cacheResults[slot] = result;
+        return result;
+    }
+
+    private static int cacheSlot(int op, int a, int b) {
+        int h = (a * 31 + b) * 31 + op;
+        h ^= h >>> 16;
+        return (h * 0x9E3779B9 >>> 14) & (CACHE_SIZE - 1);
+    }
+
+    /**
+     * @return the unique node of given variable and branches.
+     */
+    private int mk(int var, int low, int high) {
+        if (low == high) {
+            return low;
+        }
+        int bucket = hash(var, low, high) & (buckets.length - 1);
+        for (int n = buckets[bucket]; n >= 0; n = nexts[n]) {
+            if (vars[n] == var && lows[n] == low && highs[n] == high) {
+                return n;
+            }
+        }
+        int node;
+        if (freeList >= 0) {
+            node = freeList;
+            freeList = nexts[node];
+            --freeCount;
+        } else {
+            if (size == vars.length) {
+                grow();
+                bucket = hash(var, low, high) & (buckets.length - 1);
+            }
+            node = size++;
+        }
+        vars[node] = var;
+        lows[node] = low;
+        highs[node] = high;
+        refCounts[node] = 0;
+        nexts[node] = buckets[bucket];
+        buckets[bucket] = node;
+        return node;
+    }
+
+    private static int hash(int var, int low, int high) {
+        int h = (var * 31 + low) * 31 + high;
+        return h ^ (h >>> 16);
+    }
+
+    private void grow() {
+        int capacity = vars.length << 1;
+        vars = Arrays.copyOf(vars, capacity);
+        lows = Arrays.copyOf(lows, capacity);
+        highs = Arrays.copyOf(highs, capacity);
+        refCounts = Arrays.copyOf(refCounts, capacity);
+        nexts = Arrays.copyOf(nexts, capacity);
+        buckets = new int[capacity];
+        rehash();
+    }
+
+    private void rehash() {
+        Arrays.fill(buckets, -1);
+        for (int n = 2; n < size; ++n) {
+            if (vars[n] >= 0) {
+                int bucket = hash(vars[n], lows[n], highs[n]) & (buckets.length - 1);
+                nexts[n] = buckets[bucket];
+                buckets[bucket] = n;
+            }
+        }
+    }
+
+    /**
+     * Collects garbage if the nodes have doubled since the last collection.
+     * The operands of the operation being started are kept.
+     */
+    private void maybeGC(int a, int b) {
+        int nodes = getNodeCount();
+        if (nodes >= MIN_GC_NODES && nodes >= 2 * liveAfterGC) {
+            addRef(a);
+            addRef(b);
+            gc();
+            delRef(a);
+            delRef(b);
+        }
+    }
+
+    /**
+     * Reclaims the nodes which are not reachable from referenced nodes.
+     */
+    public void gc() {
+        boolean[] marked = new boolean[size];
+        marked[ZERO] = marked[ONE] = true;
+        // a BDD is at most varNum deep, and the depth-first traversal
+        // keeps at most two pending branches per level
+        int[] stack = new int[2 * varNum + 4];
+        for (int n = 2; n < size; ++n) {
+            if (vars[n] >= 0 && refCounts[n] > 0 && !marked[n]) {
+                int top = 0;
+                stack[top++] = n;
+                while (top > 0) {
+                    int m = stack[--top];
+                    if (!marked[m]) {
+                        marked[m] = true;
+                        stack[top++] = lows[m];
+                        stack[top++] = highs[m];
+                    }
+                }
+            }
+        }
+        freeList = -1;
+        freeCount = 0;
+        for (int n = size - 1; n >= 2; --n) {
+            if (!marked[n]) {
+                vars[n] = -1;
+                nexts[n] = freeList;
+                freeList = n;
+                ++freeCount;
+            }
+        }
+        // rehash() skips the free nodes, thus keeps the free list
+        rehash();
+        Arrays.fill(cacheKeys, -1);
+        liveAfterGC = getNodeCount();
+    }
+}
@@ -22,13 +22,39 @@
 
 package pascal.taie.analysis.pta;
 
+import org.junit.Assert;
 import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.classes.JField;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Progress;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class CSPTATest {
 
     static final String DIR = "cspta";
 
+    private static final String INCREMENTAL_DIR = "src/test/resources/pta/incremental";
+
     @Test
     public void testNew() {
         Tests.testCSPTA(DIR, "New");
@@ -79,6 +105,38 @@ public class CSPTATest {
         Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj");
     }
 
+    @Test
+    public void testTwoObjectIntrospective() {
+        // budgets are large enough, so the result should be the same as 2-obj
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj", "introspective:true",
+                "max-method-contexts:1024", "max-heap-contexts:1024");
+    }
+
+    @Test
+    public void testTwoObjectBDD() {
+        // the backend of points-to sets should not affect the result
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj", "pts-backend:bdd");
+    }
+
+    @Test
+    public void testTwoObjectSharing() {
+        // sharing points-to sets should not affect the result
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj", "pts-sharing:true",
+                "pts-sharing-interval:1");
+    }
+
+    @Test
+    public void testTwoCallSharing() {
+        Tests.testCSPTA(DIR, "TwoCall", "cs:2-call", "pts-sharing:true",
+                "pts-sharing-interval:1");
+    }
+
+    @Test
+    public void testInstanceFieldSharing() {
+        Tests.testCSPTA(DIR, "InstanceField", "pts-sharing:true",
+                "pts-sharing-interval:1");
+    }
+
     @Test
     public void testTwoType() {
         Tests.testCSPTA(DIR, "TwoType", "cs:2-type");
@@ -93,4 +151,183 @@ public class CSPTATest {
     public void testArray() {
         Tests.testCSPTA(DIR, "Array");
     }
+
+    @Test
+    public void testCast() {
+        // casts are only handled with type filter; x = (B) o; x = (C) o
+        // should let both the B and C objects flow to x
+        Tests.testCSPTA(DIR, "Cast", "type-filter:true");
+    }
+
+    @Test
+    public void testLibraryBoundary() {
+        // calls to the JDK are modeled by the library boundary and
+        // add no call edges, so java.lang.Object.<init> is not reached
+        Tests.testCSPTA(DIR, "LibraryBoundary", "scope:app", "library-boundary:true");
+    }
+
+    @Test
+    public void testTypeMerging() {
+        // the objects of StringBuilder and exceptions are merged per type,
+        // while the objects of A are still distinguished by allocation sites
+        Tests.testCSPTA(DIR, "TypeMerging", "scope:app",
+                "heap-model:type-merging", "merge-exception-objects:false");
+    }
+
+    @Test
+    public void testHashCompare() {
+        Tests.testCSPTA(DIR, "Cast", "type-filter:true", "compare-mode:hash");
+        // the changed points-to set differs in hash, and is then
+        // compared as text
+        try {
+            Tests.testCSPTA(DIR, "Cast", "type-filter:true", "compare-mode:hash",
+                    "file:src/test/resources/pta/cspta/Cast-cspta-changed.txt");
+            Assert.fail("Mismatches are not detected");
+        } catch (AnalysisException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains(
+                    "[]:<Cast: void main(java.lang.String[])>/b, expected: [], " +
+                    "given: [[]:NewObj{<Cast: void main(java.lang.String[])>[3@L5] new B}]"));
+        }
+    }
+
+    @Test
+    public void testIncrementalEdit() throws IOException {
+        // deletes store "a.f = b2" and adds store "Holder.last = o"
+        testIncremental("v1", "v2");
+    }
+
+    @Test
+    public void testIncrementalRevert() throws IOException {
+        // adds store "a.f = b2" and deletes store "Holder.last = o"
+        testIncremental("v2", "v1");
+    }
+
+    @Test
+    public void testResume() throws IOException {
+        Path dir = Files.createTempDirectory("cspta");
+        dir.toFile().deleteOnExit();
+        Path checkpoint = dir.resolve("TwoObject.checkpoint");
+        checkpoint.toFile().deleteOnExit();
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj",
+                "checkpoint-file:" + checkpoint);
+        // resumes from the checkpoint of the finished analysis
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj",
+                "checkpoint-file:" + checkpoint, "resume:true");
+    }
+
+    @Test
+    public void testResumeMidRun() throws IOException {
+        Path dir = Files.createTempDirectory("cspta");
+        dir.toFile().deleteOnExit();
+        Path checkpoint = dir.resolve("TwoObject.checkpoint");
+        Path midRun = dir.resolve("TwoObject-mid-run.checkpoint");
+        List.of(checkpoint, midRun).forEach(f -> f.toFile().deleteOnExit());
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj");
+        // a checkpoint is saved before processing each work-list entry,
+        // and the one saved before the 10th entry is kept, so that
+        // it contains pending entries
+        Progress.Listener listener = report -> {
+            if (report.processed() == 10) {
+                try {
+                    Files.copy(checkpoint, midRun);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        new CSPTA(new AnalysisConfig(CSPTA.ID,
+                "cs", "2-obj",
+                "merge-string-constants", false,
+                "merge-string-objects", false,
+                "merge-string-builders", false,
+                "merge-exception-objects", true,
+                "checkpoint-file", checkpoint.toString(),
+                "checkpoint-interval", 0,
+                "progress-interval", 1,
+                "progress-listener", listener)).analyze();
+        Assert.assertTrue(Files.exists(midRun));
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj",
+                "checkpoint-file:" + midRun, "resume:true");
+    }
+
+    @Test
+    public void testInstanceFieldFrozen() {
+        testFrozen("InstanceField");
+    }
+
+    @Test
+    public void testOneCallFrozen() {
+        testFrozen("OneCall", "cs:1-call");
+    }
+
+    @Test
+    public void testTwoObjectFrozen() {
+        testFrozen("TwoObject", "cs:2-obj");
+    }
+
+    /**
+     * Analyzes version {@code from} of the incremental test case with
+     * checkpointing, updates the result incrementally for version
+     * {@code to}, and compares it with the result of analyzing
+     * version {@code to} from scratch.
+     */
+    private static void testIncremental(String from, String to) throws IOException {
+        Path dir = Files.createTempDirectory("cspta");
+        dir.toFile().deleteOnExit();
+        Path expected = dir.resolve("Edit-cspta-expected.txt");
+        Path checkpoint = dir.resolve("Edit.checkpoint");
+        Path changed = dir.resolve("changed-methods.txt");
+        List.of(expected, checkpoint, changed).forEach(f -> f.toFile().deleteOnExit());
+        Files.write(changed, List.of(
+                "<Edit: void main(java.lang.String[])>",
+                "<Edit: java.lang.Object id(java.lang.Object)>"));
+        runIncrementalCase(to, "action:dump;file:" + expected);
+        runIncrementalCase(from, "checkpoint-file:" + checkpoint);
+        runIncrementalCase(to, "checkpoint-file:" + checkpoint
+                + ";incremental:true;changed-methods:" + changed
+                + ";action:compare;file:" + expected);
+    }
+
+    private static void runIncrementalCase(String version, String opts) {
+        Main.main(new String[]{"-pp",
+                "-cp", INCREMENTAL_DIR + "/" + version, "-m", "Edit",
+                "-a", "cspta=implicit-entries:false;only-app:true;cs:1-call;" + opts});
+    }
+
+    /**
+     * Analyzes given test case, and checks that the context-insensitive
+     * queries on the frozen result agree with the context-sensitive
+     * points-to sets, which are compared with the expected results.
+     */
+    private static void testFrozen(String main, String... opts) {
+        Tests.testCSPTA(DIR, main, opts);
+        PointerAnalysisResult result = World.get().getResult(CSPTA.ID);
+        Map<CSObj, Map<JField, InstanceField>> fields = Maps.newMap();
+        result.getInstanceFields().forEach(f -> fields
+                .computeIfAbsent(f.getBase(), b -> Maps.newMap())
+                .put(f.getField(), f));
+        Set<JField> allFields = new HashSet<>();
+        result.getInstanceFields().forEach(f -> allFields.add(f.getField()));
+        MultiMap<Var, CSVar> csVars = Maps.newMultiMap();
+        result.getCSVars().forEach(v -> csVars.put(v.getVar(), v));
+        for (Var var : result.getVars()) {
+            Set<Obj> pts = new HashSet<>();
+            Map<JField, Set<Obj>> fieldPts = Maps.newMap();
+            for (CSVar csVar : csVars.get(var)) {
+                for (CSObj csObj : result.getPointsToSet(csVar)) {
+                    pts.add(csObj.getObject());
+                    fields.getOrDefault(csObj, Map.of()).forEach((field, ptr) ->
+                            ptr.getPointsToSet().objects().forEach(o -> fieldPts
+                                    .computeIfAbsent(field, f -> new HashSet<>())
+                                    .add(o.getObject())));
+                }
+            }
+            Assert.assertEquals(var.toString(), pts, result.getPointsToSet(var));
+            for (JField field : allFields) {
+                Assert.assertEquals(var + "." + field.getName(),
+                        fieldPts.getOrDefault(field, Set.of()),
+                        result.getPointsToSet(var, field));
+            }
+        }
+    }
 }
@@ -0,0 +1,17 @@
+public class TypeMerging {
+
+    public static void main(String[] args) {
+        StringBuilder sb1 = new StringBuilder();
+        StringBuilder sb2 = new StringBuilder();
+        Exception e1 = new RuntimeException();
+        Exception e2 = new RuntimeException();
+        Exception e3 = new IllegalStateException();
+        A a1 = new A();
+        A a2 = new A();
+        Object o = sb1;
+        o = e1;
+    }
+}
+
+class A {
+}
@@ -0,0 +1,32 @@
+class Edit {
+    public static void main(String[] args) {
+        A a = new A();
+        B b1 = new B();
+        B b2 = new B();
+        a.f = b1;
+        a.f = b2;
+        B x = a.f;
+        Object y = id(b1);
+        Object z = id(x);
+        Object w = last();
+    }
+
+    static Object id(Object o) {
+        return o;
+    }
+
+    static Object last() {
+        return Holder.last;
+    }
+}
+
+class A {
+    B f;
+}
+
+class B {
+}
+
+class Holder {
+    static Object last;
+}
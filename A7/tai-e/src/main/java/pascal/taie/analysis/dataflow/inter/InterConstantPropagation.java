@@ -33,6 +33,7 @@ import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.store.ResultStore;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
@@ -43,6 +44,7 @@ import pascal.taie.util.AnalysisException;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
 
+import java.nio.file.Path;
 import java.util.*;
 
 /**
@@ -64,8 +66,12 @@ public class InterConstantPropagation extends
 
     @Override
     protected void initialize() {
-        String ptaId = getOptions().getString("pta");
-        PointerAnalysisResult pta = World.get().getResult(ptaId);
+        // the result of pointer analysis can be loaded from a store file
+        // written by a previous run, which avoids re-running the analysis
+        String ptaFile = getOptions().getString("pta-file");
+        PointerAnalysisResult pta = ptaFile != null
+                ? ResultStore.open(Path.of(ptaFile))
+                : World.get().getResult(getOptions().getString("pta"));
         // You can do initialization work here
         // 抄rmb作业用mutilMap存别名关系
         alias = initializeAlias(pta);
@@ -23,55 +23,96 @@
 package pascal.taie.analysis.dataflow.inter;
 
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
 import pascal.taie.analysis.graph.icfg.ICFG;
 import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.LazyICFG;
 import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Progress;
 
+import javax.annotation.Nullable;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
+import java.util.Set;
 
 /**
  * Solver for inter-procedural data-flow analysis.
  * The workload of inter-procedural analysis is heavy, thus we always
  * adopt work-list algorithm for efficiency.
  */
-class InterSolver<Method, Node, Fact> {
+class InterSolver<Method, Node, Fact>
+        implements InterDataflowSolver<Node, Fact> {
 
     private final InterDataflowAnalysis<Node, Fact> analysis;
 
     private final ICFG<Method, Node> icfg;
 
+    /**
+     * Whether the ICFG is built on demand, i.e., it is a {@link LazyICFG}.
+     * If so, only the entry is seeded, and the facts of other nodes are
+     * created when they are first reached.
+     */
+    private final boolean lazy;
+
+    /**
+     * Call graph whose SCCs schedule the nodes, see {@link SCCWorkList},
+     * or null if a FIFO work-list is used.
+     */
+    @Nullable
+    private final CallGraph<?, Method> sccCallGraph;
+
+    private final Progress progress;
+
     private DataflowResult<Node, Fact> result;
 
+    private Node entry;
+
     private Queue<Node> workList;
 
+    /**
+     * Nodes that have been transferred at least once, used in lazy mode.
+     */
+    private final Set<Node> visited = new HashSet<>();
+
     InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
-                ICFG<Method, Node> icfg) {
+                ICFG<Method, Node> icfg,
+                boolean lazy, @Nullable CallGraph<?, Method> sccCallGraph,
+                Progress progress) {
         this.analysis = analysis;
         this.icfg = icfg;
+        this.lazy = lazy;
+        this.sccCallGraph = sccCallGraph;
+        this.progress = progress;
     }
 
-    DataflowResult<Node, Fact> solve() {
+    @Override
+    public DataflowResult<Node, Fact> solve() {
         result = new DataflowResult<>();
         initialize();
         doSolve();
+        if (lazy) {
+            // nodes of the reached methods that are never visited
+            icfg.getNodes().forEach(this::initializeFacts);
+        }
         return result;
     }
 
     private void initialize() {
         // TODO - finish me
-        workList = new LinkedList<>();
-        for (Node node: icfg.getNodes()) {
-            result.setInFact(node, analysis.newInitialFact());
-            result.setOutFact(node, analysis.newInitialFact());
+        workList = sccCallGraph != null ?
+                new SCCWorkList<>(icfg, sccCallGraph) : new LinkedList<>();
+        if (!lazy) {
+            icfg.getNodes().forEach(this::initializeFacts);
         }
         // 怎么拿到整个的入口？虽然我感觉应该第一个就是。。。
         List<Method> entryMethod = icfg.entryMethods().toList();
         if(entryMethod.size() != 1){
             throw new AnalysisException("error entry method number");
         }
-        Node entry = icfg.getEntryOf(entryMethod.get(0));
+        entry = icfg.getEntryOf(entryMethod.get(0));
+        initializeFacts(entry);
         // 后向分析应该只需要初始化out?
         result.setOutFact(entry, analysis.newBoundaryFact(entry));
     }
@@ -79,28 +120,76 @@ class InterSolver<Method, Node, Fact> {
     private void doSolve() {
         // TODO - finish me
         // 感觉上都是照着原来的抄就行了?
-        workList.addAll(icfg.getNodes());
-        while (!workList.isEmpty()){
+        if (lazy) {
+            workList.add(entry);
+        } else {
+            workList.addAll(icfg.getNodes());
+        }
+        progress.start(workList::size, null);
+        while (!workList.isEmpty() || lazy && addUnvisitedNodes()) {
             Node node = workList.poll();
+            initializeFacts(node);
             Fact inFact = result.getInFact(node);
             Fact outFact = result.getOutFact(node);
             // 先merge出当前节点的inFact
             for (ICFGEdge<Node> edge:icfg.getInEdgesOf(node)) {
                 Node prev = edge.getSource();
+                initializeFacts(prev);
                 analysis.meetInto(analysis.transferEdge(edge, result.getOutFact(prev)), inFact);
             }
             // transfer之后有变化
-            if(analysis.transferNode(node, inFact, outFact)){
+            boolean changed = analysis.transferNode(node, inFact, outFact);
+            // in lazy mode, the successors must be reached at the first
+            // visit of a node, even if its out fact is unchanged
+            boolean first = lazy && visited.add(node);
+            if (changed || first) {
                 // 对于get set方法而言，如果先处理get方法再处理set方法就会出问题，
                 workList.addAll(icfg.getSuccsOf(node));
             }
+            if (!progress.step()) {
+                result.setPartial();
+                break;
+            }
         }
     }
 
+    @Override
     public Fact getInFact(Node node){
+        initializeFacts(node);
         return result.getInFact(node);
     }
+
+    @Override
     public void AddWorkList(Node node){
         workList.add(node);
     }
+
+    /**
+     * Adds the nodes of reached methods that have not been visited, e.g.,
+     * the statements unreachable in CFGs, to the work-list, so that every
+     * node is transferred as in eager mode.
+     *
+     * @return true if any node is added.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean addUnvisitedNodes() {
+        // every node reached before the previous call has been visited,
+        // thus only the newly reached nodes need to be checked
+        ((LazyICFG) icfg).pollReachedNodes()
+                .stream()
+                .map(node -> (Node) node)
+                .filter(node -> !visited.contains(node))
+                .forEach(workList::add);
+        return !workList.isEmpty();
+    }
+
+    /**
+     * Creates the initial facts of given node if they do not exist.
+     */
+    private void initializeFacts(Node node) {
+        if (result.getOutFact(node) == null) {
+            result.setInFact(node, analysis.newInitialFact());
+            result.setOutFact(node, analysis.newInitialFact());
+        }
+    }
 }
@@ -0,0 +1,272 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Progress;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Parallel solver for inter-procedural data-flow analysis.
+ * <p>
+ * The nodes are partitioned by their containing methods, and each method
+ * is processed by at most one thread at a time, which drains the
+ * method-local work-list. Nodes of other methods, i.e., the targets of
+ * call/return edges and the nodes added by the analysis, are posted to
+ * the thread-safe mailboxes of their methods.
+ * <p>
+ * The facts of a node are updated on copies which are then published
+ * as a whole, so that other threads always see consistent facts.
+ * The copies are made by meeting into new initial facts, thus the initial
+ * fact must be the identity of the meet operator, which holds for the
+ * analyses in this project. The result is the same as {@link InterSolver}.
+ */
+class ParallelInterSolver<Method, Node, Fact>
+        implements InterDataflowSolver<Node, Fact> {
+
+    private final InterDataflowAnalysis<Node, Fact> analysis;
+
+    private final ICFG<Method, Node> icfg;
+
+    private final int threads;
+
+    private final Map<Node, Fact> inFacts = new ConcurrentHashMap<>();
+
+    private final Map<Node, Fact> outFacts = new ConcurrentHashMap<>();
+
+    /**
+     * Tasks of the methods. This map is not modified after initialization,
+     * thus it can be read by multiple threads.
+     */
+    private final Map<Method, MethodTask> tasks = new HashMap<>();
+
+    /**
+     * Number of the tasks which are scheduled but not finished.
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    private final Progress progress;
+
+    /**
+     * Whether the solver is stopped by {@link Progress}.
+     */
+    private volatile boolean stopped;
+
+    private ExecutorService executor;
+
+    ParallelInterSolver(InterDataflowAnalysis<Node, Fact> analysis,
+                        ICFG<Method, Node> icfg, int threads, Progress progress) {
+        this.analysis = analysis;
+        this.icfg = icfg;
+        this.threads = threads;
+        this.progress = progress;
+    }
+
+    @Override
+    public DataflowResult<Node, Fact> solve() {
+        initialize();
+        doSolve();
+        DataflowResult<Node, Fact> result = new DataflowResult<>();
+        icfg.getNodes().forEach(node -> {
+            result.setInFact(node, inFacts.get(node));
+            result.setOutFact(node, outFacts.get(node));
+        });
+        if (stopped) {
+            result.setPartial();
+        }
+        return result;
+    }
+
+    private void initialize() {
+        for (Node node : icfg.getNodes()) {
+            inFacts.put(node, analysis.newInitialFact());
+            outFacts.put(node, analysis.newInitialFact());
+            tasks.computeIfAbsent(icfg.getContainingMethodOf(node),
+                            m -> new MethodTask())
+                    .workList.add(node);
+        }
+        List<Method> entryMethod = icfg.entryMethods().toList();
+        if (entryMethod.size() != 1) {
+            throw new AnalysisException("error entry method number");
+        }
+        Node entry = icfg.getEntryOf(entryMethod.get(0));
+        outFacts.put(entry, analysis.newBoundaryFact(entry));
+    }
+
+    private void doSolve() {
+        executor = Executors.newFixedThreadPool(threads);
+        try {
+            // hold a pending count so that the solver does not finish
+            // before all the tasks are scheduled
+            pending.incrementAndGet();
+            progress.start(pending::get, null);
+            tasks.values().forEach(this::schedule);
+            finishTask();
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AnalysisException("Interrupted when solving", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        if (failure.get() != null) {
+            throw new AnalysisException(failure.get());
+        }
+    }
+
+    @Override
+    public Fact getInFact(Node node) {
+        return inFacts.get(node);
+    }
+
+    @Override
+    public void AddWorkList(Node node) {
+        post(node);
+    }
+
+    /**
+     * Posts given node to the mailbox of its containing method.
+     */
+    private void post(Node node) {
+        MethodTask task = tasks.get(icfg.getContainingMethodOf(node));
+        task.mailbox.add(node);
+        schedule(task);
+    }
+
+    private void schedule(MethodTask task) {
+        if (task.scheduled.compareAndSet(false, true)) {
+            pending.incrementAndGet();
+            executor.execute(task);
+        }
+    }
+
+    private void finishTask() {
+        if (pending.decrementAndGet() == 0) {
+            done.countDown();
+        }
+    }
+
+    /**
+     * Processes given node in the thread of its containing method.
+     */
+    private void process(Node node, MethodTask task) {
+        Fact inFact = copy(inFacts.get(node));
+        for (ICFGEdge<Node> edge : icfg.getInEdgesOf(node)) {
+            Node prev = edge.getSource();
+            analysis.meetInto(analysis.transferEdge(edge, outFacts.get(prev)), inFact);
+        }
+        inFacts.put(node, inFact);
+        Fact outFact = copy(outFacts.get(node));
+        if (analysis.transferNode(node, inFact, outFact)) {
+            outFacts.put(node, outFact);
+            Method method = icfg.getContainingMethodOf(node);
+            for (Node succ : icfg.getSuccsOf(node)) {
+                if (icfg.getContainingMethodOf(succ).equals(method)) {
+                    task.workList.add(succ);
+                } else {
+                    post(succ);
+                }
+            }
+        }
+    }
+
+    private Fact copy(Fact fact) {
+        Fact copy = analysis.newInitialFact();
+        analysis.meetInto(fact, copy);
+        return copy;
+    }
+
+    /**
+     * Task which drains the work-list of a method.
+     */
+    private class MethodTask implements Runnable {
+
+        /**
+         * Work-list which is only accessed by the thread running this task.
+         */
+        private final Set<Node> workList = new LinkedHashSet<>();
+
+        /**
+         * Nodes posted by other threads.
+         */
+        private final Queue<Node> mailbox = new ConcurrentLinkedQueue<>();
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        @Override
+        public void run() {
+            try {
+                while (failure.get() == null && !stopped) {
+                    for (Node node; (node = mailbox.poll()) != null; ) {
+                        workList.add(node);
+                    }
+                    if (workList.isEmpty()) {
+                        scheduled.set(false);
+                        // re-check the mailbox as other threads may post
+                        // nodes before the flag is cleared
+                        if (mailbox.isEmpty()
+                                || !scheduled.compareAndSet(false, true)) {
+                            break;
+                        }
+                        continue;
+                    }
+                    Iterator<Node> it = workList.iterator();
+                    Node node = it.next();
+                    it.remove();
+                    process(node, this);
+                    synchronized (progress) {
+                        if (!progress.step()) {
+                            stopped = true;
+                        }
+                    }
+                }
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                finishTask();
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.icfg.ICFG;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Work-list which schedules nodes by the strongly connected components
+ * (SCCs) of the call graph.
+ * <p>
+ * Each method has its own de-duplicated work-list, and the SCCs are
+ * ranked in topological order (callers before callees). {@link #poll()}
+ * always takes nodes from the SCC of the lowest rank which has pending
+ * nodes, so that a group of mutually recursive methods is iterated to
+ * a fixpoint before the solver moves on to their callees.
+ * <p>
+ * The SCCs are computed from the call graph instead of the ICFG,
+ * so that they do not force a lazy ICFG to be built.
+ */
+class SCCWorkList<Method, Node> extends AbstractQueue<Node> {
+
+    private final ICFG<Method, Node> icfg;
+
+    private final CallGraph<?, Method> callGraph;
+
+    /**
+     * Rank of the SCC containing each method.
+     */
+    private final Map<Method, Integer> ranks = new HashMap<>();
+
+    /**
+     * Methods with pending nodes of each SCC, indexed by rank.
+     */
+    private final List<Set<Method>> activeMethods = new ArrayList<>();
+
+    /**
+     * Ranks of the SCCs which have pending nodes.
+     */
+    private final BitSet activeRanks = new BitSet();
+
+    private final Map<Method, Set<Node>> workLists = new HashMap<>();
+
+    private int size = 0;
+
+    SCCWorkList(ICFG<Method, Node> icfg, CallGraph<?, Method> callGraph) {
+        this.icfg = icfg;
+        this.callGraph = callGraph;
+        icfg.entryMethods().forEach(this::computeSCCs);
+    }
+
+    @Override
+    public boolean offer(Node node) {
+        Method method = icfg.getContainingMethodOf(node);
+        if (!ranks.containsKey(method)) {
+            computeSCCs(method);
+        }
+        if (workLists.computeIfAbsent(method, m -> new LinkedHashSet<>())
+                .add(node)) {
+            int rank = ranks.get(method);
+            activeMethods.get(rank).add(method);
+            activeRanks.set(rank);
+            ++size;
+        }
+        return true;
+    }
+
+    @Override
+    public Node poll() {
+        int rank = activeRanks.nextSetBit(0);
+        if (rank < 0) {
+            return null;
+        }
+        // stay on the same method until its work-list is drained
+        Set<Method> methods = activeMethods.get(rank);
+        Method method = methods.iterator().next();
+        Iterator<Node> it = workLists.get(method).iterator();
+        Node node = it.next();
+        it.remove();
+        if (!it.hasNext()) {
+            methods.remove(method);
+            if (methods.isEmpty()) {
+                activeRanks.clear(rank);
+            }
+        }
+        --size;
+        return node;
+    }
+
+    @Override
+    public Node peek() {
+        int rank = activeRanks.nextSetBit(0);
+        if (rank < 0) {
+            return null;
+        }
+        Method method = activeMethods.get(rank).iterator().next();
+        return workLists.get(method).iterator().next();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Node> iterator() {
+        return workLists.values()
+                .stream()
+                .flatMap(Set::stream)
+                .iterator();
+    }
+
+    /**
+     * Computes the SCCs of the methods reachable from given root
+     * and have not been ranked, by an iterative version of Tarjan's
+     * algorithm, and appends them in topological order.
+     */
+    private void computeSCCs(Method root) {
+        if (ranks.containsKey(root)) {
+            return;
+        }
+        Map<Method, Integer> indexes = new HashMap<>();
+        Map<Method, Integer> lowLinks = new HashMap<>();
+        Deque<Method> sccStack = new ArrayDeque<>();
+        Set<Method> onStack = new HashSet<>();
+        Deque<Frame<Method>> callStack = new ArrayDeque<>();
+        List<List<Method>> sccs = new ArrayList<>();
+        callStack.push(visit(root, indexes, lowLinks, sccStack, onStack));
+        while (!callStack.isEmpty()) {
+            Frame<Method> frame = callStack.peek();
+            if (frame.callees.hasNext()) {
+                Method callee = frame.callees.next();
+                if (ranks.containsKey(callee)) {
+                    continue; // ranked by previous computation
+                }
+                if (!indexes.containsKey(callee)) {
+                    callStack.push(visit(callee, indexes, lowLinks, sccStack, onStack));
+                } else if (onStack.contains(callee)) {
+                    lowLinks.put(frame.method, Math.min(
+                            lowLinks.get(frame.method), indexes.get(callee)));
+                }
+            } else {
+                callStack.pop();
+                Method method = frame.method;
+                if (!callStack.isEmpty()) {
+                    Method caller = callStack.peek().method;
+                    lowLinks.put(caller, Math.min(
+                            lowLinks.get(caller), lowLinks.get(method)));
+                }
+                if (lowLinks.get(method).equals(indexes.get(method))) {
+                    List<Method> scc = new ArrayList<>();
+                    Method m;
+                    do {
+                        m = sccStack.pop();
+                        onStack.remove(m);
+                        scc.add(m);
+                    } while (m != method);
+                    sccs.add(scc);
+                }
+            }
+        }
+        // Tarjan's algorithm emits SCCs in reverse topological order
+        for (int i = sccs.size() - 1; i >= 0; --i) {
+            int rank = activeMethods.size();
+            sccs.get(i).forEach(m -> ranks.put(m, rank));
+            activeMethods.add(new LinkedHashSet<>());
+        }
+    }
+
+    private Frame<Method> visit(Method method,
+                                Map<Method, Integer> indexes,
+                                Map<Method, Integer> lowLinks,
+                                Deque<Method> sccStack, Set<Method> onStack) {
+        int index = indexes.size();
+        indexes.put(method, index);
+        lowLinks.put(method, index);
+        sccStack.push(method);
+        onStack.add(method);
+        return new Frame<>(method, callGraph.getCalleesOfM(method).iterator());
+    }
+
+    private record Frame<Method>(Method method, Iterator<Method> callees) {
+    }
+}
@@ -25,12 +25,14 @@ package pascal.taie.analysis.graph.callgraph;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.analysis.ProgramAnalysis;
+import pascal.taie.analysis.pta.store.ResultStore;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.config.ConfigException;
 import pascal.taie.ir.IRPrinter;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.language.classes.JMethod;
 
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Comparator;
 
@@ -56,6 +58,9 @@ public class CallGraphBuilder extends ProgramAnalysis {
     public CallGraph<Invoke, JMethod> analyze() {
         CGBuilder<Invoke, JMethod> builder = switch (algorithm) {
             case "pta", "cipta", "cspta" -> new PTABasedBuilder(algorithm);
+            // the call graph of a pointer analysis result stored by a
+            // previous run, which does not require to run pointer analysis
+            case "file" -> () -> ResultStore.open(getPTAFile()).getCallGraph();
             default -> throw new ConfigException(
                     "Unknown call graph building algorithm: " + algorithm);
         };
@@ -64,6 +69,14 @@ public class CallGraphBuilder extends ProgramAnalysis {
         return callGraph;
     }
 
+    private Path getPTAFile() {
+        String file = getOptions().getString("pta-file");
+        if (file == null) {
+            throw new ConfigException("Option pta-file is required by algorithm file");
+        }
+        return Path.of(file);
+    }
+
     private void takeAction(CallGraph<Invoke, JMethod> callGraph) {
         String action = getOptions().getString("action");
         if (action == null) {
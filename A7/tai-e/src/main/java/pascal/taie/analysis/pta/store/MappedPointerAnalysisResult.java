@@ -0,0 +1,516 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.store;
+
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallKind;
+import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.AbstractResultHolder;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static pascal.taie.analysis.pta.store.ResultStore.CALL_GRAPH;
+import static pascal.taie.analysis.pta.store.ResultStore.FIELDS;
+import static pascal.taie.analysis.pta.store.ResultStore.INSTANCE_FIELDS;
+import static pascal.taie.analysis.pta.store.ResultStore.MAGIC;
+import static pascal.taie.analysis.pta.store.ResultStore.METHODS;
+import static pascal.taie.analysis.pta.store.ResultStore.OBJS;
+import static pascal.taie.analysis.pta.store.ResultStore.SECTIONS;
+import static pascal.taie.analysis.pta.store.ResultStore.STATIC_FIELDS;
+import static pascal.taie.analysis.pta.store.ResultStore.STRINGS;
+import static pascal.taie.analysis.pta.store.ResultStore.VARS;
+import static pascal.taie.analysis.pta.store.ResultStore.VERSION;
+
+/**
+ * {@link PointerAnalysisResult} backed by a memory-mapped store file
+ * written by {@link ResultStore}. The entries of the file are decoded
+ * on demand, so that loading a large result costs (almost) nothing until
+ * it is queried.
+ * <p>
+ * The store only keeps context-insensitive results. The collections of
+ * context-sensitive variables, instance fields and array indexes are
+ * empty, so that clients which iterate all pointers still work;
+ * the other context-sensitive queries are unsupported, and they fail
+ * with an exception naming the absent section.
+ */
+class MappedPointerAnalysisResult extends AbstractResultHolder
+        implements PointerAnalysisResult {
+
+    private final Path file;
+
+    private final MappedByteBuffer buffer;
+
+    private final int[] sections = new int[SECTIONS];
+
+    private final ClassHierarchy hierarchy = World.get().getClassHierarchy();
+
+    private final int nMethods;
+
+    private final int nObjs;
+
+    private final int nVars;
+
+    /**
+     * Decoded methods, indexed by method ids.
+     */
+    private final JMethod[] methods;
+
+    private final Map<JMethod, Integer> methodIds = Maps.newMap();
+
+    private final Map<JField, Integer> fieldIds = Maps.newMap();
+
+    /**
+     * Decoded objects, indexed by object ids.
+     */
+    private final StoredObj[] objs;
+
+    private List<Var> vars;
+
+    private List<Obj> allObjs;
+
+    private CallGraph<Invoke, JMethod> callGraph;
+
+    MappedPointerAnalysisResult(Path file) {
+        this.file = file;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to open result store " + file, e);
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                || buffer.getInt(8) != SECTIONS) {
+            throw new AnalysisException(file + " is not a valid result store");
+        }
+        for (int i = 0; i < SECTIONS; ++i) {
+            sections[i] = buffer.getInt(12 + 4 * i);
+        }
+        nMethods = count(METHODS);
+        nObjs = count(OBJS);
+        nVars = count(VARS);
+        methods = new JMethod[nMethods];
+        objs = new StoredObj[nObjs];
+    }
+
+    // ---------- decoding of columns ----------
+
+    /**
+     * @return the number of rows in given section.
+     */
+    private int count(int section) {
+        return buffer.getInt(sections[section]);
+    }
+
+    /**
+     * @return the i-th element of the col-th column of given section,
+     * where each column contains {@code count(section)} elements.
+     */
+    private int column(int section, int col, int i) {
+        return buffer.getInt(sections[section] + 4 * (1 + col * count(section) + i));
+    }
+
+    private String getString(int id) {
+        int base = sections[STRINGS];
+        int n = buffer.getInt(base);
+        int offsets = base + 4;
+        int bytes = offsets + 4 * (n + 1);
+        int start = buffer.getInt(offsets + 4 * id);
+        int end = buffer.getInt(offsets + 4 * (id + 1));
+        byte[] b = new byte[end - start];
+        buffer.get(bytes + start, b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private JMethod getMethod(int id) {
+        JMethod method = methods[id];
+        if (method == null) {
+            String sig = getString(column(METHODS, 0, id));
+            method = hierarchy.getMethod(sig);
+            if (method == null) {
+                throw new AnalysisException("Method " + sig + " in " + file +
+                        " is absent in current program");
+            }
+            methods[id] = method;
+        }
+        return method;
+    }
+
+    /**
+     * @return id of given method, or -1 if the method is not in the store.
+     */
+    private int getMethodId(JMethod method) {
+        return methodIds.computeIfAbsent(method,
+                m -> search(METHODS, nMethods, m.getSignature()));
+    }
+
+    /**
+     * @return id of given field, or -1 if the field is not in the store.
+     */
+    private int getFieldId(JField field) {
+        return fieldIds.computeIfAbsent(field,
+                f -> search(FIELDS, count(FIELDS), f.getSignature()));
+    }
+
+    /**
+     * Binary-searches the signature column of given section.
+     */
+    private int search(int section, int n, String signature) {
+        int low = 0, high = n - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = getString(column(section, 0, mid)).compareTo(signature);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private StoredObj getObj(int id) {
+        StoredObj obj = objs[id];
+        if (obj == null) {
+            obj = new StoredObj(id);
+            objs[id] = obj;
+        }
+        return obj;
+    }
+
+    /**
+     * Decodes the {@code i}-th points-to set of given section.
+     * The offsets column of the section follows {@code keyColumns} columns.
+     */
+    private Set<Obj> getPointsToSet(int section, int keyColumns, int i) {
+        int n = count(section);
+        int offsets = sections[section] + 4 * (1 + keyColumns * n);
+        int values = offsets + 4 * (n + 1);
+        int start = buffer.getInt(offsets + 4 * i);
+        int end = buffer.getInt(offsets + 4 * (i + 1));
+        Set<Obj> pts = new LinkedHashSet<>(end - start);
+        for (int j = start; j < end; ++j) {
+            pts.add(getObj(buffer.getInt(values + 4 * j)));
+        }
+        return pts;
+    }
+
+    private Var getVar(int i) {
+        JMethod method = getMethod(column(VARS, 0, i));
+        return method.getIR().getVar(column(VARS, 1, i));
+    }
+
+    /**
+     * @return row of given variable in VARS section, or -1 if absent.
+     */
+    private int getVarRow(Var var) {
+        int m = getMethodId(var.getMethod());
+        if (m == -1) {
+            return -1;
+        }
+        int low = column(METHODS, 1, m), high = column(METHODS, 2, m) - 1;
+        int index = var.getIndex();
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midIndex = column(VARS, 1, mid);
+            if (midIndex < index) {
+                low = mid + 1;
+            } else if (midIndex > index) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    // ---------- queries ----------
+
+    @Override
+    public Collection<Var> getVars() {
+        if (vars == null) {
+            vars = Collections.unmodifiableList(new AbstractList<>() {
+                @Override
+                public Var get(int index) {
+                    return getVar(index);
+                }
+
+                @Override
+                public int size() {
+                    return nVars;
+                }
+            });
+        }
+        return vars;
+    }
+
+    @Override
+    public Collection<Obj> getObjects() {
+        if (allObjs == null) {
+            allObjs = Collections.unmodifiableList(new AbstractList<>() {
+                @Override
+                public Obj get(int index) {
+                    return getObj(index);
+                }
+
+                @Override
+                public int size() {
+                    return nObjs;
+                }
+            });
+        }
+        return allObjs;
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var var) {
+        int row = getVarRow(var);
+        return row == -1 ? Set.of() : getPointsToSet(VARS, 2, row);
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var base, JField field) {
+        if (field.isStatic()) {
+            throw new AnalysisException(field + " is not instance field");
+        }
+        int fieldId = getFieldId(field);
+        if (fieldId == -1) {
+            return Set.of();
+        }
+        Set<Obj> pts = new LinkedHashSet<>();
+        getPointsToSet(base).forEach(obj -> {
+            int row = getInstanceFieldRow(((StoredObj) obj).id, fieldId);
+            if (row != -1) {
+                pts.addAll(getPointsToSet(INSTANCE_FIELDS, 2, row));
+            }
+        });
+        return pts;
+    }
+
+    private int getInstanceFieldRow(int baseId, int fieldId) {
+        int low = 0, high = count(INSTANCE_FIELDS) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Integer.compare(column(INSTANCE_FIELDS, 0, mid), baseId);
+            if (cmp == 0) {
+                cmp = Integer.compare(column(INSTANCE_FIELDS, 1, mid), fieldId);
+            }
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(JField field) {
+        if (!field.isStatic()) {
+            throw new AnalysisException(field + " is not static field");
+        }
+        int fieldId = getFieldId(field);
+        if (fieldId == -1) {
+            return Set.of();
+        }
+        int low = 0, high = count(STATIC_FIELDS) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = column(STATIC_FIELDS, 0, mid);
+            if (midId < fieldId) {
+                low = mid + 1;
+            } else if (midId > fieldId) {
+                high = mid - 1;
+            } else {
+                return getPointsToSet(STATIC_FIELDS, 1, mid);
+            }
+        }
+        return Set.of();
+    }
+
+    @Override
+    public CallGraph<Invoke, JMethod> getCallGraph() {
+        if (callGraph == null) {
+            callGraph = buildCallGraph();
+        }
+        return callGraph;
+    }
+
+    private CallGraph<Invoke, JMethod> buildCallGraph() {
+        DefaultCallGraph cg = new DefaultCallGraph();
+        ByteBuffer b = buffer.duplicate().position(sections[CALL_GRAPH]);
+        int nEntries = b.getInt();
+        for (int i = 0; i < nEntries; ++i) {
+            cg.addEntryMethod(getMethod(b.getInt()));
+        }
+        int nReachable = b.getInt();
+        for (int i = 0; i < nReachable; ++i) {
+            cg.addReachableMethod(getMethod(b.getInt()));
+        }
+        int nEdges = b.getInt();
+        int base = b.position();
+        CallKind[] kinds = CallKind.values();
+        for (int i = 0; i < nEdges; ++i) {
+            CallKind kind = kinds[b.getInt(base + 4 * i)];
+            JMethod caller = getMethod(b.getInt(base + 4 * (nEdges + i)));
+            Invoke callSite = (Invoke) caller.getIR()
+                    .getStmt(b.getInt(base + 4 * (2 * nEdges + i)));
+            JMethod callee = getMethod(b.getInt(base + 4 * (3 * nEdges + i)));
+            cg.addEdge(new Edge<>(kind, callSite, callee));
+        }
+        return cg;
+    }
+
+    // ---------- context-sensitive queries (unsupported) ----------
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        throw unsupported("static field pointers");
+    }
+
+    @Override
+    public Collection<CSObj> getCSObjects() {
+        throw unsupported("context-sensitive objects");
+    }
+
+    @Override
+    public Set<CSObj> getPointsToSet(CSVar var) {
+        throw unsupported("context-sensitive variables");
+    }
+
+    @Override
+    public CallGraph<CSCallSite, CSMethod> getCSCallGraph() {
+        throw unsupported("context-sensitive call graph");
+    }
+
+    private UnsupportedOperationException unsupported(String section) {
+        return new UnsupportedOperationException("Result store " + file
+                + " has no section of " + section
+                + ", as only context-insensitive results are stored");
+    }
+
+    /**
+     * Abstract object decoded from the store. Each object is decoded
+     * at most once, so objects can be compared by identity.
+     */
+    private class StoredObj implements Obj {
+
+        private final int id;
+
+        private Type type;
+
+        private Object allocation;
+
+        private StoredObj(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public Type getType() {
+            if (type == null) {
+                String name = getString(column(OBJS, 2, id));
+                type = World.get().getTypeSystem().getType(name);
+            }
+            return type;
+        }
+
+        @Override
+        public Object getAllocation() {
+            if (allocation == null) {
+                int method = column(OBJS, 0, id);
+                allocation = method == -1 ? toString() :
+                        (New) getMethod(method).getIR().getStmt(column(OBJS, 1, id));
+            }
+            return allocation;
+        }
+
+        @Override
+        public Optional<JMethod> getContainerMethod() {
+            int method = column(OBJS, 0, id);
+            return method == -1 ? Optional.empty() : Optional.of(getMethod(method));
+        }
+
+        @Override
+        public Type getContainerType() {
+            return getContainerMethod()
+                    .map(m -> (Type) m.getDeclaringClass().getType())
+                    .orElseGet(this::getType);
+        }
+
+        @Override
+        public String toString() {
+            return getString(column(OBJS, 3, id));
+        }
+    }
+}
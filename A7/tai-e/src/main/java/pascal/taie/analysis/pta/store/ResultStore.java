@@ -0,0 +1,504 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.store;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Pair;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * On-disk columnar format of (context-insensitive) pointer analysis results.
+ * <p>
+ * A store file consists of a header and several sections. The header is
+ * {@code MAGIC, VERSION, #sections} followed by the byte offset of each
+ * section. Each section consists of 32-bit big-endian integer columns,
+ * so that it can be read in place from a memory-mapped file:
+ * <ul>
+ *     <li>{@link #STRINGS}: {@code n, offsets[n+1], UTF-8 bytes}</li>
+ *     <li>{@link #METHODS}: {@code n, signature[n], firstVar[n], endVar[n]},
+ *     sorted by signature. {@code [firstVar, endVar)} is the range of
+ *     the variables of the method in {@link #VARS}.</li>
+ *     <li>{@link #FIELDS}: {@code n, signature[n]}, sorted by signature.</li>
+ *     <li>{@link #OBJS}: {@code n, method[n], stmt[n], type[n], desc[n]}.
+ *     For objects created by {@link New}, {@code (method, stmt)} is the
+ *     allocation site, otherwise both are -1.</li>
+ *     <li>{@link #VARS}: {@code n, method[n], index[n], offsets[n+1], objs[]},
+ *     sorted by (method, index).</li>
+ *     <li>{@link #INSTANCE_FIELDS}: {@code n, base[n], field[n], offsets[n+1],
+ *     objs[]}, sorted by (base, field).</li>
+ *     <li>{@link #STATIC_FIELDS}: {@code n, field[n], offsets[n+1], objs[]},
+ *     sorted by field.</li>
+ *     <li>{@link #CALL_GRAPH}: {@code n, entry[n], m, reachable[m],
+ *     k, kind[k], caller[k], stmt[k], callee[k]}.</li>
+ * </ul>
+ * Strings, methods, fields and objects are referred to by their indexes
+ * in the corresponding sections. Contexts and array indexes are not stored.
+ *
+ * @see MappedPointerAnalysisResult
+ */
+public final class ResultStore {
+
+    private static final Logger logger = LogManager.getLogger(ResultStore.class);
+
+    static final int MAGIC = 0x54414552; // "TAER"
+
+    static final int VERSION = 1;
+
+    // section ids
+    static final int STRINGS = 0;
+
+    static final int METHODS = 1;
+
+    static final int FIELDS = 2;
+
+    static final int OBJS = 3;
+
+    static final int VARS = 4;
+
+    static final int INSTANCE_FIELDS = 5;
+
+    static final int STATIC_FIELDS = 6;
+
+    static final int CALL_GRAPH = 7;
+
+    static final int SECTIONS = 8;
+
+    private ResultStore() {
+    }
+
+    /**
+     * Writes the context-insensitive projection of given result to a store file.
+     * The sections are streamed to a temporary file next to {@code file},
+     * which is then atomically moved into place, so that readers never
+     * see a partially written store.
+     */
+    public static void write(PointerAnalysisResult result, Path file) {
+        logger.info("Writing pointer analysis result to {} ...", file);
+        Path dir = file.toAbsolutePath().getParent();
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(tmp,
+                    StandardOpenOption.WRITE)) {
+                new Writer(result).write(channel);
+            }
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to write result store " + file, e);
+        } finally {
+            deleteQuietly(tmp);
+        }
+    }
+
+    private static void deleteQuietly(Path tmp) {
+        if (tmp != null) {
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException e) {
+                logger.warn("Failed to delete temporary file {}", tmp);
+            }
+        }
+    }
+
+    /**
+     * Opens a store file as a {@link PointerAnalysisResult}.
+     * <p>
+     * As contexts are not stored, {@link PointerAnalysisResult#getCSVars()},
+     * {@link PointerAnalysisResult#getInstanceFields()} and
+     * {@link PointerAnalysisResult#getArrayIndexes()} of the returned result
+     * are empty, and the other context-sensitive queries throw
+     * {@link UnsupportedOperationException}.
+     */
+    public static PointerAnalysisResult open(Path file) {
+        logger.info("Loading pointer analysis result from {} ...", file);
+        return new MappedPointerAnalysisResult(file);
+    }
+
+    private static class Writer {
+
+        private final PointerAnalysisResult result;
+
+        private final Map<String, Integer> strings = Maps.newMap();
+
+        private final List<String> stringList = new ArrayList<>();
+
+        private final List<JMethod> methods;
+
+        private final Map<JMethod, Integer> methodIds = Maps.newMap();
+
+        private final List<JField> fields;
+
+        private final Map<JField, Integer> fieldIds = Maps.newMap();
+
+        private final List<Obj> objs;
+
+        private final Map<Obj, Integer> objIds = Maps.newMap();
+
+        /**
+         * Instance field points-to relations projected to abstract objects.
+         */
+        private final Map<Pair<Obj, JField>, Set<Obj>> instanceFields = Maps.newMap();
+
+        /**
+         * Static field points-to relations.
+         */
+        private final Map<JField, Set<Obj>> staticFields = Maps.newMap();
+
+        private Writer(PointerAnalysisResult result) {
+            this.result = result;
+            result.getInstanceFields().forEach(p ->
+                    instanceFields.computeIfAbsent(
+                            new Pair<>(p.getBase().getObject(), p.getField()),
+                            __ -> new LinkedHashSet<>())
+                            .addAll(toObjs(p.getPointsToSet().getObjects())));
+            result.getStaticFields().forEach(p ->
+                    staticFields.computeIfAbsent(p.getField(),
+                                    __ -> new LinkedHashSet<>())
+                            .addAll(toObjs(p.getPointsToSet().getObjects())));
+            // collect and sort the members which are looked up by signatures
+            Map<String, JMethod> methodMap = new TreeMap<>();
+            result.getVars().forEach(v ->
+                    methodMap.put(v.getMethod().getSignature(), v.getMethod()));
+            CallGraph<Invoke, JMethod> cg = result.getCallGraph();
+            cg.reachableMethods().forEach(m -> methodMap.put(m.getSignature(), m));
+            result.getObjects().forEach(o -> o.getContainerMethod()
+                    .ifPresent(m -> methodMap.put(m.getSignature(), m)));
+            methods = new ArrayList<>(methodMap.values());
+            for (int i = 0; i < methods.size(); ++i) {
+                methodIds.put(methods.get(i), i);
+            }
+            Map<String, JField> fieldMap = new TreeMap<>();
+            instanceFields.keySet().forEach(k ->
+                    fieldMap.put(k.second().getSignature(), k.second()));
+            staticFields.keySet().forEach(f -> fieldMap.put(f.getSignature(), f));
+            fields = new ArrayList<>(fieldMap.values());
+            for (int i = 0; i < fields.size(); ++i) {
+                fieldIds.put(fields.get(i), i);
+            }
+            objs = new ArrayList<>(result.getObjects());
+            for (int i = 0; i < objs.size(); ++i) {
+                objIds.put(objs.get(i), i);
+            }
+        }
+
+        private static List<Obj> toObjs(Set<CSObj> csObjs) {
+            return csObjs.stream().map(CSObj::getObject).toList();
+        }
+
+        /**
+         * Writes the sections after a reserved header, then fills the header
+         * with the section offsets. As the header refers to sections by ids,
+         * sections can be written in any order.
+         */
+        private void write(FileChannel channel) throws IOException {
+            int headerSize = 4 * (3 + SECTIONS);
+            channel.position(headerSize);
+            SectionOutput out = new SectionOutput(channel, headerSize);
+            int[] offsets = new int[SECTIONS];
+            // strings are interned by other sections, so they are written last
+            offsets[METHODS] = writeMethods(out);
+            offsets[FIELDS] = out.section(o -> {
+                o.writeInt(fields.size());
+                for (JField f : fields) {
+                    o.writeInt(intern(f.getSignature()));
+                }
+            });
+            offsets[OBJS] = writeObjs(out);
+            offsets[VARS] = writeVars(out);
+            offsets[INSTANCE_FIELDS] = writeInstanceFields(out);
+            offsets[STATIC_FIELDS] = writeStaticFields(out);
+            offsets[CALL_GRAPH] = writeCallGraph(out);
+            offsets[STRINGS] = writeStrings(out);
+            out.flush();
+            ByteBuffer header = ByteBuffer.allocate(headerSize);
+            header.putInt(MAGIC).putInt(VERSION).putInt(SECTIONS);
+            for (int offset : offsets) {
+                header.putInt(offset);
+            }
+            header.flip();
+            channel.position(0);
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+        }
+
+        private int writeMethods(SectionOutput out) throws IOException {
+            List<Var> vars = getSortedVars();
+            int[] firstVar = new int[methods.size()];
+            int[] endVar = new int[methods.size()];
+            for (int i = 0; i < vars.size(); ++i) {
+                int m = methodIds.get(vars.get(i).getMethod());
+                if (endVar[m] == 0) {
+                    firstVar[m] = i;
+                }
+                endVar[m] = i + 1;
+            }
+            return out.section(o -> {
+                o.writeInt(methods.size());
+                for (JMethod m : methods) {
+                    o.writeInt(intern(m.getSignature()));
+                }
+                writeColumn(o, firstVar);
+                writeColumn(o, endVar);
+            });
+        }
+
+        private int writeObjs(SectionOutput out) throws IOException {
+            return out.section(o -> {
+                o.writeInt(objs.size());
+                int[] method = new int[objs.size()];
+                int[] stmt = new int[objs.size()];
+                int[] type = new int[objs.size()];
+                int[] desc = new int[objs.size()];
+                for (int i = 0; i < objs.size(); ++i) {
+                    Obj obj = objs.get(i);
+                    if (obj.getAllocation() instanceof New allocSite) {
+                        method[i] = methodIds.get(allocSite.getContainer());
+                        stmt[i] = allocSite.getIndex();
+                    } else {
+                        method[i] = stmt[i] = -1;
+                    }
+                    type[i] = intern(obj.getType().getName());
+                    desc[i] = intern(obj.toString());
+                }
+                writeColumn(o, method);
+                writeColumn(o, stmt);
+                writeColumn(o, type);
+                writeColumn(o, desc);
+            });
+        }
+
+        private int writeVars(SectionOutput out) throws IOException {
+            List<Var> vars = getSortedVars();
+            return out.section(o -> {
+                o.writeInt(vars.size());
+                for (Var v : vars) {
+                    o.writeInt(methodIds.get(v.getMethod()));
+                }
+                for (Var v : vars) {
+                    o.writeInt(v.getIndex());
+                }
+                writeSets(o, vars, result::getPointsToSet);
+            });
+        }
+
+        private int writeInstanceFields(SectionOutput out) throws IOException {
+            List<Pair<Obj, JField>> keys = new ArrayList<>(instanceFields.keySet());
+            keys.sort(Comparator.<Pair<Obj, JField>>comparingInt(
+                    k -> objIds.get(k.first()))
+                    .thenComparingInt(k -> fieldIds.get(k.second())));
+            return out.section(o -> {
+                o.writeInt(keys.size());
+                for (Pair<Obj, JField> k : keys) {
+                    o.writeInt(objIds.get(k.first()));
+                }
+                for (Pair<Obj, JField> k : keys) {
+                    o.writeInt(fieldIds.get(k.second()));
+                }
+                writeSets(o, keys, instanceFields::get);
+            });
+        }
+
+        private int writeStaticFields(SectionOutput out) throws IOException {
+            List<JField> keys = new ArrayList<>(staticFields.keySet());
+            keys.sort(Comparator.comparingInt(fieldIds::get));
+            return out.section(o -> {
+                o.writeInt(keys.size());
+                for (JField f : keys) {
+                    o.writeInt(fieldIds.get(f));
+                }
+                writeSets(o, keys, staticFields::get);
+            });
+        }
+
+        private int writeCallGraph(SectionOutput out) throws IOException {
+            CallGraph<Invoke, JMethod> cg = result.getCallGraph();
+            List<JMethod> entries = cg.entryMethods().toList();
+            List<JMethod> reachable = cg.reachableMethods().toList();
+            List<Edge<Invoke, JMethod>> edges = cg.edges().toList();
+            return out.section(o -> {
+                o.writeInt(entries.size());
+                for (JMethod m : entries) {
+                    o.writeInt(methodIds.get(m));
+                }
+                o.writeInt(reachable.size());
+                for (JMethod m : reachable) {
+                    o.writeInt(methodIds.get(m));
+                }
+                o.writeInt(edges.size());
+                for (Edge<Invoke, JMethod> e : edges) {
+                    o.writeInt(e.getKind().ordinal());
+                }
+                for (Edge<Invoke, JMethod> e : edges) {
+                    o.writeInt(methodIds.get(e.getCallSite().getContainer()));
+                }
+                for (Edge<Invoke, JMethod> e : edges) {
+                    o.writeInt(e.getCallSite().getIndex());
+                }
+                for (Edge<Invoke, JMethod> e : edges) {
+                    o.writeInt(methodIds.get(e.getCallee()));
+                }
+            });
+        }
+
+        private int writeStrings(SectionOutput out) throws IOException {
+            List<byte[]> bytes = stringList.stream()
+                    .map(s -> s.getBytes(StandardCharsets.UTF_8))
+                    .toList();
+            return out.section(o -> {
+                o.writeInt(bytes.size());
+                int offset = 0;
+                o.writeInt(offset);
+                for (byte[] b : bytes) {
+                    offset += b.length;
+                    o.writeInt(offset);
+                }
+                for (byte[] b : bytes) {
+                    o.write(b);
+                }
+            });
+        }
+
+        private List<Var> getSortedVars() {
+            List<Var> vars = new ArrayList<>(result.getVars());
+            vars.sort(Comparator.<Var>comparingInt(v -> methodIds.get(v.getMethod()))
+                    .thenComparingInt(Var::getIndex));
+            return vars;
+        }
+
+        /**
+         * Writes the offsets column and the values of given sets.
+         */
+        private <K> void writeSets(DataOutputStream o, List<K> keys,
+                                   Function<K, Set<Obj>> getSet)
+                throws IOException {
+            int[][] ids = new int[keys.size()][];
+            int offset = 0;
+            o.writeInt(offset);
+            for (int i = 0; i < keys.size(); ++i) {
+                ids[i] = getSet.apply(keys.get(i)).stream()
+                        .mapToInt(objIds::get)
+                        .sorted()
+                        .toArray();
+                offset += ids[i].length;
+                o.writeInt(offset);
+            }
+            for (int[] column : ids) {
+                writeColumn(o, column);
+            }
+        }
+
+        private int intern(String s) {
+            return strings.computeIfAbsent(s, __ -> {
+                stringList.add(s);
+                return stringList.size() - 1;
+            });
+        }
+    }
+
+    private static void writeColumn(DataOutputStream out, int[] column)
+            throws IOException {
+        for (int i : column) {
+            out.writeInt(i);
+        }
+    }
+
+    /**
+     * Buffered output of consecutive sections of a store file.
+     */
+    private static class SectionOutput {
+
+        private final OutputStream out;
+
+        /**
+         * Position of the next section in the file.
+         */
+        private long position;
+
+        private SectionOutput(FileChannel channel, long position) {
+            this.out = new BufferedOutputStream(Channels.newOutputStream(channel));
+            this.position = position;
+        }
+
+        /**
+         * Writes a section and returns its offset in the file.
+         */
+        private int section(SectionWriter writer) throws IOException {
+            if (position > Integer.MAX_VALUE) {
+                throw new AnalysisException("Result is too large to store");
+            }
+            DataOutputStream o = new DataOutputStream(out);
+            writer.write(o);
+            // keep the next section 4-byte aligned
+            while (o.size() % 4 != 0) {
+                o.writeByte(0);
+            }
+            int offset = (int) position;
+            position += o.size();
+            return offset;
+        }
+
+        private void flush() throws IOException {
+            out.flush();
+        }
+    }
+
+    @FunctionalInterface
+    private interface SectionWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
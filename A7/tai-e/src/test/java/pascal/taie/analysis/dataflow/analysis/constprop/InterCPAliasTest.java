@@ -22,23 +22,51 @@
 
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
+import org.junit.Assert;
 import org.junit.Test;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
 import pascal.taie.analysis.dataflow.inter.InterConstantPropagation;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
+import pascal.taie.analysis.pta.cs.CSPTA;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public class InterCPAliasTest {
 
     private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/alias";
 
     void test(String inputClass) {
+        test(inputClass, "");
+    }
+
+    /**
+     * Tests with additional options of inter-constprop, e.g., ";icfg:lazy",
+     * which should not change the expected results.
+     */
+    void test(String inputClass, String opts) {
         Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
-                "edge-refine:false;alias-aware:true;pta:cspta",
+                "edge-refine:false;alias-aware:true;pta:cspta" + opts,
                 "-a", "cspta=cs:2-obj", "-a", "cg=algorithm:cspta"
                 //, "-a", "icfg=dump:true" // <-- uncomment this code if you want
                                            // to output ICFGs for the test cases
         );
     }
 
+    /**
+     * Tests with lazy ICFG, which should not build the whole ICFG.
+     */
+    void testLazy(String inputClass) {
+        testLazy(inputClass, "");
+    }
+
+    void testLazy(String inputClass, String opts) {
+        test(inputClass, ";icfg:lazy" + opts);
+        Assert.assertNull(World.get().getResult(ICFGBuilder.ID));
+    }
+
     @Test
     public void testArray() {
         test("Array");
@@ -83,4 +111,145 @@ public class InterCPAliasTest {
     public void testStaticFieldMultiStores() {
         test("StaticFieldMultiStores");
     }
+
+    @Test
+    public void testInstanceFieldLazy() {
+        testLazy("InstanceField");
+    }
+
+    @Test
+    public void testInterprocedural2Lazy() {
+        testLazy("Interprocedural2");
+    }
+
+    @Test
+    public void testStaticFieldMultiStoresLazy() {
+        testLazy("StaticFieldMultiStores");
+    }
+
+    @Test
+    public void testArrayParallel() {
+        test("Array", ";parallel:true");
+    }
+
+    @Test
+    public void testArrayInter2Parallel() {
+        test("ArrayInter2", ";parallel:true");
+    }
+
+    @Test
+    public void testArrayLoopsParallel() {
+        test("ArrayLoops", ";parallel:true");
+    }
+
+    @Test
+    public void testInstanceFieldParallel() {
+        test("InstanceField", ";parallel:true");
+    }
+
+    @Test
+    public void testMultiStoresParallel() {
+        test("MultiStores", ";parallel:true");
+    }
+
+    @Test
+    public void testInterprocedural2Parallel() {
+        test("Interprocedural2", ";parallel:true");
+    }
+
+    @Test
+    public void testObjSensParallel() {
+        test("ObjSens", ";parallel:true");
+    }
+
+    @Test
+    public void testStaticFieldParallel() {
+        test("StaticField", ";parallel:true");
+    }
+
+    @Test
+    public void testStaticFieldMultiStoresParallel() {
+        test("StaticFieldMultiStores", ";parallel:true");
+    }
+
+    @Test
+    public void testStaticFieldMultiStoresParallelOneThread() {
+        test("StaticFieldMultiStores", ";parallel:true;threads:1");
+    }
+
+    @Test
+    public void testArraySCC() {
+        test("Array", ";worklist:scc");
+    }
+
+    @Test
+    public void testArrayInter2SCC() {
+        test("ArrayInter2", ";worklist:scc");
+    }
+
+    @Test
+    public void testArrayLoopsSCC() {
+        test("ArrayLoops", ";worklist:scc");
+    }
+
+    @Test
+    public void testInstanceFieldSCC() {
+        test("InstanceField", ";worklist:scc");
+    }
+
+    @Test
+    public void testMultiStoresSCC() {
+        test("MultiStores", ";worklist:scc");
+    }
+
+    @Test
+    public void testInterprocedural2SCC() {
+        test("Interprocedural2", ";worklist:scc");
+    }
+
+    @Test
+    public void testObjSensSCC() {
+        test("ObjSens", ";worklist:scc");
+    }
+
+    @Test
+    public void testStaticFieldSCC() {
+        test("StaticField", ";worklist:scc");
+    }
+
+    @Test
+    public void testStaticFieldMultiStoresSCC() {
+        test("StaticFieldMultiStores", ";worklist:scc");
+    }
+
+    @Test
+    public void testInstanceFieldLazySCC() {
+        testLazy("InstanceField", ";worklist:scc");
+    }
+
+    @Test
+    public void testInterprocedural2LazySCC() {
+        testLazy("Interprocedural2", ";worklist:scc");
+    }
+
+    @Test
+    public void testStaticFieldMultiStoresLazySCC() {
+        testLazy("StaticFieldMultiStores", ";worklist:scc");
+    }
+
+    @Test
+    public void testStoredPTA() throws IOException {
+        Path file = Files.createTempFile("cspta", ".store");
+        file.toFile().deleteOnExit();
+        // run cspta and store its result
+        Tests.test("ObjSens", CLASS_PATH, InterConstantPropagation.ID,
+                "edge-refine:false;alias-aware:true;pta:cspta",
+                "-a", "cspta=cs:2-obj;store-file:" + file,
+                "-a", "cg=algorithm:cspta");
+        // load the stored result without running cspta
+        Tests.test("ObjSens", CLASS_PATH, InterConstantPropagation.ID,
+                "edge-refine:false;alias-aware:true;pta:null;pta-file:" + file,
+                "-a", "cg=algorithm:file;pta-file:" + file);
+        Assert.assertNull(World.get().getResult(CSPTA.ID));
+    }
 }
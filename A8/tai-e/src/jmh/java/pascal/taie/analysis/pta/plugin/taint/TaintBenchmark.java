@@ -0,0 +1,97 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.analysis.Benchmarks;
+import pascal.taie.analysis.ProgramGenerator;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.config.AnalysisConfig;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link TaintAnalysiss} together with context-sensitive
+ * pointer analysis on generated source/sink chains. The IR of the
+ * program is built before measurement.
+ * <p>
+ * Parameter {@code engine} selects the taint engine, i.e., taint objects
+ * in the points-to sets ("pta") or the IFDS solver over the result of
+ * the pointer analysis ("ifds"), see {@link IFDSTaintSolver}.
+ * <p>
+ * The scaling curve can be measured on generated programs of different
+ * sizes by JMH option, e.g., {@code -p program=gen:taint:1000,gen:taint:10000}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4G")
+@State(Scope.Benchmark)
+public class TaintBenchmark {
+
+    @Param({"gen:taint:100", "gen:taint:1000"})
+    private String program;
+
+    @Param({"ci", "1-call", "2-obj"})
+    private String cs;
+
+    @Param({"pta", "ifds"})
+    private String engine;
+
+    private AnalysisConfig config;
+
+    @Setup
+    public void setUp() {
+        String resolved = ProgramGenerator.resolve(program);
+        String taintConfig = ProgramGenerator.getTaintConfig(resolved);
+        // runs the analysis once to build the IR of reachable methods
+        Benchmarks.buildWorld(resolved,
+                CSPTA.ID + "=cs:" + cs + ";taint-config:" + taintConfig);
+        config = new AnalysisConfig(CSPTA.ID,
+                "cs", cs,
+                "merge-string-constants", false,
+                "merge-string-objects", false,
+                "merge-string-builders", false,
+                "merge-exception-objects", true,
+                "taint-config", taintConfig,
+                "taint-engine", engine,
+                "action", null);
+    }
+
+    @Benchmark
+    public PointerAnalysisResult solve() {
+        return new CSPTA(config).analyze();
+    }
+}
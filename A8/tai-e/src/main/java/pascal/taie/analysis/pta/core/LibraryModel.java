@@ -0,0 +1,180 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core;
+
+import pascal.taie.World;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.annotation.AnnotationHolder;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Built-in models of the library methods out of the analysis scope,
+ * which are applied at the call sites instead of analyzing the callees
+ * (see {@link pascal.taie.analysis.AnalysisScope}).
+ * <p>
+ * The elements of containers (collections, maps, iterators, etc.) are
+ * modeled by a synthetic field {@link #getContentsField() $contents}
+ * of the container objects, and the other library methods returning
+ * objects are summarized by one mock object per call site.
+ */
+public class LibraryModel {
+
+    /**
+     * Kinds of the effects of library calls.
+     */
+    public enum Kind {
+        /**
+         * Stores the arguments to the contents of the receiver,
+         * and returns the contents (if any), e.g., Map.put(k, v).
+         */
+        STORE,
+        /**
+         * Copies the contents of the argument containers to the contents
+         * of the receiver, e.g., List.addAll(c) and Map.putAll(m).
+         */
+        STORE_ALL,
+        /**
+         * Returns the contents of the receiver, e.g., List.get(i).
+         */
+        LOAD,
+        /**
+         * Returns a view sharing the contents of the receiver,
+         * e.g., List.iterator().
+         */
+        VIEW,
+        /**
+         * Returns the receiver, e.g., StringBuilder.append(s).
+         */
+        RETURN_RECEIVER,
+        /**
+         * Returns a summary object of the return type, e.g., Integer.valueOf(i).
+         */
+        RETURN_SUMMARY,
+        /**
+         * Has no effects on points-to relations.
+         */
+        NONE
+    }
+
+    private static final Set<String> STORE_METHODS = Set.of(
+            "add", "addElement", "addFirst", "addLast",
+            "insertElementAt", "offer", "offerFirst", "offerLast",
+            "push", "put", "putIfAbsent", "set", "setElementAt",
+            "setValue");
+
+    private static final Set<String> STORE_ALL_METHODS = Set.of(
+            "addAll", "putAll");
+
+    private static final Set<String> LOAD_METHODS = Set.of(
+            "ceiling", "ceilingKey", "element", "elementAt", "first",
+            "firstElement", "firstKey", "floor", "floorKey", "get",
+            "getFirst", "getKey", "getLast", "getOrDefault", "getValue",
+            "higher", "last", "lastElement", "lastKey", "lower", "next",
+            "nextElement", "peek", "peekFirst", "peekLast", "poll",
+            "pollFirst", "pollLast", "pop", "previous", "remove",
+            "removeFirst", "removeLast", "take");
+
+    private static final Set<String> VIEW_METHODS = Set.of(
+            "descendingIterator", "descendingKeySet", "descendingMap",
+            "elements", "entrySet", "headMap", "headSet", "iterator",
+            "keySet", "keys", "listIterator", "spliterator", "stream",
+            "subList", "subMap", "subSet", "tailMap", "tailSet", "values");
+
+    private static final Set<String> BUILDERS = Set.of(
+            "java.lang.AbstractStringBuilder",
+            "java.lang.StringBuffer",
+            "java.lang.StringBuilder");
+
+    private static final Set<String> BUILDER_METHODS = Set.of(
+            "append", "appendCodePoint", "delete", "deleteCharAt",
+            "insert", "replace", "reverse");
+
+    private final JField contentsField;
+
+    private final Map<Invoke, Obj> summaryObjs = Maps.newMap();
+
+    public LibraryModel() {
+        JClass object = World.get().getClassHierarchy()
+                .getJREClass("java.lang.Object");
+        contentsField = new JField(object, "$contents", Set.of(),
+                World.get().getTypeSystem().getClassType("java.lang.Object"),
+                AnnotationHolder.emptyHolder());
+    }
+
+    /**
+     * @return the synthetic field which holds the elements of containers.
+     */
+    public JField getContentsField() {
+        return contentsField;
+    }
+
+    /**
+     * @return the kind of the effects of given library call.
+     */
+    public Kind getKind(Invoke invoke) {
+        MethodRef ref = invoke.getMethodRef();
+        String className = ref.getDeclaringClass().getName();
+        String name = ref.getName();
+        boolean returnsObj = invoke.getResult() != null
+                && ref.getReturnType() instanceof ReferenceType;
+        if (invoke.isVirtual() || invoke.isInterface()) {
+            if (className.startsWith("java.util.")
+                    && !className.startsWith("java.util.concurrent.atomic.")) {
+                if (STORE_METHODS.contains(name)) {
+                    return Kind.STORE;
+                } else if (STORE_ALL_METHODS.contains(name)) {
+                    return Kind.STORE_ALL;
+                } else if (returnsObj && LOAD_METHODS.contains(name)) {
+                    return Kind.LOAD;
+                } else if (returnsObj && VIEW_METHODS.contains(name)) {
+                    return Kind.VIEW;
+                }
+            } else if (returnsObj && BUILDERS.contains(className)
+                    && BUILDER_METHODS.contains(name)) {
+                return Kind.RETURN_RECEIVER;
+            }
+        }
+        return returnsObj ? Kind.RETURN_SUMMARY : Kind.NONE;
+    }
+
+    /**
+     * @return the summary object returned by given library call, which is
+     * also used as the view object for {@link Kind#VIEW} calls.
+     */
+    public Obj getSummaryObj(Invoke invoke) {
+        return summaryObjs.computeIfAbsent(invoke, i -> {
+            Type type = i.getMethodRef().getReturnType();
+            return new MockObj("LibraryReturn", i, type, i.getContainer());
+        });
+    }
+}
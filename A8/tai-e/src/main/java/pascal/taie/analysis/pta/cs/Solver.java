@@ -25,11 +25,13 @@ package pascal.taie.analysis.pta.cs;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
+import pascal.taie.analysis.AnalysisScope;
 import pascal.taie.analysis.graph.callgraph.CallGraphs;
 import pascal.taie.analysis.graph.callgraph.CallKind;
 import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.PointerAnalysisResultImpl;
+import pascal.taie.analysis.pta.core.LibraryModel;
 import pascal.taie.analysis.pta.core.cs.CSCallGraph;
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
@@ -61,7 +63,10 @@ import pascal.taie.ir.stmt.StoreArray;
 import pascal.taie.ir.stmt.StoreField;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ReferenceType;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
 
 import static pascal.taie.analysis.graph.callgraph.CallGraphs.getCallKind;
 
@@ -75,6 +80,28 @@ public class Solver {
 
     private final ContextSelector contextSelector;
 
+    private final AnalysisScope scope;
+
+    /**
+     * Models the calls to the methods out of scope, or null if
+     * such calls are ignored.
+     */
+    private final LibraryModel libraryModel;
+
+    /**
+     * Maps each argument variable of {@link LibraryModel.Kind#STORE_ALL}
+     * calls to the contents of the receivers, which the contents of
+     * the objects pointed to by the variable flow to.
+     */
+    private final MultiMap<CSVar, InstanceField> contentsCopies = Maps.newMultiMap();
+
+    /**
+     * Callees out of scope of each call site. They are kept out of
+     * the call graph, but taint analysis still checks them for sources,
+     * sinks and taint transfers.
+     */
+    private final MultiMap<CSCallSite, JMethod> libraryCallees = Maps.newMultiMap();
+
     private CSManager csManager;
 
     private CSCallGraph callGraph;
@@ -92,6 +119,9 @@ public class Solver {
         this.options = options;
         this.heapModel = heapModel;
         this.contextSelector = contextSelector;
+        this.scope = AnalysisScope.of(options);
+        this.libraryModel = options.getBooleanOrDefault("library-boundary", false)
+                ? new LibraryModel() : null;
     }
 
     public AnalysisOptions getOptions() {
@@ -106,6 +136,18 @@ public class Solver {
         return csManager;
     }
 
+    public AnalysisScope getScope() {
+        return scope;
+    }
+
+    /**
+     * @return the callees out of scope of each reachable call site,
+     * which have no edges in the call graph.
+     */
+    public MultiMap<CSCallSite, JMethod> getLibraryCallees() {
+        return libraryCallees;
+    }
+
     void solve() {
         initialize();
         analyze();
@@ -205,6 +247,10 @@ public class Solver {
                 JMethod method = resolveCallee(null, stmt);
                 // this.context就是caller context
                 CSCallSite csCallSite = csManager.getCSCallSite(context, stmt);
+                if (method == null || !scope.contains(method)) {
+                    processLibraryCall(csCallSite, method, null);
+                    return null;
+                }
                 Context calleeContext = contextSelector.selectContext(csCallSite, method);
                 CSMethod csMethod = csManager.getCSMethod(calleeContext, method);
                 // checkTaintStep由于污点变量的传递是单独的，如果放在addEdge中可能导致该边之前被迭代过而被放弃
@@ -292,11 +338,19 @@ public class Solver {
                                     taintAnalysis.checkTaintStep(invoke,edge.getCallSite().getContext());
                                 }
                             });
+                            // the calls out of scope have no call edges
+                            libraryCallees.keySet().forEach(csCallSite -> {
+                                Invoke invoke = csCallSite.getCallSite();
+                                if (invoke.getInvokeExp().getArgs().contains(var)) {
+                                    taintAnalysis.checkTaintStep(invoke, csCallSite.getContext());
+                                }
+                            });
                         }
                     });
 
                     // processCall里面将该变量作为recvObj的调用进行了污点传递
                     processCall((CSVar) pointer, obj);
+                    processContentsCopies((CSVar) pointer, obj);
                 }
             }
         }
@@ -337,6 +391,10 @@ public class Solver {
             InvokeExp invokeExp = invoke.getInvokeExp();
             CSCallSite csCallSite = csManager.getCSCallSite(callerContext, invoke);
             JMethod method = resolveCallee(recvObj, invoke);
+            if (method == null || !scope.contains(method)) {
+                processLibraryCall(csCallSite, method, recvObj);
+                return;
+            }
             Context calleeContext = contextSelector.selectContext(csCallSite, recvObj, method);
             CSMethod csMethod = csManager.getCSMethod(calleeContext, method);
             // 添加m_this，差点忘了
@@ -369,6 +427,104 @@ public class Solver {
         });
     }
 
+    /**
+     * Processes a call to a method out of scope (or an unresolved method,
+     * if callee is null). The callee is not analyzed and, as in CHA,
+     * no call edge is added to it, since the clients of the call graph
+     * expect the callees to be reachable methods. Instead, the callee is
+     * recorded in {@link #libraryCallees} and checked by taint analysis.
+     * The call is modeled by {@link LibraryModel} if the library boundary
+     * is enabled.
+     *
+     * @param recvObj the receiver object, or null for static calls.
+     */
+    private void processLibraryCall(CSCallSite csCallSite, JMethod callee,
+                                    CSObj recvObj) {
+        Invoke invoke = csCallSite.getCallSite();
+        Context context = csCallSite.getContext();
+        if (callee != null) {
+            taintAnalysis.checkTaintStep(invoke, context);
+            if (libraryCallees.put(csCallSite, callee)) {
+                taintAnalysis.checkSource(invoke, context);
+            }
+        }
+        if (libraryModel == null) {
+            return;
+        }
+        Var result = invoke.getResult();
+        switch (libraryModel.getKind(invoke)) {
+            case STORE -> {
+                InstanceField contents = csManager.getInstanceField(
+                        recvObj, libraryModel.getContentsField());
+                invoke.getInvokeExp().getArgs().forEach(arg -> {
+                    if (arg.getType() instanceof ReferenceType) {
+                        addPFGEdge(csManager.getCSVar(context, arg), contents);
+                    }
+                });
+                if (result != null && result.getType() instanceof ReferenceType) {
+                    addPFGEdge(contents, csManager.getCSVar(context, result));
+                }
+            }
+            case STORE_ALL -> {
+                InstanceField contents = csManager.getInstanceField(
+                        recvObj, libraryModel.getContentsField());
+                invoke.getInvokeExp().getArgs().forEach(arg -> {
+                    if (arg.getType() instanceof ReferenceType) {
+                        CSVar csArg = csManager.getCSVar(context, arg);
+                        if (contentsCopies.put(csArg, contents)) {
+                            csArg.getPointsToSet().forEach(
+                                    obj -> processContentsCopy(obj, contents));
+                        }
+                    }
+                });
+            }
+            case LOAD -> addPFGEdge(csManager.getInstanceField(
+                            recvObj, libraryModel.getContentsField()),
+                    csManager.getCSVar(context, result));
+            case VIEW -> {
+                CSObj view = getSummaryObj(context, invoke);
+                addPFGEdge(csManager.getInstanceField(
+                                recvObj, libraryModel.getContentsField()),
+                        csManager.getInstanceField(
+                                view, libraryModel.getContentsField()));
+                workList.addEntry(csManager.getCSVar(context, result),
+                        PointsToSetFactory.make(view));
+            }
+            case RETURN_RECEIVER -> workList.addEntry(
+                    csManager.getCSVar(context, result),
+                    PointsToSetFactory.make(recvObj));
+            case RETURN_SUMMARY -> workList.addEntry(
+                    csManager.getCSVar(context, result),
+                    PointsToSetFactory.make(getSummaryObj(context, invoke)));
+            case NONE -> {
+            }
+        }
+    }
+
+    /**
+     * Copies the contents of a new object pointed to by given argument
+     * variable of {@link LibraryModel.Kind#STORE_ALL} calls.
+     */
+    private void processContentsCopies(CSVar csVar, CSObj obj) {
+        contentsCopies.get(csVar).forEach(
+                contents -> processContentsCopy(obj, contents));
+    }
+
+    private void processContentsCopy(CSObj obj, InstanceField contents) {
+        addPFGEdge(csManager.getInstanceField(
+                obj, libraryModel.getContentsField()), contents);
+    }
+
+    /**
+     * @return the summary object of given library call, whose heap context
+     * is selected as the objects allocated in the caller.
+     */
+    private CSObj getSummaryObj(Context context, Invoke invoke) {
+        Obj obj = libraryModel.getSummaryObj(invoke);
+        CSMethod caller = csManager.getCSMethod(context, invoke.getContainer());
+        return csManager.getCSObj(
+                contextSelector.selectHeapContext(caller, obj), obj);
+    }
 
     /**
      * Resolves the callee of a call site with the receiver object.
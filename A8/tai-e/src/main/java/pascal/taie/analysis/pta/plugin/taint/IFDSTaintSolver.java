@@ -0,0 +1,531 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.AnalysisScope;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.ir.stmt.SwitchStmt;
+import pascal.taie.ir.stmt.Throw;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.MultiMap;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * IFDS tabulation solver (Reps, Horwitz and Sagiv, POPL'95) for taint
+ * analysis, which computes taint flows from the sources through the taint
+ * transfers to the sinks in {@link TaintConfig}.
+ * <p>
+ * The data-flow facts are tainted local variables labeled with their
+ * source calls. The solver maintains jump functions (path edges from the
+ * start of a method to each statement) and caches the end summaries of
+ * each method for each entry fact, so that a callee is analyzed only once
+ * per entry fact and the summaries are reused at all of its call sites.
+ * <p>
+ * The call graph and aliases are taken from a (cheaper) pointer analysis
+ * that runs without taint objects. Taints stored into the heap are kept
+ * flow-insensitively per abstract heap location, and loads from tainted
+ * locations generate taints as if they were sources.
+ */
+class IFDSTaintSolver {
+
+    private static final Logger logger = LogManager.getLogger(IFDSTaintSolver.class);
+
+    /**
+     * A tainted variable, or the zero fact if {@code var} is null.
+     */
+    private record Fact(Var var, Invoke source) {
+
+        @Override
+        public String toString() {
+            return var == null ? "0" : var + "<-" + source;
+        }
+    }
+
+    private static final Fact ZERO = new Fact(null, null);
+
+    /**
+     * Path edge "(start of method, d1) -> (node, d2)".
+     */
+    private record PathEdge(Fact d1, Stmt node, Fact d2) {
+    }
+
+    /**
+     * Entry of a method with a fact, i.e., key of incoming
+     * call sites and end summaries.
+     */
+    private record Entry(JMethod method, Fact fact) {
+    }
+
+    /**
+     * Call site with the fact that reaches it.
+     */
+    private record CallFact(Invoke callSite, Fact fact) {
+    }
+
+    /**
+     * Exit (return statement) of a method with the fact that reaches it.
+     */
+    private record ExitFact(Return exit, Fact fact) {
+    }
+
+    /**
+     * Abstract heap location: an instance field ({@code obj} and
+     * {@code field}), an array ({@code field} is null), or a static
+     * field ({@code obj} is null).
+     */
+    private record HeapLoc(Obj obj, JField field) {
+    }
+
+    private final TaintConfig config;
+
+    private final PointerAnalysisResult pta;
+
+    private final CallGraph<Invoke, JMethod> callGraph;
+
+    /**
+     * Callees out of scope are not analyzed, and the calls
+     * to them are modeled by call-to-return flows.
+     */
+    private final AnalysisScope scope;
+
+    /**
+     * Callees out of scope of each call site, which are not in the call
+     * graph but are still checked for sinks.
+     */
+    private final MultiMap<Invoke, JMethod> libraryCallees;
+
+    /**
+     * Containing IR of the statements of the methods reached so far.
+     */
+    private final Map<Stmt, IR> containers = new HashMap<>();
+
+    /**
+     * Jump functions: node -> d2 -> d1s.
+     */
+    private final Map<Stmt, Map<Fact, Set<Fact>>> jumpFunctions = new HashMap<>();
+
+    private final Map<Entry, Set<CallFact>> incoming = new HashMap<>();
+
+    private final Map<Entry, Set<ExitFact>> endSummaries = new HashMap<>();
+
+    private final Map<HeapLoc, Set<Invoke>> heapTaints = new HashMap<>();
+
+    /**
+     * Loads of the reached methods, indexed by the locations they may read.
+     */
+    private final Map<HeapLoc, List<Stmt>> loads = new HashMap<>();
+
+    private final Queue<PathEdge> workList = new ArrayDeque<>();
+
+    private final Set<TaintFlow> taintFlows = new TreeSet<>();
+
+    private long pathEdges;
+
+    IFDSTaintSolver(TaintConfig config, PointerAnalysisResult pta,
+                    AnalysisScope scope, MultiMap<Invoke, JMethod> libraryCallees) {
+        this.config = config;
+        this.pta = pta;
+        this.callGraph = pta.getCallGraph();
+        this.scope = scope;
+        this.libraryCallees = libraryCallees;
+    }
+
+    Set<TaintFlow> solve() {
+        callGraph.entryMethods().forEach(method -> {
+            Stmt start = getStart(method);
+            if (start != null) {
+                propagate(ZERO, start, ZERO);
+            }
+        });
+        while (!workList.isEmpty()) {
+            PathEdge edge = workList.poll();
+            Stmt node = edge.node();
+            if (node instanceof Invoke invoke) {
+                processCall(edge.d1(), invoke, edge.d2());
+            } else if (node instanceof Return exit) {
+                processExit(edge.d1(), exit, edge.d2());
+            } else {
+                processNormal(edge.d1(), node, edge.d2());
+            }
+        }
+        logger.info("IFDS taint: {} path edges, {} summaries, {} heap locations",
+                pathEdges, endSummaries.size(), heapTaints.size());
+        return taintFlows;
+    }
+
+    private void processCall(Fact d1, Invoke callSite, Fact d2) {
+        List<Stmt> returnSites = getSuccsOf(callSite);
+        for (JMethod callee : callGraph.getCalleesOf(callSite)) {
+            Stmt start = scope.contains(callee) ? getStart(callee) : null;
+            if (start == null) {
+                continue;
+            }
+            for (Fact d3 : callFlow(callSite, callee, d2)) {
+                propagate(d3, start, d3);
+                Entry entry = new Entry(callee, d3);
+                incoming.computeIfAbsent(entry, __ -> new HashSet<>())
+                        .add(new CallFact(callSite, d2));
+                // apply the summaries of the callee that have been computed
+                for (ExitFact exit : endSummaries.getOrDefault(entry, Set.of())) {
+                    for (Fact d5 : returnFlow(callSite, exit.exit(), exit.fact())) {
+                        returnSites.forEach(r -> propagate(d1, r, d5));
+                    }
+                }
+            }
+        }
+        for (Fact d3 : callToReturnFlow(callSite, d2)) {
+            returnSites.forEach(r -> propagate(d1, r, d3));
+        }
+    }
+
+    private void processExit(Fact d1, Return exit, Fact d2) {
+        JMethod method = containers.get(exit).getMethod();
+        Entry entry = new Entry(method, d1);
+        if (!endSummaries.computeIfAbsent(entry, __ -> new HashSet<>())
+                .add(new ExitFact(exit, d2))) {
+            return;
+        }
+        for (CallFact call : incoming.getOrDefault(entry, Set.of())) {
+            Invoke callSite = call.callSite();
+            for (Fact d5 : returnFlow(callSite, exit, d2)) {
+                for (Fact d0 : getSourceFacts(callSite, call.fact())) {
+                    getSuccsOf(callSite).forEach(r -> propagate(d0, r, d5));
+                }
+            }
+        }
+    }
+
+    private void processNormal(Fact d1, Stmt node, Fact d2) {
+        for (Fact d3 : normalFlow(node, d2)) {
+            getSuccsOf(node).forEach(succ -> propagate(d1, succ, d3));
+        }
+    }
+
+    private void propagate(Fact d1, Stmt node, Fact d2) {
+        if (jumpFunctions.computeIfAbsent(node, __ -> new HashMap<>())
+                .computeIfAbsent(d2, __ -> new HashSet<>())
+                .add(d1)) {
+            ++pathEdges;
+            workList.add(new PathEdge(d1, node, d2));
+        }
+    }
+
+    /**
+     * @return the facts at the start of the method of {@code node}
+     * from which {@code d2} reaches {@code node}.
+     */
+    private List<Fact> getSourceFacts(Stmt node, Fact d2) {
+        Map<Fact, Set<Fact>> facts = jumpFunctions.get(node);
+        return facts == null || !facts.containsKey(d2) ?
+                List.of() : List.copyOf(facts.get(d2));
+    }
+
+    // ---------- flow functions ----------
+
+    private Collection<Fact> normalFlow(Stmt node, Fact d2) {
+        if (d2 == ZERO) {
+            if (node instanceof LoadField load) {
+                return genLoad(load.getLValue(), getLocs(load));
+            } else if (node instanceof LoadArray load) {
+                return genLoad(load.getLValue(), getLocs(load));
+            }
+            return List.of(ZERO);
+        }
+        Var var = d2.var();
+        if (node instanceof Copy copy && copy.getRValue() == var) {
+            return List.of(d2, new Fact(copy.getLValue(), d2.source()));
+        } else if (node instanceof Cast cast && cast.getRValue().getValue() == var) {
+            return List.of(d2, new Fact(cast.getLValue(), d2.source()));
+        } else if (node instanceof StoreField store && store.getRValue() == var) {
+            addHeapTaints(getLocs(store), d2.source());
+        } else if (node instanceof StoreArray store && store.getRValue() == var) {
+            addHeapTaints(getLocs(store), d2.source());
+        }
+        // kill the variable that is redefined
+        return node.getDef().orElse(null) == var ? List.of() : List.of(d2);
+    }
+
+    private List<Fact> callFlow(Invoke callSite, JMethod callee, Fact d2) {
+        if (d2 == ZERO) {
+            return List.of(ZERO);
+        }
+        IR ir = callee.getIR();
+        InvokeExp invokeExp = callSite.getInvokeExp();
+        List<Fact> facts = new ArrayList<>(1);
+        for (int i = 0; i < invokeExp.getArgCount(); ++i) {
+            if (invokeExp.getArg(i) == d2.var() && i < ir.getParams().size()) {
+                facts.add(new Fact(ir.getParam(i), d2.source()));
+            }
+        }
+        if (invokeExp instanceof InvokeInstanceExp instanceExp
+                && instanceExp.getBase() == d2.var() && ir.getThis() != null) {
+            facts.add(new Fact(ir.getThis(), d2.source()));
+        }
+        return facts;
+    }
+
+    private List<Fact> returnFlow(Invoke callSite, Return exit, Fact d2) {
+        if (d2 == ZERO) {
+            return List.of(ZERO);
+        }
+        Var result = callSite.getResult();
+        if (result != null && exit.getValue() == d2.var()) {
+            return List.of(new Fact(result, d2.source()));
+        }
+        return List.of();
+    }
+
+    private List<Fact> callToReturnFlow(Invoke callSite, Fact d2) {
+        List<Fact> facts = new ArrayList<>(2);
+        Var result = callSite.getResult();
+        if (d2 == ZERO) {
+            facts.add(ZERO);
+            if (result != null && isSource(callSite)) {
+                facts.add(new Fact(result, callSite));
+            }
+            return facts;
+        }
+        if (d2.var() != result) {
+            facts.add(d2);
+        }
+        checkSinks(callSite, d2);
+        InvokeExp invokeExp = callSite.getInvokeExp();
+        JMethod method = callSite.getMethodRef().resolve();
+        for (TaintTransfer transfer : config.getTransfers()) {
+            if (transfer.method() != method ||
+                    getVar(invokeExp, transfer.from()) != d2.var()) {
+                continue;
+            }
+            Var to = getVar(callSite, transfer.to());
+            if (to == null) {
+                continue;
+            }
+            // same type checks as the transfers of taint objects
+            Type type = transfer.to() == TaintTransfer.RESULT ?
+                    callSite.getMethodRef().getReturnType() : to.getType();
+            if (type == transfer.type()) {
+                facts.add(new Fact(to, d2.source()));
+            }
+        }
+        return facts;
+    }
+
+    private boolean isSource(Invoke callSite) {
+        Source source = new Source(callSite.getMethodRef().resolve(),
+                callSite.getMethodRef().getReturnType());
+        return config.getSources().contains(source);
+    }
+
+    private void checkSinks(Invoke callSite, Fact d2) {
+        InvokeExp invokeExp = callSite.getInvokeExp();
+        Set<JMethod> callees = callGraph.getCalleesOf(callSite);
+        Set<JMethod> libCallees = libraryCallees.get(callSite);
+        for (Sink sink : config.getSinks()) {
+            if ((callees.contains(sink.method())
+                    || libCallees.contains(sink.method()))
+                    && sink.index() < invokeExp.getArgCount()
+                    && invokeExp.getArg(sink.index()) == d2.var()) {
+                taintFlows.add(new TaintFlow(d2.source(), callSite, sink.index()));
+            }
+        }
+    }
+
+    /**
+     * @return the variable at given position (an argument index,
+     * {@link TaintTransfer#BASE} or {@link TaintTransfer#RESULT})
+     * of a call site.
+     */
+    private static Var getVar(Invoke callSite, int index) {
+        return index == TaintTransfer.RESULT ? callSite.getResult()
+                : getVar(callSite.getInvokeExp(), index);
+    }
+
+    private static Var getVar(InvokeExp invokeExp, int index) {
+        if (index == TaintTransfer.BASE) {
+            if (invokeExp instanceof InvokeInstanceExp instanceExp) {
+                return instanceExp.getBase();
+            }
+            throw new AnalysisException("invalid taint step");
+        } else if (index >= 0) {
+            return invokeExp.getArg(index);
+        }
+        return null;
+    }
+
+    // ---------- heap ----------
+
+    private List<Fact> genLoad(Var lValue, List<HeapLoc> locs) {
+        List<Fact> facts = new ArrayList<>(1);
+        facts.add(ZERO);
+        for (HeapLoc loc : locs) {
+            for (Invoke source : heapTaints.getOrDefault(loc, Set.of())) {
+                facts.add(new Fact(lValue, source));
+            }
+        }
+        return facts;
+    }
+
+    private void addHeapTaints(List<HeapLoc> locs, Invoke source) {
+        for (HeapLoc loc : locs) {
+            if (!heapTaints.computeIfAbsent(loc, __ -> new HashSet<>()).add(source)) {
+                continue;
+            }
+            // the new taint reaches the loads that have been processed
+            for (Stmt load : loads.getOrDefault(loc, List.of())) {
+                if (getSourceFacts(load, ZERO).contains(ZERO)) {
+                    Var lValue = load.getDef()
+                            .map(Var.class::cast)
+                            .orElseThrow();
+                    Fact fact = new Fact(lValue, source);
+                    getSuccsOf(load).forEach(succ -> propagate(ZERO, succ, fact));
+                }
+            }
+        }
+    }
+
+    private List<HeapLoc> getLocs(LoadField load) {
+        JField field = load.getFieldRef().resolve();
+        if (load.isStatic()) {
+            return List.of(new HeapLoc(null, field));
+        }
+        Var base = ((InstanceFieldAccess) load.getFieldAccess()).getBase();
+        return getLocs(base, field);
+    }
+
+    private List<HeapLoc> getLocs(StoreField store) {
+        JField field = store.getFieldRef().resolve();
+        if (store.isStatic()) {
+            return List.of(new HeapLoc(null, field));
+        }
+        Var base = ((InstanceFieldAccess) store.getFieldAccess()).getBase();
+        return getLocs(base, field);
+    }
+
+    private List<HeapLoc> getLocs(LoadArray load) {
+        return getLocs(load.getArrayAccess().getBase(), null);
+    }
+
+    private List<HeapLoc> getLocs(StoreArray store) {
+        return getLocs(store.getArrayAccess().getBase(), null);
+    }
+
+    /**
+     * @return the locations of given field of the objects pointed to by
+     * {@code base}, which serves as the alias oracle.
+     */
+    private List<HeapLoc> getLocs(Var base, JField field) {
+        return pta.getPointsToSet(base)
+                .stream()
+                .map(obj -> new HeapLoc(obj, field))
+                .toList();
+    }
+
+    // ---------- supergraph ----------
+
+    /**
+     * @return the first statement of given method, or null if the method
+     * has no body. The statements of the method are indexed on first request.
+     */
+    private Stmt getStart(JMethod method) {
+        if (method.isAbstract() || method.isNative()) {
+            return null;
+        }
+        IR ir = method.getIR();
+        if (ir.getStmts().isEmpty()) {
+            return null;
+        }
+        Stmt start = ir.getStmt(0);
+        if (!containers.containsKey(start)) {
+            for (Stmt stmt : ir) {
+                containers.put(stmt, ir);
+                if (stmt instanceof LoadField load) {
+                    getLocs(load).forEach(loc -> addLoad(loc, load));
+                } else if (stmt instanceof LoadArray load) {
+                    getLocs(load).forEach(loc -> addLoad(loc, load));
+                }
+            }
+        }
+        return start;
+    }
+
+    private void addLoad(HeapLoc loc, Stmt load) {
+        loads.computeIfAbsent(loc, __ -> new ArrayList<>()).add(load);
+    }
+
+    /**
+     * @return the intra-procedural successors of given statement.
+     * Exceptional control flows are not considered.
+     */
+    private List<Stmt> getSuccsOf(Stmt stmt) {
+        if (stmt instanceof Goto gotoStmt) {
+            return List.of(gotoStmt.getTarget());
+        } else if (stmt instanceof SwitchStmt switchStmt) {
+            List<Stmt> succs = new ArrayList<>(switchStmt.getTargets());
+            succs.add(switchStmt.getDefaultTarget());
+            return succs;
+        } else if (stmt instanceof Return || stmt instanceof Throw) {
+            return List.of();
+        }
+        IR ir = containers.get(stmt);
+        int next = stmt.getIndex() + 1;
+        Stmt fallThrough = next < ir.getStmts().size() ? ir.getStmt(next) : null;
+        if (stmt instanceof If ifStmt) {
+            return fallThrough == null ? List.of(ifStmt.getTarget())
+                    : List.of(fallThrough, ifStmt.getTarget());
+        }
+        return fallThrough == null ? List.of() : List.of(fallThrough);
+    }
+}
@@ -27,16 +27,21 @@ import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
 import pascal.taie.analysis.pta.core.cs.element.CSManager;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
 import pascal.taie.analysis.pta.core.cs.element.CSVar;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.cs.Solver;
 import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.config.ConfigException;
 import pascal.taie.ir.exp.InvokeInstanceExp;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
 
 import java.util.Set;
 import java.util.TreeSet;
@@ -55,6 +60,12 @@ public class TaintAnalysiss {
 
     private final Context emptyContext;
 
+    /**
+     * Whether taint flows are computed by {@link IFDSTaintSolver} after
+     * pointer analysis, instead of propagating taint objects during it.
+     */
+    private final boolean ifds;
+
     public TaintAnalysiss(Solver solver) {
         manager = new TaintManager();
         this.solver = solver;
@@ -65,12 +76,23 @@ public class TaintAnalysiss {
                 World.get().getClassHierarchy(),
                 World.get().getTypeSystem());
         logger.info(config);
+        String engine = solver.getOptions().getString("taint-engine");
+        if (engine == null || engine.equals("pta")) {
+            ifds = false;
+        } else if (engine.equals("ifds")) {
+            ifds = true;
+        } else {
+            throw new ConfigException("Unknown taint engine: " + engine);
+        }
     }
 
     // TODO - finish me
 
     public void onFinish() {
-        Set<TaintFlow> taintFlows = collectTaintFlows();
+        Set<TaintFlow> taintFlows = ifds ?
+                new IFDSTaintSolver(config, solver.getResult(),
+                        solver.getScope(), getLibraryCallees()).solve() :
+                collectTaintFlows();
         solver.getResult().storeResult(getClass().getName(), taintFlows);
     }
 
@@ -79,23 +101,45 @@ public class TaintAnalysiss {
         PointerAnalysisResult result = solver.getResult();
         // TODO - finish me
         // You could query pointer analysis results you need via variable result.
-        result.getCSCallGraph().edges().forEach(edge -> {
-            config.getSinks().forEach(sink -> {
-                if (sink.method() == edge.getCallee().getMethod()) {
-                    Var var = edge.getCallSite().getCallSite().getInvokeExp().getArg(sink.index());
-                    CSVar csVar = csManager.getCSVar(edge.getCallSite().getContext(), var);
-                    csVar.getPointsToSet().forEach(csObj -> {
-                        if (manager.isTaint(csObj.getObject())) {
-                            taintFlows.add(new TaintFlow((Invoke) csObj.getObject().getAllocation(), edge.getCallSite().getCallSite(), sink.index()));
-                        }
-                    });
-                }
-            });
-        });
+        result.getCSCallGraph().edges().forEach(edge ->
+                collectTaintFlows(edge.getCallSite(),
+                        edge.getCallee().getMethod(), taintFlows));
+        // the callees out of scope have no call edges
+        solver.getLibraryCallees().forEach((csCallSite, callee) ->
+                collectTaintFlows(csCallSite, callee, taintFlows));
         return taintFlows;
     }
 
+    private void collectTaintFlows(CSCallSite csCallSite, JMethod callee,
+                                   Set<TaintFlow> taintFlows) {
+        config.getSinks().forEach(sink -> {
+            if (sink.method() == callee) {
+                Var var = csCallSite.getCallSite().getInvokeExp().getArg(sink.index());
+                CSVar csVar = csManager.getCSVar(csCallSite.getContext(), var);
+                csVar.getPointsToSet().forEach(csObj -> {
+                    if (manager.isTaint(csObj.getObject())) {
+                        taintFlows.add(new TaintFlow((Invoke) csObj.getObject().getAllocation(), csCallSite.getCallSite(), sink.index()));
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * @return the callees out of scope of each call site,
+     * with the contexts of the call sites dropped.
+     */
+    private MultiMap<Invoke, JMethod> getLibraryCallees() {
+        MultiMap<Invoke, JMethod> callees = Maps.newMultiMap();
+        solver.getLibraryCallees().forEach((csCallSite, callee) ->
+                callees.put(csCallSite.getCallSite(), callee));
+        return callees;
+    }
+
     public void checkSource(Invoke invoke, Context callerContext) {
+        if (ifds) {
+            return;
+        }
         // 假定污点的产生一定是方法的返回值
         Var v = invoke.getResult();
         if (v != null) {
@@ -111,6 +155,9 @@ public class TaintAnalysiss {
     }
 
     public void checkTaintStep(Invoke invoke, Context callerContext) {
+        if (ifds) {
+            return;
+        }
         final int BASE = -1;
         final int RESULT = -2;
         Var base = invoke.getInvokeExp() instanceof InvokeInstanceExp ? ((InvokeInstanceExp) invoke.getInvokeExp()).getBase() : null;
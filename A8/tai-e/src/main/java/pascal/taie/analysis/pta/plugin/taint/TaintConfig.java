@@ -52,6 +52,12 @@ class TaintConfig {
 
     private static final Logger logger = LogManager.getLogger(TaintConfig.class);
 
+    /**
+     * Empty configuration, which is used when no config file is given.
+     */
+    private static final TaintConfig EMPTY =
+            new TaintConfig(Set.of(), Set.of(), Set.of());
+
     /**
      * Set of sources.
      */
@@ -77,7 +83,8 @@ class TaintConfig {
     /**
      * Reads a taint analysis configuration from file
      *
-     * @param path       the path to the config file
+     * @param path       the path to the config file, or null if
+     *                   taint analysis is not configured
      * @param hierarchy  the class hierarchy
      * @param typeSystem the type manager
      * @return the TaintConfig object
@@ -85,6 +92,9 @@ class TaintConfig {
      */
     static TaintConfig readConfig(
             String path, ClassHierarchy hierarchy, TypeSystem typeSystem) {
+        if (path == null) {
+            return EMPTY;
+        }
         File file = new File(path);
         ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
         SimpleModule module = new SimpleModule();
@@ -0,0 +1,89 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util;
+
+/**
+ * 64-bit content hashes, which are used to compare analysis results
+ * without comparing their text.
+ * <p>
+ * Hashes of the elements of a collection are combined by
+ * {@link #combine(long, long)}, which does not depend on the order of
+ * the elements, so that the hash of a collection (e.g., the results of
+ * a method, or a points-to set) is a Merkle-style digest of the hashes
+ * of its elements. Equal contents always have equal hashes, and different
+ * contents have different hashes with overwhelming probability, thus
+ * a difference of hashes is always a difference of contents.
+ */
+public final class ContentHash {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ContentHash() {
+    }
+
+    /**
+     * @return the hash of given text.
+     */
+    public static long of(CharSequence s) {
+        return of(s, 0, s.length());
+    }
+
+    /**
+     * @return the hash of {@code s.subSequence(start, end)}.
+     */
+    public static long of(CharSequence s, int start, int end) {
+        // FNV-1a over the UTF-16 code units
+        long h = FNV_OFFSET;
+        for (int i = start; i < end; ++i) {
+            char c = s.charAt(i);
+            h = (h ^ (c & 0xff)) * FNV_PRIME;
+            h = (h ^ (c >>> 8)) * FNV_PRIME;
+        }
+        return h;
+    }
+
+    /**
+     * Adds the hash of an element to the hash of a collection. The element
+     * hash is mixed before it is summed, so that the sum does not cancel
+     * out structured hashes, e.g., the hashes of nested collections.
+     * The result is independent of the order of the elements, and 0 is
+     * the hash of the empty collection.
+     *
+     * @param h    the hash of the collection
+     * @param elem the hash of the element
+     */
+    public static long combine(long h, long elem) {
+        return h + mix(elem);
+    }
+
+    /**
+     * Finalizer of SplitMix64, which spreads the bits of given hash.
+     */
+    private static long mix(long h) {
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+}
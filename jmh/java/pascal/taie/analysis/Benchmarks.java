@@ -0,0 +1,77 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Static utility methods for benchmarks.
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Builds the world for given program and runs given analyses,
+     * so that the benchmarks can reuse the results of the analyses
+     * (e.g., IR and control-flow graphs).
+     *
+     * @param program  the program to be analyzed, in the form of
+     *                 {@code <class-path>/<main-class>}, or a generated
+     *                 program {@code gen:<shape>:<size>},
+     *                 see {@link ProgramGenerator}
+     * @param analyses arguments of the analyses to be executed,
+     *                 e.g., {@code "cfg"} or {@code "cspta=cs:2-obj"}
+     */
+    public static void buildWorld(String program, String... analyses) {
+        program = ProgramGenerator.resolve(program);
+        int i = program.lastIndexOf('/');
+        List<String> args = new ArrayList<>();
+        args.add("-pp");
+        Collections.addAll(args, "-cp", program.substring(0, i));
+        Collections.addAll(args, "-m", program.substring(i + 1));
+        for (String analysis : analyses) {
+            Collections.addAll(args, "-a", analysis);
+        }
+        Main.main(args.toArray(new String[0]));
+    }
+
+    /**
+     * @return the non-abstract methods of the application classes.
+     */
+    public static List<JMethod> getAppMethods() {
+        return World.get()
+                .getClassHierarchy()
+                .applicationClasses()
+                .flatMap(c -> c.getDeclaredMethods().stream())
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .toList();
+    }
+}
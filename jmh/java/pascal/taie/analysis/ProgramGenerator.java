@@ -0,0 +1,453 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Generates synthetic Java programs of given {@link Shape} and size,
+ * so that the benchmarks can measure how the solvers scale.
+ * <p>
+ * The benchmarks accept a generated program in the form of
+ * {@code gen:<shape>:<size>} wherever a program in the form of
+ * {@code <class-path>/<main-class>} is expected, e.g.,
+ * {@code -p program=gen:containers:100,gen:containers:1000,gen:containers:10000}
+ * measures the scaling curve of a solver on container-heavy programs.
+ * The programs are generated to {@code build/jmh-programs}. They can also be
+ * generated by {@code ProgramGenerator <shape> <size> <output-dir>}.
+ */
+public final class ProgramGenerator {
+
+    public static final String PREFIX = "gen:";
+
+    public static final String MAIN_CLASS = "Main";
+
+    /**
+     * File name of the taint configuration of {@link Shape#TAINT} programs.
+     */
+    public static final String TAINT_CONFIG = "taint-config.yml";
+
+    /**
+     * Maximum number of generated methods in a class, and of generated
+     * statements in a method, except for {@link Shape#STRAIGHT_LINE}.
+     */
+    private static final int CHUNK = 100;
+
+    /**
+     * Number of methods in {@link Shape#STRAIGHT_LINE} programs.
+     */
+    private static final int STRAIGHT_LINE_METHODS = 4;
+
+    public enum Shape {
+        /**
+         * Static call chain of {@code size} methods, which all call
+         * a common method. For call graph and inter-procedural analyses.
+         */
+        CALL_CHAIN,
+        /**
+         * Virtual call sites with {@code size} receiver classes.
+         * For call graph construction and pointer analyses.
+         */
+        DISPATCH,
+        /**
+         * {@code size} containers that allocate their nodes and
+         * inner containers, which are distinguished only by
+         * object sensitivity (2-obj).
+         */
+        CONTAINERS,
+        /**
+         * Methods of {@code size} statements with branches and loops.
+         * For intra-procedural data-flow analyses.
+         */
+        STRAIGHT_LINE,
+        /**
+         * Chain of {@code size} methods that propagate a tainted string,
+         * with a sink in every tenth method. Comes with {@link #TAINT_CONFIG}.
+         */
+        TAINT,
+    }
+
+    private ProgramGenerator() {
+    }
+
+    /**
+     * Generates the program if given program is in the form of
+     * {@code gen:<shape>:<size>}.
+     *
+     * @return the program in the form of {@code <class-path>/<main-class>}.
+     */
+    public static String resolve(String program) {
+        if (!program.startsWith(PREFIX)) {
+            return program;
+        }
+        String[] splits = program.substring(PREFIX.length()).split(":");
+        if (splits.length != 2) {
+            throw new IllegalArgumentException("Expected "
+                    + PREFIX + "<shape>:<size>, given: " + program);
+        }
+        Shape shape = toShape(splits[0]);
+        int size = Integer.parseInt(splits[1]);
+        Path dir = Path.of("build", "jmh-programs",
+                shape.name().toLowerCase(Locale.ROOT) + "-" + size);
+        generate(shape, size, dir);
+        return dir + "/" + MAIN_CLASS;
+    }
+
+    /**
+     * @return path of the taint configuration of given {@link Shape#TAINT}
+     * program, which has been resolved by {@link #resolve(String)}.
+     */
+    public static String getTaintConfig(String program) {
+        return Path.of(program).resolveSibling(TAINT_CONFIG).toString();
+    }
+
+    /**
+     * Generates the program of given shape and size to given directory.
+     */
+    public static void generate(Shape shape, int size, Path dir) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Illegal size: " + size);
+        }
+        StringBuilder src = new StringBuilder();
+        switch (shape) {
+            case CALL_CHAIN -> genCallChain(src, size);
+            case DISPATCH -> genDispatch(src, size);
+            case CONTAINERS -> genContainers(src, size);
+            case STRAIGHT_LINE -> genStraightLine(src, size);
+            case TAINT -> genTaint(src, size);
+        }
+        try {
+            Files.createDirectories(dir);
+            Files.writeString(dir.resolve(MAIN_CLASS + ".java"), src);
+            if (shape == Shape.TAINT) {
+                Files.writeString(dir.resolve(TAINT_CONFIG), TAINT_CONFIG_TEXT);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to generate program to " + dir, e);
+        }
+    }
+
+    private static Shape toShape(String s) {
+        return Shape.valueOf(s.toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    /**
+     * Emits {@code Main.main()} that calls static methods
+     * {@code <method>0 ... <method>(n-1)} of class {@code Main}.
+     */
+    private static void genMain(StringBuilder src, String method, int n) {
+        src.append("class Main {\n\n")
+                .append("    public static void main(String[] args) {\n");
+        for (int i = 0; i < n; ++i) {
+            src.append("        ").append(method).append(i).append("();\n");
+        }
+        src.append("    }\n");
+    }
+
+    private static void genCallChain(StringBuilder src, int size) {
+        genMain(src, "start", 1);
+        src.append("""
+
+                    static void start0() {
+                        int r = Chain0.m0(1);
+                    }
+
+                    static int id(int x) {
+                        return x;
+                    }
+                }
+                """);
+        for (int i = 0; i < size; ++i) {
+            if (i % CHUNK == 0) {
+                src.append("\nclass Chain").append(i / CHUNK).append(" {\n");
+            }
+            src.append("\n    static int m").append(i).append("(int x) {\n")
+                    .append("        int y = Main.id(x) + ").append(i).append(";\n")
+                    .append("        if (y > ").append(i).append(") {\n")
+                    .append("            y = y - 1;\n")
+                    .append("        }\n");
+            if (i + 1 < size) {
+                src.append("        return Chain").append((i + 1) / CHUNK)
+                        .append(".m").append(i + 1).append("(y) + 1;\n");
+            } else {
+                src.append("        return y;\n");
+            }
+            src.append("    }\n");
+            if (i % CHUNK == CHUNK - 1 || i + 1 == size) {
+                src.append("}\n");
+            }
+        }
+    }
+
+    private static void genDispatch(StringBuilder src, int size) {
+        int chunks = (size + CHUNK - 1) / CHUNK;
+        src.append("""
+                class Main {
+
+                    public static void main(String[] args) {
+                        Base[] bases = new Base[%d];
+                """.formatted(size));
+        for (int c = 0; c < chunks; ++c) {
+            src.append("        init").append(c).append("(bases);\n");
+        }
+        src.append("""
+                        dispatch(bases);
+                    }
+
+                    static int dispatch(Base[] bases) {
+                        int r = 0;
+                        for (int i = 0; i < bases.length; ++i) {
+                            Base b = bases[i];
+                            r = b.apply(r);
+                            b = b.next();
+                            r = b.apply(r);
+                        }
+                        return r;
+                    }
+                """);
+        for (int c = 0; c < chunks; ++c) {
+            src.append("\n    static void init").append(c).append("(Base[] bases) {\n");
+            for (int i = c * CHUNK; i < Math.min(size, (c + 1) * CHUNK); ++i) {
+                src.append("        bases[").append(i).append("] = new C")
+                        .append(i).append("();\n");
+            }
+            src.append("    }\n");
+        }
+        src.append("""
+                }
+
+                abstract class Base {
+
+                    abstract int apply(int x);
+
+                    abstract Base next();
+                }
+                """);
+        for (int i = 0; i < size; ++i) {
+            src.append("\nclass C").append(i).append(" extends Base {\n\n")
+                    .append("    int apply(int x) {\n")
+                    .append("        return x + ").append(i).append(";\n")
+                    .append("    }\n\n")
+                    .append("    Base next() {\n")
+                    .append("        return new C").append((i + 1) % size).append("();\n")
+                    .append("    }\n")
+                    .append("}\n");
+        }
+    }
+
+    private static void genContainers(StringBuilder src, int size) {
+        int chunks = (size + CHUNK - 1) / CHUNK;
+        genMain(src, "fill", chunks);
+        for (int c = 0; c < chunks; ++c) {
+            src.append("\n    static void fill").append(c).append("() {\n");
+            for (int i = c * CHUNK; i < Math.min(size, (c + 1) * CHUNK); ++i) {
+                String w = "w" + i, o = "o" + i, l = "l" + i;
+                src.append("        Wrapper ").append(w).append(" = new Wrapper();\n")
+                        .append("        ").append(w).append(".put(new Item(")
+                        .append(i).append("));\n")
+                        .append("        Object ").append(o).append(" = ")
+                        .append(w).append(".take();\n")
+                        .append("        Container ").append(l)
+                        .append(" = new Container();\n")
+                        .append("        ").append(l).append(".add(").append(o).append(");\n")
+                        .append("        Item i").append(i).append(" = (Item) ")
+                        .append(l).append(".get();\n");
+            }
+            src.append("    }\n");
+        }
+        src.append("""
+                }
+
+                class Item {
+
+                    int id;
+
+                    Item(int id) {
+                        this.id = id;
+                    }
+                }
+
+                class Node {
+
+                    Object value;
+
+                    Node next;
+                }
+
+                class Container {
+
+                    Node head;
+
+                    void add(Object o) {
+                        Node n = new Node();
+                        n.value = o;
+                        n.next = head;
+                        this.head = n;
+                    }
+
+                    Object get() {
+                        return head.value;
+                    }
+                }
+
+                class Wrapper {
+
+                    Container container;
+
+                    Wrapper() {
+                        this.container = new Container();
+                    }
+
+                    void put(Object o) {
+                        container.add(o);
+                    }
+
+                    Object take() {
+                        return container.get();
+                    }
+                }
+                """);
+    }
+
+    private static void genStraightLine(StringBuilder src, int size) {
+        genMain(src, "run", STRAIGHT_LINE_METHODS);
+        for (int m = 0; m < STRAIGHT_LINE_METHODS; ++m) {
+            src.append("\n    static int run").append(m).append("() {\n")
+                    .append("        int p = ").append(m).append(";\n")
+                    .append("        int v0 = p;\n")
+                    .append("        int v1 = ").append(m + 1).append(";\n");
+            for (int i = 2; i < size; ++i) {
+                String v = "v" + i, v1 = "v" + (i - 1), v2 = "v" + (i - 2);
+                int c = (i + m) % 7 + 1;
+                src.append("        ");
+                if (i % 50 == 49) {
+                    // loop
+                    src.append("int ").append(v).append(" = ").append(v1).append(";\n")
+                            .append("        while (").append(v).append(" < p) {\n")
+                            .append("            ").append(v).append(" = ").append(v)
+                            .append(" + ").append(v2).append(";\n")
+                            .append("        }\n");
+                    continue;
+                }
+                switch (i % 5) {
+                    case 0 -> src.append("int ").append(v).append(" = ")
+                            .append(v1).append(" + ").append(v2).append(";\n");
+                    case 1 -> src.append("int ").append(v).append(" = ")
+                            .append(v1).append(" * ").append(c).append(";\n");
+                    case 2 -> src.append("int ").append(v).append(" = ")
+                            .append(c).append(";\n");
+                    case 3 -> src.append("int ").append(v).append(" = ")
+                            .append(v2).append(" - ").append(v1).append(";\n");
+                    default -> src.append("int ").append(v).append(";\n")
+                            .append("        if (").append(v1).append(" > ")
+                            .append(v2).append(") {\n")
+                            .append("            ").append(v).append(" = ")
+                            .append(v1).append(";\n")
+                            .append("        } else {\n")
+                            .append("            ").append(v).append(" = ")
+                            .append(c).append(";\n")
+                            .append("        }\n");
+                }
+            }
+            src.append("        return v").append(Math.max(size - 1, 1)).append(";\n")
+                    .append("    }\n");
+        }
+        src.append("}\n");
+    }
+
+    private static void genTaint(StringBuilder src, int size) {
+        genMain(src, "flow", 1);
+        src.append("""
+
+                    static void flow0() {
+                        String s = SourceSink.source();
+                        String r = Taint0.t0(s);
+                        SourceSink.sink(r);
+                        String clean = Taint0.t0("clean");
+                    }
+                }
+
+                class SourceSink {
+
+                    static String source() {
+                        return new String();
+                    }
+
+                    static void sink(String s) {
+                    }
+                }
+                """);
+        for (int i = 0; i < size; ++i) {
+            if (i % CHUNK == 0) {
+                src.append("\nclass Taint").append(i / CHUNK).append(" {\n");
+            }
+            src.append("\n    static String t").append(i).append("(String s) {\n");
+            if (i % 2 == 0) {
+                src.append("        String r = s.concat(\"").append(i).append("\");\n");
+            } else {
+                src.append("        StringBuilder sb = new StringBuilder();\n")
+                        .append("        sb.append(s);\n")
+                        .append("        String r = sb.toString();\n");
+            }
+            if (i % 10 == 9) {
+                src.append("        SourceSink.sink(r);\n");
+            }
+            if (i + 1 < size) {
+                src.append("        return Taint").append((i + 1) / CHUNK)
+                        .append(".t").append(i + 1).append("(r);\n");
+            } else {
+                src.append("        return r;\n");
+            }
+            src.append("    }\n");
+            if (i % CHUNK == CHUNK - 1 || i + 1 == size) {
+                src.append("}\n");
+            }
+        }
+    }
+
+    private static final String TAINT_CONFIG_TEXT = """
+            sources:
+              - { method: "<SourceSink: java.lang.String source()>", type: "java.lang.String" }
+
+            sinks:
+              - { method: "<SourceSink: void sink(java.lang.String)>", index: 0 }
+
+            transfers:
+              - { method: "<java.lang.String: java.lang.String concat(java.lang.String)>", from: base, to: result, type: "java.lang.String" }
+              - { method: "<java.lang.String: java.lang.String concat(java.lang.String)>", from: 0, to: result, type: "java.lang.String" }
+              - { method: "<java.lang.StringBuilder: java.lang.StringBuilder append(java.lang.String)>", from: 0, to: base, type: "java.lang.StringBuilder" }
+              - { method: "<java.lang.StringBuilder: java.lang.String toString()>", from: base, to: result, type: "java.lang.String" }
+            """;
+
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            System.err.println("Usage: ProgramGenerator <shape> <size> <output-dir>");
+            System.exit(1);
+        }
+        generate(toShape(args[0]), Integer.parseInt(args[1]), Path.of(args[2]));
+    }
+}